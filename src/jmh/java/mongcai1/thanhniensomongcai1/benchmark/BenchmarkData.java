@@ -0,0 +1,100 @@
+package mongcai1.thanhniensomongcai1.benchmark;
+
+import mongcai1.thanhniensomongcai1.model.Category;
+import mongcai1.thanhniensomongcai1.model.CategoryType;
+import mongcai1.thanhniensomongcai1.model.Location;
+import mongcai1.thanhniensomongcai1.model.Post;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Dữ liệu mẫu cố định (seed cố định) dùng chung cho các benchmark
+ */
+final class BenchmarkData {
+
+    // Centre of Phường Móng Cái 1, same area as the sample data in schema.sql
+    static final double CENTER_LAT = 21.5285;
+    static final double CENTER_LNG = 106.7317;
+
+    private static final String[] WORDS = {
+        "thanh", "niên", "phường", "Móng", "Cái", "hoạt", "động", "cộng", "đồng", "tình", "nguyện",
+        "y", "tế", "giáo", "dục", "thông", "báo", "khẩn", "cấp", "dịch", "vụ", "hành", "chính"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static List<Category> categories(boolean withIds) {
+        List<Category> categories = new ArrayList<>();
+        CategoryType[] types = CategoryType.values();
+        for (int i = 0; i < 8; i++) {
+            Category category = new Category("Danh mục " + i, types[i % types.length],
+                    "Mô tả danh mục " + i, "MapPin");
+            if (withIds) {
+                category.setId((long) i + 1);
+            }
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    static List<Post> posts(List<Category> categories, int count, int contentLength, boolean withIds) {
+        Random random = new Random(42);
+        List<Post> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Post post = new Post("Tin tức " + i + " " + sentence(random, 8), sentence(random, contentLength / 6),
+                    sentence(random, 30), categories.get(i % categories.size()));
+            if (withIds) {
+                post.setId((long) i + 1);
+            }
+            post.setThumbnailUrl("/uploads/" + i + ".jpg");
+            post.setViewCount(random.nextInt(5000));
+            post.setPublishedAt(LocalDateTime.of(2024, 1, 1, 8, 0).plusHours(i));
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    static List<Location> locations(List<Category> categories, int count, boolean withIds) {
+        Random random = new Random(7);
+        List<Location> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Location location = new Location("Địa điểm " + i, i + " Đường Trần Phú, Móng Cái",
+                    sentence(random, 20), categories.get(i % categories.size()));
+            if (withIds) {
+                location.setId((long) i + 1);
+            }
+            // Spread over roughly 20 km around the ward centre
+            location.setLatitude(coordinate(CENTER_LAT + (random.nextDouble() - 0.5) * 0.2));
+            location.setLongitude(coordinate(CENTER_LNG + (random.nextDouble() - 0.5) * 0.2));
+            location.setPhone("033-123-" + (1000 + i % 9000));
+            location.setOpeningHours("Thứ 2 - Thứ 6: 7:30-17:00");
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    static List<String> queries() {
+        return List.of("  Thông báo khẩn cấp ", "y tế", "  TÌNH NGUYỆN", "Hoạt động cộng đồng  ",
+                "giáo dục ", "Đoàn thanh niên phường Móng Cái 1", "dịch vụ hành chính công", "chợ");
+    }
+
+    private static double coordinate(double value) {
+        // Same precision as the DECIMAL(10,8) columns the data used to be stored in
+        return Math.round(value * 1e8) / 1e8;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package mongcai1.thanhniensomongcai1.benchmark;
+
+import jakarta.persistence.EntityManager;
+import mongcai1.thanhniensomongcai1.model.Location;
+import mongcai1.thanhniensomongcai1.model.Post;
+import mongcai1.thanhniensomongcai1.repository.LocationRepository;
+import mongcai1.thanhniensomongcai1.repository.PostRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí của quan hệ Category EAGER khi đọc danh sách Post/Location.
+ * Mỗi lần gọi chạy trong transaction riêng nên cache cấp 1 của Hibernate không che mất các câu SELECT phụ.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryJoinBenchmark {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20, Sort.by("publishedAt").descending());
+
+    private TransactionTemplate readOnly;
+    private EntityManager entityManager;
+    private PostRepository postRepository;
+    private LocationRepository locationRepository;
+
+    @Setup
+    public void setUp(SpringContextState state) {
+        readOnly = new TransactionTemplate(state.bean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        entityManager = state.bean(EntityManager.class);
+        postRepository = state.bean(PostRepository.class);
+        locationRepository = state.bean(LocationRepository.class);
+    }
+
+    // What GET /posts does today: page query + count query + EAGER category loads
+    @Benchmark
+    public Page<Post> postPageEager() {
+        return readOnly.execute(status -> postRepository.findAll(FIRST_PAGE));
+    }
+
+    @Benchmark
+    public List<Post> postPageFetchJoin() {
+        return readOnly.execute(status -> entityManager
+                .createQuery("SELECT p FROM Post p JOIN FETCH p.category ORDER BY p.publishedAt DESC", Post.class)
+                .setMaxResults(20)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<Object[]> postPageProjection() {
+        return readOnly.execute(status -> entityManager
+                .createQuery("SELECT p.id, p.title, p.summary, p.thumbnailUrl, p.publishedAt, c.id, c.name "
+                        + "FROM Post p JOIN p.category c ORDER BY p.publishedAt DESC", Object[].class)
+                .setMaxResults(20)
+                .getResultList());
+    }
+
+    // What GET /locations does today
+    @Benchmark
+    public List<Location> allLocationsEager() {
+        return readOnly.execute(status -> locationRepository.findAll());
+    }
+
+    @Benchmark
+    public List<Object[]> allLocationsProjection() {
+        return readOnly.execute(status -> entityManager
+                .createQuery("SELECT l.id, l.name, l.latitude, l.longitude, l.category.id FROM Location l",
+                        Object[].class)
+                .getResultList());
+    }
+}
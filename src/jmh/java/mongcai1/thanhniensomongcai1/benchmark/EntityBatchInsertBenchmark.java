@@ -0,0 +1,85 @@
+package mongcai1.thanhniensomongcai1.benchmark;
+
+import jakarta.persistence.EntityManager;
+import mongcai1.thanhniensomongcai1.model.Category;
+import mongcai1.thanhniensomongcai1.model.CategoryType;
+import mongcai1.thanhniensomongcai1.model.Location;
+import mongcai1.thanhniensomongcai1.repository.CategoryRepository;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ghi entity qua Hibernate khi tắt (1) và bật (50, như hibernate.jdbc.batch_size) JDBC batch.
+ * Id cấp theo khối từ id_sequences nên Hibernate không phải chờ id sau từng câu INSERT như với IDENTITY.
+ * Kết quả là thời gian cho mỗi dòng; trên MySQL qua mạng chênh lệch lớn hơn nhiều so với H2 in-memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityBatchInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({ "1", "50" })
+    public int jdbcBatchSize;
+
+    private TransactionTemplate transaction;
+    private EntityManager entityManager;
+    private Long categoryId;
+    private Long lastSeededId;
+
+    @Setup
+    public void setUp(SpringContextState state) {
+        transaction = new TransactionTemplate(state.bean(PlatformTransactionManager.class));
+        entityManager = state.bean(EntityManager.class);
+        categoryId = state.bean(CategoryRepository.class).findByTypeOrderByNameAsc(CategoryType.LOCATION)
+                .get(0).getId();
+        lastSeededId = transaction.execute(status -> entityManager
+                .createQuery("SELECT MAX(l.id) FROM Location l", Long.class).getSingleResult());
+    }
+
+    // Every iteration starts from the seeded table, so index growth does not skew later iterations
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        transaction.executeWithoutResult(status -> entityManager
+                .createQuery("DELETE FROM Location l WHERE l.id > :lastSeededId")
+                .setParameter("lastSeededId", lastSeededId)
+                .executeUpdate());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Long> insertLocations() {
+        return transaction.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            Category category = entityManager.getReference(Category.class, categoryId);
+            List<Location> locations = BenchmarkData.locations(List.of(category), ROWS, false);
+            locations.forEach(entityManager::persist);
+            entityManager.flush();
+            // Keeps the persistence context (and the next flush) the same size on every invocation
+            entityManager.clear();
+            return locations.stream().map(Location::getId).toList();
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package mongcai1.thanhniensomongcai1.benchmark;
+
+import mongcai1.thanhniensomongcai1.model.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lọc địa điểm theo khung bản đồ và theo bán kính trên danh sách trong bộ nhớ.
+ * So sánh tọa độ Double (boxed) của entity với mảng double, và haversine toàn bộ với lọc khung bao trước.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoFilterBenchmark {
+
+    private static final double EARTH_RADIUS_M = 6_371_008.8;
+
+    @Param({ "1000", "100000" })
+    public int locationCount;
+
+    // Search radius around the ward centre
+    @Param({ "2000" })
+    public double radiusMeters;
+
+    private List<Location> locations;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    private double minLat;
+    private double maxLat;
+    private double minLng;
+    private double maxLng;
+
+    @Setup
+    public void setUp() {
+        locations = BenchmarkData.locations(BenchmarkData.categories(true), locationCount, true);
+        latitudes = new double[locationCount];
+        longitudes = new double[locationCount];
+        for (int i = 0; i < locationCount; i++) {
+            latitudes[i] = locations.get(i).getLatitude().doubleValue();
+            longitudes[i] = locations.get(i).getLongitude().doubleValue();
+        }
+        // A viewport of about 4 km x 4 km, as the map page would request
+        minLat = BenchmarkData.CENTER_LAT - 0.018;
+        maxLat = BenchmarkData.CENTER_LAT + 0.018;
+        minLng = BenchmarkData.CENTER_LNG - 0.019;
+        maxLng = BenchmarkData.CENTER_LNG + 0.019;
+    }
+
+    @Benchmark
+    public int boundsEntityBoxed() {
+        int count = 0;
+        for (Location location : locations) {
+            double lat = location.getLatitude();
+            double lng = location.getLongitude();
+            if (lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int boundsPrimitiveArrays() {
+        int count = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            double lat = latitudes[i];
+            double lng = longitudes[i];
+            if (lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int radiusHaversineAll() {
+        int count = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            if (haversine(BenchmarkData.CENTER_LAT, BenchmarkData.CENTER_LNG, latitudes[i], longitudes[i])
+                    <= radiusMeters) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int radiusBoundingBoxThenHaversine() {
+        double latDelta = Math.toDegrees(radiusMeters / EARTH_RADIUS_M);
+        double lngDelta = latDelta / Math.cos(Math.toRadians(BenchmarkData.CENTER_LAT));
+        double south = BenchmarkData.CENTER_LAT - latDelta;
+        double north = BenchmarkData.CENTER_LAT + latDelta;
+        double west = BenchmarkData.CENTER_LNG - lngDelta;
+        double east = BenchmarkData.CENTER_LNG + lngDelta;
+        int count = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            double lat = latitudes[i];
+            double lng = longitudes[i];
+            if (lat < south || lat > north || lng < west || lng > east) {
+                continue;
+            }
+            if (haversine(BenchmarkData.CENTER_LAT, BenchmarkData.CENTER_LNG, lat, lng) <= radiusMeters) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static double haversine(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
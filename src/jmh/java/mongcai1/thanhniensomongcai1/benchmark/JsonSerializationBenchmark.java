@@ -0,0 +1,123 @@
+package mongcai1.thanhniensomongcai1.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import mongcai1.thanhniensomongcai1.model.Category;
+import mongcai1.thanhniensomongcai1.model.Location;
+import mongcai1.thanhniensomongcai1.model.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Chi phí serialize JSON: entity đầy đủ (kèm Category EAGER) so với projection chỉ gồm các trường trang danh sách cần.
+ * ObjectMapper được cấu hình giống ứng dụng (NON_NULL, không fail-on-empty-beans, ngày dạng ISO).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    // Size of a post body in characters; the list pages ship the full content today
+    @Param({ "2000", "20000" })
+    public int contentLength;
+
+    private ObjectMapper objectMapper;
+    private List<Post> postPage;
+    private List<PostListItem> postPageProjection;
+    private List<Location> locations;
+    private List<LocationMarker> locationMarkers;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        List<Category> categories = BenchmarkData.categories(true);
+        postPage = BenchmarkData.posts(categories, 20, contentLength, true);
+        postPageProjection = postPage.stream().map(PostListItem::new).collect(Collectors.toList());
+        locations = BenchmarkData.locations(categories, 500, true);
+        locationMarkers = locations.stream().map(LocationMarker::new).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] postPageEntity() throws Exception {
+        return objectMapper.writeValueAsBytes(postPage);
+    }
+
+    @Benchmark
+    public byte[] postPageProjection() throws Exception {
+        return objectMapper.writeValueAsBytes(postPageProjection);
+    }
+
+    @Benchmark
+    public byte[] locationsEntity() throws Exception {
+        return objectMapper.writeValueAsBytes(locations);
+    }
+
+    @Benchmark
+    public byte[] locationsProjection() throws Exception {
+        return objectMapper.writeValueAsBytes(locationMarkers);
+    }
+
+    // Fields the post list view actually renders
+    public static class PostListItem {
+        public final Long id;
+        public final String title;
+        public final String summary;
+        public final String thumbnailUrl;
+        public final Integer viewCount;
+        public final LocalDateTime publishedAt;
+        public final Long categoryId;
+        public final String categoryName;
+
+        PostListItem(Post post) {
+            this.id = post.getId();
+            this.title = post.getTitle();
+            this.summary = post.getSummary();
+            this.thumbnailUrl = post.getThumbnailUrl();
+            this.viewCount = post.getViewCount();
+            this.publishedAt = post.getPublishedAt();
+            this.categoryId = post.getCategory().getId();
+            this.categoryName = post.getCategory().getName();
+        }
+    }
+
+    // Fields a map marker needs
+    public static class LocationMarker {
+        public final Long id;
+        public final String name;
+        public final Double latitude;
+        public final Double longitude;
+        public final Long categoryId;
+
+        LocationMarker(Location location) {
+            this.id = location.getId();
+            this.name = location.getName();
+            this.latitude = location.getLatitude();
+            this.longitude = location.getLongitude();
+            this.categoryId = location.getCategory().getId();
+        }
+    }
+}
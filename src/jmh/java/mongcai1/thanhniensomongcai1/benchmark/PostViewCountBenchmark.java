@@ -0,0 +1,63 @@
+package mongcai1.thanhniensomongcai1.benchmark;
+
+import mongcai1.thanhniensomongcai1.model.Post;
+import mongcai1.thanhniensomongcai1.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đường đọc chi tiết bài viết: PostService.getPostById (SELECT + UPDATE view_count + SELECT lại)
+ * so với getPostByIdNoIncrement. Chạy nhiều luồng để thấy tranh chấp khóa dòng khi cùng tăng lượt xem.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class PostViewCountBenchmark {
+
+    private PostService postService;
+    private List<Long> postIds;
+
+    @Setup
+    public void setUp(SpringContextState state) {
+        postService = state.bean(PostService.class);
+        postIds = state.postIds;
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        Long nextId(List<Long> ids) {
+            // Skewed towards the first ids, like a front page where a few posts get most views
+            int index = (next++ % 10 < 7) ? next % 5 : next % ids.size();
+            return ids.get(index);
+        }
+    }
+
+    @Benchmark
+    public Optional<Post> getPostByIdWithViewCount(Cursor cursor) {
+        return postService.getPostById(cursor.nextId(postIds));
+    }
+
+    @Benchmark
+    public Optional<Post> getPostByIdNoIncrement(Cursor cursor) {
+        return postService.getPostByIdNoIncrement(cursor.nextId(postIds));
+    }
+}
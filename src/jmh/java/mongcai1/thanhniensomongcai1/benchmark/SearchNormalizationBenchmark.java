@@ -0,0 +1,96 @@
+package mongcai1.thanhniensomongcai1.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hóa từ khóa tìm kiếm.
+ * PostService/LocationService hiện chỉ trim(); các phương án còn lại (chữ thường, bỏ dấu tiếng Việt)
+ * là ứng viên để so sánh chi phí trước khi đưa vào tìm kiếm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchNormalizationBenchmark {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final char[] FOLD_TABLE = buildFoldTable();
+
+    private List<String> queries;
+
+    @Setup
+    public void setUp() {
+        queries = BenchmarkData.queries();
+    }
+
+    // Current behaviour of PostService.searchPosts / LocationService.searchLocations
+    @Benchmark
+    public void trimOnly(Blackhole bh) {
+        for (String query : queries) {
+            bh.consume(query.trim());
+        }
+    }
+
+    @Benchmark
+    public void trimLowerCase(Blackhole bh) {
+        for (String query : queries) {
+            bh.consume(query.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @Benchmark
+    public void foldDiacriticsRegex(Blackhole bh) {
+        for (String query : queries) {
+            String decomposed = Normalizer.normalize(query.trim().toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+            bh.consume(COMBINING_MARKS.matcher(decomposed).replaceAll("").replace('đ', 'd'));
+        }
+    }
+
+    @Benchmark
+    public void foldDiacriticsTable(Blackhole bh) {
+        for (String query : queries) {
+            bh.consume(foldWithTable(query));
+        }
+    }
+
+    private static String foldWithTable(String query) {
+        String trimmed = query.trim();
+        char[] out = new char[trimmed.length()];
+        for (int i = 0; i < out.length; i++) {
+            char c = Character.toLowerCase(trimmed.charAt(i));
+            out[i] = c < FOLD_TABLE.length ? FOLD_TABLE[c] : c;
+        }
+        return new String(out);
+    }
+
+    // Lookup table for Latin-1 and Latin Extended Additional (U+1E00..U+1EFF covers Vietnamese)
+    private static char[] buildFoldTable() {
+        char[] table = new char[0x1F00];
+        for (char c = 0; c < table.length; c++) {
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            table[c] = decomposed.isEmpty() ? c : decomposed.charAt(0);
+        }
+        table['đ'] = 'd';
+        table['Đ'] = 'D';
+        return table;
+    }
+}
@@ -0,0 +1,72 @@
+package mongcai1.thanhniensomongcai1.benchmark;
+
+import mongcai1.thanhniensomongcai1.Thanhniensomongcai1Application;
+import mongcai1.thanhniensomongcai1.model.Category;
+import mongcai1.thanhniensomongcai1.model.Location;
+import mongcai1.thanhniensomongcai1.model.Post;
+import mongcai1.thanhniensomongcai1.repository.CategoryRepository;
+import mongcai1.thanhniensomongcai1.repository.LocationRepository;
+import mongcai1.thanhniensomongcai1.repository.PostRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+/**
+ * Spring context đầy đủ trên H2 in-memory, nạp sẵn dữ liệu mẫu; dùng chung cho các benchmark truy cập CSDL
+ */
+@State(Scope.Benchmark)
+public class SpringContextState {
+
+    static final int POST_COUNT = 500;
+    static final int LOCATION_COUNT = 300;
+
+    ConfigurableApplicationContext context;
+    List<Long> postIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(Thanhniensomongcai1Application.class)
+                .web(WebApplicationType.NONE)
+                // Passed as arguments so they override application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.sql.init.mode=never",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.mongcai1.thanhniensomongcai1=WARN",
+                        "--spring.devtools.restart.enabled=false",
+                        "--app.upload.gc.enabled=false");
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed() {
+        List<Category> categories = bean(CategoryRepository.class).saveAll(BenchmarkData.categories(false));
+        List<Post> posts = bean(PostRepository.class)
+                .saveAll(BenchmarkData.posts(categories, POST_COUNT, 3000, false));
+        List<Location> locations = BenchmarkData.locations(categories, LOCATION_COUNT, false);
+        bean(LocationRepository.class).saveAll(locations);
+        postIds = posts.stream().map(Post::getId).toList();
+    }
+}
@@ -0,0 +1,89 @@
+package mongcai1.thanhniensomongcai1.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import mongcai1.thanhniensomongcai1.model.Category;
+import mongcai1.thanhniensomongcai1.model.Location;
+import mongcai1.thanhniensomongcai1.model.Post;
+import mongcai1.thanhniensomongcai1.wire.CategoryReferences;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí serialize các trang danh sách theo định dạng (Accept) và dạng phản hồi (?categories=id).
+ * Kích thước payload của từng tổ hợp được in ra khi setup, cạnh kết quả thời gian.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({ "json", "cbor", "smile" })
+    public String format;
+
+    @Param({ "nested", "categoryTable" })
+    public String shape;
+
+    private ObjectMapper objectMapper;
+    private Object postPage;
+    private Object locations;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = configure(switch (format) {
+            case "cbor" -> CBORMapper.builder();
+            case "smile" -> SmileMapper.builder();
+            default -> JsonMapper.builder();
+        });
+        List<Category> categories = BenchmarkData.categories(true);
+        List<Post> posts = BenchmarkData.posts(categories, 20, 2000, true);
+        // List endpoints leave the body out (it lives in post_bodies)
+        posts.forEach(post -> post.setContent(null));
+        List<Location> locationList = BenchmarkData.locations(categories, 500, true);
+        boolean categoryTable = "categoryTable".equals(shape);
+        postPage = categoryTable ? CategoryReferences.normalize(posts) : posts;
+        locations = categoryTable ? CategoryReferences.normalize(locationList) : locationList;
+        System.out.printf("%n%s/%s payload: postPage=%d B, locations=%d B%n", format, shape,
+                objectMapper.writeValueAsBytes(postPage).length, objectMapper.writeValueAsBytes(locations).length);
+    }
+
+    // Same settings as the application's mapper (spring.jackson.*) plus the category references module
+    private static ObjectMapper configure(MapperBuilder<?, ?> builder) {
+        return builder.findAndAddModules()
+                .addModule(CategoryReferences.module())
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] postPage() throws Exception {
+        return objectMapper.writeValueAsBytes(postPage);
+    }
+
+    @Benchmark
+    public byte[] locations() throws Exception {
+        return objectMapper.writeValueAsBytes(locations);
+    }
+}
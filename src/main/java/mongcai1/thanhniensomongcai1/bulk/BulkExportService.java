@@ -0,0 +1,157 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import mongcai1.thanhniensomongcai1.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Xuất bài viết/địa điểm ra NDJSON, CSV hoặc GeoJSON.
+ *
+ * Dữ liệu được đọc theo trang keyset (id > id cuối của trang trước) và ghi thẳng ra luồng trả về
+ * sau mỗi trang, nên bộ nhớ dùng không phụ thuộc số dòng của bảng.
+ */
+@Service
+public class BulkExportService {
+
+    @Autowired
+    private BulkTables bulkTables;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    @Value("${app.bulk.export.page-size:500}")
+    private int pageSize;
+
+    /**
+     * Kiểm tra bảng và định dạng trước khi bắt đầu ghi phản hồi; IllegalArgumentException nếu không hợp lệ
+     */
+    public void checkExportable(String target, BulkFormat format) {
+        BulkTable<?> table = bulkTables.get(target);
+        if (format == BulkFormat.GEOJSON && !table.hasCoordinates()) {
+            throw new IllegalArgumentException("Chỉ xuất được GeoJSON cho dữ liệu có tọa độ");
+        }
+    }
+
+    public void export(String target, BulkFormat format, OutputStream out) throws IOException {
+        checkExportable(target, format);
+        BulkTable<?> table = bulkTables.get(target);
+        CategoryLookup categories = new CategoryLookup(categoryRepository.findByTypeOrderByNameAsc(table.categoryType()));
+        switch (format) {
+            case NDJSON -> writeNdjson(table, categories, out);
+            case CSV -> writeCsv(table, categories, out);
+            case GEOJSON -> writeGeoJson(table, categories, out);
+        }
+    }
+
+    private void writeNdjson(BulkTable<?> table, CategoryLookup categories, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Without a separator the root values would be written space-separated
+            generator.setRootValueSeparator(null);
+            long afterId = 0;
+            List<Map<String, Object>> page;
+            do {
+                page = table.exportPage(jdbcTemplate, afterId, pageSize, categories);
+                for (Map<String, Object> row : page) {
+                    objectMapper.writeValue(generator, row);
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+                afterId = lastId(page, afterId);
+            } while (page.size() == pageSize);
+        }
+    }
+
+    private void writeCsv(BulkTable<?> table, CategoryLookup categories, OutputStream out) throws IOException {
+        CsvSchema.Builder schema = CsvSchema.builder().setUseHeader(true);
+        table.exportColumns().forEach(schema::addColumn);
+        try (SequenceWriter writer = csvMapper.writer(schema.build())
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(out)) {
+            long afterId = 0;
+            List<Map<String, Object>> page;
+            do {
+                page = table.exportPage(jdbcTemplate, afterId, pageSize, categories);
+                for (Map<String, Object> row : page) {
+                    writer.write(row);
+                }
+                writer.flush();
+                afterId = lastId(page, afterId);
+            } while (page.size() == pageSize);
+        }
+    }
+
+    private void writeGeoJson(BulkTable<?> table, CategoryLookup categories, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("type", "FeatureCollection");
+            generator.writeArrayFieldStart("features");
+            long afterId = 0;
+            List<Map<String, Object>> page;
+            do {
+                page = table.exportPage(jdbcTemplate, afterId, pageSize, categories);
+                for (Map<String, Object> row : page) {
+                    writeFeature(generator, row);
+                }
+                generator.flush();
+                afterId = lastId(page, afterId);
+            } while (page.size() == pageSize);
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeFeature(JsonGenerator generator, Map<String, Object> row) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "Feature");
+        generator.writeObjectField("id", row.get("id"));
+        Object latitude = row.get("latitude");
+        Object longitude = row.get("longitude");
+        if (latitude != null && longitude != null) {
+            // GeoJSON positions are [longitude, latitude]
+            generator.writeObjectFieldStart("geometry");
+            generator.writeStringField("type", "Point");
+            generator.writeArrayFieldStart("coordinates");
+            generator.writeObject(longitude);
+            generator.writeObject(latitude);
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } else {
+            generator.writeNullField("geometry");
+        }
+        generator.writeObjectFieldStart("properties");
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            String column = entry.getKey();
+            if (!column.equals("id") && !column.equals("latitude") && !column.equals("longitude")) {
+                generator.writeObjectField(column, entry.getValue());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private static long lastId(List<Map<String, Object>> page, long afterId) {
+        return page.isEmpty() ? afterId : ((Number) page.get(page.size() - 1).get("id")).longValue();
+    }
+}
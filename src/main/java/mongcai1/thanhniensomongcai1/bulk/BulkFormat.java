@@ -0,0 +1,58 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import java.util.Locale;
+
+/**
+ * Định dạng nhập/xuất hàng loạt. NDJSON và CSV dùng được cho cả hai chiều, GeoJSON chỉ để xuất địa điểm.
+ */
+public enum BulkFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv"),
+    GEOJSON("application/geo+json", "geojson");
+
+    private final String mediaType;
+    private final String extension;
+
+    BulkFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * Định dạng theo tên (ndjson, csv, geojson)
+     */
+    public static BulkFormat of(String name) {
+        for (BulkFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Định dạng không được hỗ trợ: " + name);
+    }
+
+    /**
+     * Định dạng dữ liệu nhập theo Content-Type, null nếu không nhận ra
+     */
+    public static BulkFormat fromContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith("text/csv")) {
+            return CSV;
+        }
+        if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) {
+            return NDJSON;
+        }
+        return null;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
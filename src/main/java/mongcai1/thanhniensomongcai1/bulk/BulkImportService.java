@@ -0,0 +1,252 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import mongcai1.thanhniensomongcai1.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Nhập bài viết/địa điểm hàng loạt từ NDJSON hoặc CSV.
+ *
+ * Dữ liệu gửi lên được ghi ra file tạm rồi xử lý trên bulkImportExecutor, request trả về ngay
+ * mã lượt nhập. File được đọc tuần tự từng dòng; danh mục tra trong bảng nạp sẵn một lần; dòng
+ * hợp lệ được gom thành lô batch-size dòng, mỗi lô một batch INSERT trong một transaction.
+ * Khi một lô bị CSDL từ chối, lô đó được ghi lại từng dòng để biết chính xác dòng nào lỗi.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    @Autowired
+    private BulkTables bulkTables;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    @Qualifier("bulkImportExecutor")
+    private ThreadPoolTaskExecutor bulkImportExecutor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.bulk.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.bulk.import.max-size:100MB}")
+    private DataSize maxSize;
+
+    @Value("${app.bulk.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${app.bulk.import.retained-jobs:50}")
+    private int retainedJobs;
+
+    // Most recent jobs, oldest first
+    private final Map<String, ImportJob> jobs = new LinkedHashMap<>();
+
+    public BulkImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Nhận dữ liệu và xếp lượt nhập vào hàng đợi.
+     * IllegalArgumentException nếu bảng/định dạng không hợp lệ hoặc dữ liệu quá lớn,
+     * IllegalStateException nếu hàng đợi đã đầy.
+     */
+    public ImportJob submit(String target, BulkFormat format, InputStream body) throws IOException {
+        BulkTable<?> table = bulkTables.get(target);
+        if (format == BulkFormat.GEOJSON) {
+            throw new IllegalArgumentException("Chỉ hỗ trợ nhập NDJSON hoặc CSV");
+        }
+        Path file = spool(body, format);
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), table.name(), format, maxReportedErrors);
+        register(job);
+        try {
+            bulkImportExecutor.execute(() -> run(job, table, file));
+        } catch (TaskRejectedException e) {
+            synchronized (jobs) {
+                jobs.remove(job.getId());
+            }
+            Files.deleteIfExists(file);
+            throw new IllegalStateException("Đang có quá nhiều lượt nhập dữ liệu, vui lòng thử lại sau");
+        }
+        return job;
+    }
+
+    public ImportJob getJob(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    public List<ImportJob> getJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    public long getMaxSize() {
+        return maxSize.toBytes();
+    }
+
+    private Path spool(InputStream body, BulkFormat format) throws IOException {
+        Path file = Files.createTempFile("bulk-import-", "." + format.getExtension());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            long total = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > maxSize.toBytes()) {
+                    throw new IllegalArgumentException("Dữ liệu nhập vượt quá giới hạn " + maxSize.toMegabytes() + " MB");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private void register(ImportJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            Iterator<ImportJob> oldest = jobs.values().iterator();
+            while (jobs.size() > retainedJobs && oldest.hasNext()) {
+                if (oldest.next().isFinished()) {
+                    oldest.remove();
+                }
+            }
+        }
+    }
+
+    private <T> void run(ImportJob job, BulkTable<T> table, Path file) {
+        job.start();
+        long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(file);
+             RowReader reader = job.getFormat() == BulkFormat.CSV
+                     ? RowReader.csv(in) : RowReader.ndjson(in, objectMapper)) {
+            CategoryLookup categories = new CategoryLookup(
+                    categoryRepository.findByTypeOrderByNameAsc(table.categoryType()));
+            List<PendingRow<T>> chunk = new ArrayList<>(batchSize);
+            long row = 0;
+            while (true) {
+                Map<String, Object> values;
+                try {
+                    values = reader.next();
+                } catch (RowFormatException e) {
+                    job.rowRead();
+                    job.rowFailed(++row, e.getMessage());
+                    continue;
+                }
+                if (values == null) {
+                    break;
+                }
+                job.rowRead();
+                row++;
+                try {
+                    T record = table.fromRow(values, categories);
+                    validate(record);
+                    chunk.add(new PendingRow<>(row, record));
+                } catch (IllegalArgumentException e) {
+                    job.rowFailed(row, e.getMessage());
+                    continue;
+                }
+                if (chunk.size() == batchSize) {
+                    write(job, table, chunk);
+                    chunk.clear();
+                }
+            }
+            write(job, table, chunk);
+            job.complete();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Bulk import {} into {} stopped", job.getId(), table.name(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled import {}", file, e);
+            }
+        }
+        if (job.getRowsImported() > 0) {
+            table.afterImport();
+        }
+        log.info("Bulk import {} into {}: {} rows imported, {} failed in {} ms", job.getId(), table.name(),
+                job.getRowsImported(), job.getRowsFailed(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void validate(Object record) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(record);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private <T> void write(ImportJob job, BulkTable<T> table, List<PendingRow<T>> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<T> records = chunk.stream().map(PendingRow::record).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> table.insert(jdbcTemplate, records));
+            job.rowsImported(records.size());
+        } catch (DataAccessException e) {
+            // One rejected row fails the whole batch: retry row by row to report which one
+            for (PendingRow<T> pending : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(
+                            status -> table.insert(jdbcTemplate, List.of(pending.record())));
+                    job.rowsImported(1);
+                } catch (DataAccessException rowError) {
+                    job.rowFailed(pending.row(), NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    private record PendingRow<T>(long row, T record) {
+    }
+}
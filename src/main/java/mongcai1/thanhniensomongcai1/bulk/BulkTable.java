@@ -0,0 +1,62 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import mongcai1.thanhniensomongcai1.model.CategoryType;
+import mongcai1.thanhniensomongcai1.repository.IdBlockAllocator;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Một bảng nhập/xuất hàng loạt được: chuyển dòng dữ liệu thành entity (để kiểm tra bằng Bean Validation),
+ * ghi cả lô bằng một batch JDBC, và đọc ra theo trang keyset trên id.
+ * Tên cột nhập và xuất giống nhau, nên file xuất ra nhập lại được.
+ */
+interface BulkTable<T> {
+
+    /**
+     * Tên dùng trong URL: /api/bulk/{name}/...
+     */
+    String name();
+
+    CategoryType categoryType();
+
+    /**
+     * Entity từ một dòng nhập; IllegalArgumentException nếu giá trị sai
+     */
+    T fromRow(Map<String, Object> row, CategoryLookup categories);
+
+    /**
+     * Ghi một lô bằng batch JDBC, trong transaction của người gọi
+     */
+    void insert(JdbcTemplate jdbcTemplate, List<T> records);
+
+    /**
+     * Sau khi lượt nhập ghi xong ít nhất một dòng
+     */
+    default void afterImport() {
+    }
+
+    List<String> exportColumns();
+
+    /**
+     * Tối đa limit dòng có id > afterId theo thứ tự id, mỗi dòng theo thứ tự exportColumns()
+     */
+    List<Map<String, Object>> exportPage(JdbcTemplate jdbcTemplate, long afterId, int limit, CategoryLookup categories);
+
+    default boolean hasCoordinates() {
+        return false;
+    }
+
+    /**
+     * Giữ một khối id cho lô sắp ghi, cùng bộ đếm với Hibernate
+     */
+    static long reserveIds(IdBlockAllocator idBlockAllocator, JdbcTemplate jdbcTemplate, String sequence, int count) {
+        try {
+            return idBlockAllocator.reserve(sequence, count);
+        } catch (SQLException e) {
+            throw jdbcTemplate.getExceptionTranslator().translate("Reserve " + sequence + " ids", null, e);
+        }
+    }
+}
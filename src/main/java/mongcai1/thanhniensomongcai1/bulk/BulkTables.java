@@ -0,0 +1,31 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Các bảng nhập/xuất được, tra theo tên trong URL
+ */
+@Component
+class BulkTables {
+
+    private final Map<String, BulkTable<?>> tables = new LinkedHashMap<>();
+
+    BulkTables(List<BulkTable<?>> tables) {
+        for (BulkTable<?> table : tables) {
+            this.tables.put(table.name(), table);
+        }
+    }
+
+    BulkTable<?> get(String name) {
+        BulkTable<?> table = tables.get(name);
+        if (table == null) {
+            throw new IllegalArgumentException("Không hỗ trợ nhập/xuất cho: " + name
+                    + " (chỉ " + String.join(", ", tables.keySet()) + ")");
+        }
+        return table;
+    }
+}
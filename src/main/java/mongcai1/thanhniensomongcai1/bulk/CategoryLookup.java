@@ -0,0 +1,52 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import mongcai1.thanhniensomongcai1.model.Category;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Danh mục của một loại, nạp một lần cho cả lượt nhập/xuất thay vì tra CSDL cho từng dòng.
+ * Dòng dữ liệu chỉ ra danh mục bằng categoryId hoặc tên (category).
+ */
+class CategoryLookup {
+
+    private final Map<Long, Category> byId = new HashMap<>();
+    private final Map<String, Category> byName = new HashMap<>();
+
+    CategoryLookup(List<Category> categories) {
+        for (Category category : categories) {
+            byId.put(category.getId(), category);
+            byName.putIfAbsent(key(category.getName()), category);
+        }
+    }
+
+    Category resolve(Long id, String name) {
+        if (id != null) {
+            Category category = byId.get(id);
+            if (category == null) {
+                throw new IllegalArgumentException("Danh mục không tồn tại: " + id);
+            }
+            return category;
+        }
+        if (name != null) {
+            Category category = byName.get(key(name));
+            if (category == null) {
+                throw new IllegalArgumentException("Danh mục không tồn tại: " + name);
+            }
+            return category;
+        }
+        throw new IllegalArgumentException("Danh mục không được để trống");
+    }
+
+    String nameOf(Long id) {
+        Category category = byId.get(id);
+        return category != null ? category.getName() : null;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
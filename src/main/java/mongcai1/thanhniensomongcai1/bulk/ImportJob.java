@@ -0,0 +1,97 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trạng thái một lượt nhập hàng loạt, trả về cho GET /api/bulk/imports/{id}.
+ * Các dòng lỗi được liệt kê kèm số thứ tự dòng (không tính dòng tiêu đề CSV), tối đa maxReportedErrors dòng.
+ */
+public class ImportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    public record RowError(long row, String message) {
+    }
+
+    private final String id;
+    private final String target;
+    private final BulkFormat format;
+    private final int maxReportedErrors;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final List<RowError> errors = new ArrayList<>();
+
+    ImportJob(String id, String target, BulkFormat format, int maxReportedErrors) {
+        this.id = id;
+        this.target = target;
+        this.format = format;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void rowsImported(int count) {
+        rowsImported.addAndGet(count);
+    }
+
+    void rowFailed(long row, String message) {
+        rowsFailed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(row, message));
+            }
+        }
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void fail(String message) {
+        error = message;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getTarget() { return target; }
+    public BulkFormat getFormat() { return format; }
+    public Status getStatus() { return status; }
+    public Instant getSubmittedAt() { return submittedAt; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public String getError() { return error; }
+    public long getRowsRead() { return rowsRead.get(); }
+    public long getRowsImported() { return rowsImported.get(); }
+    public long getRowsFailed() { return rowsFailed.get(); }
+
+    public List<RowError> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import mongcai1.thanhniensomongcai1.maps.LocationMapService;
+import mongcai1.thanhniensomongcai1.model.CategoryType;
+import mongcai1.thanhniensomongcai1.model.Location;
+import mongcai1.thanhniensomongcai1.repository.IdBlockAllocator;
+import mongcai1.thanhniensomongcai1.wire.PrecompressedResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nhập/xuất địa điểm
+ */
+@Component
+class LocationTable implements BulkTable<Location> {
+
+    private static final String INSERT_SQL = "INSERT INTO locations (id, name, address, description, image_url,"
+            + " latitude, longitude, phone, email, website, opening_hours, is_active, category_id,"
+            + " created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String EXPORT_SQL = "SELECT id, name, address, description, image_url, latitude, longitude,"
+            + " phone, email, website, opening_hours, is_active, category_id"
+            + " FROM locations WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final List<String> COLUMNS = List.of("id", "name", "address", "description", "imageUrl",
+            "latitude", "longitude", "phone", "email", "website", "openingHours", "isActive", "categoryId", "category");
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    @Autowired
+    private LocationMapService locationMapService;
+
+    @Autowired
+    private PrecompressedResponses precompressedResponses;
+
+    @Override
+    public String name() {
+        return "locations";
+    }
+
+    @Override
+    public CategoryType categoryType() {
+        return CategoryType.LOCATION;
+    }
+
+    @Override
+    public Location fromRow(Map<String, Object> row, CategoryLookup categories) {
+        Location location = new Location();
+        location.setName(RowValues.text(row, "name"));
+        location.setAddress(RowValues.text(row, "address"));
+        location.setDescription(RowValues.text(row, "description"));
+        location.setImageUrl(RowValues.text(row, "imageUrl"));
+        location.setLatitude(RowValues.decimal(row, "latitude"));
+        location.setLongitude(RowValues.decimal(row, "longitude"));
+        location.setPhone(RowValues.text(row, "phone"));
+        location.setEmail(RowValues.text(row, "email"));
+        location.setWebsite(RowValues.text(row, "website"));
+        location.setOpeningHours(RowValues.text(row, "openingHours"));
+        Boolean active = RowValues.bool(row, "isActive");
+        location.setIsActive(active != null ? active : true);
+        location.setCategory(categories.resolve(RowValues.id(row, "categoryId"), RowValues.text(row, "category")));
+        return location;
+    }
+
+    @Override
+    public void insert(JdbcTemplate jdbcTemplate, List<Location> records) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long firstId = BulkTable.reserveIds(idBlockAllocator, jdbcTemplate, name(), records.size());
+        for (int i = 0; i < records.size(); i++) {
+            records.get(i).setId(firstId + i);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Location location = records.get(i);
+                ps.setLong(1, location.getId());
+                ps.setString(2, location.getName());
+                ps.setString(3, location.getAddress());
+                ps.setString(4, location.getDescription());
+                ps.setString(5, location.getImageUrl());
+                ps.setObject(6, location.getLatitude(), Types.DOUBLE);
+                ps.setObject(7, location.getLongitude(), Types.DOUBLE);
+                ps.setString(8, location.getPhone());
+                ps.setString(9, location.getEmail());
+                ps.setString(10, location.getWebsite());
+                ps.setString(11, location.getOpeningHours());
+                ps.setBoolean(12, location.getIsActive());
+                ps.setLong(13, location.getCategory().getId());
+                ps.setTimestamp(14, now);
+                ps.setTimestamp(15, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return records.size();
+            }
+        });
+    }
+
+    @Override
+    public void afterImport() {
+        locationMapService.invalidate();
+        precompressedResponses.invalidate();
+    }
+
+    @Override
+    public List<String> exportColumns() {
+        return COLUMNS;
+    }
+
+    @Override
+    public List<Map<String, Object>> exportPage(JdbcTemplate jdbcTemplate, long afterId, int limit,
+                                                CategoryLookup categories) {
+        return jdbcTemplate.query(EXPORT_SQL, (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", rs.getLong("id"));
+            row.put("name", rs.getString("name"));
+            row.put("address", rs.getString("address"));
+            row.put("description", rs.getString("description"));
+            row.put("imageUrl", rs.getString("image_url"));
+            row.put("latitude", RowValues.decimal(rs, "latitude"));
+            row.put("longitude", RowValues.decimal(rs, "longitude"));
+            row.put("phone", rs.getString("phone"));
+            row.put("email", rs.getString("email"));
+            row.put("website", rs.getString("website"));
+            row.put("openingHours", rs.getString("opening_hours"));
+            row.put("isActive", RowValues.bool(rs, "is_active"));
+            long categoryId = rs.getLong("category_id");
+            row.put("categoryId", categoryId);
+            row.put("category", categories.nameOf(categoryId));
+            return row;
+        }, afterId, limit);
+    }
+
+    @Override
+    public boolean hasCoordinates() {
+        return true;
+    }
+}
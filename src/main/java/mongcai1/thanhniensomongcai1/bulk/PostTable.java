@@ -0,0 +1,159 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import mongcai1.thanhniensomongcai1.model.CategoryType;
+import mongcai1.thanhniensomongcai1.model.Post;
+import mongcai1.thanhniensomongcai1.repository.IdBlockAllocator;
+import mongcai1.thanhniensomongcai1.service.PostScheduler;
+import mongcai1.thanhniensomongcai1.service.PostService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nhập/xuất bài viết, kèm nội dung trong post_bodies
+ */
+@Component
+class PostTable implements BulkTable<Post> {
+
+    private static final String INSERT_SQL = "INSERT INTO posts (id, title, summary, thumbnail_url, author,"
+            + " is_featured, is_urgent, view_count, published_at, unpublish_at, urgent_until, is_published,"
+            + " category_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_BODY_SQL = "INSERT INTO post_bodies (post_id, content) VALUES (?, ?)";
+
+    private static final String EXPORT_SQL = "SELECT p.id, p.title, p.summary, b.content, p.thumbnail_url, p.author,"
+            + " p.is_featured, p.is_urgent, p.view_count, p.published_at, p.unpublish_at, p.urgent_until,"
+            + " p.is_published, p.category_id"
+            + " FROM posts p LEFT JOIN post_bodies b ON b.post_id = p.id WHERE p.id > ? ORDER BY p.id LIMIT ?";
+
+    private static final List<String> COLUMNS = List.of("id", "title", "summary", "content", "thumbnailUrl",
+            "author", "isFeatured", "isUrgent", "viewCount", "publishedAt", "unpublishAt", "urgentUntil",
+            "isPublished", "categoryId", "category");
+
+    @Autowired
+    private PostScheduler postScheduler;
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    @Override
+    public String name() {
+        return "posts";
+    }
+
+    @Override
+    public CategoryType categoryType() {
+        return CategoryType.POST;
+    }
+
+    @Override
+    public Post fromRow(Map<String, Object> row, CategoryLookup categories) {
+        Post post = new Post();
+        post.setTitle(RowValues.text(row, "title"));
+        post.setSummary(RowValues.text(row, "summary"));
+        post.setContent(RowValues.text(row, "content"));
+        post.setThumbnailUrl(RowValues.text(row, "thumbnailUrl"));
+        post.setAuthor(RowValues.text(row, "author"));
+        post.setIsFeatured(RowValues.bool(row, "isFeatured"));
+        post.setIsUrgent(RowValues.bool(row, "isUrgent"));
+        post.setPublishedAt(RowValues.dateTime(row, "publishedAt"));
+        post.setUnpublishAt(RowValues.dateTime(row, "unpublishAt"));
+        post.setUrgentUntil(RowValues.dateTime(row, "urgentUntil"));
+        post.setCategory(categories.resolve(RowValues.id(row, "categoryId"), RowValues.text(row, "category")));
+        // Same defaults, publication flags and summary as a post created through the API
+        PostService.applyDefaults(post);
+        return post;
+    }
+
+    @Override
+    public void insert(JdbcTemplate jdbcTemplate, List<Post> records) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long firstId = BulkTable.reserveIds(idBlockAllocator, jdbcTemplate, name(), records.size());
+        for (int i = 0; i < records.size(); i++) {
+            records.get(i).setId(firstId + i);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Post post = records.get(i);
+                ps.setLong(1, post.getId());
+                ps.setString(2, post.getTitle());
+                ps.setString(3, post.getSummary());
+                ps.setString(4, post.getThumbnailUrl());
+                ps.setString(5, post.getAuthor());
+                ps.setBoolean(6, post.getIsFeatured());
+                ps.setBoolean(7, post.getIsUrgent());
+                ps.setInt(8, post.getViewCount());
+                ps.setTimestamp(9, RowValues.timestamp(post.getPublishedAt()));
+                ps.setTimestamp(10, RowValues.timestamp(post.getUnpublishAt()));
+                ps.setTimestamp(11, RowValues.timestamp(post.getUrgentUntil()));
+                ps.setBoolean(12, post.getIsPublished());
+                ps.setLong(13, post.getCategory().getId());
+                ps.setTimestamp(14, now);
+                ps.setTimestamp(15, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return records.size();
+            }
+        });
+        jdbcTemplate.batchUpdate(INSERT_BODY_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, records.get(i).getId());
+                ps.setString(2, records.get(i).getContent());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return records.size();
+            }
+        });
+    }
+
+    @Override
+    public void afterImport() {
+        // Loads upcoming publish/expiry events of the new posts and clears the cached lists
+        postScheduler.resync();
+    }
+
+    @Override
+    public List<String> exportColumns() {
+        return COLUMNS;
+    }
+
+    @Override
+    public List<Map<String, Object>> exportPage(JdbcTemplate jdbcTemplate, long afterId, int limit,
+                                                CategoryLookup categories) {
+        return jdbcTemplate.query(EXPORT_SQL, (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", rs.getLong("id"));
+            row.put("title", rs.getString("title"));
+            row.put("summary", rs.getString("summary"));
+            row.put("content", rs.getString("content"));
+            row.put("thumbnailUrl", rs.getString("thumbnail_url"));
+            row.put("author", rs.getString("author"));
+            row.put("isFeatured", RowValues.bool(rs, "is_featured"));
+            row.put("isUrgent", RowValues.bool(rs, "is_urgent"));
+            row.put("viewCount", rs.getInt("view_count"));
+            row.put("publishedAt", RowValues.dateTime(rs, "published_at"));
+            row.put("unpublishAt", RowValues.dateTime(rs, "unpublish_at"));
+            row.put("urgentUntil", RowValues.dateTime(rs, "urgent_until"));
+            row.put("isPublished", RowValues.bool(rs, "is_published"));
+            long categoryId = rs.getLong("category_id");
+            row.put("categoryId", categoryId);
+            row.put("category", categories.nameOf(categoryId));
+            return row;
+        }, afterId, limit);
+    }
+}
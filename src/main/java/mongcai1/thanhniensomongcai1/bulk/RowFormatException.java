@@ -0,0 +1,13 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import java.io.IOException;
+
+/**
+ * Một dòng dữ liệu nhập sai cú pháp; dòng đó bị bỏ qua và được báo lỗi, các dòng sau vẫn được đọc
+ */
+class RowFormatException extends IOException {
+
+    RowFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,89 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Đọc lần lượt từng dòng dữ liệu nhập thành Map tên cột → giá trị, không nạp cả file vào bộ nhớ
+ */
+interface RowReader extends Closeable {
+
+    /**
+     * Dòng kế tiếp, null khi hết dữ liệu; RowFormatException khi riêng dòng này sai cú pháp
+     */
+    Map<String, Object> next() throws IOException;
+
+    /**
+     * NDJSON: mỗi dòng một object JSON. Từng dòng được parse riêng nên một dòng hỏng không làm dừng cả lượt nhập.
+     */
+    static RowReader ndjson(InputStream in, ObjectMapper objectMapper) {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ObjectReader reader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() { });
+        return new RowReader() {
+            @Override
+            public Map<String, Object> next() throws IOException {
+                String line;
+                do {
+                    line = lines.readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                } while (line.isBlank());
+                try {
+                    return reader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    throw new RowFormatException("JSON không hợp lệ: " + e.getOriginalMessage());
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                lines.close();
+            }
+        };
+    }
+
+    /**
+     * CSV có dòng tiêu đề chứa tên cột
+     */
+    static RowReader csv(InputStream in) throws IOException {
+        CsvMapper mapper = new CsvMapper();
+        mapper.enable(CsvParser.Feature.TRIM_SPACES);
+        MappingIterator<Map<String, Object>> rows = mapper
+                .readerFor(new TypeReference<Map<String, Object>>() { })
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(in);
+        return new RowReader() {
+            @Override
+            public Map<String, Object> next() throws IOException {
+                try {
+                    return rows.hasNextValue() ? rows.nextValue() : null;
+                } catch (RuntimeJsonMappingException e) {
+                    throw new RowFormatException("CSV không hợp lệ: " + e.getMessage());
+                } catch (JsonProcessingException e) {
+                    throw new RowFormatException("CSV không hợp lệ: " + e.getOriginalMessage());
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                rows.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package mongcai1.thanhniensomongcai1.bulk;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Đọc giá trị từ một dòng nhập (CSV chỉ có chuỗi, NDJSON có cả số và boolean) và từ ResultSet khi xuất
+ */
+final class RowValues {
+
+    private RowValues() {
+    }
+
+    static String text(Map<String, Object> row, String key) {
+        Object value = row.get(key);
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    static Long id(Map<String, Object> row, String key) {
+        String text = text(row, key);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " không phải số nguyên: " + text);
+        }
+    }
+
+    static Double decimal(Map<String, Object> row, String key) {
+        String text = text(row, key);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " không phải số: " + text);
+        }
+    }
+
+    static Boolean bool(Map<String, Object> row, String key) {
+        String text = text(row, key);
+        if (text == null) {
+            return null;
+        }
+        return switch (text.toLowerCase()) {
+            case "true", "1", "yes" -> true;
+            case "false", "0", "no" -> false;
+            default -> throw new IllegalArgumentException(key + " phải là true hoặc false: " + text);
+        };
+    }
+
+    static LocalDateTime dateTime(Map<String, Object> row, String key) {
+        String text = text(row, key);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(key + " không đúng định dạng yyyy-MM-ddTHH:mm:ss: " + text);
+        }
+    }
+
+    static Timestamp timestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    static String dateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp time = rs.getTimestamp(column);
+        return time != null ? time.toLocalDateTime().toString() : null;
+    }
+
+    static Boolean bool(ResultSet rs, String column) throws SQLException {
+        boolean value = rs.getBoolean(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    static Double decimal(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+}
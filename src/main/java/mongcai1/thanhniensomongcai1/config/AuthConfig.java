@@ -0,0 +1,63 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Cấu hình băm mật khẩu và thread pool riêng cho việc băm.
+ *
+ * BCrypt tốn CPU có chủ đích; pool có giới hạn số luồng và độ dài hàng đợi
+ * để một đợt dò mật khẩu hàng loạt không chiếm hết luồng xử lý request của Tomcat.
+ */
+@Configuration
+public class AuthConfig {
+
+    @Value("${app.auth.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.auth.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${app.auth.hash-queue-capacity:64}")
+    private int hashQueueCapacity;
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder(bcryptStrength);
+    }
+
+    // Platform threads even with spring.threads.virtual.enabled: BCrypt is CPU-bound and the
+    // bounded pool is what keeps a login flood from starving everything else
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(hashQueueCapacity);
+        executor.setThreadNamePrefix("pwd-hash-");
+        // Default AbortPolicy: when the queue is full the login is rejected instead of piling up
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // Writes re-hashed legacy passwords so hash threads never wait on the database.
+    // A full queue drops the upgrade; it is retried on that user's next login
+    @Bean
+    public ThreadPoolTaskExecutor passwordUpgradeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(hashQueueCapacity);
+        executor.setThreadNamePrefix("pwd-upgrade-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,33 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Thread pool chạy các lượt nhập hàng loạt (/api/bulk/{target}/import).
+ *
+ * Ít luồng và hàng đợi ngắn: mỗi lượt nhập đã ghi theo lô lớn, chạy song song nhiều lượt chỉ
+ * tranh nhau kết nối CSDL với các request bình thường.
+ */
+@Configuration
+public class BulkConfig {
+
+    @Value("${app.bulk.import.threads:1}")
+    private int importThreads;
+
+    @Value("${app.bulk.import.queue-capacity:4}")
+    private int importQueueCapacity;
+
+    @Bean
+    public ThreadPoolTaskExecutor bulkImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importThreads);
+        executor.setMaxPoolSize(importThreads);
+        executor.setQueueCapacity(importQueueCapacity);
+        executor.setThreadNamePrefix("bulk-import-");
+        // Default AbortPolicy: a full queue rejects the upload instead of spooling more files
+        return executor;
+    }
+}
@@ -0,0 +1,24 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bật Spring Cache; cache manager Caffeine được cấu hình qua spring.cache.* trong application.properties
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USER_ROLE_SUMMARY = "userRoleSummary";
+
+    // Homepage post widgets; cleared by PostScheduler on every post write and schedule event
+    public static final String PUBLIC_POSTS = "publicPosts";
+
+    // Location snapshot and encoded map tiles; cleared by LocationMapService on location/category writes
+    public static final String LOCATION_MAP = "locationMap";
+
+    // Serialized and gzipped hot responses (PrecompressedResponses); cleared with publicPosts and on
+    // location/category writes
+    public static final String HOT_RESPONSES = "hotResponses";
+}
@@ -0,0 +1,48 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Tính kích thước connection pool theo số nhân CPU của máy chủ CSDL
+ * (công thức của HikariCP: cores * 2 + effective spindles) thay vì giá trị mặc định 10.
+ * Bật bằng app.datasource.pool.auto-size=true (profile prod).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.pool.auto-size", havingValue = "true")
+public class DataSourcePoolConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourcePoolConfig.class);
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // Runs after spring.datasource.hikari.* binding, before the pool is started
+                if (bean instanceof HikariDataSource hikari) {
+                    int cores = environment.getProperty("app.datasource.pool.db-cores", Integer.class, 0);
+                    if (cores <= 0) {
+                        // Same host class as the database unless told otherwise
+                        cores = Runtime.getRuntime().availableProcessors();
+                    }
+                    int spindles = environment.getProperty("app.datasource.pool.effective-spindles", Integer.class, 1);
+                    int max = environment.getProperty("app.datasource.pool.max-size", Integer.class, 50);
+                    int size = Math.max(2, Math.min(max, cores * 2 + spindles));
+                    hikari.setMaximumPoolSize(size);
+                    // Fixed-size pool: no connection churn under bursts
+                    hikari.setMinimumIdle(size);
+                    log.info("DataSource '{}' pool sized to {} connections ({} cores, {} spindles)",
+                            beanName, size, cores, spindles);
+                }
+                return bean;
+            }
+        };
+    }
+}
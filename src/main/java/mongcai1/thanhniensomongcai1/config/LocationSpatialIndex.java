@@ -0,0 +1,62 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+
+/**
+ * Cho biết truy vấn địa điểm có dùng được cột không gian locations.geo_point hay không.
+ * Cột và SPATIAL INDEX do migration V4 tạo, chỉ trên MySQL; cơ sở dữ liệu khác (H2 khi test)
+ * dùng index (is_active, latitude, longitude).
+ */
+@Component
+public class LocationSpatialIndex implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationSpatialIndex.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Injected only for ordering: Flyway has migrated the schema once the factory exists
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.locations.spatial-index.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean available;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        available = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!"MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+                return false;
+            }
+            try (ResultSet columns = connection.getMetaData()
+                    .getColumns(connection.getCatalog(), null, "locations", "geo_point")) {
+                return columns.next();
+            }
+        }));
+        if (available) {
+            log.info("Location queries use the spatial index on locations.geo_point");
+        }
+    }
+
+    /**
+     * true khi locations.geo_point và SPATIAL INDEX đã sẵn sàng (chỉ MySQL)
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+}
@@ -0,0 +1,65 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import mongcai1.thanhniensomongcai1.metrics.QueryTrackingFilter;
+import mongcai1.thanhniensomongcai1.metrics.QueryTrackingListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Đếm câu lệnh JDBC theo từng HTTP request: bọc DataSource bằng datasource-proxy
+ * và đăng ký filter ghi metric. Tắt bằng app.metrics.query-tracking.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.metrics.query-tracking.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryTrackingConfig {
+
+    @Bean
+    public static BeanPostProcessor queryTrackingDataSourceWrapper(
+            @Value("${app.metrics.query-tracking.count-rows:true}") boolean countRows) {
+        QueryTrackingListener listener = new QueryTrackingListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                if (bean instanceof DelegatingDataSource || bean instanceof AbstractRoutingDataSource) {
+                    // Read/write router: its target pools are wrapped themselves
+                    return bean;
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(listener);
+                if (countRows) {
+                    // Row counting needs ResultSet proxies, which add a small cost to every next() call
+                    builder.proxyResultSet().methodListener(listener);
+                }
+                return builder.build();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryTrackingFilter> queryTrackingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.metrics.query-tracking.n-plus-one-threshold:5}") int nPlusOneThreshold,
+            @Value("${app.metrics.query-tracking.response-header:false}") boolean responseHeader) {
+        FilterRegistrationBean<QueryTrackingFilter> registration = new FilterRegistrationBean<>(
+                new QueryTrackingFilter(meterRegistry, nPlusOneThreshold, responseHeader));
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
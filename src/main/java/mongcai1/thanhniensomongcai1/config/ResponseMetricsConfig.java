@@ -0,0 +1,24 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import mongcai1.thanhniensomongcai1.metrics.ResponseCostValve;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Đo số byte gửi đi (sau khi nén) và thời gian CPU của từng request bằng một valve Tomcat.
+ * Tắt bằng app.metrics.response-cost.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.metrics.response-cost.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseMetricsConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> responseCostValveCustomizer(
+            MeterRegistry meterRegistry) {
+        return factory -> factory.addEngineValves(new ResponseCostValve(meterRegistry));
+    }
+}
@@ -0,0 +1,12 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Bật các tác vụ chạy nền định kỳ (@Scheduled)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,35 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import mongcai1.thanhniensomongcai1.session.JdbcSessionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Lưu HttpSession vào MySQL thay vì bộ nhớ Tomcat (app.session.store=jdbc).
+ * Dùng khi app.auth.mode=session và chạy nhiều node hoặc cần giữ đăng nhập qua lần khởi động lại.
+ */
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnProperty(name = "app.session.store", havingValue = "jdbc")
+public class SessionStoreConfig {
+
+    @Value("${server.servlet.session.timeout:PT30M}")
+    private Duration sessionTimeout;
+
+    @Bean
+    public JdbcSessionStore sessionRepository(JdbcTemplate jdbcTemplate,
+                                              PlatformTransactionManager transactionManager) {
+        JdbcSessionStore store = new JdbcSessionStore(jdbcTemplate, new TransactionTemplate(transactionManager),
+                sessionTimeout);
+        store.initializeSchema();
+        return store;
+    }
+}
@@ -0,0 +1,118 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import mongcai1.thanhniensomongcai1.storage.BlobStore;
+import mongcai1.thanhniensomongcai1.storage.CachingBlobStore;
+import mongcai1.thanhniensomongcai1.storage.LocalBlobStore;
+import mongcai1.thanhniensomongcai1.storage.S3BlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * Chọn backend lưu trữ file upload theo app.storage.type:
+ * - local: thư mục app.upload.dir trên ổ đĩa của node (mặc định)
+ * - s3: bucket S3 hoặc MinIO dùng chung cho nhiều node, kèm bộ đệm đọc trong bộ nhớ
+ */
+@Configuration
+public class StorageConfig {
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.storage.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${app.storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${app.storage.s3.bucket:mongcai1-uploads}")
+    private String bucket;
+
+    @Value("${app.storage.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${app.storage.s3.secret-key:}")
+    private String secretKey;
+
+    @Value("${app.storage.s3.path-style:true}")
+    private boolean pathStyle;
+
+    @Value("${app.storage.s3.presign:true}")
+    private boolean presign;
+
+    @Value("${app.storage.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${app.storage.cache.max-object-size:1MB}")
+    private DataSize cacheMaxObjectSize;
+
+    @Value("${app.storage.cache.max-size:64MB}")
+    private DataSize cacheMaxSize;
+
+    @Value("${app.storage.cache.promote-after:2}")
+    private int cachePromoteAfter;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+    public BlobStore localBlobStore() {
+        return new LocalBlobStore(Paths.get(uploadDir));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+    public S3Client s3Client() {
+        var builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider())
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build());
+        if (StringUtils.hasText(endpoint)) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+    public S3Presigner s3Presigner() {
+        var builder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider())
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build());
+        if (StringUtils.hasText(endpoint)) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+    public BlobStore s3BlobStore(S3Client s3Client, S3Presigner s3Presigner) {
+        BlobStore store = new S3BlobStore(s3Client, s3Presigner, bucket, presign);
+        if (cacheEnabled) {
+            store = new CachingBlobStore(store, cacheMaxObjectSize.toBytes(), cacheMaxSize.toBytes(),
+                    cachePromoteAfter);
+        }
+        return store;
+    }
+
+    private AwsCredentialsProvider credentialsProvider() {
+        if (StringUtils.hasText(accessKey)) {
+            return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        }
+        return DefaultCredentialsProvider.create();
+    }
+}
@@ -0,0 +1,27 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import mongcai1.thanhniensomongcai1.service.UploadGarbageCollector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint uploadgc: chỉ xem kết quả dọn dẹp file upload (JMX, hoặc web nếu được thêm vào
+ * management.endpoints.web.exposure.include sau một cổng quản trị được bảo vệ).
+ * Chạy thủ công một lượt qua POST /api/upload/gc (SUPER_ADMIN).
+ */
+@Component
+@Endpoint(id = "uploadgc")
+public class UploadGcEndpoint {
+
+    @Autowired
+    private UploadGarbageCollector uploadGarbageCollector;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return uploadGarbageCollector.getStatus();
+    }
+}
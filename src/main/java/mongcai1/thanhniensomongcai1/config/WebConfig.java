@@ -1,26 +0,0 @@
-package mongcai1.thanhniensomongcai1.config;
-
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
-@Configuration
-public class WebConfig implements WebMvcConfigurer {
-
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Serve uploaded files
-        Path uploadPath = Paths.get(uploadDir).toAbsolutePath();
-        String uploadAbsolutePath = uploadPath.toUri().toString();
-        
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(uploadAbsolutePath);
-    }
-}
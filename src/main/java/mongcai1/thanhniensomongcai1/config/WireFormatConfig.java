@@ -0,0 +1,38 @@
+package mongcai1.thanhniensomongcai1.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import mongcai1.thanhniensomongcai1.wire.CategoryReferences;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Định dạng phản hồi theo header Accept: JSON (mặc định), application/cbor, application/x-jackson-smile.
+ *
+ * Hai converter nhị phân được dựng từ Jackson2ObjectMapperBuilder của Spring Boot nên dùng chung
+ * cấu hình spring.jackson.* và các module với JSON (nếu không, Spring MVC tự tạo chúng với cấu hình
+ * Jackson mặc định).
+ */
+@Configuration
+public class WireFormatConfig {
+
+    // Picked up by Spring Boot and registered on every ObjectMapper built from the builder
+    @Bean
+    public Module categoryReferencesModule() {
+        return CategoryReferences.module();
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
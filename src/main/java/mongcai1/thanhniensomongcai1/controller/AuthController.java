@@ -3,15 +3,24 @@ package mongcai1.thanhniensomongcai1.controller;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import mongcai1.thanhniensomongcai1.model.User;
 import mongcai1.thanhniensomongcai1.model.UserRole;
+import mongcai1.thanhniensomongcai1.security.AuthPrincipal;
+import mongcai1.thanhniensomongcai1.security.AuthTokenFilter;
+import mongcai1.thanhniensomongcai1.security.AuthTokenService;
+import mongcai1.thanhniensomongcai1.service.LoginRateLimiter;
+import mongcai1.thanhniensomongcai1.service.PasswordHasher;
 import mongcai1.thanhniensomongcai1.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -21,80 +30,141 @@ public class AuthController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+    
+    @Autowired
+    private AuthTokenService tokenService;
+    
     /**
-     * Đăng nhập
+     * Đăng nhập.
+     * Xử lý bất đồng bộ: luồng Tomcat được trả lại trong khi mật khẩu được kiểm tra trên pool băm.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpSession session) {
-        Optional<User> userOpt = userService.authenticate(request.getUsername(), request.getPassword());
-        
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            
-            // Lưu thông tin user vào session
-            session.setAttribute("userId", user.getId());
-            session.setAttribute("username", user.getUsername());
-            session.setAttribute("userRole", user.getRole().name());
-            
-            // Trả về thông tin user (không bao gồm password)
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request,
+                                                      HttpServletRequest httpRequest) {
+        // Client address from X-Forwarded-For when the request came through a trusted proxy
+        String clientIp = httpRequest.getRemoteAddr();
+        long retryAfter = loginRateLimiter.tryAcquire(clientIp, request.getUsername());
+        if (retryAfter > 0) {
             Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Đăng nhập thành công");
-            response.put("user", new UserInfo(user));
-            
-            return ResponseEntity.ok(response);
+            response.put("success", false);
+            response.put("message", "Đăng nhập sai quá nhiều lần, vui lòng thử lại sau");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(response));
         }
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", false);
-        response.put("message", "Tên đăng nhập hoặc mật khẩu không chính xác");
-        return ResponseEntity.status(401).body(response);
+        // Session mode: create the session on the request thread, before going async
+        HttpSession session = tokenService.isTokenMode() ? null : httpRequest.getSession();
+        
+        CompletableFuture<Optional<User>> result;
+        try {
+            result = userService.authenticate(request.getUsername(), request.getPassword());
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        
+        return result.<ResponseEntity<?>>thenApply(userOpt -> {
+            if (userOpt.isPresent()) {
+                User user = userOpt.get();
+                // Only failed attempts count against the limit
+                loginRateLimiter.release(clientIp, request.getUsername());
+                
+                // Trả về thông tin user (không bao gồm password)
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Đăng nhập thành công");
+                response.put("user", new UserInfo(user));
+                
+                if (tokenService.isTokenMode()) {
+                    // Token đã ký: trình duyệt dùng cookie HttpOnly, client khác dùng header Authorization
+                    String token = tokenService.issue(user);
+                    response.put("token", token);
+                    return ResponseEntity.ok()
+                        .header(HttpHeaders.SET_COOKIE, tokenService.createCookie(token).toString())
+                        .body(response);
+                }
+                
+                // Lưu thông tin user vào session
+                session.setAttribute("userId", user.getId());
+                session.setAttribute("username", user.getUsername());
+                session.setAttribute("fullName", user.getFullName());
+                session.setAttribute("userRole", user.getRole().name());
+                
+                return ResponseEntity.ok(response);
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Tên đăng nhập hoặc mật khẩu không chính xác");
+            return ResponseEntity.status(401).body(response);
+        }).exceptionally(error -> {
+            if (!PasswordHasher.isOverloaded(error)) {
+                throw error instanceof RuntimeException re ? re : new IllegalStateException(error);
+            }
+            // Hash pool saturated: shed load instead of queueing more Tomcat threads.
+            // The password was not checked, so the attempt is not counted
+            loginRateLimiter.release(clientIp, request.getUsername());
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Hệ thống đang bận, vui lòng thử lại sau");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+        });
     }
     
     /**
      * Đăng xuất
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpSession session) {
-        session.invalidate();
-        
+    public ResponseEntity<?> logout(HttpServletRequest request) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", "Đăng xuất thành công");
+        
+        if (tokenService.isTokenMode()) {
+            tokenService.revoke((AuthTokenService.VerifiedToken) request.getAttribute(AuthTokenFilter.VERIFIED_TOKEN_ATTRIBUTE));
+            return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, tokenService.clearCookie().toString())
+                .body(response);
+        }
+        
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
         return ResponseEntity.ok(response);
     }
     
     /**
-     * Kiểm tra trạng thái đăng nhập
+     * Kiểm tra trạng thái đăng nhập (chỉ dựa vào token/session, không truy vấn CSDL)
      */
     @GetMapping("/check")
-    public ResponseEntity<?> checkAuth(HttpSession session) {
-        Long userId = (Long) session.getAttribute("userId");
+    public ResponseEntity<?> checkAuth(HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.current(request);
         
-        if (userId != null) {
-            Optional<User> userOpt = userService.findById(userId);
-            if (userOpt.isPresent()) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("authenticated", true);
-                response.put("user", new UserInfo(userOpt.get()));
-                return ResponseEntity.ok(response);
-            }
+        Map<String, Object> response = new HashMap<>();
+        if (principal != null) {
+            response.put("authenticated", true);
+            response.put("user", new UserInfo(principal));
+            return ResponseEntity.ok(response);
         }
         
-        Map<String, Object> response = new HashMap<>();
         response.put("authenticated", false);
         return ResponseEntity.ok(response);
     }
     
     /**
-     * Lấy thông tin user hiện tại
+     * Lấy thông tin user hiện tại (đọc đầy đủ từ CSDL)
      */
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(HttpSession session) {
-        Long userId = (Long) session.getAttribute("userId");
+    public ResponseEntity<?> getCurrentUser(HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.current(request);
         
-        if (userId != null) {
-            Optional<User> userOpt = userService.findById(userId);
+        if (principal != null) {
+            Optional<User> userOpt = userService.findById(principal.getUserId());
             if (userOpt.isPresent()) {
                 return ResponseEntity.ok(new UserInfo(userOpt.get()));
             }
@@ -132,6 +202,14 @@ public class AuthController {
             this.isActive = user.getIsActive();
         }
         
+        public UserInfo(AuthPrincipal principal) {
+            this.id = principal.getUserId();
+            this.username = principal.getUsername();
+            this.fullName = principal.getFullName();
+            this.role = principal.getRole();
+            this.isActive = true;
+        }
+        
         // Getters
         public Long getId() { return id; }
         public String getUsername() { return username; }
@@ -0,0 +1,121 @@
+package mongcai1.thanhniensomongcai1.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mongcai1.thanhniensomongcai1.bulk.BulkExportService;
+import mongcai1.thanhniensomongcai1.bulk.BulkFormat;
+import mongcai1.thanhniensomongcai1.bulk.BulkImportService;
+import mongcai1.thanhniensomongcai1.bulk.ImportJob;
+import mongcai1.thanhniensomongcai1.security.AuthPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Nhập/xuất hàng loạt bài viết và địa điểm ({target} = posts hoặc locations).
+ * Nhập chạy nền và trả về mã lượt nhập để theo dõi; xuất ghi thẳng ra phản hồi theo từng trang.
+ */
+@RestController
+@RequestMapping("/api/bulk")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8080"})
+public class BulkController {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private BulkExportService bulkExportService;
+
+    /**
+     * POST /api/bulk/{target}/import - Nhập NDJSON hoặc CSV (định dạng theo ?format= hoặc Content-Type)
+     */
+    @PostMapping("/{target}/import")
+    public ResponseEntity<?> importRows(
+            @PathVariable String target,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) {
+        if (AuthPrincipal.current(request) == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Không có quyền truy cập"));
+        }
+        try {
+            BulkFormat bulkFormat = format != null ? BulkFormat.of(format) : BulkFormat.fromContentType(request.getContentType());
+            if (bulkFormat == null) {
+                throw new IllegalArgumentException("Không xác định được định dạng dữ liệu, dùng ?format=ndjson hoặc csv");
+            }
+            if (request.getContentLengthLong() > bulkImportService.getMaxSize()) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(Map.of("message", "Dữ liệu nhập quá lớn"));
+            }
+            ImportJob job = bulkImportService.submit(target, bulkFormat, request.getInputStream());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/bulk/imports/" + job.getId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Lỗi khi nhập dữ liệu: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/bulk/imports/{jobId} - Trạng thái một lượt nhập
+     */
+    @GetMapping("/imports/{jobId}")
+    public ResponseEntity<?> getImport(@PathVariable String jobId, HttpServletRequest request) {
+        if (AuthPrincipal.current(request) == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Không có quyền truy cập"));
+        }
+        ImportJob job = bulkImportService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    /**
+     * GET /api/bulk/imports - Các lượt nhập gần đây
+     */
+    @GetMapping("/imports")
+    public ResponseEntity<?> getImports(HttpServletRequest request) {
+        if (AuthPrincipal.current(request) == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Không có quyền truy cập"));
+        }
+        return ResponseEntity.ok(bulkImportService.getJobs());
+    }
+
+    /**
+     * GET /api/bulk/{target}/export?format=ndjson|csv|geojson - Xuất toàn bộ bảng
+     */
+    @GetMapping("/{target}/export")
+    public ResponseEntity<?> exportRows(
+            @PathVariable String target,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        if (AuthPrincipal.current(request) == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Không có quyền truy cập"));
+        }
+        BulkFormat bulkFormat;
+        try {
+            bulkFormat = BulkFormat.of(format);
+            bulkExportService.checkExportable(target, bulkFormat);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        // Written straight to the response: the body is committed page by page, so errors past this point abort it
+        response.setContentType(bulkFormat.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + target + "." + bulkFormat.getExtension() + "\"");
+        bulkExportService.export(target, bulkFormat, response.getOutputStream());
+        return null;
+    }
+}
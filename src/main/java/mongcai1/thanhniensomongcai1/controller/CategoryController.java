@@ -3,6 +3,8 @@ package mongcai1.thanhniensomongcai1.controller;
 import mongcai1.thanhniensomongcai1.model.Category;
 import mongcai1.thanhniensomongcai1.model.CategoryType;
 import mongcai1.thanhniensomongcai1.service.CategoryService;
+import mongcai1.thanhniensomongcai1.wire.PrecompressedResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,13 +22,17 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
     
+    @Autowired
+    private PrecompressedResponses precompressedResponses;
+    
     /**
      * GET /api/categories - Get all categories
      */
     @GetMapping
     public ResponseEntity<?> getAllCategories(
             @RequestParam(required = false) String type,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            HttpServletRequest request) {
         
         try {
             List<Category> categories;
@@ -44,8 +50,8 @@ public class CategoryController {
                             .body("Loại danh mục không hợp lệ. Sử dụng: LOCATION hoặc POST");
                 }
             } else {
-                // Get all categories
-                categories = categoryService.getAllCategories();
+                // Get all categories (homepage and menus), served precompressed
+                return precompressedResponses.respond("categories", request, categoryService::getAllCategories);
             }
             
             return ResponseEntity.ok(categories);
@@ -82,20 +88,15 @@ public class CategoryController {
      */
     @GetMapping("/locations")
     public ResponseEntity<?> getLocationCategories(
-            @RequestParam(defaultValue = "false") boolean withData) {
+            @RequestParam(defaultValue = "false") boolean withData,
+            HttpServletRequest request) {
         
         try {
-            List<Category> categories;
-            
-            if (withData) {
-                // Only get categories that have locations
-                categories = categoryService.getLocationCategoriesWithLocations();
-            } else {
-                // Get all location categories
-                categories = categoryService.getLocationCategories();
-            }
-            
-            return ResponseEntity.ok(categories);
+            return precompressedResponses.respond("locationCategories:" + withData, request, () -> withData
+                    // Only get categories that have locations
+                    ? categoryService.getLocationCategoriesWithLocations()
+                    // Get all location categories
+                    : categoryService.getLocationCategories());
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -108,20 +109,15 @@ public class CategoryController {
      */
     @GetMapping("/posts")
     public ResponseEntity<?> getPostCategories(
-            @RequestParam(defaultValue = "false") boolean withData) {
+            @RequestParam(defaultValue = "false") boolean withData,
+            HttpServletRequest request) {
         
         try {
-            List<Category> categories;
-            
-            if (withData) {
-                // Only get categories that have posts
-                categories = categoryService.getPostCategoriesWithPosts();
-            } else {
-                // Get all post categories
-                categories = categoryService.getPostCategories();
-            }
-            
-            return ResponseEntity.ok(categories);
+            return precompressedResponses.respond("postCategories:" + withData, request, () -> withData
+                    // Only get categories that have posts
+                    ? categoryService.getPostCategoriesWithPosts()
+                    // Get all post categories
+                    : categoryService.getPostCategories());
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
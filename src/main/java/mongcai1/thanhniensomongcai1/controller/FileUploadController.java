@@ -1,16 +1,20 @@
 package mongcai1.thanhniensomongcai1.controller;
 
-import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import mongcai1.thanhniensomongcai1.security.AuthPrincipal;
+import mongcai1.thanhniensomongcai1.service.UploadGarbageCollector;
+import mongcai1.thanhniensomongcai1.storage.BlobStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.UUID;
 
@@ -19,8 +23,14 @@ import java.util.UUID;
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8080"})
 public class FileUploadController {
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UploadGarbageCollector uploadGarbageCollector;
 
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
     private static final String[] ALLOWED_EXTENSIONS = {"jpg", "jpeg", "png", "gif", "webp"};
@@ -30,6 +40,8 @@ public class FileUploadController {
      */
     @PostMapping("/image")
     public ResponseEntity<?> uploadImage(@RequestParam("file") MultipartFile file) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "rejected";
         try {
             // Validate file
             if (file.isEmpty()) {
@@ -51,18 +63,20 @@ public class FileUploadController {
                         .body(Map.of("error", "Định dạng file không được hỗ trợ. Chỉ chấp nhận: jpg, jpeg, png, gif, webp"));
             }
 
-            // Create upload directory if not exists
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
             // Generate unique filename
             String uniqueFilename = UUID.randomUUID().toString() + "." + extension;
-            Path filePath = uploadPath.resolve(uniqueFilename);
 
-            // Save file
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // Save file (streamed to the configured storage backend)
+            try (InputStream in = file.getInputStream()) {
+                blobStore.put(uniqueFilename, in, file.getSize(), BlobStore.contentTypeFor(uniqueFilename));
+            }
+
+            outcome = "success";
+            DistributionSummary.builder("portal.uploads.received")
+                    .description("Size of accepted uploads")
+                    .baseUnit("bytes")
+                    .register(meterRegistry)
+                    .record(file.getSize());
 
             // Return the URL to access the file
             String fileUrl = "/uploads/" + uniqueFilename;
@@ -76,8 +90,15 @@ public class FileUploadController {
             ));
 
         } catch (IOException e) {
+            outcome = "error";
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Lỗi khi lưu file: " + e.getMessage()));
+        } finally {
+            sample.stop(Timer.builder("portal.uploads")
+                    .description("Image upload handling time, storage write included")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
         }
     }
 
@@ -93,10 +114,7 @@ public class FileUploadController {
                         .body(Map.of("error", "Tên file không hợp lệ"));
             }
 
-            Path filePath = Paths.get(uploadDir).resolve(filename);
-            
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
+            if (blobStore.delete(filename)) {
                 return ResponseEntity.ok(Map.of("success", true, "message", "Đã xóa file thành công"));
             } else {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -109,6 +127,38 @@ public class FileUploadController {
         }
     }
 
+    /**
+     * GET /api/upload/gc - Trạng thái dọn dẹp file upload mồ côi (chỉ SUPER_ADMIN)
+     */
+    @GetMapping("/gc")
+    public ResponseEntity<?> getGcStatus(HttpServletRequest request) {
+        if (!isSuperAdmin(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Không có quyền truy cập"));
+        }
+        return ResponseEntity.ok(uploadGarbageCollector.getStatus());
+    }
+
+    /**
+     * POST /api/upload/gc - Chạy ngay một lượt dọn dẹp, ngoài lịch định kỳ (chỉ SUPER_ADMIN)
+     */
+    @PostMapping("/gc")
+    public ResponseEntity<?> runGc(HttpServletRequest request) {
+        if (!isSuperAdmin(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Không có quyền truy cập"));
+        }
+        UploadGarbageCollector.RunReport report = uploadGarbageCollector.run();
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "Đang có một lượt dọn dẹp khác chạy"));
+        }
+        return ResponseEntity.ok(Map.of("lastRun", report));
+    }
+
+    private static boolean isSuperAdmin(HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.current(request);
+        return principal != null && "SUPER_ADMIN".equals(principal.getRole());
+    }
+
     private String getFileExtension(String filename) {
         if (filename == null || !filename.contains(".")) {
             return "";
@@ -1,19 +1,28 @@
 package mongcai1.thanhniensomongcai1.controller;
 
+import mongcai1.thanhniensomongcai1.maps.LocationMapService;
+import mongcai1.thanhniensomongcai1.maps.LocationMapService.MapPayload;
 import mongcai1.thanhniensomongcai1.model.Category;
 import mongcai1.thanhniensomongcai1.model.Location;
 import mongcai1.thanhniensomongcai1.repository.CategoryRepository;
+import mongcai1.thanhniensomongcai1.repository.LocationDistance;
 import mongcai1.thanhniensomongcai1.service.LocationService;
+import mongcai1.thanhniensomongcai1.wire.PrecompressedResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -29,6 +38,18 @@ public class LocationController {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private LocationMapService locationMapService;
+    
+    @Autowired
+    private PrecompressedResponses precompressedResponses;
+    
+    @Value("${app.locations.tiles.max-age:PT5M}")
+    private Duration mapMaxAge;
+    
+    private static final MediaType VECTOR_TILE = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+    private static final MediaType GEO_JSON = MediaType.parseMediaType("application/geo+json");
+    
     /**
      * GET /api/locations - Get all active locations with optional filtering
      */
@@ -79,7 +100,8 @@ public class LocationController {
     @GetMapping("/simple")
     public ResponseEntity<?> getAllLocationsSimple(
             @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            HttpServletRequest request) {
         
         try {
             List<Location> locations;
@@ -91,7 +113,9 @@ public class LocationController {
             } else if (search != null && !search.trim().isEmpty()) {
                 locations = locationService.searchLocations(search);
             } else {
-                locations = locationService.getAllActiveLocations();
+                // Unfiltered list (homepage), served precompressed
+                return precompressedResponses.respond("locations", request,
+                        locationService::getAllActiveLocations);
             }
             
             return ResponseEntity.ok(locations);
@@ -173,6 +197,61 @@ public class LocationController {
         }
     }
     
+    /**
+     * GET /api/locations/nearby - Get locations within a radius (meters) of a point, nearest first
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbyLocations(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "1000") double radius,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        try {
+            List<LocationDistance> locations = locationService.getNearbyLocations(lat, lng, radius, limit);
+            return ResponseEntity.ok(locations);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Lỗi khi tải địa điểm lân cận: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * GET /api/locations/tiles/{z}/{x}/{y} - Mapbox Vector Tile (layer "locations"), 204 if the tile is empty
+     */
+    @GetMapping("/tiles/{z}/{x}/{y}")
+    public ResponseEntity<?> getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y,
+                                     WebRequest webRequest) {
+        try {
+            return mapResponse(locationMapService.getTile(z, x, y), VECTOR_TILE, webRequest);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Lỗi khi tải tile bản đồ: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * GET /api/locations/geojson - GeoJSON FeatureCollection of active locations, clustered when zoom is given
+     */
+    @GetMapping("/geojson")
+    public ResponseEntity<?> getGeoJson(@RequestParam(required = false) Integer zoom, WebRequest webRequest) {
+        try {
+            return mapResponse(locationMapService.getGeoJson(zoom), GEO_JSON, webRequest);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Lỗi khi tải GeoJSON địa điểm: " + e.getMessage()));
+        }
+    }
+    
     /**
      * GET /api/locations/category/{categoryId}/count - Get count of locations by category
      */
@@ -225,10 +304,10 @@ public class LocationController {
             
             // Set coordinates if provided
             if (request.get("latitude") != null && !request.get("latitude").toString().isEmpty()) {
-                location.setLatitude(new BigDecimal(request.get("latitude").toString()));
+                location.setLatitude(Double.valueOf(request.get("latitude").toString()));
             }
             if (request.get("longitude") != null && !request.get("longitude").toString().isEmpty()) {
-                location.setLongitude(new BigDecimal(request.get("longitude").toString()));
+                location.setLongitude(Double.valueOf(request.get("longitude").toString()));
             }
             
             Location createdLocation = locationService.createLocation(location);
@@ -295,10 +374,10 @@ public class LocationController {
             
             // Update coordinates
             if (request.get("latitude") != null && !request.get("latitude").toString().isEmpty()) {
-                location.setLatitude(new BigDecimal(request.get("latitude").toString()));
+                location.setLatitude(Double.valueOf(request.get("latitude").toString()));
             }
             if (request.get("longitude") != null && !request.get("longitude").toString().isEmpty()) {
-                location.setLongitude(new BigDecimal(request.get("longitude").toString()));
+                location.setLongitude(Double.valueOf(request.get("longitude").toString()));
             }
             
             Location updatedLocation = locationService.updateLocation(id, location);
@@ -347,4 +426,19 @@ public class LocationController {
                     .body("Lỗi khi xóa vĩnh viễn địa điểm: " + e.getMessage());
         }
     }
+    
+    private ResponseEntity<?> mapResponse(MapPayload payload, MediaType contentType, WebRequest webRequest) {
+        if (webRequest.checkNotModified(payload.etag())) {
+            return null;
+        }
+        CacheControl cacheControl = CacheControl.maxAge(mapMaxAge).cachePublic();
+        if (payload.isEmpty()) {
+            return ResponseEntity.noContent().cacheControl(cacheControl).eTag(payload.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .cacheControl(cacheControl)
+                .eTag(payload.etag())
+                .body(payload.body());
+    }
 }
\ No newline at end of file
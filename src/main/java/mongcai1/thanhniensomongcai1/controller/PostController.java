@@ -2,16 +2,24 @@ package mongcai1.thanhniensomongcai1.controller;
 
 import mongcai1.thanhniensomongcai1.model.Category;
 import mongcai1.thanhniensomongcai1.model.Post;
+import jakarta.servlet.http.HttpServletRequest;
 import mongcai1.thanhniensomongcai1.repository.CategoryRepository;
+import mongcai1.thanhniensomongcai1.security.AuthPrincipal;
+import mongcai1.thanhniensomongcai1.service.PostEventStream;
 import mongcai1.thanhniensomongcai1.service.PostService;
+import mongcai1.thanhniensomongcai1.wire.PrecompressedResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -31,6 +39,12 @@ public class PostController {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private PrecompressedResponses precompressedResponses;
+    
+    @Autowired
+    private PostEventStream postEventStream;
+    
     /**
      * GET /api/posts - Get all posts with optional filtering
      */
@@ -46,7 +60,9 @@ public class PostController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "publishedAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeUnpublished,
+            HttpServletRequest request) {
         
         try {
             Sort sort = sortDir.equalsIgnoreCase("desc") ? 
@@ -90,6 +106,9 @@ public class PostController {
                     return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                             .body("Định dạng ngày không hợp lệ. Sử dụng ISO format: yyyy-MM-ddTHH:mm:ss");
                 }
+            } else if (includeUnpublished && AuthPrincipal.current(request) != null) {
+                // Admin list: also scheduled and expired posts
+                posts = postService.getAllPostsIncludingUnpublished(pageable);
             } else {
                 // Get all posts
                 posts = postService.getAllPosts(pageable);
@@ -150,11 +169,12 @@ public class PostController {
      */
     @GetMapping("/featured")
     public ResponseEntity<?> getFeaturedPosts(
-            @RequestParam(defaultValue = "3") int limit) {
+            @RequestParam(defaultValue = "3") int limit,
+            HttpServletRequest request) {
         
         try {
-            List<Post> posts = postService.getLatestFeaturedPosts(limit);
-            return ResponseEntity.ok(posts);
+            return precompressedResponses.respond("featured:" + limit, request,
+                    () -> postService.getLatestFeaturedPosts(limit));
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -166,10 +186,9 @@ public class PostController {
      * GET /api/posts/urgent - Get urgent posts
      */
     @GetMapping("/urgent")
-    public ResponseEntity<?> getUrgentPosts() {
+    public ResponseEntity<?> getUrgentPosts(HttpServletRequest request) {
         try {
-            List<Post> posts = postService.getUrgentPosts();
-            return ResponseEntity.ok(posts);
+            return precompressedResponses.respond("urgent", request, postService::getUrgentPosts);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -177,6 +196,28 @@ public class PostController {
         }
     }
     
+    /**
+     * GET /api/posts/events - Server-sent events for new and updated urgent/featured posts;
+     * events after Last-Event-ID (header, or lastEventId parameter) are replayed
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPostEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId) {
+        
+        SseEmitter emitter = postEventStream.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                // Keeps nginx from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+    
     /**
      * GET /api/posts/recent - Get recent posts (last 30 days)
      */
@@ -303,6 +344,11 @@ public class PostController {
                 post.setIsUrgent(Boolean.parseBoolean(request.get("isUrgent").toString()));
             }
             
+            // Publication schedule
+            post.setPublishedAt(parseDateTime(request.get("publishedAt")));
+            post.setUnpublishAt(parseDateTime(request.get("unpublishAt")));
+            post.setUrgentUntil(parseDateTime(request.get("urgentUntil")));
+            
             Post createdPost = postService.createPost(post);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdPost);
             
@@ -328,6 +374,8 @@ public class PostController {
             }
             
             Post post = existingOpt.get();
+            // Read before the changes below: with open-in-view this is the entity the service updates
+            boolean wasListed = PostEventStream.isListed(post);
             
             // Update category if provided
             if (request.get("categoryId") != null) {
@@ -361,8 +409,18 @@ public class PostController {
             if (request.get("isUrgent") != null) {
                 post.setIsUrgent(Boolean.parseBoolean(request.get("isUrgent").toString()));
             }
+            LocalDateTime publishedAt = parseDateTime(request.get("publishedAt"));
+            if (publishedAt != null) {
+                post.setPublishedAt(publishedAt);
+            }
+            if (request.containsKey("unpublishAt")) {
+                post.setUnpublishAt(parseDateTime(request.get("unpublishAt")));
+            }
+            if (request.containsKey("urgentUntil")) {
+                post.setUrgentUntil(parseDateTime(request.get("urgentUntil")));
+            }
             
-            Post updatedPost = postService.updatePost(id, post);
+            Post updatedPost = postService.updatePost(id, post, wasListed);
             return ResponseEntity.ok(updatedPost);
             
         } catch (IllegalArgumentException e) {
@@ -392,6 +450,20 @@ public class PostController {
         }
     }
     
+    /**
+     * Parse an ISO date-time from the request body (datetime-local inputs omit the seconds); blank = not set
+     */
+    private static LocalDateTime parseDateTime(Object value) {
+        if (value == null || value.toString().isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.toString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Định dạng ngày không hợp lệ. Sử dụng ISO format: yyyy-MM-ddTHH:mm:ss");
+        }
+    }
+    
     // Inner class for statistics response
     public static class PostStats {
         private long totalPosts;
@@ -0,0 +1,77 @@
+package mongcai1.thanhniensomongcai1.controller;
+
+import mongcai1.thanhniensomongcai1.storage.Blob;
+import mongcai1.thanhniensomongcai1.storage.BlobStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phục vụ ảnh đã upload tại /uploads/{filename} từ bất kỳ backend lưu trữ nào
+ */
+@RestController
+@RequestMapping("/uploads")
+public class UploadResourceController {
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Value("${app.storage.s3.presign-ttl:PT15M}")
+    private Duration presignTtl;
+
+    /**
+     * GET /uploads/{filename} - Trả về nội dung ảnh hoặc chuyển hướng tới URL trực tiếp của backend
+     */
+    @GetMapping("/{filename:.+}")
+    public ResponseEntity<?> getUpload(@PathVariable String filename, WebRequest webRequest) {
+        if (filename.startsWith(".")) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Filenames are random UUIDs that are never reused, so any cached copy is still valid
+        String etag = "\"" + filename + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        Optional<String> directUrl = blobStore.directUrl(filename, presignTtl);
+        if (directUrl.isPresent()) {
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .location(URI.create(directUrl.get()))
+                    .cacheControl(CacheControl.maxAge(presignTtl.dividedBy(2)).cachePrivate())
+                    .build();
+        }
+
+        try {
+            Optional<Blob> blob = blobStore.get(filename);
+            if (blob.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            Blob b = blob.get();
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(b.getContentType()))
+                    .contentLength(b.getInfo().getSize())
+                    .lastModified(b.getInfo().getLastModified())
+                    .eTag(etag)
+                    .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                    .body(new InputStreamResource(b.getStream()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -2,14 +2,20 @@ package mongcai1.thanhniensomongcai1.controller;
 
 import mongcai1.thanhniensomongcai1.model.User;
 import mongcai1.thanhniensomongcai1.model.UserRole;
+import mongcai1.thanhniensomongcai1.repository.UserSummary;
+import mongcai1.thanhniensomongcai1.security.AuthPrincipal;
 import mongcai1.thanhniensomongcai1.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -20,29 +26,67 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    private static final Set<String> SORTABLE_FIELDS =
+        Set.of("username", "fullName", "email", "role", "isActive", "lastLogin", "createdAt");
+    
     /**
-     * Lấy danh sách tất cả users (chỉ SUPER_ADMIN)
+     * Lấy danh sách users (chỉ SUPER_ADMIN).
+     * Không có page/size: trả về mảng như trước; có page hoặc size: trả về một trang.
      */
     @GetMapping
-    public ResponseEntity<?> getAllUsers(HttpSession session) {
-        String role = (String) session.getAttribute("userRole");
-        if (!"SUPER_ADMIN".equals(role)) {
+    public ResponseEntity<?> getAllUsers(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String role,
+            HttpServletRequest httpRequest) {
+        if (!"SUPER_ADMIN".equals(currentRole(httpRequest))) {
             return ResponseEntity.status(403).body(Map.of("message", "Không có quyền truy cập"));
         }
         
-        List<UserResponse> users = userService.findAll().stream()
-            .map(UserResponse::new)
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(users);
+        if (page == null && size == null && role == null) {
+            List<UserResponse> users = userService.findAllSummaries().stream()
+                .map(UserResponse::new)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(users);
+        }
+        
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Không thể sắp xếp theo trường: " + sortBy));
+        }
+        try {
+            Sort sort = sortDir.equalsIgnoreCase("desc") ?
+                       Sort.by(sortBy).descending() :
+                       Sort.by(sortBy).ascending();
+            PageRequest pageable = PageRequest.of(page != null ? page : 0,
+                                                  size != null ? Math.min(size, 100) : 20, sort);
+            UserRole roleFilter = role != null ? UserRole.valueOf(role) : null;
+            Page<UserResponse> users = userService.findSummaries(roleFilter, pageable).map(UserResponse::new);
+            return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Thống kê số lượng users theo role cho dashboard (chỉ SUPER_ADMIN)
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getUserStats(HttpServletRequest httpRequest) {
+        if (!"SUPER_ADMIN".equals(currentRole(httpRequest))) {
+            return ResponseEntity.status(403).body(Map.of("message", "Không có quyền truy cập"));
+        }
+        return ResponseEntity.ok(userService.getRoleSummary());
     }
     
     /**
      * Lấy thông tin một user
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUser(@PathVariable Long id, HttpSession session) {
-        String role = (String) session.getAttribute("userRole");
-        Long currentUserId = (Long) session.getAttribute("userId");
+    public ResponseEntity<?> getUser(@PathVariable Long id, HttpServletRequest httpRequest) {
+        String role = currentRole(httpRequest);
+        Long currentUserId = currentUserId(httpRequest);
         
         // Chỉ SUPER_ADMIN hoặc chính user đó mới được xem
         if (!"SUPER_ADMIN".equals(role) && !id.equals(currentUserId)) {
@@ -58,8 +102,8 @@ public class UserController {
      * Tạo user mới (chỉ SUPER_ADMIN)
      */
     @PostMapping
-    public ResponseEntity<?> createUser(@RequestBody CreateUserRequest request, HttpSession session) {
-        String role = (String) session.getAttribute("userRole");
+    public ResponseEntity<?> createUser(@RequestBody CreateUserRequest request, HttpServletRequest httpRequest) {
+        String role = currentRole(httpRequest);
         if (!"SUPER_ADMIN".equals(role)) {
             return ResponseEntity.status(403).body(Map.of("message", "Không có quyền tạo tài khoản"));
         }
@@ -88,9 +132,9 @@ public class UserController {
      * Cập nhật user
      */
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody UpdateUserRequest request, HttpSession session) {
-        String role = (String) session.getAttribute("userRole");
-        Long currentUserId = (Long) session.getAttribute("userId");
+    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody UpdateUserRequest request, HttpServletRequest httpRequest) {
+        String role = currentRole(httpRequest);
+        Long currentUserId = currentUserId(httpRequest);
         
         // SUPER_ADMIN có thể sửa tất cả, người khác chỉ sửa được thông tin của mình
         if (!"SUPER_ADMIN".equals(role) && !id.equals(currentUserId)) {
@@ -123,9 +167,9 @@ public class UserController {
      * Đổi mật khẩu
      */
     @PutMapping("/{id}/password")
-    public ResponseEntity<?> changePassword(@PathVariable Long id, @RequestBody ChangePasswordRequest request, HttpSession session) {
-        Long currentUserId = (Long) session.getAttribute("userId");
-        String role = (String) session.getAttribute("userRole");
+    public ResponseEntity<?> changePassword(@PathVariable Long id, @RequestBody ChangePasswordRequest request, HttpServletRequest httpRequest) {
+        Long currentUserId = currentUserId(httpRequest);
+        String role = currentRole(httpRequest);
         
         // Chỉ user đó hoặc SUPER_ADMIN mới được đổi mật khẩu
         if (!id.equals(currentUserId) && !"SUPER_ADMIN".equals(role)) {
@@ -135,9 +179,7 @@ public class UserController {
         try {
             // SUPER_ADMIN có thể reset password không cần mật khẩu cũ
             if ("SUPER_ADMIN".equals(role) && !id.equals(currentUserId)) {
-                User user = userService.findById(id).orElseThrow(() -> new RuntimeException("Không tìm thấy user"));
-                user.setPassword(request.getNewPassword());
-                userService.updateUser(id, user);
+                userService.resetPassword(id, request.getNewPassword());
             } else {
                 userService.changePassword(id, request.getOldPassword(), request.getNewPassword());
             }
@@ -151,9 +193,9 @@ public class UserController {
      * Xóa user (chỉ SUPER_ADMIN)
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteUser(@PathVariable Long id, HttpSession session) {
-        String role = (String) session.getAttribute("userRole");
-        Long currentUserId = (Long) session.getAttribute("userId");
+    public ResponseEntity<?> deleteUser(@PathVariable Long id, HttpServletRequest httpRequest) {
+        String role = currentRole(httpRequest);
+        Long currentUserId = currentUserId(httpRequest);
         
         if (!"SUPER_ADMIN".equals(role)) {
             return ResponseEntity.status(403).body(Map.of("message", "Không có quyền xóa tài khoản"));
@@ -175,9 +217,9 @@ public class UserController {
      * Toggle trạng thái active
      */
     @PutMapping("/{id}/toggle-active")
-    public ResponseEntity<?> toggleActive(@PathVariable Long id, HttpSession session) {
-        String role = (String) session.getAttribute("userRole");
-        Long currentUserId = (Long) session.getAttribute("userId");
+    public ResponseEntity<?> toggleActive(@PathVariable Long id, HttpServletRequest httpRequest) {
+        String role = currentRole(httpRequest);
+        Long currentUserId = currentUserId(httpRequest);
         
         if (!"SUPER_ADMIN".equals(role)) {
             return ResponseEntity.status(403).body(Map.of("message", "Không có quyền thay đổi trạng thái tài khoản"));
@@ -201,6 +243,16 @@ public class UserController {
         }
     }
     
+    private static String currentRole(HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.current(request);
+        return principal != null ? principal.getRole() : null;
+    }
+    
+    private static Long currentUserId(HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.current(request);
+        return principal != null ? principal.getUserId() : null;
+    }
+    
     // DTOs
     public static class UserResponse {
         private Long id;
@@ -223,6 +275,17 @@ public class UserController {
             this.createdAt = user.getCreatedAt() != null ? user.getCreatedAt().toString() : null;
         }
         
+        public UserResponse(UserSummary user) {
+            this.id = user.getId();
+            this.username = user.getUsername();
+            this.fullName = user.getFullName();
+            this.email = user.getEmail();
+            this.role = user.getRole().name();
+            this.isActive = user.getIsActive();
+            this.lastLogin = user.getLastLogin() != null ? user.getLastLogin().toString() : null;
+            this.createdAt = user.getCreatedAt() != null ? user.getCreatedAt().toString() : null;
+        }
+        
         // Getters
         public Long getId() { return id; }
         public String getUsername() { return username; }
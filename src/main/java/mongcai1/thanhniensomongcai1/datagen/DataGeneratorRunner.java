@@ -0,0 +1,96 @@
+package mongcai1.thanhniensomongcai1.datagen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Nạp bộ dữ liệu giả lập khi chạy với profile "datagen", sau đó thoát:
+ *
+ *   ./mvnw spring-boot:run -Dspring-boot.run.profiles=datagen -Dspring-boot.run.arguments=--app.datagen.posts=1000000
+ */
+@Component
+@Profile("datagen")
+public class DataGeneratorRunner implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DataGeneratorRunner.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${app.datagen.posts:100000}")
+    private long posts;
+
+    @Value("${app.datagen.locations:5000}")
+    private long locations;
+
+    @Value("${app.datagen.users:50}")
+    private int users;
+
+    @Value("${app.datagen.user-password:datagen123}")
+    private String userPassword;
+
+    @Value("${app.datagen.categories-per-type:8}")
+    private int categoriesPerType;
+
+    @Value("${app.datagen.content-paragraphs:5}")
+    private int contentParagraphs;
+
+    @Value("${app.datagen.years:5}")
+    private int years;
+
+    @Value("${app.datagen.seed:20240101}")
+    private long seed;
+
+    @Value("${app.datagen.threads:0}")
+    private int threads;
+
+    @Value("${app.datagen.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.datagen.defer-indexes:true}")
+    private boolean deferIndexes;
+
+    @Value("${app.datagen.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    @Override
+    public void run(String... args) throws Exception {
+        DatasetGenerator.Options options = new DatasetGenerator.Options()
+                .seed(seed)
+                .threads(threads > 0 ? threads : Runtime.getRuntime().availableProcessors())
+                .batchSize(batchSize)
+                .categoriesPerType(categoriesPerType)
+                .posts(posts)
+                .locations(locations)
+                .users(users)
+                // One hash for all generated accounts, BCrypt per row would dominate the load time
+                .userPasswordHash(passwordEncoder.encode(userPassword))
+                .contentParagraphs(contentParagraphs)
+                .years(years)
+                .deferIndexes(deferIndexes);
+
+        log.info("Datagen: generating {} posts, {} locations, {} users", posts, locations, users);
+        DatasetGenerator.Result result = new DatasetGenerator(dataSource, options).generate();
+        log.info("Datagen finished: {}", result);
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
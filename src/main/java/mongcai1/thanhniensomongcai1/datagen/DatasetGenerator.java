@@ -0,0 +1,501 @@
+package mongcai1.thanhniensomongcai1.datagen;
+
+import mongcai1.thanhniensomongcai1.repository.IdBlockAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sinh bộ dữ liệu lớn (danh mục, người dùng, bài viết, địa điểm) trực tiếp bằng JDBC batch.
+ *
+ * Id được giữ trước từ id_sequences (IdBlockAllocator), nên ứng dụng đang chạy vẫn tạo bản ghi được.
+ * Bài viết và địa điểm được chia thành từng khối id cố định và ghi song song bởi nhiều luồng,
+ * mỗi khối có seed riêng nên cùng một seed luôn cho ra cùng dữ liệu dù số luồng khác nhau.
+ * Trên MySQL các index phụ được gỡ trong lúc nạp và tạo lại ở cuối, kiểm tra khóa ngoại và
+ * ràng buộc unique được tắt theo từng phiên ghi.
+ */
+public class DatasetGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    // Trụ sở UBND phường, tâm của các địa điểm sinh ra
+    public static final double CENTER_LAT = 21.5285;
+    public static final double CENTER_LNG = 106.7317;
+
+    private static final int CHUNK_SIZE = 10_000;
+
+    private static final String[] DEFERRED_TABLES = { "posts", "post_bodies", "locations" };
+
+    private final DataSource dataSource;
+    private final Options options;
+    private final IdBlockAllocator idBlockAllocator;
+
+    private boolean mysql;
+
+    public DatasetGenerator(DataSource dataSource, Options options) {
+        this.dataSource = dataSource;
+        this.options = options;
+        this.idBlockAllocator = new IdBlockAllocator(dataSource);
+    }
+
+    /**
+     * Chạy toàn bộ quá trình sinh dữ liệu
+     */
+    public Result generate() throws SQLException, InterruptedException {
+        long started = System.nanoTime();
+        Result result = new Result();
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+            mysql = product.contains("mysql") || product.contains("mariadb");
+        }
+
+        List<Long> postCategories = ensureCategories("POST", TextGenerator.POST_CATEGORIES, "FileText");
+        List<Long> locationCategories = ensureCategories("LOCATION", TextGenerator.LOCATION_CATEGORIES, "MapPin");
+        result.categories = postCategories.size() + locationCategories.size();
+        result.users = insertUsers();
+
+        Map<String, List<String>> droppedIndexes = new LinkedHashMap<>();
+        setReferentialIntegrity(false);
+        try {
+            if (mysql && options.deferIndexes) {
+                for (String table : DEFERRED_TABLES) {
+                    droppedIndexes.put(table, dropSecondaryIndexes(table));
+                }
+            }
+            result.posts = loadParallel("posts", options.posts, this::insertPosts, postCategories);
+            result.locations = loadParallel("locations", options.locations, this::insertLocations,
+                    locationCategories);
+        } finally {
+            // Restore even after a failed load, otherwise the tables are left without their indexes
+            for (Map.Entry<String, List<String>> entry : droppedIndexes.entrySet()) {
+                restoreIndexes(entry.getKey(), entry.getValue());
+            }
+            setReferentialIntegrity(true);
+        }
+        result.elapsed = Duration.ofNanos(System.nanoTime() - started);
+        return result;
+    }
+
+    /**
+     * Tạo các danh mục còn thiếu, trả về id của toàn bộ danh mục cùng loại
+     */
+    private List<Long> ensureCategories(String type, String[] names, String icon) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (Connection connection = dataSource.getConnection()) {
+            List<String> existing = new ArrayList<>();
+            try (PreparedStatement ps = connection.prepareStatement("SELECT name FROM categories WHERE type = ?")) {
+                ps.setString(1, type);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        existing.add(rs.getString(1));
+                    }
+                }
+            }
+            List<String> missing = new ArrayList<>();
+            for (int i = 0; i < options.categoriesPerType; i++) {
+                String name = i < names.length ? names[i] : names[i % names.length] + " " + (i / names.length + 1);
+                if (!existing.contains(name)) {
+                    missing.add(name);
+                }
+            }
+            if (!missing.isEmpty()) {
+                long id = idBlockAllocator.reserve("categories", missing.size());
+                try (PreparedStatement ps = connection.prepareStatement("INSERT INTO categories (id, name, type,"
+                        + " description, icon, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                    for (String name : missing) {
+                        ps.setLong(1, id++);
+                        ps.setString(2, name);
+                        ps.setString(3, type);
+                        ps.setString(4, "Danh mục " + name.toLowerCase(Locale.ROOT));
+                        ps.setString(5, icon);
+                        ps.setTimestamp(6, now);
+                        ps.setTimestamp(7, now);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+            List<Long> ids = new ArrayList<>();
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT id FROM categories WHERE type = ? ORDER BY id")) {
+                ps.setString(1, type);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getLong(1));
+                    }
+                }
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Thêm tài khoản biên tập viên/quản trị viên giả lập, nối tiếp các tài khoản đã sinh trước đó
+     */
+    private int insertUsers() throws SQLException {
+        if (options.users <= 0) {
+            return 0;
+        }
+        Random random = new Random(options.seed);
+        TextGenerator text = new TextGenerator(random);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (Connection connection = dataSource.getConnection()) {
+            int offset;
+            try (Statement st = connection.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM users WHERE username LIKE 'datagen%'")) {
+                rs.next();
+                offset = rs.getInt(1);
+            }
+            long firstId = idBlockAllocator.reserve("users", options.users);
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO users (id, username, password,"
+                    + " full_name, email, role, is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < options.users; i++) {
+                    String username = String.format("datagen%05d", offset + i);
+                    ps.setLong(1, firstId + i);
+                    ps.setString(2, username);
+                    ps.setString(3, options.userPasswordHash);
+                    ps.setString(4, text.personName());
+                    ps.setString(5, username + "@mongcai1.gov.vn");
+                    // Mostly editors, a few admins, as in a real ward office
+                    ps.setString(6, random.nextInt(10) == 0 ? "ADMIN" : "EDITOR");
+                    ps.setBoolean(7, random.nextInt(20) != 0);
+                    ps.setTimestamp(8, now);
+                    ps.setTimestamp(9, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+        return options.users;
+    }
+
+    /**
+     * Chia khoảng id thành các khối và giao cho nhóm luồng ghi song song
+     */
+    private long loadParallel(String table, long rows, ChunkWriter writer, List<Long> categoryIds)
+            throws SQLException, InterruptedException {
+        if (rows <= 0) {
+            return 0;
+        }
+        // One block for the whole load, so the chunk boundaries (and seeds) depend only on the row count
+        long firstId = idBlockAllocator.reserve(table, rows);
+
+        long started = System.nanoTime();
+        AtomicLong written = new AtomicLong();
+        AtomicLong nextReport = new AtomicLong(Math.max(rows / 10, 1));
+        int chunks = (int) ((rows + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        ExecutorService writers = Executors.newFixedThreadPool(Math.max(1, options.threads));
+        try {
+            List<Future<?>> futures = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                long from = firstId + (long) chunk * CHUNK_SIZE;
+                long to = Math.min(from + CHUNK_SIZE, firstId + rows);
+                Random random = new Random(options.seed ^ (table.hashCode() * 31L + chunk) * 0x9E3779B97F4A7C15L);
+                futures.add(writers.submit(() -> {
+                    try (Connection connection = dataSource.getConnection()) {
+                        writeChunk(connection, writer, from, to, random, categoryIds);
+                    }
+                    long total = written.addAndGet(to - from);
+                    long threshold = nextReport.get();
+                    if (total >= threshold && nextReport.compareAndSet(threshold, threshold + Math.max(rows / 10, 1))) {
+                        log.info("Datagen {}: {}/{} rows ({} rows/s)", table, total, rows,
+                                total * 1_000_000_000L / Math.max(System.nanoTime() - started, 1));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new IllegalStateException("Sinh dữ liệu bảng " + table + " thất bại", cause);
+        } finally {
+            writers.shutdownNow();
+        }
+        return written.get();
+    }
+
+    private void writeChunk(Connection connection, ChunkWriter writer, long from, long to, Random random,
+                            List<Long> categoryIds) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        if (mysql) {
+            try (Statement st = connection.createStatement()) {
+                st.execute("SET SESSION foreign_key_checks = 0, unique_checks = 0");
+            }
+        }
+        connection.setAutoCommit(false);
+        try {
+            writer.write(connection, from, to, random, categoryIds);
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            // Pooled connection: leave the session exactly as we found it
+            connection.setAutoCommit(autoCommit);
+            if (mysql) {
+                try (Statement st = connection.createStatement()) {
+                    st.execute("SET SESSION foreign_key_checks = 1, unique_checks = 1");
+                }
+            }
+        }
+    }
+
+    private void insertPosts(Connection connection, long from, long to, Random random, List<Long> categoryIds)
+            throws SQLException {
+        TextGenerator text = new TextGenerator(random);
+        LocalDateTime now = LocalDateTime.now();
+        long spanMinutes = Math.max(options.years, 1) * 365L * 24 * 60;
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO posts (id, title, summary,"
+                + " thumbnail_url, category_id, author, is_featured, is_urgent, view_count, published_at,"
+                + " created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement body = connection.prepareStatement(
+                     "INSERT INTO post_bodies (post_id, content) VALUES (?, ?)")) {
+            int pending = 0;
+            for (long id = from; id < to; id++) {
+                // Skewed towards recent dates: most content of a portal is from the last few months
+                double age = random.nextDouble();
+                Timestamp published = Timestamp.valueOf(now.minusMinutes((long) (age * age * spanMinutes)));
+                ps.setLong(1, id);
+                ps.setString(2, text.postTitle());
+                ps.setString(3, text.summary());
+                ps.setString(4, random.nextInt(10) < 7 ? "/uploads/sample-" + (id % 500) + ".jpg" : null);
+                ps.setLong(5, categoryIds.get(random.nextInt(categoryIds.size())));
+                ps.setString(6, text.author());
+                ps.setBoolean(7, random.nextInt(100) < 3);
+                ps.setBoolean(8, random.nextInt(1000) < 5);
+                // Long tail: a handful of posts get most of the views
+                ps.setInt(9, (int) (Math.pow(random.nextDouble(), 6) * 50_000));
+                ps.setTimestamp(10, published);
+                ps.setTimestamp(11, published);
+                ps.setTimestamp(12, published);
+                ps.addBatch();
+                body.setLong(1, id);
+                body.setString(2, text.htmlContent(options.contentParagraphs));
+                body.addBatch();
+                if (++pending == options.batchSize) {
+                    ps.executeBatch();
+                    body.executeBatch();
+                    connection.commit();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+                body.executeBatch();
+            }
+        }
+    }
+
+    private void insertLocations(Connection connection, long from, long to, Random random, List<Long> categoryIds)
+            throws SQLException {
+        TextGenerator text = new TextGenerator(random);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO locations (id, name, address,"
+                + " description, category_id, latitude, longitude, phone, opening_hours, is_active, created_at,"
+                + " updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            int pending = 0;
+            for (long id = from; id < to; id++) {
+                double lat;
+                double lng;
+                if (random.nextInt(5) == 0) {
+                    // Scattered over the surrounding city
+                    lat = CENTER_LAT + (random.nextDouble() - 0.5) * 0.2;
+                    lng = CENTER_LNG + (random.nextDouble() - 0.5) * 0.2;
+                } else {
+                    // Dense around the ward centre (sigma ~1 km)
+                    lat = CENTER_LAT + random.nextGaussian() * 0.009;
+                    lng = CENTER_LNG + random.nextGaussian() * 0.009;
+                }
+                ps.setLong(1, id);
+                ps.setString(2, text.locationName(id));
+                ps.setString(3, text.address());
+                ps.setString(4, text.locationDescription());
+                ps.setLong(5, categoryIds.get(random.nextInt(categoryIds.size())));
+                ps.setDouble(6, lat);
+                ps.setDouble(7, lng);
+                ps.setString(8, text.phone());
+                ps.setString(9, text.openingHours());
+                ps.setBoolean(10, random.nextInt(50) != 0);
+                ps.setTimestamp(11, now);
+                ps.setTimestamp(12, now);
+                ps.addBatch();
+                if (++pending == options.batchSize) {
+                    ps.executeBatch();
+                    connection.commit();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Gỡ các index phụ (trừ index phục vụ khóa ngoại), trả về câu lệnh để tạo lại
+     */
+    private List<String> dropSecondaryIndexes(String table) throws SQLException {
+        Map<String, IndexDefinition> indexes = new LinkedHashMap<>();
+        List<String> foreignKeyColumns = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT COLUMN_NAME"
+                    + " FROM information_schema.KEY_COLUMN_USAGE WHERE TABLE_SCHEMA = DATABASE()"
+                    + " AND TABLE_NAME = ? AND REFERENCED_TABLE_NAME IS NOT NULL")) {
+                ps.setString(1, table);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        foreignKeyColumns.add(rs.getString(1));
+                    }
+                }
+            }
+            try (PreparedStatement ps = connection.prepareStatement("SELECT INDEX_NAME, NON_UNIQUE, INDEX_TYPE,"
+                    + " COLUMN_NAME, SUB_PART FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE()"
+                    + " AND TABLE_NAME = ? AND INDEX_NAME <> 'PRIMARY' ORDER BY INDEX_NAME, SEQ_IN_INDEX")) {
+                ps.setString(1, table);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        IndexDefinition index = indexes.computeIfAbsent(rs.getString(1), name -> new IndexDefinition());
+                        index.unique = rs.getInt(2) == 0;
+                        index.type = rs.getString(3);
+                        long subPart = rs.getLong(5);
+                        index.columnNames.add(rs.getString(4));
+                        index.columns.add("`" + rs.getString(4) + "`" + (rs.wasNull() ? "" : "(" + subPart + ")"));
+                    }
+                }
+            }
+            List<String> restore = new ArrayList<>();
+            try (Statement st = connection.createStatement()) {
+                for (Map.Entry<String, IndexDefinition> entry : indexes.entrySet()) {
+                    IndexDefinition index = entry.getValue();
+                    // InnoDB refuses to drop the index backing a foreign key
+                    if (foreignKeyColumns.contains(index.columnNames.get(0))) {
+                        continue;
+                    }
+                    String kind = "FULLTEXT".equals(index.type) ? "FULLTEXT INDEX"
+                            : "SPATIAL".equals(index.type) ? "SPATIAL INDEX"
+                            : index.unique ? "UNIQUE INDEX" : "INDEX";
+                    restore.add("ALTER TABLE " + table + " ADD " + kind + " `" + entry.getKey() + "` ("
+                            + String.join(", ", index.columns) + ")");
+                    st.execute("ALTER TABLE " + table + " DROP INDEX `" + entry.getKey() + "`");
+                }
+            }
+            if (!restore.isEmpty()) {
+                log.info("Datagen: dropped {} secondary indexes on {} for the load: {}", restore.size(), table, restore);
+            }
+            return restore;
+        }
+    }
+
+    private void restoreIndexes(String table, List<String> statements) throws SQLException {
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection();
+             Statement st = connection.createStatement()) {
+            // One statement per index: InnoDB cannot build several FULLTEXT indexes in one ALTER
+            for (String sql : statements) {
+                st.execute(sql);
+            }
+        }
+        if (!statements.isEmpty()) {
+            log.info("Datagen: rebuilt {} indexes on {} in {} ms", statements.size(), table,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private void setReferentialIntegrity(boolean enabled) throws SQLException {
+        if (mysql) {
+            // MySQL handles this per session, see writeChunk
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement st = connection.createStatement()) {
+            st.execute("SET REFERENTIAL_INTEGRITY " + (enabled ? "TRUE" : "FALSE"));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(Connection connection, long from, long to, Random random, List<Long> categoryIds)
+                throws SQLException;
+    }
+
+    private static class IndexDefinition {
+        private boolean unique;
+        private String type;
+        private final List<String> columnNames = new ArrayList<>();
+        private final List<String> columns = new ArrayList<>();
+    }
+
+    // Cấu hình quy mô và cách nạp
+    public static class Options {
+        private long seed = 20240101L;
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private int batchSize = 1000;
+        private int categoriesPerType = 8;
+        private long posts = 100_000;
+        private long locations = 5_000;
+        private int users = 50;
+        private int contentParagraphs = 5;
+        private int years = 5;
+        private boolean deferIndexes = true;
+        private String userPasswordHash;
+
+        public Options seed(long seed) { this.seed = seed; return this; }
+        public Options threads(int threads) { this.threads = threads; return this; }
+        public Options batchSize(int batchSize) { this.batchSize = Math.max(1, batchSize); return this; }
+        public Options categoriesPerType(int categoriesPerType) { this.categoriesPerType = categoriesPerType; return this; }
+        public Options posts(long posts) { this.posts = posts; return this; }
+        public Options locations(long locations) { this.locations = locations; return this; }
+        public Options users(int users) { this.users = users; return this; }
+        public Options contentParagraphs(int contentParagraphs) { this.contentParagraphs = Math.max(1, contentParagraphs); return this; }
+        public Options years(int years) { this.years = years; return this; }
+        public Options deferIndexes(boolean deferIndexes) { this.deferIndexes = deferIndexes; return this; }
+        public Options userPasswordHash(String userPasswordHash) { this.userPasswordHash = userPasswordHash; return this; }
+    }
+
+    // Số bản ghi đã sinh
+    public static class Result {
+        private int categories;
+        private int users;
+        private long posts;
+        private long locations;
+        private Duration elapsed;
+
+        // Getters
+        public int getCategories() { return categories; }
+        public int getUsers() { return users; }
+        public long getPosts() { return posts; }
+        public long getLocations() { return locations; }
+        public Duration getElapsed() { return elapsed; }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d categories, %d users, %d posts, %d locations in %.1f s",
+                    categories, users, posts, locations, elapsed.toMillis() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package mongcai1.thanhniensomongcai1.datagen;
+
+import java.util.Random;
+
+/**
+ * Sinh văn bản tiếng Việt giả lập (tiêu đề, tóm tắt, nội dung HTML, địa chỉ) cho bộ dữ liệu lớn
+ */
+class TextGenerator {
+
+    static final String[] POST_CATEGORIES = {
+        "Thông báo chính thức", "Hoạt động cộng đồng", "Y tế - Sức khỏe", "Giáo dục",
+        "An ninh - Trật tự", "Kinh tế - Thương mại", "Văn hóa - Thể thao", "Chuyển đổi số"
+    };
+
+    static final String[] LOCATION_CATEGORIES = {
+        "Hành chính", "Y tế", "Giáo dục", "Thương mại", "Dịch vụ công cộng",
+        "Du lịch", "Ẩm thực", "Thể thao"
+    };
+
+    private static final String[] TITLE_OPENINGS = {
+        "Thông báo về", "Kế hoạch triển khai", "Hướng dẫn thực hiện", "Kết quả", "Tổ chức",
+        "Tăng cường", "Phát động", "Tuyên truyền về", "Lịch", "Triển khai"
+    };
+
+    private static final String[] TOPICS = {
+        "tiêm chủng mở rộng", "cải cách thủ tục hành chính", "phòng chống dịch bệnh",
+        "chỉnh trang đô thị", "an toàn giao thông", "hoạt động tình nguyện của Đoàn Thanh niên",
+        "khai giảng năm học mới", "dịch vụ công trực tuyến", "bảo vệ môi trường",
+        "phòng cháy chữa cháy", "hỗ trợ hộ gia đình khó khăn", "quản lý chợ biên giới",
+        "xuất nhập khẩu qua cửa khẩu", "chuyển đổi số cấp phường", "tuyển quân",
+        "giải bóng đá thanh niên", "lễ hội truyền thống", "cấp căn cước công dân"
+    };
+
+    private static final String[] PERIODS = {
+        "tháng 1", "tháng 3", "tháng 6", "quý I", "quý III", "năm 2025", "năm 2026", "dịp Tết Nguyên đán"
+    };
+
+    private static final String[] SENTENCES = {
+        "UBND phường Móng Cái 1 đề nghị các tổ dân phố phối hợp triển khai kịp thời",
+        "người dân cần mang theo giấy tờ tùy thân khi đến làm thủ tục",
+        "thời gian tiếp nhận hồ sơ từ 7 giờ 30 đến 17 giờ các ngày làm việc trong tuần",
+        "Đoàn Thanh niên phường huy động đoàn viên tham gia hỗ trợ người cao tuổi",
+        "trạm y tế phường bố trí cán bộ trực để tư vấn và giải đáp thắc mắc",
+        "các hộ kinh doanh tại chợ Móng Cái chấp hành nghiêm quy định về an toàn thực phẩm",
+        "phụ huynh học sinh theo dõi thông báo của nhà trường để nắm lịch học",
+        "lực lượng công an phường tăng cường tuần tra bảo đảm trật tự khu dân cư",
+        "hồ sơ có thể nộp trực tuyến qua cổng dịch vụ công quốc gia",
+        "mọi thắc mắc xin liên hệ bộ phận một cửa của phường để được hướng dẫn",
+        "chương trình nhận được sự hưởng ứng tích cực của đông đảo nhân dân",
+        "kết quả thực hiện sẽ được báo cáo UBND thành phố Móng Cái trước cuối tháng"
+    };
+
+    private static final String[] LIST_ITEMS = {
+        "Thời gian thực hiện: từ ngày 15 đến ngày 30", "Địa điểm: Hội trường UBND phường",
+        "Đối tượng: toàn thể người dân trên địa bàn", "Chuẩn bị: căn cước công dân và sổ hộ khẩu",
+        "Liên hệ: bộ phận một cửa, điện thoại 033-123-4567", "Hình thức: trực tiếp hoặc trực tuyến",
+        "Kinh phí: miễn phí", "Đơn vị phối hợp: Đoàn Thanh niên, Hội Phụ nữ phường"
+    };
+
+    private static final String[] AUTHORS = {
+        "UBND Phường Móng Cái 1", "Đoàn Thanh niên Phường", "Trạm Y tế Phường Móng Cái 1",
+        "Phòng Giáo dục & Đào tạo", "Công an Phường Móng Cái 1"
+    };
+
+    private static final String[] STREETS = {
+        "Trần Phú", "Lê Lợi", "Nguyễn Trãi", "Hùng Vương", "Hai Bà Trưng", "Hữu Nghị",
+        "Vân Đồn", "Tuệ Tĩnh", "Hòa Bình", "Lý Tự Trọng"
+    };
+
+    private static final String[] PLACE_TYPES = {
+        "Nhà văn hóa khu", "Cửa hàng", "Nhà thuốc", "Quán ăn", "Trường Mầm non", "Sân thể thao",
+        "Điểm giao dịch", "Khách sạn", "Chi nhánh ngân hàng", "Phòng khám"
+    };
+
+    private static final String[] FAMILY_NAMES = {
+        "Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Vũ", "Đặng", "Bùi", "Đỗ", "Ngô"
+    };
+
+    private static final String[] GIVEN_NAMES = {
+        "An", "Bình", "Chi", "Dũng", "Giang", "Hà", "Hải", "Hương", "Lan", "Minh", "Nam", "Thảo", "Tuấn"
+    };
+
+    private final Random random;
+
+    TextGenerator(Random random) {
+        this.random = random;
+    }
+
+    String postTitle() {
+        return pick(TITLE_OPENINGS) + " " + pick(TOPICS) + " " + pick(PERIODS);
+    }
+
+    String summary() {
+        return capitalize(pick(SENTENCES)) + ", " + pick(SENTENCES) + ".";
+    }
+
+    /**
+     * Nội dung HTML gồm tiêu đề, các đoạn văn và một danh sách, tương tự bài do biên tập viên soạn
+     */
+    String htmlContent(int paragraphs) {
+        StringBuilder html = new StringBuilder(paragraphs * 400);
+        html.append("<h2>").append(capitalize(pick(TOPICS))).append("</h2>");
+        for (int p = 0; p < paragraphs; p++) {
+            html.append("<p>");
+            int sentences = 3 + random.nextInt(3);
+            for (int s = 0; s < sentences; s++) {
+                html.append(capitalize(pick(SENTENCES))).append(". ");
+            }
+            html.append("</p>");
+            if (p == 0) {
+                html.append("<h3>Nội dung chính:</h3><ul>");
+                int items = 2 + random.nextInt(3);
+                for (int i = 0; i < items; i++) {
+                    html.append("<li>").append(pick(LIST_ITEMS)).append("</li>");
+                }
+                html.append("</ul>");
+            }
+        }
+        return html.toString();
+    }
+
+    String author() {
+        return pick(AUTHORS);
+    }
+
+    String locationName(long n) {
+        return pick(PLACE_TYPES) + " " + pick(STREETS) + " " + n;
+    }
+
+    String address() {
+        return (1 + random.nextInt(300)) + " Đường " + pick(STREETS)
+                + ", Phường Móng Cái 1, TP Móng Cái, Quảng Ninh";
+    }
+
+    String locationDescription() {
+        return capitalize(pick(SENTENCES)) + ".";
+    }
+
+    String openingHours() {
+        return random.nextBoolean() ? "Thứ 2 - Thứ 6: 7:30-17:00" : "Hàng ngày: 6:00-22:00";
+    }
+
+    String phone() {
+        return String.format("033-%03d-%04d", random.nextInt(1000), random.nextInt(10000));
+    }
+
+    String personName() {
+        return pick(FAMILY_NAMES) + " " + pick(GIVEN_NAMES);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
@@ -0,0 +1,103 @@
+package mongcai1.thanhniensomongcai1.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mongcai1.thanhniensomongcai1.security.AuthPrincipal;
+
+import java.time.Duration;
+
+/**
+ * Trạng thái "đọc lại dữ liệu vừa ghi" của request hiện tại.
+ *
+ * Sau khi một người dùng đã đăng nhập ghi dữ liệu, cookie hạn ngắn được gửi kèm response;
+ * trong thời gian đó các truy vấn chỉ đọc của họ vẫn chạy trên primary để không thấy dữ liệu cũ
+ * từ replica đang trễ. Dùng cookie thay vì bộ nhớ để hoạt động khi chạy nhiều node.
+ */
+public final class ReadYourWritesContext {
+
+    private static final ThreadLocal<ReadYourWritesContext> CURRENT = new ThreadLocal<>();
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final String cookieName;
+    private final Duration window;
+
+    // Cookie parsed lazily: AuthTokenFilter may not have run yet when this context is bound
+    private Long pinnedUntil;
+
+    ReadYourWritesContext(HttpServletRequest request, HttpServletResponse response, String cookieName,
+                          Duration window) {
+        this.request = request;
+        this.response = response;
+        this.cookieName = cookieName;
+        this.window = window;
+    }
+
+    static void bind(ReadYourWritesContext context) {
+        CURRENT.set(context);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Request hiện tại có phải đọc từ primary không
+     */
+    static boolean isPinnedToPrimary() {
+        ReadYourWritesContext context = CURRENT.get();
+        return context != null && context.pinned();
+    }
+
+    /**
+     * Gọi sau khi một transaction ghi đã commit trên primary
+     */
+    static void writeCommitted() {
+        ReadYourWritesContext context = CURRENT.get();
+        if (context != null) {
+            context.pin();
+        }
+    }
+
+    private boolean pinned() {
+        if (pinnedUntil == null) {
+            pinnedUntil = readCookie();
+        }
+        // Only signed-in users get stickiness; an anonymous client cannot force its reads onto the primary
+        return pinnedUntil > System.currentTimeMillis() && AuthPrincipal.current(request) != null;
+    }
+
+    private void pin() {
+        if (AuthPrincipal.current(request) == null) {
+            // Anonymous writes (view counters) must not move readers off the replica
+            return;
+        }
+        pinnedUntil = System.currentTimeMillis() + window.toMillis();
+        if (response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(cookieName, String.valueOf(pinnedUntil));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+        response.addCookie(cookie);
+    }
+
+    private long readCookie() {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0L;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0L;
+                }
+            }
+        }
+        return 0L;
+    }
+}
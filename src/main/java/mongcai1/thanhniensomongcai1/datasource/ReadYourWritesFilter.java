@@ -0,0 +1,35 @@
+package mongcai1.thanhniensomongcai1.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Gắn ReadYourWritesContext cho mỗi request để ReplicaRoutingDataSource biết khi nào phải đọc từ primary
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final String cookieName;
+    private final Duration window;
+
+    public ReadYourWritesFilter(String cookieName, Duration window) {
+        this.cookieName = cookieName;
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWritesContext.bind(new ReadYourWritesContext(request, response, cookieName, window));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWritesContext.unbind();
+        }
+    }
+}
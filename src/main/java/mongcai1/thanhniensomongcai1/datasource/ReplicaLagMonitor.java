@@ -0,0 +1,130 @@
+package mongcai1.thanhniensomongcai1.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Theo dõi độ trễ sao chép của replica. Replica chỉ nhận truy vấn đọc khi kết nối được
+ * và trễ không quá app.datasource.replica.max-lag; ngược lại mọi truy vấn quay về primary.
+ *
+ * Với check-replication=false chỉ kiểm tra kết nối (hai CSDL độc lập khi thử nghiệm cục bộ).
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration maxLag;
+    private final boolean checkReplication;
+
+    private volatile boolean available;
+    // Seconds; -1 when unknown
+    private volatile long lagSeconds = -1;
+    // MySQL < 8.0.22 only understands the old statement
+    private volatile boolean legacyStatusStatement;
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, boolean checkReplication) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        this.jdbcTemplate.setQueryTimeout(2);
+        this.maxLag = maxLag;
+        this.checkReplication = checkReplication;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("portal.db.replica.lag", this, ReplicaLagMonitor::getLagSeconds)
+                .description("Replication lag of the read replica (-1 when unknown)")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("portal.db.replica.available", this, m -> m.available ? 1.0 : 0.0)
+                .description("1 when read-only transactions are routed to the replica")
+                .register(registry);
+    }
+
+    /**
+     * Kiểm tra định kỳ; lần đầu chạy ngay khi khởi động, trước đó mọi truy vấn đi primary
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval:PT5S}")
+    public void check() {
+        try {
+            if (!checkReplication) {
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                lagSeconds = 0;
+                update(true, null);
+                return;
+            }
+            Long lag = replicationLag();
+            lagSeconds = lag != null ? lag : -1;
+            if (lag == null) {
+                update(false, "replication is not running");
+            } else if (lag > maxLag.toSeconds()) {
+                update(false, "lag " + lag + " s exceeds " + maxLag.toSeconds() + " s");
+            } else {
+                update(true, null);
+            }
+        } catch (DataAccessException e) {
+            lagSeconds = -1;
+            update(false, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Gọi khi không lấy được kết nối tới replica; giữ trạng thái này tới lần kiểm tra kế tiếp
+     */
+    void markUnavailable(SQLException cause) {
+        update(false, cause.getMessage());
+    }
+
+    private Long replicationLag() {
+        if (!legacyStatusStatement) {
+            try {
+                return lagFrom("SHOW REPLICA STATUS", "Seconds_Behind_Source");
+            } catch (BadSqlGrammarException e) {
+                legacyStatusStatement = true;
+            }
+        }
+        return lagFrom("SHOW SLAVE STATUS", "Seconds_Behind_Master");
+    }
+
+    private Long lagFrom(String statement, String column) {
+        List<Long> rows = jdbcTemplate.query(statement, (rs, rowNum) -> nullableLong(rs, column));
+        // No row: the server is not configured as a replica; NULL: the SQL thread is stopped
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private synchronized void update(boolean nowAvailable, String reason) {
+        if (nowAvailable == available) {
+            return;
+        }
+        available = nowAvailable;
+        if (nowAvailable) {
+            log.info("Read replica available, routing read-only transactions to it");
+        } else {
+            log.warn("Read replica unavailable ({}), routing all transactions to the primary", reason);
+        }
+    }
+}
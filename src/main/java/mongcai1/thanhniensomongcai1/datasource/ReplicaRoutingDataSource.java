@@ -0,0 +1,130 @@
+package mongcai1.thanhniensomongcai1.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Chuyển transaction chỉ đọc (@Transactional(readOnly = true)) sang replica, còn lại dùng primary.
+ *
+ * Phải được bọc bởi LazyConnectionDataSourceProxy: cờ readOnly của transaction chỉ có
+ * sau khi transaction bắt đầu, nên kết nối thật chỉ được lấy ở câu lệnh đầu tiên.
+ * Về primary khi replica trễ hoặc mất kết nối, khi người dùng vừa ghi dữ liệu (ReadYourWritesContext),
+ * và trong onPrimary() (dữ liệu được cache lâu hơn độ trễ cho phép của replica).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = ThreadLocal.withInitial(() -> false);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter replicaFailovers;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor monitor,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+        this.primaryConnections = routed(meterRegistry, "primary");
+        this.replicaConnections = routed(meterRegistry, "replica");
+        this.replicaFailovers = Counter.builder("portal.db.replica.failovers")
+                .description("Read-only connections sent to the primary because the replica refused them")
+                .register(meterRegistry);
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return useReplica() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (useReplica()) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                monitor.markUnavailable(e);
+                replicaFailovers.increment();
+            }
+        }
+        return primaryConnection(primary.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (useReplica()) {
+            try {
+                Connection connection = replica.getConnection(username, password);
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                monitor.markUnavailable(e);
+                replicaFailovers.increment();
+            }
+        }
+        return primaryConnection(primary.getConnection(username, password));
+    }
+
+    /**
+     * Chạy action với mọi truy vấn trên primary, kể cả trong transaction chỉ đọc.
+     * Dùng khi kết quả được cache: đọc từ replica đang trễ ngay sau khi cache bị xóa sẽ đưa dữ liệu cũ
+     * trở lại cache cho tới hết TTL. Kết nối chỉ được lấy ở câu lệnh đầu tiên, nên action phải chứa nó.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(true);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_ONLY.set(previous);
+        }
+    }
+
+    private boolean useReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !PRIMARY_ONLY.get()
+                && monitor.isAvailable()
+                && !ReadYourWritesContext.isPinnedToPrimary();
+    }
+
+    private Connection primaryConnection(Connection connection) {
+        primaryConnections.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // The user's next reads must see this write even if the replica has not applied it yet
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ReadYourWritesContext.writeCommitted();
+                }
+            });
+        }
+        return connection;
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("portal.db.routing")
+                .description("Physical connections handed out by the read/write router")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
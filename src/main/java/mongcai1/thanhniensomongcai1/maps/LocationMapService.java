@@ -0,0 +1,199 @@
+package mongcai1.thanhniensomongcai1.maps;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mongcai1.thanhniensomongcai1.config.CacheConfig;
+import mongcai1.thanhniensomongcai1.repository.LocationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bản đồ địa điểm: Mapbox Vector Tile theo z/x/y và GeoJSON FeatureCollection.
+ *
+ * Cả hai được dựng từ một ảnh chụp các địa điểm đang hoạt động có tọa độ (MarkerIndex). Dưới
+ * app.locations.tiles.cluster-max-zoom các điểm gần nhau được gộp thành cụm. Ảnh chụp và từng
+ * tile/GeoJSON đã mã hóa nằm trong cache locationMap; mọi thay đổi địa điểm hoặc danh mục xóa
+ * toàn bộ cache sau khi commit.
+ */
+@Service
+public class LocationMapService {
+
+    public static final int MAX_ZOOM = 22;
+
+    private static final String LAYER = "locations";
+    private static final int EXTENT = 4096;
+    // Points just outside the tile are drawn too, so symbols on the tile edge are not cut off
+    private static final int BUFFER = 64;
+    private static final String MARKERS_KEY = "markers";
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.locations.tiles.cluster-max-zoom:15}")
+    private int clusterMaxZoom;
+
+    @Value("${app.locations.tiles.cluster-cell-pixels:32}")
+    private int clusterCellPixels;
+
+    /**
+     * Vector tile (protobuf) của ô z/x/y; body rỗng khi ô không có địa điểm nào
+     */
+    public MapPayload getTile(int z, int x, int y) {
+        if (z < 0 || z > MAX_ZOOM) {
+            throw new IllegalArgumentException("Mức zoom phải từ 0 đến " + MAX_ZOOM);
+        }
+        long tiles = 1L << z;
+        if (x < 0 || x >= tiles || y < 0 || y >= tiles) {
+            throw new IllegalArgumentException("Tọa độ tile không hợp lệ ở mức zoom " + z);
+        }
+        return cache().get("tile:" + z + "/" + x + "/" + y, () -> encodeTile(z, x, y));
+    }
+
+    /**
+     * GeoJSON FeatureCollection của mọi địa điểm; có zoom thì gộp cụm như tile ở mức zoom đó
+     */
+    public MapPayload getGeoJson(Integer zoom) {
+        if (zoom != null && (zoom < 0 || zoom > MAX_ZOOM)) {
+            throw new IllegalArgumentException("Mức zoom phải từ 0 đến " + MAX_ZOOM);
+        }
+        return cache().get("geojson:" + (zoom == null ? "all" : zoom), () -> encodeGeoJson(zoom));
+    }
+
+    /**
+     * Xóa ảnh chụp và các tile đã cache; trong transaction thì chờ commit xong
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Clearing before the commit would let a concurrent request cache the old rows again
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache().clear();
+                }
+            });
+        } else {
+            cache().clear();
+        }
+    }
+
+    private MapPayload encodeTile(int z, int x, int y) {
+        long tiles = 1L << z;
+        double size = 1.0 / tiles;
+        double buffer = size * BUFFER / EXTENT;
+        double minX = x * size;
+        double minY = y * size;
+        List<MarkerIndex.Feature> features = markers().features(minX - buffer, minX + size + buffer,
+                minY - buffer, minY + size + buffer, z, cellPixels(z));
+
+        VectorTileEncoder encoder = new VectorTileEncoder(LAYER, EXTENT);
+        for (MarkerIndex.Feature feature : features) {
+            int px = (int) Math.round((feature.x() * tiles - x) * EXTENT);
+            int py = (int) Math.round((feature.y() * tiles - y) * EXTENT);
+            encoder.addPoint(feature.id(), px, py, properties(feature));
+        }
+        return MapPayload.of(encoder.isEmpty() ? new byte[0] : encoder.encode());
+    }
+
+    private MapPayload encodeGeoJson(Integer zoom) {
+        List<MarkerIndex.Feature> features = zoom == null
+                ? markers().features(0, 1, 0, 1, 0, 0)
+                : markers().features(0, 1, 0, 1, zoom, cellPixels(zoom));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("type", "FeatureCollection");
+            json.writeArrayFieldStart("features");
+            for (MarkerIndex.Feature feature : features) {
+                json.writeStartObject();
+                json.writeStringField("type", "Feature");
+                if (feature.id() != null) {
+                    json.writeNumberField("id", feature.id());
+                }
+                json.writeObjectFieldStart("geometry");
+                json.writeStringField("type", "Point");
+                json.writeArrayFieldStart("coordinates");
+                json.writeNumber(round(feature.longitude()));
+                json.writeNumber(round(feature.latitude()));
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeObjectField("properties", properties(feature));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return MapPayload.of(out.toByteArray());
+    }
+
+    private MarkerIndex markers() {
+        return cache().get(MARKERS_KEY, () -> MarkerIndex.of(locationRepository.findActiveMarkers()));
+    }
+
+    private int cellPixels(int zoom) {
+        return zoom < clusterMaxZoom ? clusterCellPixels : 0;
+    }
+
+    private static Map<String, Object> properties(MarkerIndex.Feature feature) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        if (feature.isCluster()) {
+            properties.put("count", (long) feature.count());
+        } else {
+            properties.put("name", feature.name());
+        }
+        // Mixed clusters have no category
+        if (feature.categoryId() != null) {
+            properties.put("categoryId", feature.categoryId());
+            properties.put("category", feature.categoryName());
+        }
+        return properties;
+    }
+
+    // About 0.1 m; more digits only make the document larger
+    private static double round(double degrees) {
+        return Math.round(degrees * 1e6) / 1e6;
+    }
+
+    private Cache cache() {
+        Cache cache = cacheManager.getCache(CacheConfig.LOCATION_MAP);
+        if (cache == null) {
+            throw new IllegalStateException("Cache " + CacheConfig.LOCATION_MAP + " is not configured");
+        }
+        return cache;
+    }
+
+    /**
+     * Nội dung đã mã hóa kèm ETag (md5 của nội dung)
+     */
+    public record MapPayload(byte[] body, String etag) {
+
+        static MapPayload of(byte[] body) {
+            return new MapPayload(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        }
+
+        public boolean isEmpty() {
+            return body.length == 0;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package mongcai1.thanhniensomongcai1.maps;
+
+import mongcai1.thanhniensomongcai1.repository.LocationMarker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ảnh chụp các địa điểm đang hoạt động, chiếu sẵn sang Web Mercator (0..1) và sắp theo trục x
+ * để lấy nhanh các điểm thuộc một tile.
+ *
+ * Ở mức zoom thấp, các điểm rơi vào cùng một ô lưới (cellPixels điểm ảnh) được gộp thành một cụm
+ * đặt tại trọng tâm, kèm số điểm. Lưới tính trên toàn thế giới nên một điểm luôn thuộc đúng một
+ * cụm, tile kề nhau không vẽ trùng.
+ */
+final class MarkerIndex {
+
+    private static final int TILE_PIXELS = 256;
+
+    private final Marker[] markers;
+    private final double[] xs;
+
+    private MarkerIndex(Marker[] markers) {
+        this.markers = markers;
+        this.xs = new double[markers.length];
+        for (int i = 0; i < markers.length; i++) {
+            xs[i] = markers[i].x;
+        }
+    }
+
+    static MarkerIndex of(List<LocationMarker> rows) {
+        Marker[] markers = rows.stream()
+                .map(row -> new Marker(row.getId(), row.getName(), row.getCategoryId(), row.getCategoryName(),
+                        row.getLatitude(), row.getLongitude()))
+                .filter(marker -> marker.y >= 0 && marker.y <= 1)
+                .sorted(Comparator.comparingDouble(marker -> marker.x))
+                .toArray(Marker[]::new);
+        return new MarkerIndex(markers);
+    }
+
+    int size() {
+        return markers.length;
+    }
+
+    /**
+     * Các điểm/cụm trong khung [minX, maxX) x [minY, maxY) (tọa độ Mercator 0..1) ở mức zoom;
+     * cellPixels = 0 thì không gộp
+     */
+    List<Feature> features(double minX, double maxX, double minY, double maxY, int zoom, int cellPixels) {
+        if (cellPixels <= 0) {
+            List<Feature> result = new ArrayList<>();
+            for (int i = lowerBound(minX); i < markers.length && markers[i].x < maxX; i++) {
+                Marker marker = markers[i];
+                if (marker.y >= minY && marker.y < maxY) {
+                    result.add(Feature.of(marker));
+                }
+            }
+            return result;
+        }
+        long cells = Math.max(1, TILE_PIXELS * (1L << zoom) / cellPixels);
+        // Widen the box to whole cells, so a cluster on the tile edge has the same centroid and count
+        // as in the neighbouring tile; clusters are then kept by their centroid
+        double cellMinX = Math.floor(minX * cells) / cells;
+        double cellMaxX = Math.ceil(maxX * cells) / cells;
+        double cellMinY = Math.floor(minY * cells) / cells;
+        double cellMaxY = Math.ceil(maxY * cells) / cells;
+        Map<Long, Cluster> clusters = new LinkedHashMap<>();
+        for (int i = lowerBound(cellMinX); i < markers.length && markers[i].x < cellMaxX; i++) {
+            Marker marker = markers[i];
+            if (marker.y >= cellMinY && marker.y < cellMaxY) {
+                long column = Math.min((long) (marker.x * cells), cells - 1);
+                long row = Math.min((long) (marker.y * cells), cells - 1);
+                clusters.computeIfAbsent(column * cells + row, c -> new Cluster()).add(marker);
+            }
+        }
+        return clusters.values().stream()
+                .map(Cluster::toFeature)
+                .filter(f -> f.x >= minX && f.x < maxX && f.y >= minY && f.y < maxY)
+                .toList();
+    }
+
+    private int lowerBound(double x) {
+        int index = Arrays.binarySearch(xs, x);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Several markers can share the same x
+        while (index > 0 && xs[index - 1] == x) {
+            index--;
+        }
+        return index;
+    }
+
+    static double mercatorX(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    static double mercatorY(double latitude) {
+        double sin = Math.sin(Math.toRadians(latitude));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    private record Marker(Long id, String name, Long categoryId, String categoryName,
+                          double latitude, double longitude, double x, double y) {
+
+        Marker(Long id, String name, Long categoryId, String categoryName, double latitude, double longitude) {
+            this(id, name, categoryId, categoryName, latitude, longitude, mercatorX(longitude), mercatorY(latitude));
+        }
+    }
+
+    /**
+     * Một điểm (count = 1, có id và tên) hoặc một cụm (count > 1, chỉ có vị trí và số điểm)
+     */
+    record Feature(Long id, String name, Long categoryId, String categoryName, int count,
+                   double latitude, double longitude, double x, double y) {
+
+        static Feature of(Marker marker) {
+            return new Feature(marker.id, marker.name, marker.categoryId, marker.categoryName, 1,
+                    marker.latitude, marker.longitude, marker.x, marker.y);
+        }
+
+        boolean isCluster() {
+            return count > 1;
+        }
+    }
+
+    private static final class Cluster {
+
+        private Marker first;
+        private int count;
+        private double latitude;
+        private double longitude;
+        private double x;
+        private double y;
+        private boolean sameCategory = true;
+
+        void add(Marker marker) {
+            if (first == null) {
+                first = marker;
+            } else if (!marker.categoryId.equals(first.categoryId)) {
+                sameCategory = false;
+            }
+            count++;
+            latitude += marker.latitude;
+            longitude += marker.longitude;
+            x += marker.x;
+            y += marker.y;
+        }
+
+        Feature toFeature() {
+            if (count == 1) {
+                return Feature.of(first);
+            }
+            // A cluster keeps the category only when all of its points share it (for icon colouring)
+            return new Feature(null, null, sameCategory ? first.categoryId : null,
+                    sameCategory ? first.categoryName : null, count,
+                    latitude / count, longitude / count, x / count, y / count);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package mongcai1.thanhniensomongcai1.maps;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ghi một Mapbox Vector Tile (spec 2.1) gồm một layer các điểm.
+ *
+ * Chỉ cần kiểu hình học POINT nên mã hóa protobuf được viết tay theo vector_tile.proto,
+ * không kéo thêm thư viện protobuf và JTS vào ứng dụng.
+ */
+final class VectorTileEncoder {
+
+    // vector_tile.proto field numbers
+    private static final int TILE_LAYERS = 3;
+    private static final int LAYER_VERSION = 15;
+    private static final int LAYER_NAME = 1;
+    private static final int LAYER_FEATURES = 2;
+    private static final int LAYER_KEYS = 3;
+    private static final int LAYER_VALUES = 4;
+    private static final int LAYER_EXTENT = 5;
+    private static final int FEATURE_ID = 1;
+    private static final int FEATURE_TAGS = 2;
+    private static final int FEATURE_TYPE = 3;
+    private static final int FEATURE_GEOMETRY = 4;
+    private static final int VALUE_STRING = 1;
+    private static final int VALUE_UINT = 5;
+
+    private static final int GEOM_POINT = 1;
+    private static final int COMMAND_MOVE_TO = 1;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+
+    private final String layerName;
+    private final int extent;
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+    private final Map<Object, Integer> values = new LinkedHashMap<>();
+    private final List<byte[]> features = new ArrayList<>();
+
+    VectorTileEncoder(String layerName, int extent) {
+        this.layerName = layerName;
+        this.extent = extent;
+    }
+
+    /**
+     * Thêm một điểm ở tọa độ trong tile (0..extent); id null thì bỏ qua, thuộc tính null bị bỏ qua
+     */
+    void addPoint(Long id, int x, int y, Map<String, Object> properties) {
+        Buffer feature = new Buffer();
+        if (id != null) {
+            feature.tag(FEATURE_ID, WIRE_VARINT).varint(id);
+        }
+        Buffer tags = new Buffer();
+        properties.forEach((key, value) -> {
+            if (value != null) {
+                tags.varint(keys.computeIfAbsent(key, k -> keys.size()));
+                tags.varint(values.computeIfAbsent(value, v -> values.size()));
+            }
+        });
+        feature.tag(FEATURE_TAGS, WIRE_LENGTH_DELIMITED).bytes(tags.toByteArray());
+        feature.tag(FEATURE_TYPE, WIRE_VARINT).varint(GEOM_POINT);
+        // One MoveTo with a single parameter pair, relative to the tile origin
+        Buffer geometry = new Buffer()
+                .varint((COMMAND_MOVE_TO & 0x7) | (1 << 3))
+                .varint(zigZag(x))
+                .varint(zigZag(y));
+        feature.tag(FEATURE_GEOMETRY, WIRE_LENGTH_DELIMITED).bytes(geometry.toByteArray());
+        features.add(feature.toByteArray());
+    }
+
+    boolean isEmpty() {
+        return features.isEmpty();
+    }
+
+    byte[] encode() {
+        Buffer layer = new Buffer();
+        layer.tag(LAYER_VERSION, WIRE_VARINT).varint(2);
+        layer.tag(LAYER_NAME, WIRE_LENGTH_DELIMITED).string(layerName);
+        for (byte[] feature : features) {
+            layer.tag(LAYER_FEATURES, WIRE_LENGTH_DELIMITED).bytes(feature);
+        }
+        for (String key : keys.keySet()) {
+            layer.tag(LAYER_KEYS, WIRE_LENGTH_DELIMITED).string(key);
+        }
+        for (Object value : values.keySet()) {
+            Buffer encoded = new Buffer();
+            if (value instanceof Number number) {
+                encoded.tag(VALUE_UINT, WIRE_VARINT).varint(number.longValue());
+            } else {
+                encoded.tag(VALUE_STRING, WIRE_LENGTH_DELIMITED).string(value.toString());
+            }
+            layer.tag(LAYER_VALUES, WIRE_LENGTH_DELIMITED).bytes(encoded.toByteArray());
+        }
+        layer.tag(LAYER_EXTENT, WIRE_VARINT).varint(extent);
+        return new Buffer().tag(TILE_LAYERS, WIRE_LENGTH_DELIMITED).bytes(layer.toByteArray()).toByteArray();
+    }
+
+    private static int zigZag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    private static final class Buffer {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Buffer tag(int field, int wireType) {
+            return varint(((long) field << 3) | wireType);
+        }
+
+        Buffer varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+            return this;
+        }
+
+        Buffer bytes(byte[] bytes) {
+            varint(bytes.length);
+            out.writeBytes(bytes);
+            return this;
+        }
+
+        Buffer string(String value) {
+            return bytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package mongcai1.thanhniensomongcai1.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Các counter nghiệp vụ: lượt xem bài viết, lượt tìm kiếm và tìm kiếm không có kết quả
+ */
+@Component
+public class PortalMetrics {
+
+    public static final String TARGET_POSTS = "posts";
+    public static final String TARGET_LOCATIONS = "locations";
+    public static final String TARGET_CATEGORIES = "categories";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter postViews;
+
+    public PortalMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.postViews = Counter.builder("portal.posts.views")
+                .description("Post view count increments")
+                .register(meterRegistry);
+    }
+
+    public void postViewed() {
+        postViews.increment();
+    }
+
+    /**
+     * Ghi nhận một lượt tìm kiếm và số kết quả trả về
+     */
+    public void searched(String target, long results) {
+        Counter.builder("portal.search.queries")
+                .description("Search requests")
+                .tag("target", target)
+                .register(meterRegistry)
+                .increment();
+        if (results == 0) {
+            Counter.builder("portal.search.zero_results")
+                    .description("Search requests that returned nothing")
+                    .tag("target", target)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
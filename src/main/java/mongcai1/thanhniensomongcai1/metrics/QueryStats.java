@@ -0,0 +1,61 @@
+package mongcai1.thanhniensomongcai1.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Thống kê truy vấn JDBC của một HTTP request: số câu lệnh, số dòng đọc/ghi và tổng thời gian.
+ * Gắn với luồng đang xử lý request qua ThreadLocal; truy vấn ngoài request (tác vụ nền) bị bỏ qua.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int queries;
+    private long rows;
+    private long nanos;
+    // Identical prepared SQL text executed repeatedly is the signature of an N+1 load
+    private final Map<String, Integer> executions = new HashMap<>();
+
+    static void bind(QueryStats stats) {
+        CURRENT.set(stats);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Thống kê của request hiện tại, null nếu không ở trong request
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    void recordQuery(String sql, long elapsedNanos, long affectedRows) {
+        queries++;
+        nanos += elapsedNanos;
+        rows += affectedRows;
+        executions.merge(sql, 1, Integer::sum);
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    public int getQueries() {
+        return queries;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    Map<String, Integer> getExecutions() {
+        return executions;
+    }
+}
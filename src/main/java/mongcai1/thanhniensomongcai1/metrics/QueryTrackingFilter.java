@@ -0,0 +1,160 @@
+package mongcai1.thanhniensomongcai1.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mở QueryStats cho mỗi request và ghi kết quả thành metric Micrometer gắn tag theo phương thức controller:
+ * portal.request.queries, portal.request.rows (histogram) và portal.request.query.time (timer).
+ *
+ * Cảnh báo N+1 khi cùng một câu SQL được chạy nhiều lần trong một request.
+ * Khi bật header debug, response được đệm lại để thêm X-Query-Count sau khi xử lý xong
+ * (kể cả các truy vấn lazy chạy lúc serialize JSON); luồng text/event-stream không bị đệm.
+ */
+public class QueryTrackingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryTrackingFilter.class);
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    private static final String STATS_ATTRIBUTE = QueryTrackingFilter.class.getName() + ".STATS";
+
+    private static final int MAX_REPORTED_PATTERNS = 1000;
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+    private final boolean responseHeader;
+
+    // (handler, sql) pairs already logged, so a hot endpoint does not flood the log
+    private final Set<String> reportedPatterns = ConcurrentHashMap.newKeySet();
+
+    public QueryTrackingFilter(MeterRegistry meterRegistry, int nPlusOneThreshold, boolean responseHeader) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.responseHeader = responseHeader;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Async controllers (login) finish on a later dispatch; stats are carried over in a request attribute
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStats stats = (QueryStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) {
+            stats = new QueryStats();
+            request.setAttribute(STATS_ATTRIBUTE, stats);
+        }
+        HttpServletResponse responseToUse = response;
+        if (responseHeader && !isEventStream(request)
+                && WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) == null) {
+            responseToUse = new ContentCachingResponseWrapper(response);
+        }
+
+        QueryStats.bind(stats);
+        try {
+            chain.doFilter(request, responseToUse);
+        } finally {
+            QueryStats.unbind();
+            if (!request.isAsyncStarted()) {
+                complete(request, responseToUse, stats);
+            }
+        }
+    }
+
+    // A buffered event stream would reach the client only when it closes
+    private static boolean isEventStream(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    private void complete(HttpServletRequest request, HttpServletResponse response, QueryStats stats)
+            throws IOException {
+        ContentCachingResponseWrapper wrapper =
+                WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper != null) {
+            wrapper.setHeader(QUERY_COUNT_HEADER, String.valueOf(stats.getQueries()));
+            wrapper.setHeader(QUERY_TIME_HEADER, String.valueOf(stats.getNanos() / 1_000_000));
+            wrapper.copyBodyToResponse();
+        }
+
+        String handler = handlerName(request);
+        if (handler == null) {
+            // Static files and unmapped paths
+            return;
+        }
+        DistributionSummary.builder("portal.request.queries")
+                .description("JDBC statements executed per HTTP request")
+                .baseUnit("statements")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1000.0)
+                .register(meterRegistry)
+                .record(stats.getQueries());
+        DistributionSummary.builder("portal.request.rows")
+                .description("Rows read or written per HTTP request")
+                .baseUnit("rows")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(100_000.0)
+                .register(meterRegistry)
+                .record(stats.getRows());
+        Timer.builder("portal.request.query.time")
+                .description("Time spent in JDBC statements per HTTP request")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+
+        detectNPlusOne(handler, stats);
+    }
+
+    private void detectNPlusOne(String handler, QueryStats stats) {
+        for (Map.Entry<String, Integer> entry : stats.getExecutions().entrySet()) {
+            if (entry.getValue() < nPlusOneThreshold) {
+                continue;
+            }
+            meterRegistry.counter("portal.request.n_plus_one", "handler", handler).increment();
+            String key = handler + '\n' + entry.getKey();
+            if (reportedPatterns.size() < MAX_REPORTED_PATTERNS && reportedPatterns.add(key)) {
+                log.warn("Possible N+1 in {}: same statement executed {} times in one request ({} statements total): {}",
+                        handler, entry.getValue(), stats.getQueries(), entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Tên dạng "PostController.getAllPosts" của handler đã xử lý request
+     */
+    private static String handlerName(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+package mongcai1.thanhniensomongcai1.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Nhận sự kiện từ DataSource proxy và cộng dồn vào QueryStats của request hiện tại
+ */
+public class QueryTrackingListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final String START_NANOS = "queryTracking.startNanos";
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (QueryStats.current() != null) {
+            // ExecutionInfo.getElapsedTime() only has millisecond resolution
+            execInfo.addCustomValue(START_NANOS, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryStats stats = QueryStats.current();
+        if (stats == null) {
+            return;
+        }
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsed = start != null ? System.nanoTime() - start : execInfo.getElapsedTime() * 1_000_000L;
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        stats.recordQuery(sql, elapsed, updatedRows(execInfo.getResult()));
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    /**
+     * Đếm số dòng đọc được qua ResultSet.next()
+     */
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && Boolean.TRUE.equals(executionContext.getResult())
+                && "next".equals(executionContext.getMethod().getName())) {
+            QueryStats stats = QueryStats.current();
+            if (stats != null) {
+                stats.recordRow();
+            }
+        }
+    }
+
+    private static long updatedRows(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof Long count) {
+            return Math.max(count, 0L);
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            long total = 0;
+            for (long count : counts) {
+                total += Math.max(count, 0L);
+            }
+            return total;
+        }
+        // Queries: rows are counted as the ResultSet is consumed
+        return 0;
+    }
+}
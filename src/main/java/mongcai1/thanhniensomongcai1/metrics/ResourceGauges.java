@@ -0,0 +1,137 @@
+package mongcai1.thanhniensomongcai1.metrics;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import mongcai1.thanhniensomongcai1.storage.BlobInfo;
+import mongcai1.thanhniensomongcai1.storage.BlobStore;
+import mongcai1.thanhniensomongcai1.storage.CachingBlobStore;
+import mongcai1.thanhniensomongcai1.storage.LocalBlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Gauge tài nguyên: dung lượng upload, dung lượng đĩa còn trống, cache của kho file
+ * và mức bão hòa của connection pool.
+ *
+ * Dung lượng upload được tính lại định kỳ (duyệt toàn bộ kho file) chứ không tính ở mỗi lần scrape.
+ */
+@Component
+public class ResourceGauges implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceGauges.class);
+
+    private final BlobStore blobStore;
+
+    private final List<DataSource> dataSources;
+
+    private volatile long uploadBytes = -1;
+
+    private volatile long uploadFiles = -1;
+
+    public ResourceGauges(BlobStore blobStore, List<DataSource> dataSources) {
+        this.blobStore = blobStore;
+        this.dataSources = dataSources;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("portal.uploads.size", this, g -> g.uploadBytes)
+                .description("Total size of uploaded files (-1 until the first scan)")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("portal.uploads.files", this, g -> g.uploadFiles)
+                .description("Number of uploaded files (-1 until the first scan)")
+                .register(registry);
+
+        if (blobStore instanceof LocalBlobStore local) {
+            Gauge.builder("portal.uploads.disk.free", local, s -> s.getRoot().toFile().getUsableSpace())
+                    .description("Usable space on the upload volume")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("portal.uploads.disk.total", local, s -> s.getRoot().toFile().getTotalSpace())
+                    .description("Total space on the upload volume")
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+
+        if (blobStore instanceof CachingBlobStore cache) {
+            FunctionCounter.builder("portal.uploads.cache.gets", cache, CachingBlobStore::getHits)
+                    .description("Upload cache lookups")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("portal.uploads.cache.gets", cache, CachingBlobStore::getMisses)
+                    .description("Upload cache lookups")
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("portal.uploads.cache.gets", cache, CachingBlobStore::getRedirects)
+                    .description("Upload cache lookups")
+                    .tag("result", "redirect")
+                    .register(registry);
+            Gauge.builder("portal.uploads.cache.size", cache, CachingBlobStore::getCachedBytes)
+                    .description("Bytes held by the upload cache")
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+
+        // One gauge per pool (primary and replica when read/write routing is on)
+        Set<HikariDataSource> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DataSource dataSource : dataSources) {
+            HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class,
+                    HikariDataSource.class);
+            if (hikari != null && pools.add(hikari)) {
+                // Active / maximum: 1.0 means requests are queueing for a connection
+                Gauge.builder("portal.db.pool.saturation", hikari, ResourceGauges::poolSaturation)
+                        .description("Share of pool connections in use")
+                        .tag("pool", String.valueOf(hikari.getPoolName()))
+                        .register(registry);
+            }
+        }
+    }
+
+    private static double poolSaturation(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null || hikari.getMaximumPoolSize() <= 0) {
+            return 0.0;
+        }
+        return (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+    }
+
+    /**
+     * Tính lại tổng dung lượng và số file upload
+     */
+    @Scheduled(initialDelayString = "${app.metrics.upload-usage.initial-delay:PT30S}",
+               fixedDelayString = "${app.metrics.upload-usage.interval:PT15M}")
+    public void refreshUploadUsage() {
+        long bytes = 0;
+        long files = 0;
+        try (Stream<BlobInfo> blobs = blobStore.list("")) {
+            Iterator<BlobInfo> it = blobs.iterator();
+            while (it.hasNext()) {
+                bytes += it.next().getSize();
+                files++;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot compute upload usage", e);
+            return;
+        }
+        uploadBytes = bytes;
+        uploadFiles = files;
+    }
+}
@@ -0,0 +1,91 @@
+package mongcai1.thanhniensomongcai1.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.ServletException;
+import org.apache.catalina.AccessLog;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Valve Tomcat ghi chi phí của mỗi response, gắn tag theo mẫu URI của Spring MVC:
+ * portal.response.bytes (số byte thực gửi đi, sau khi nén; tag encoding) và
+ * portal.request.cpu (thời gian CPU của luồng xử lý request).
+ *
+ * Byte sau khi nén chỉ đo được ở tầng Tomcat, nên đây là valve chứ không phải servlet filter;
+ * Tomcat gọi log() khi response đã gửi xong.
+ */
+public class ResponseCostValve extends ValveBase implements AccessLog {
+
+    private static final String CPU_NOTE = ResponseCostValve.class.getName() + ".cpu";
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported;
+
+    public ResponseCostValve(MeterRegistry meterRegistry) {
+        super(true);
+        this.meterRegistry = meterRegistry;
+        this.cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported();
+    }
+
+    @Override
+    public void invoke(Request request, Response response) throws IOException, ServletException {
+        long start = cpuTime();
+        try {
+            getNext().invoke(request, response);
+        } finally {
+            // Async requests continue on other threads; their CPU time is not attributable here
+            long end = cpuTime();
+            if (start >= 0 && end >= 0 && !request.isAsync()) {
+                request.setNote(CPU_NOTE, end - start);
+            }
+        }
+    }
+
+    @Override
+    public void log(Request request, Response response, long time) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNKNOWN;
+        String encoding = response.getHeader("Content-Encoding");
+
+        DistributionSummary.builder("portal.response.bytes")
+                .description("Response body bytes sent to the client, after compression")
+                .baseUnit("bytes")
+                .tag("uri", uri)
+                .tag("encoding", encoding != null ? encoding : "identity")
+                .register(meterRegistry)
+                .record(response.getBytesWritten(false));
+
+        if (request.getNote(CPU_NOTE) instanceof Long cpuNanos) {
+            Timer.builder("portal.request.cpu")
+                    .description("CPU time of the request thread")
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(cpuNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // -1 where the JVM does not measure it (virtual threads, some platforms)
+    private long cpuTime() {
+        return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    @Override
+    public void setRequestAttributesEnabled(boolean requestAttributesEnabled) {
+    }
+
+    @Override
+    public boolean getRequestAttributesEnabled() {
+        return false;
+    }
+}
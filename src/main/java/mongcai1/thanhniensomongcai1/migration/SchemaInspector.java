@@ -0,0 +1,60 @@
+package mongcai1.thanhniensomongcai1.migration;
+
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Đọc cấu trúc bảng qua DatabaseMetaData, dùng cho các migration phải tự kiểm tra
+ * trạng thái của cơ sở dữ liệu cũ (tạo bởi ddl-auto hoặc schema.sql)
+ */
+final class SchemaInspector {
+
+    private SchemaInspector() {
+    }
+
+    static boolean isMySql(Connection connection) throws SQLException {
+        return "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+    }
+
+    /**
+     * Kiểu dữ liệu của cột (DECIMAL, DOUBLE...), null nếu cột không tồn tại
+     */
+    static String columnType(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        // Identifier case differs between MySQL (as created) and H2 (upper unless DATABASE_TO_LOWER)
+        for (String name : new String[] { table, table.toUpperCase() }) {
+            ResultSet columns = metaData.getColumns(connection.getCatalog(), null, name, null);
+            try {
+                while (columns.next()) {
+                    if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                        return columns.getString("TYPE_NAME");
+                    }
+                }
+            } finally {
+                JdbcUtils.closeResultSet(columns);
+            }
+        }
+        return null;
+    }
+
+    static boolean hasIndex(Connection connection, String table, String index) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : new String[] { table, table.toUpperCase() }) {
+            ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), null, name, false, true);
+            try {
+                while (indexes.next()) {
+                    if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            } finally {
+                JdbcUtils.closeResultSet(indexes);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,37 @@
+package mongcai1.thanhniensomongcai1.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Chuyển nội dung bài viết từ cột posts.content cũ sang bảng post_bodies.
+ * Chỉ có việc để làm trên cơ sở dữ liệu tạo trước khi tách post_bodies; V1 không có cột này.
+ */
+@Component
+public class V3__Move_post_content_to_post_bodies extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V3__Move_post_content_to_post_bodies.class);
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (SchemaInspector.columnType(connection, "posts", "content") == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            int copied = statement.executeUpdate("INSERT INTO post_bodies (post_id, content) "
+                    + "SELECT p.id, p.content FROM posts p "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM post_bodies b WHERE b.post_id = p.id)");
+            statement.execute("ALTER TABLE posts DROP COLUMN content");
+            log.info("Moved {} post bodies from posts.content to post_bodies in {} ms", copied,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
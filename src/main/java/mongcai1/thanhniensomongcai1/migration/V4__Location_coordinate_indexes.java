@@ -0,0 +1,57 @@
+package mongcai1.thanhniensomongcai1.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Index cho tọa độ địa điểm. Mọi cơ sở dữ liệu: index (is_active, latitude, longitude) cho truy vấn
+ * khung tọa độ bằng BETWEEN.
+ * MySQL: đổi cột DECIMAL cũ sang DOUBLE và thêm locations.geo_point (POINT, SRID 0, x = kinh độ,
+ * y = vĩ độ) là cột sinh STORED nên luôn khớp với latitude/longitude, kèm SPATIAL INDEX cho MBRContains.
+ *
+ * Viết bằng Java vì các cơ sở dữ liệu cũ có thể đã có sẵn một phần (schema.sql, ddl-auto).
+ */
+@Component
+public class V4__Location_coordinate_indexes extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V4__Location_coordinate_indexes.class);
+
+    // SPATIAL indexes need NOT NULL, so locations without coordinates get (0, 0) and are filtered out by the queries
+    private static final String ADD_GEO_POINT = "ALTER TABLE locations"
+            + " ADD COLUMN geo_point POINT GENERATED ALWAYS AS"
+            + " (POINT(COALESCE(longitude, 0), COALESCE(latitude, 0))) STORED NOT NULL SRID 0,"
+            + " ADD SPATIAL INDEX idx_locations_geo_point (geo_point)";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean mysql = SchemaInspector.isMySql(connection);
+        try (Statement statement = connection.createStatement()) {
+            if (mysql && ("DECIMAL".equalsIgnoreCase(SchemaInspector.columnType(connection, "locations", "latitude"))
+                    || "DECIMAL".equalsIgnoreCase(SchemaInspector.columnType(connection, "locations", "longitude")))) {
+                statement.execute("ALTER TABLE locations MODIFY latitude DOUBLE NULL, MODIFY longitude DOUBLE NULL");
+                log.info("Converted locations.latitude/longitude from DECIMAL to DOUBLE");
+            }
+            // Active flag first: otherwise idx_locations_active_name wins the equality on is_active
+            if (!SchemaInspector.hasIndex(connection, "locations", "idx_locations_active_lat_lng")) {
+                statement.execute("CREATE INDEX idx_locations_active_lat_lng ON locations (is_active, latitude, longitude)");
+            }
+            // Superseded; created by ddl-auto on databases that ran the first coordinate change
+            if (SchemaInspector.hasIndex(connection, "locations", "idx_locations_lat_lng")) {
+                statement.execute("DROP INDEX idx_locations_lat_lng ON locations");
+            }
+            if (mysql && SchemaInspector.columnType(connection, "locations", "geo_point") == null) {
+                long start = System.nanoTime();
+                statement.execute(ADD_GEO_POINT);
+                log.info("Added locations.geo_point with a spatial index in {} ms",
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+}
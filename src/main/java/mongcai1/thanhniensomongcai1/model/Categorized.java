@@ -0,0 +1,9 @@
+package mongcai1.thanhniensomongcai1.model;
+
+/**
+ * Entity thuộc một danh mục (bài viết, địa điểm)
+ */
+public interface Categorized {
+
+    Category getCategory();
+}
@@ -16,7 +16,9 @@ import java.util.List;
 public class Category {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "category_id")
+    @TableGenerator(name = "category_id", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "categories", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Tên danh mục không được để trống")
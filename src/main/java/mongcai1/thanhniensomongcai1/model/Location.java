@@ -10,15 +10,24 @@ import jakarta.validation.constraints.Email;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "locations")
-public class Location {
+@SqlResultSetMapping(name = Location.DISTANCE_MAPPING,
+        entities = @EntityResult(entityClass = Location.class),
+        columns = @ColumnResult(name = "distance_m", type = Double.class))
+public class Location implements Categorized {
+
+    /**
+     * Ánh xạ kết quả truy vấn native: địa điểm kèm cột distance_m (mét)
+     */
+    public static final String DISTANCE_MAPPING = "Location.distance";
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "location_id")
+    @TableGenerator(name = "location_id", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "locations", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Tên địa điểm không được để trống")
@@ -39,13 +48,13 @@ public class Location {
     
     @DecimalMin(value = "-90.0", message = "Vĩ độ phải lớn hơn hoặc bằng -90")
     @DecimalMax(value = "90.0", message = "Vĩ độ phải nhỏ hơn hoặc bằng 90")
-    @Column(precision = 10, scale = 8)
-    private BigDecimal latitude;
+    @Column(name = "latitude")
+    private Double latitude;
     
     @DecimalMin(value = "-180.0", message = "Kinh độ phải lớn hơn hoặc bằng -180")
     @DecimalMax(value = "180.0", message = "Kinh độ phải nhỏ hơn hoặc bằng 180")
-    @Column(precision = 11, scale = 8)
-    private BigDecimal longitude;
+    @Column(name = "longitude")
+    private Double longitude;
     
     @Size(max = 20, message = "Số điện thoại không được vượt quá 20 ký tự")
     @Column(length = 20)
@@ -131,19 +140,19 @@ public class Location {
         this.imageUrl = imageUrl;
     }
     
-    public BigDecimal getLatitude() {
+    public Double getLatitude() {
         return latitude;
     }
     
-    public void setLatitude(BigDecimal latitude) {
+    public void setLatitude(Double latitude) {
         this.latitude = latitude;
     }
     
-    public BigDecimal getLongitude() {
+    public Double getLongitude() {
         return longitude;
     }
     
-    public void setLongitude(BigDecimal longitude) {
+    public void setLongitude(Double longitude) {
         this.longitude = longitude;
     }
     
@@ -203,6 +212,7 @@ public class Location {
         this.updatedAt = updatedAt;
     }
     
+    @Override
     public Category getCategory() {
         return category;
     }
@@ -11,10 +11,13 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "posts")
-public class Post {
+public class Post implements Categorized {
     
+    // Table-generated ids (pooled-lo blocks of 50, see V6__id_sequences.sql) let Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "post_id")
+    @TableGenerator(name = "post_id", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "posts", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Tiêu đề không được để trống")
@@ -22,8 +25,9 @@ public class Post {
     @Column(nullable = false, length = 300)
     private String title;
     
+    // Stored in post_bodies (PostBody); filled in by PostService only for detail views
     @NotBlank(message = "Nội dung không được để trống")
-    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    @Transient
     private String content;
     
     @Column(columnDefinition = "TEXT")
@@ -49,6 +53,17 @@ public class Post {
     @Column(name = "published_at")
     private LocalDateTime publishedAt = LocalDateTime.now();
     
+    // Optional end of the publication window; urgent flag expiry
+    @Column(name = "unpublish_at")
+    private LocalDateTime unpublishAt;
+    
+    @Column(name = "urgent_until")
+    private LocalDateTime urgentUntil;
+    
+    // Kept in step with publishedAt/unpublishAt by PostScheduler, so public queries filter on a flag, not on now()
+    @Column(name = "is_published", nullable = false)
+    private Boolean isPublished = true;
+    
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -154,6 +169,30 @@ public class Post {
         this.publishedAt = publishedAt;
     }
     
+    public LocalDateTime getUnpublishAt() {
+        return unpublishAt;
+    }
+    
+    public void setUnpublishAt(LocalDateTime unpublishAt) {
+        this.unpublishAt = unpublishAt;
+    }
+    
+    public LocalDateTime getUrgentUntil() {
+        return urgentUntil;
+    }
+    
+    public void setUrgentUntil(LocalDateTime urgentUntil) {
+        this.urgentUntil = urgentUntil;
+    }
+    
+    public Boolean getIsPublished() {
+        return isPublished;
+    }
+    
+    public void setIsPublished(Boolean isPublished) {
+        this.isPublished = isPublished;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -170,6 +209,7 @@ public class Post {
         this.updatedAt = updatedAt;
     }
     
+    @Override
     public Category getCategory() {
         return category;
     }
@@ -183,6 +223,16 @@ public class Post {
         this.viewCount = this.viewCount + 1;
     }
     
+    // Helper methods for the publication schedule
+    public boolean isVisibleAt(LocalDateTime time) {
+        return (publishedAt == null || !publishedAt.isAfter(time))
+                && (unpublishAt == null || unpublishAt.isAfter(time));
+    }
+    
+    public boolean isUrgentAt(LocalDateTime time) {
+        return Boolean.TRUE.equals(isUrgent) && (urgentUntil == null || urgentUntil.isAfter(time));
+    }
+    
     @Override
     public String toString() {
         return "Post{" +
@@ -193,6 +243,7 @@ public class Post {
                 ", isUrgent=" + isUrgent +
                 ", viewCount=" + viewCount +
                 ", publishedAt=" + publishedAt +
+                ", isPublished=" + isPublished +
                 '}';
     }
 }
\ No newline at end of file
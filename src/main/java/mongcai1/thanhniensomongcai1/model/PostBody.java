@@ -0,0 +1,53 @@
+package mongcai1.thanhniensomongcai1.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Nội dung (HTML) của bài viết, tách khỏi bảng posts.
+ *
+ * Bảng posts chỉ còn các cột ngắn mà danh sách, sắp xếp và bộ đếm lượt xem dùng tới;
+ * nội dung chỉ được đọc khi xem chi tiết. Xóa bài viết sẽ xóa nội dung theo khóa ngoại.
+ */
+@Entity
+@Table(name = "post_bodies")
+public class PostBody {
+    
+    @Id
+    private Long postId;
+    
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "post_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Post post;
+    
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String content;
+    
+    // Constructors
+    public PostBody() {}
+    
+    public PostBody(Post post, String content) {
+        this.post = post;
+        this.content = content;
+    }
+    
+    // Getters and Setters
+    public Long getPostId() {
+        return postId;
+    }
+    
+    public Post getPost() {
+        return post;
+    }
+    
+    public String getContent() {
+        return content;
+    }
+    
+    public void setContent(String content) {
+        this.content = content;
+    }
+}
@@ -0,0 +1,70 @@
+package mongcai1.thanhniensomongcai1.repository;
+
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Cấp id theo khối từ bảng id_sequences cho các đoạn ghi bằng JDBC batch (nhập hàng loạt, sinh dữ liệu).
+ *
+ * Dùng cùng bảng và cùng cách đếm với @TableGenerator của entity (pooled-lo): khối cấp ra là
+ * [next_val, next_val + count) và next_val được đẩy lên count, nên id không bao giờ trùng với
+ * id Hibernate cấp. Mỗi lần cấp chạy trên một kết nối và transaction riêng, khóa dòng đếm chỉ
+ * trong lúc cập nhật chứ không suốt transaction ghi dữ liệu của người gọi.
+ */
+@Component
+public class IdBlockAllocator {
+
+    public static final String TABLE = "id_sequences";
+
+    private static final String SELECT_SQL = "SELECT next_val FROM " + TABLE + " WHERE sequence_name = ? FOR UPDATE";
+    private static final String UPDATE_SQL = "UPDATE " + TABLE + " SET next_val = ? WHERE sequence_name = ?";
+
+    private final DataSource dataSource;
+
+    public IdBlockAllocator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Giữ count id liên tiếp của bảng, trả về id đầu tiên
+     */
+    public long reserve(String sequence, long count) throws SQLException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Số id cần cấp phải lớn hơn 0");
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                long first;
+                try (PreparedStatement select = connection.prepareStatement(SELECT_SQL)) {
+                    select.setString(1, sequence);
+                    try (ResultSet rs = select.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new IllegalStateException("Không có bộ đếm id cho bảng " + sequence);
+                        }
+                        first = rs.getLong(1);
+                    }
+                }
+                try (PreparedStatement update = connection.prepareStatement(UPDATE_SQL)) {
+                    update.setLong(1, first + count);
+                    update.setString(2, sequence);
+                    update.executeUpdate();
+                }
+                connection.commit();
+                return first;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                // Pooled connection: leave the session exactly as we found it
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+}
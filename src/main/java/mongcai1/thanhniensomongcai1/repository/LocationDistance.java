@@ -0,0 +1,11 @@
+package mongcai1.thanhniensomongcai1.repository;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import mongcai1.thanhniensomongcai1.model.Location;
+
+/**
+ * Địa điểm kèm khoảng cách (mét) tới điểm tìm kiếm; JSON giữ nguyên các trường của Location
+ * và thêm trường distance
+ */
+public record LocationDistance(@JsonUnwrapped Location location, double distance) {
+}
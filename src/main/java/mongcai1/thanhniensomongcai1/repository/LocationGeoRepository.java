@@ -0,0 +1,21 @@
+package mongcai1.thanhniensomongcai1.repository;
+
+import mongcai1.thanhniensomongcai1.model.Location;
+
+import java.util.List;
+
+/**
+ * Truy vấn theo tọa độ: dùng SPATIAL INDEX trên MySQL, index (is_active, latitude, longitude) ở nơi khác
+ */
+public interface LocationGeoRepository {
+
+    /**
+     * Địa điểm đang hoạt động nằm trong khung tọa độ, sắp theo tên
+     */
+    List<Location> findWithinBounds(Double minLat, Double maxLat, Double minLng, Double maxLng);
+
+    /**
+     * Địa điểm đang hoạt động trong bán kính (mét) quanh một điểm, gần nhất trước
+     */
+    List<LocationDistance> findNearby(double latitude, double longitude, double radiusMeters, int limit);
+}
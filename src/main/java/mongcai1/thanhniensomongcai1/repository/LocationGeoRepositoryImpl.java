@@ -0,0 +1,113 @@
+package mongcai1.thanhniensomongcai1.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import mongcai1.thanhniensomongcai1.config.LocationSpatialIndex;
+import mongcai1.thanhniensomongcai1.model.Location;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cài đặt LocationGeoRepository. Trên MySQL lọc bằng MBRContains trên cột geo_point (dùng SPATIAL INDEX)
+ * và tính khoảng cách bằng ST_Distance_Sphere; nơi khác lọc khung bằng BETWEEN và tính Haversine trong Java.
+ */
+public class LocationGeoRepositoryImpl implements LocationGeoRepository {
+
+    // Same sphere radius as MySQL's ST_Distance_Sphere default, so both paths agree
+    static final double EARTH_RADIUS_METERS = 6_370_986;
+
+    private static final String ACTIVE_WITH_COORDINATES =
+            "l.is_active = true AND l.latitude IS NOT NULL AND l.longitude IS NOT NULL";
+
+    private static final String IN_ENVELOPE =
+            "MBRContains(ST_MakeEnvelope(POINT(:minLng, :minLat), POINT(:maxLng, :maxLat)), l.geo_point)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private LocationSpatialIndex spatialIndex;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Location> findWithinBounds(Double minLat, Double maxLat, Double minLng, Double maxLng) {
+        if (spatialIndex.isAvailable()) {
+            return entityManager.createNativeQuery("SELECT l.* FROM locations l WHERE " + IN_ENVELOPE
+                            + " AND " + ACTIVE_WITH_COORDINATES + " ORDER BY l.name", Location.class)
+                    .setParameter("minLat", minLat)
+                    .setParameter("maxLat", maxLat)
+                    .setParameter("minLng", minLng)
+                    .setParameter("maxLng", maxLng)
+                    .getResultList();
+        }
+        return entityManager.createQuery("SELECT l FROM Location l WHERE l.isActive = true AND "
+                        + "l.latitude BETWEEN :minLat AND :maxLat AND "
+                        + "l.longitude BETWEEN :minLng AND :maxLng "
+                        + "ORDER BY l.name", Location.class)
+                .setParameter("minLat", minLat)
+                .setParameter("maxLat", maxLat)
+                .setParameter("minLng", minLng)
+                .setParameter("maxLng", maxLng)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<LocationDistance> findNearby(double latitude, double longitude, double radiusMeters, int limit) {
+        // Bounding box of the circle, so both paths can use an index before measuring distances
+        double latDelta = Math.toDegrees(radiusMeters / EARTH_RADIUS_METERS);
+        double lngDelta = latDelta / Math.max(Math.cos(Math.toRadians(latitude)), 1e-6);
+        double minLat = Math.max(latitude - latDelta, -90);
+        double maxLat = Math.min(latitude + latDelta, 90);
+        double minLng = Math.max(longitude - lngDelta, -180);
+        double maxLng = Math.min(longitude + lngDelta, 180);
+
+        if (spatialIndex.isAvailable()) {
+            List<Object[]> rows = entityManager.createNativeQuery("SELECT l.*, "
+                            + "ST_Distance_Sphere(l.geo_point, POINT(:lng, :lat)) AS distance_m "
+                            + "FROM locations l WHERE " + IN_ENVELOPE + " AND " + ACTIVE_WITH_COORDINATES
+                            + " HAVING distance_m <= :radius ORDER BY distance_m LIMIT :limit",
+                            Location.DISTANCE_MAPPING)
+                    .setParameter("lat", latitude)
+                    .setParameter("lng", longitude)
+                    .setParameter("minLat", minLat)
+                    .setParameter("maxLat", maxLat)
+                    .setParameter("minLng", minLng)
+                    .setParameter("maxLng", maxLng)
+                    .setParameter("radius", radiusMeters)
+                    .setParameter("limit", limit)
+                    .getResultList();
+            List<LocationDistance> results = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                results.add(new LocationDistance((Location) row[0], ((Number) row[1]).doubleValue()));
+            }
+            return results;
+        }
+
+        List<Location> candidates = findWithinBounds(minLat, maxLat, minLng, maxLng);
+        List<LocationDistance> results = new ArrayList<>();
+        for (Location location : candidates) {
+            double distance = distanceMeters(latitude, longitude, location.getLatitude(), location.getLongitude());
+            if (distance <= radiusMeters) {
+                results.add(new LocationDistance(location, distance));
+            }
+        }
+        results.sort(Comparator.comparingDouble(LocationDistance::distance));
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    /**
+     * Khoảng cách Haversine (mét) trên mặt cầu, cùng công thức với ST_Distance_Sphere
+     */
+    static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,19 @@
+package mongcai1.thanhniensomongcai1.repository;
+
+/**
+ * Projection cho bản đồ: chỉ các cột cần để vẽ điểm địa điểm (không tải mô tả, ảnh...)
+ */
+public interface LocationMarker {
+
+    Long getId();
+
+    String getName();
+
+    Long getCategoryId();
+
+    String getCategoryName();
+
+    Double getLatitude();
+
+    Double getLongitude();
+}
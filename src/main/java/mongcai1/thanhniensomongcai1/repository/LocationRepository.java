@@ -12,7 +12,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface LocationRepository extends JpaRepository<Location, Long> {
+public interface LocationRepository extends JpaRepository<Location, Long>, LocationGeoRepository {
     
     /**
      * Find all active locations
@@ -25,14 +25,17 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
     List<Location> findByCategoryAndIsActiveTrue(Category category);
     
     /**
-     * Find locations by category ID
+     * Find locations by category ID.
+     * Explicit queries: the derived form joins categories instead of filtering on locations.category_id
      */
-    List<Location> findByCategoryIdAndIsActiveTrue(Long categoryId);
+    @Query("SELECT l FROM Location l WHERE l.category.id = :categoryId AND l.isActive = true")
+    List<Location> findByCategoryIdAndIsActiveTrue(@Param("categoryId") Long categoryId);
     
     /**
      * Find locations by category ID with pagination
      */
-    Page<Location> findByCategoryIdAndIsActiveTrue(Long categoryId, Pageable pageable);
+    @Query("SELECT l FROM Location l WHERE l.category.id = :categoryId AND l.isActive = true")
+    Page<Location> findByCategoryIdAndIsActiveTrue(@Param("categoryId") Long categoryId, Pageable pageable);
     
     /**
      * Find all active locations with pagination
@@ -66,20 +69,11 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
            "ORDER BY l.name")
     List<Location> findByCategoryAndSearch(@Param("categoryId") Long categoryId, @Param("query") String query);
     
-    /**
-     * Find locations within a geographic area (bounding box)
-     */
-    @Query("SELECT l FROM Location l WHERE l.isActive = true AND " +
-           "l.latitude BETWEEN :minLat AND :maxLat AND " +
-           "l.longitude BETWEEN :minLng AND :maxLng " +
-           "ORDER BY l.name")
-    List<Location> findWithinBounds(@Param("minLat") Double minLat, @Param("maxLat") Double maxLat,
-                                   @Param("minLng") Double minLng, @Param("maxLng") Double maxLng);
-    
     /**
      * Count active locations by category
      */
-    long countByCategoryIdAndIsActiveTrue(Long categoryId);
+    @Query("SELECT COUNT(l) FROM Location l WHERE l.category.id = :categoryId AND l.isActive = true")
+    long countByCategoryIdAndIsActiveTrue(@Param("categoryId") Long categoryId);
     
     /**
      * Find locations with phone numbers
@@ -92,4 +86,20 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
      */
     @Query("SELECT l FROM Location l WHERE l.isActive = true AND l.latitude IS NOT NULL AND l.longitude IS NOT NULL ORDER BY l.name")
     List<Location> findLocationsWithCoordinates();
+
+    /**
+     * Active locations with coordinates as map markers (vector tiles, GeoJSON)
+     */
+    @Query("SELECT l.id AS id, l.name AS name, c.id AS categoryId, c.name AS categoryName, " +
+           "l.latitude AS latitude, l.longitude AS longitude FROM Location l JOIN l.category c " +
+           "WHERE l.isActive = true AND l.latitude IS NOT NULL AND l.longitude IS NOT NULL")
+    List<LocationMarker> findActiveMarkers();
+    
+    /**
+     * Find image URLs page by page (keyset on id) for the upload garbage collector.
+     * Soft-deleted locations are included so their images survive a restore.
+     */
+    @Query("SELECT l.id AS id, l.imageUrl AS url FROM Location l " +
+           "WHERE l.id > :afterId AND l.imageUrl IS NOT NULL ORDER BY l.id")
+    List<UploadReference> findImageReferences(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
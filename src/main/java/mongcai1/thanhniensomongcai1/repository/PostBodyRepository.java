@@ -0,0 +1,27 @@
+package mongcai1.thanhniensomongcai1.repository;
+
+import mongcai1.thanhniensomongcai1.model.PostBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PostBodyRepository extends JpaRepository<PostBody, Long> {
+    
+    /**
+     * Read only the content column of a post body
+     */
+    @Query("SELECT b.content FROM PostBody b WHERE b.postId = :postId")
+    Optional<String> findContentByPostId(@Param("postId") Long postId);
+    
+    /**
+     * Overwrite the content without loading it first
+     */
+    @Modifying
+    @Query("UPDATE PostBody b SET b.content = :content WHERE b.postId = :postId")
+    int updateContent(@Param("postId") Long postId, @Param("content") String content);
+}
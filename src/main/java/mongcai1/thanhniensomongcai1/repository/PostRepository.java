@@ -5,11 +5,9 @@ import mongcai1.thanhniensomongcai1.model.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,75 +16,84 @@ import java.util.List;
 public interface PostRepository extends JpaRepository<Post, Long> {
     
     /**
-     * Find all posts ordered by published date (newest first)
+     * Find all posts ordered by published date (newest first), including scheduled and expired ones (admin)
      */
     Page<Post> findAllByOrderByPublishedAtDesc(Pageable pageable);
     
+    /**
+     * Find published posts ordered by published date (newest first)
+     */
+    Page<Post> findByIsPublishedTrueOrderByPublishedAtDesc(Pageable pageable);
+    
     /**
      * Find featured posts ordered by published date
      */
-    List<Post> findByIsFeaturedTrueOrderByPublishedAtDesc();
+    List<Post> findByIsFeaturedTrueAndIsPublishedTrueOrderByPublishedAtDesc();
     
     /**
      * Find featured posts with pagination
      */
-    Page<Post> findByIsFeaturedTrueOrderByPublishedAtDesc(Pageable pageable);
+    Page<Post> findByIsFeaturedTrueAndIsPublishedTrueOrderByPublishedAtDesc(Pageable pageable);
     
     /**
      * Find urgent posts ordered by published date
      */
-    List<Post> findByIsUrgentTrueOrderByPublishedAtDesc();
+    List<Post> findByIsUrgentTrueAndIsPublishedTrueOrderByPublishedAtDesc();
     
     /**
      * Find posts by category
      */
-    Page<Post> findByCategoryOrderByPublishedAtDesc(Category category, Pageable pageable);
+    Page<Post> findByCategoryAndIsPublishedTrueOrderByPublishedAtDesc(Category category, Pageable pageable);
     
     /**
-     * Find posts by category ID
+     * Find published posts by category ID.
+     * Explicit query: the derived form joins categories instead of filtering on posts.category_id
      */
-    Page<Post> findByCategoryIdOrderByPublishedAtDesc(Long categoryId, Pageable pageable);
+    @Query("SELECT p FROM Post p WHERE p.category.id = :categoryId AND p.isPublished = true ORDER BY p.publishedAt DESC")
+    Page<Post> findPublishedByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
     
     /**
      * Search posts by title or content (case insensitive)
      */
-    @Query("SELECT p FROM Post p WHERE " +
+    @Query("SELECT p FROM Post p WHERE p.isPublished = true AND (" +
            "LOWER(p.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.content) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.summary) LIKE LOWER(CONCAT('%', :query, '%')) " +
+           "LOWER(p.summary) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "EXISTS (SELECT 1 FROM PostBody b WHERE b.postId = p.id AND " +
+           "LOWER(b.content) LIKE LOWER(CONCAT('%', :query, '%')))) " +
            "ORDER BY p.publishedAt DESC")
     Page<Post> searchByTitleOrContent(@Param("query") String query, Pageable pageable);
     
     /**
      * Find posts published after a specific date
      */
-    Page<Post> findByPublishedAtAfterOrderByPublishedAtDesc(LocalDateTime date, Pageable pageable);
+    Page<Post> findByIsPublishedTrueAndPublishedAtAfterOrderByPublishedAtDesc(LocalDateTime date, Pageable pageable);
     
     /**
      * Find posts published between dates
      */
-    Page<Post> findByPublishedAtBetweenOrderByPublishedAtDesc(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+    Page<Post> findByIsPublishedTrueAndPublishedAtBetweenOrderByPublishedAtDesc(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
     
     /**
      * Find recent posts (last 30 days)
      */
-    @Query("SELECT p FROM Post p WHERE p.publishedAt >= :thirtyDaysAgo ORDER BY p.publishedAt DESC")
+    @Query("SELECT p FROM Post p WHERE p.isPublished = true AND p.publishedAt >= :thirtyDaysAgo ORDER BY p.publishedAt DESC")
     List<Post> findRecentPosts(@Param("thirtyDaysAgo") LocalDateTime thirtyDaysAgo);
     
     /**
      * Find top viewed posts
      */
-    Page<Post> findAllByOrderByViewCountDescPublishedAtDesc(Pageable pageable);
+    Page<Post> findByIsPublishedTrueOrderByViewCountDescPublishedAtDesc(Pageable pageable);
     
     /**
      * Find posts by author
      */
-    Page<Post> findByAuthorOrderByPublishedAtDesc(String author, Pageable pageable);
+    Page<Post> findByAuthorAndIsPublishedTrueOrderByPublishedAtDesc(String author, Pageable pageable);
     
     /**
      * Count posts by category
      */
-    long countByCategoryId(Long categoryId);
+    @Query("SELECT COUNT(p) FROM Post p WHERE p.category.id = :categoryId")
+    long countByCategoryId(@Param("categoryId") Long categoryId);
     
     /**
      * Count featured posts
@@ -98,23 +105,35 @@ public interface PostRepository extends JpaRepository<Post, Long> {
      */
     long countByIsUrgentTrue();
     
-    /**
-     * Increment view count for a post
-     */
-    @Modifying
-    @Transactional
-    @Query("UPDATE Post p SET p.viewCount = p.viewCount + 1 WHERE p.id = :postId")
-    void incrementViewCount(@Param("postId") Long postId);
-    
     /**
      * Find posts with high view count (popular posts)
      */
-    @Query("SELECT p FROM Post p WHERE p.viewCount > :minViews ORDER BY p.viewCount DESC, p.publishedAt DESC")
+    @Query("SELECT p FROM Post p WHERE p.isPublished = true AND p.viewCount > :minViews ORDER BY p.viewCount DESC, p.publishedAt DESC")
     List<Post> findPopularPosts(@Param("minViews") Integer minViews);
     
     /**
      * Find latest posts by category (limit 5)
      */
-    @Query("SELECT p FROM Post p WHERE p.category.id = :categoryId ORDER BY p.publishedAt DESC")
+    @Query("SELECT p FROM Post p WHERE p.category.id = :categoryId AND p.isPublished = true ORDER BY p.publishedAt DESC")
     List<Post> findLatestPostsByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
-}
\ No newline at end of file
+    
+    /**
+     * Find thumbnail URLs page by page (keyset on id) for the upload garbage collector
+     */
+    @Query("SELECT p.id AS id, p.thumbnailUrl AS url FROM Post p " +
+           "WHERE p.id > :afterId AND p.thumbnailUrl IS NOT NULL ORDER BY p.id")
+    List<UploadReference> findThumbnailReferences(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Find upcoming schedule events (publish, unpublish, urgent expiry) due within a window, for PostScheduler
+     */
+    @Query("SELECT p.id AS postId, p.publishedAt AS dueAt FROM Post p WHERE p.publishedAt > :from AND p.publishedAt <= :to")
+    List<ScheduledEvent> findPublishEvents(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT p.id AS postId, p.unpublishAt AS dueAt FROM Post p WHERE p.unpublishAt > :from AND p.unpublishAt <= :to")
+    List<ScheduledEvent> findUnpublishEvents(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT p.id AS postId, p.urgentUntil AS dueAt FROM Post p " +
+           "WHERE p.urgentUntil > :from AND p.urgentUntil <= :to AND p.isUrgent = true")
+    List<ScheduledEvent> findUrgentExpiryEvents(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
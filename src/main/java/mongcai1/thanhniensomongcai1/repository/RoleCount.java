@@ -0,0 +1,15 @@
+package mongcai1.thanhniensomongcai1.repository;
+
+import mongcai1.thanhniensomongcai1.model.UserRole;
+
+/**
+ * Số lượng user theo role (kết quả GROUP BY)
+ */
+public interface RoleCount {
+    
+    UserRole getRole();
+    
+    long getTotal();
+    
+    long getActive();
+}
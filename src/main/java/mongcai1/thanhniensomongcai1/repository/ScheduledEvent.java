@@ -0,0 +1,13 @@
+package mongcai1.thanhniensomongcai1.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection một mốc lịch của bài viết (đăng, gỡ, hết khẩn cấp) để PostScheduler nạp vào hàng đợi
+ */
+public interface ScheduledEvent {
+    
+    Long getPostId();
+    
+    LocalDateTime getDueAt();
+}
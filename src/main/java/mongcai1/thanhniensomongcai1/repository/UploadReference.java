@@ -0,0 +1,12 @@
+package mongcai1.thanhniensomongcai1.repository;
+
+/**
+ * Projection dùng khi quét các file upload đang được tham chiếu
+ * (chỉ lấy id và URL ảnh, không tải toàn bộ entity)
+ */
+public interface UploadReference {
+    
+    Long getId();
+    
+    String getUrl();
+}
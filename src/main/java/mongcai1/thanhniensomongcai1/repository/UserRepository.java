@@ -2,8 +2,15 @@ package mongcai1.thanhniensomongcai1.repository;
 
 import mongcai1.thanhniensomongcai1.model.User;
 import mongcai1.thanhniensomongcai1.model.UserRole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,4 +29,33 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByIsActiveTrue();
     
     List<User> findAllByOrderByCreatedAtDesc();
+    
+    long countByIsActiveTrue();
+    
+    /**
+     * Danh sách user dạng projection (không chọn cột password)
+     */
+    List<UserSummary> findSummariesBy(Sort sort);
+    
+    Page<UserSummary> findSummariesBy(Pageable pageable);
+    
+    Page<UserSummary> findSummariesByRole(UserRole role, Pageable pageable);
+    
+    /**
+     * Đếm user theo role bằng một câu GROUP BY
+     */
+    @Query("SELECT u.role AS role, COUNT(u) AS total, "
+         + "SUM(CASE WHEN u.isActive = true THEN 1 ELSE 0 END) AS active "
+         + "FROM User u GROUP BY u.role")
+    List<RoleCount> countByRoleGrouped();
+    
+    /**
+     * Replace a stored password only if it has not changed in the meantime
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :userId AND u.password = :oldPassword")
+    int replacePassword(@Param("userId") Long userId,
+                        @Param("oldPassword") String oldPassword,
+                        @Param("newPassword") String newPassword);
 }
@@ -0,0 +1,27 @@
+package mongcai1.thanhniensomongcai1.repository;
+
+import mongcai1.thanhniensomongcai1.model.UserRole;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection cho danh sách quản trị user (không bao giờ chọn cột password)
+ */
+public interface UserSummary {
+    
+    Long getId();
+    
+    String getUsername();
+    
+    String getFullName();
+    
+    String getEmail();
+    
+    UserRole getRole();
+    
+    Boolean getIsActive();
+    
+    LocalDateTime getLastLogin();
+    
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,42 @@
+package mongcai1.thanhniensomongcai1.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Người dùng đã đăng nhập của request hiện tại.
+ * Được AuthTokenFilter gắn vào request từ token đã ký hoặc từ session, không cần truy vấn CSDL.
+ */
+public class AuthPrincipal {
+
+    public static final String REQUEST_ATTRIBUTE = AuthPrincipal.class.getName();
+
+    private final Long userId;
+    private final String username;
+    private final String fullName;
+    private final String role;
+
+    public AuthPrincipal(Long userId, String username, String fullName, String role) {
+        this.userId = userId;
+        this.username = username;
+        this.fullName = fullName;
+        this.role = role;
+    }
+
+    /**
+     * Lấy principal của request, null nếu chưa đăng nhập
+     */
+    public static AuthPrincipal current(HttpServletRequest request) {
+        Object principal = request.getAttribute(REQUEST_ATTRIBUTE);
+        return principal instanceof AuthPrincipal authPrincipal ? authPrincipal : null;
+    }
+
+    public boolean isSuperAdmin() {
+        return "SUPER_ADMIN".equals(role);
+    }
+
+    // Getters
+    public Long getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public String getFullName() { return fullName; }
+    public String getRole() { return role; }
+}
@@ -0,0 +1,84 @@
+package mongcai1.thanhniensomongcai1.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Xác định người dùng của mỗi request và gắn AuthPrincipal vào request.
+ *
+ * Chế độ token: đọc header "Authorization: Bearer ..." hoặc cookie, chỉ kiểm tra chữ ký,
+ * không chạm CSDL hay session. Token đã dùng quá nửa thời hạn được cấp lại qua cookie.
+ * Chế độ session: đọc thuộc tính session như trước đây.
+ */
+@Component
+public class AuthTokenFilter extends OncePerRequestFilter {
+
+    public static final String VERIFIED_TOKEN_ATTRIBUTE = AuthTokenFilter.class.getName() + ".TOKEN";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private AuthTokenService tokenService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (tokenService.isTokenMode()) {
+            AuthTokenService.VerifiedToken token = tokenService.verify(resolveToken(request));
+            if (token != null) {
+                request.setAttribute(AuthPrincipal.REQUEST_ATTRIBUTE, token.getPrincipal());
+                request.setAttribute(VERIFIED_TOKEN_ATTRIBUTE, token);
+                if (request.getHeader(HttpHeaders.AUTHORIZATION) == null) {
+                    refreshIfNeeded(token, response);
+                }
+            }
+        } else {
+            HttpSession session = request.getSession(false);
+            if (session != null && session.getAttribute("userId") != null) {
+                request.setAttribute(AuthPrincipal.REQUEST_ATTRIBUTE, new AuthPrincipal(
+                        (Long) session.getAttribute("userId"),
+                        (String) session.getAttribute("username"),
+                        (String) session.getAttribute("fullName"),
+                        (String) session.getAttribute("userRole")));
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private String resolveToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            return header.substring(BEARER_PREFIX.length()).trim();
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (tokenService.getCookieName().equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    // Sliding expiry for cookie clients: re-issue once half of the lifetime has passed
+    private void refreshIfNeeded(AuthTokenService.VerifiedToken token, HttpServletResponse response) {
+        Duration remaining = Duration.between(Instant.now(), token.getExpiresAt());
+        if (remaining.compareTo(tokenService.getTtl().dividedBy(2)) < 0) {
+            String refreshed = tokenService.refresh(token);
+            response.addHeader(HttpHeaders.SET_COOKIE, tokenService.createCookie(refreshed).toString());
+        }
+    }
+}
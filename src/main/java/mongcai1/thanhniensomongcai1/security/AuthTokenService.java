@@ -0,0 +1,252 @@
+package mongcai1.thanhniensomongcai1.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import mongcai1.thanhniensomongcai1.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Phát hành và kiểm tra token đăng nhập ký bằng HMAC-SHA256.
+ *
+ * Định dạng: base64url(payload JSON) + "." + base64url(chữ ký). Payload gồm
+ * uid, sub (username), name, role, iat, exp, jti và sid; kiểm tra token không cần truy vấn CSDL.
+ * sid là id của lần đăng nhập: token gia hạn giữ sid cũ, nên đăng xuất thu hồi mọi token của lần đăng nhập đó.
+ */
+@Component
+public class AuthTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthTokenService.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Value("${app.auth.mode:token}")
+    private String mode;
+
+    @Value("${app.auth.token.secret:}")
+    private String secret;
+
+    @Value("${app.auth.token.allow-random-secret:false}")
+    private boolean allowRandomSecret;
+
+    @Value("${app.auth.token.ttl:PT8H}")
+    private Duration ttl;
+
+    @Value("${app.auth.token.cookie-name:AUTH_TOKEN}")
+    private String cookieName;
+
+    @Value("${app.auth.token.cookie-secure:false}")
+    private boolean cookieSecure;
+
+    private SecretKeySpec key;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            if (isTokenMode() && !allowRandomSecret) {
+                // A per-process key silently breaks multi-node deployments and logs everyone out on restart
+                throw new IllegalStateException("Chưa cấu hình app.auth.token.secret (chế độ token). "
+                        + "Chỉ khi chạy một node để phát triển mới đặt app.auth.token.allow-random-secret=true");
+            }
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            if (isTokenMode()) {
+                log.warn("app.auth.token.secret is not set; using a random key. Tokens will not be accepted "
+                        + "by other nodes or after a restart.");
+            }
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < 32) {
+                throw new IllegalStateException("app.auth.token.secret phải dài ít nhất 32 byte");
+            }
+        }
+        key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        revocationList.setMaxTokenAge(ttl);
+    }
+
+    /**
+     * Chế độ token (true) hay session Tomcat (false)
+     */
+    public boolean isTokenMode() {
+        return !"session".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Phát hành token cho user vừa đăng nhập
+     */
+    public String issue(User user) {
+        return issue(new AuthPrincipal(user.getId(), user.getUsername(), user.getFullName(), user.getRole().name()));
+    }
+
+    /**
+     * Phát hành token cho một lần đăng nhập mới
+     */
+    public String issue(AuthPrincipal principal) {
+        return issue(principal, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Gia hạn: token mới cùng người dùng và cùng lần đăng nhập (sid)
+     */
+    public String refresh(VerifiedToken token) {
+        return issue(token.getPrincipal(), token.getSessionId());
+    }
+
+    private String issue(AuthPrincipal principal, String sessionId) {
+        Instant now = Instant.now();
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("uid", principal.getUserId());
+        payload.put("sub", principal.getUsername());
+        if (principal.getFullName() != null) {
+            payload.put("name", principal.getFullName());
+        }
+        payload.put("role", principal.getRole());
+        // NumericDate with milliseconds, compared against per-user revocation cutoffs
+        payload.put("iat", now.toEpochMilli() / 1000.0);
+        payload.put("exp", now.plus(ttl).getEpochSecond());
+        payload.put("jti", UUID.randomUUID().toString());
+        payload.put("sid", sessionId);
+        try {
+            String body = ENCODER.encodeToString(objectMapper.writeValueAsBytes(payload));
+            return body + "." + ENCODER.encodeToString(sign(body));
+        } catch (Exception e) {
+            throw new IllegalStateException("Không thể tạo token", e);
+        }
+    }
+
+    /**
+     * Kiểm tra chữ ký, hạn dùng và danh sách thu hồi; null nếu token không hợp lệ
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        String body = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(body))) {
+                return null;
+            }
+            JsonNode payload = objectMapper.readTree(DECODER.decode(body));
+            Instant issuedAt = Instant.ofEpochMilli(Math.round(payload.path("iat").asDouble() * 1000));
+            Instant expiresAt = Instant.ofEpochSecond(payload.path("exp").asLong());
+            if (!expiresAt.isAfter(Instant.now())) {
+                return null;
+            }
+            Long userId = payload.path("uid").asLong();
+            String tokenId = payload.path("jti").asText(null);
+            // Tokens issued before sid existed are their own session
+            String sessionId = payload.path("sid").asText(tokenId);
+            if (revocationList.isRevoked(tokenId, sessionId, userId, issuedAt)) {
+                return null;
+            }
+            AuthPrincipal principal = new AuthPrincipal(userId, payload.path("sub").asText(),
+                    payload.path("name").asText(null), payload.path("role").asText());
+            return new VerifiedToken(principal, tokenId, sessionId, issuedAt, expiresAt);
+        } catch (Exception e) {
+            // Malformed base64 or JSON: treat as anonymous
+            return null;
+        }
+    }
+
+    /**
+     * Thu hồi khi đăng xuất: token hiện tại và mọi token khác của cùng lần đăng nhập
+     * (bản gia hạn trước đó, cookie cũ ở tab khác, bản bị lộ)
+     */
+    public void revoke(VerifiedToken token) {
+        if (token != null && token.getSessionId() != null) {
+            // No token of the session can outlive one issued right now
+            revocationList.revokeToken(token.getSessionId(), Instant.now().plus(ttl));
+        }
+    }
+
+    public ResponseCookie createCookie(String token) {
+        return ResponseCookie.from(cookieName, token)
+                .httpOnly(true)
+                .secure(cookieSecure)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(ttl)
+                .build();
+    }
+
+    public ResponseCookie clearCookie() {
+        return ResponseCookie.from(cookieName, "")
+                .httpOnly(true)
+                .secure(cookieSecure)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(0)
+                .build();
+    }
+
+    public String getCookieName() {
+        return cookieName;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    private byte[] sign(String body) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(key);
+        return mac.doFinal(body.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Token đã được kiểm tra
+    public static class VerifiedToken {
+        private final AuthPrincipal principal;
+        private final String tokenId;
+        private final String sessionId;
+        private final Instant issuedAt;
+        private final Instant expiresAt;
+
+        VerifiedToken(AuthPrincipal principal, String tokenId, String sessionId, Instant issuedAt, Instant expiresAt) {
+            this.principal = principal;
+            this.tokenId = tokenId;
+            this.sessionId = sessionId;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        // Getters
+        public AuthPrincipal getPrincipal() { return principal; }
+        public String getTokenId() { return tokenId; }
+        public String getSessionId() { return sessionId; }
+        public Instant getIssuedAt() { return issuedAt; }
+        public Instant getExpiresAt() { return expiresAt; }
+    }
+}
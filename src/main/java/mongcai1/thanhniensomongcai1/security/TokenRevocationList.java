@@ -0,0 +1,188 @@
+package mongcai1.thanhniensomongcai1.security;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Danh sách token bị thu hồi, dùng chung cho mọi node qua bảng token_revocations.
+ *
+ * Mỗi node giữ bản sao trong bộ nhớ nên kiểm tra token không truy vấn CSDL; sync() đọc các mục
+ * node khác vừa ghi, nên token bị thu hồi ở một node bị từ chối ở node khác sau tối đa
+ * app.auth.token.revocation-sync-interval. Chỉ cần nhớ mỗi mục cho tới khi token tương ứng hết hạn.
+ * Thu hồi theo user (đổi mật khẩu, khóa tài khoản, đổi quyền) vô hiệu mọi token phát hành trước đó.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final String INSERT_SQL = "INSERT INTO token_revocations "
+            + "(token_id, user_id, revoked_before, expires_at, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_SQL = "SELECT token_id, user_id, revoked_before, expires_at, created_at "
+            + "FROM token_revocations WHERE created_at > ? AND expires_at > ?";
+
+    private static final String PURGE_SQL = "DELETE FROM token_revocations WHERE expires_at < ?";
+
+    // Rows are re-read this far back, so one committed just after a poll is not missed
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.auth.mode:token}")
+    private String mode;
+
+    // jti or sid -> expiry of the last token it can cover
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+
+    // userId -> tokens issued before this instant are invalid
+    private final Map<Long, Instant> revokedUsers = new ConcurrentHashMap<>();
+
+    // Revocations applied locally but not written yet (database unavailable); retried by sync()
+    private final Queue<Revocation> unsaved = new ConcurrentLinkedQueue<>();
+
+    private volatile Duration maxTokenAge = Duration.ofDays(1);
+
+    // Newest created_at read from the table; null until the first sync
+    private volatile Instant syncedUntil;
+
+    /**
+     * Thu hồi một token (jti) hoặc mọi token của một lần đăng nhập (sid) khi đăng xuất
+     */
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        revokedTokens.put(tokenId, expiresAt);
+        save(new Revocation(tokenId, null, null, expiresAt, Instant.now()));
+    }
+
+    /**
+     * Thu hồi mọi token đã phát hành cho user
+     */
+    public void revokeUser(Long userId) {
+        // Millisecond precision, as iat: a token issued right after the change stays valid
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        revokedUsers.merge(userId, now, (a, b) -> a.isAfter(b) ? a : b);
+        save(new Revocation(null, userId, now, now.plus(maxTokenAge), now));
+    }
+
+    public boolean isRevoked(String tokenId, String sessionId, Long userId, Instant issuedAt) {
+        if (tokenId != null && revokedTokens.containsKey(tokenId)
+                || sessionId != null && revokedTokens.containsKey(sessionId)) {
+            return true;
+        }
+        Instant revokedBefore = revokedUsers.get(userId);
+        return revokedBefore != null && issuedAt.isBefore(revokedBefore);
+    }
+
+    void setMaxTokenAge(Duration maxTokenAge) {
+        this.maxTokenAge = maxTokenAge;
+    }
+
+    @PostConstruct
+    void load() {
+        sync();
+    }
+
+    /**
+     * Đọc các mục thu hồi mới từ CSDL (lần đầu: mọi mục còn hiệu lực) và ghi lại các mục chưa lưu được
+     */
+    @Scheduled(fixedDelayString = "${app.auth.token.revocation-sync-interval:PT5S}")
+    public void sync() {
+        if ("session".equalsIgnoreCase(mode)) {
+            return;
+        }
+        Revocation pending;
+        while ((pending = unsaved.peek()) != null) {
+            if (!insert(pending)) {
+                break;
+            }
+            unsaved.remove();
+        }
+        Instant now = Instant.now();
+        Instant since = syncedUntil != null ? syncedUntil.minus(SYNC_OVERLAP) : now.minus(maxTokenAge);
+        try {
+            jdbcTemplate.query(SELECT_SQL, rs -> {
+                Timestamp revokedBefore = rs.getTimestamp("revoked_before");
+                Instant expiresAt = rs.getTimestamp("expires_at").toInstant();
+                Instant createdAt = rs.getTimestamp("created_at").toInstant();
+                String tokenId = rs.getString("token_id");
+                long userId = rs.getLong("user_id");
+                boolean hasUser = !rs.wasNull();
+                if (tokenId != null) {
+                    revokedTokens.put(tokenId, expiresAt);
+                } else if (hasUser && revokedBefore != null) {
+                    revokedUsers.merge(userId, revokedBefore.toInstant(), (a, b) -> a.isAfter(b) ? a : b);
+                }
+                if (syncedUntil == null || createdAt.isAfter(syncedUntil)) {
+                    syncedUntil = createdAt;
+                }
+            }, Timestamp.from(since), Timestamp.from(now));
+            if (syncedUntil == null) {
+                syncedUntil = since;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not read token revocations, will retry", e);
+        }
+    }
+
+    /**
+     * Bỏ các mục mà token liên quan chắc chắn đã hết hạn
+     */
+    @Scheduled(fixedDelayString = "${app.auth.token.revocation-purge-interval:PT10M}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        Instant oldestLiveIssue = now.minus(maxTokenAge);
+        revokedUsers.values().removeIf(revokedBefore -> revokedBefore.isBefore(oldestLiveIssue));
+        if ("session".equalsIgnoreCase(mode)) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(PURGE_SQL, Timestamp.from(now));
+        } catch (RuntimeException e) {
+            log.warn("Could not purge expired token revocations", e);
+        }
+    }
+
+    public int size() {
+        return revokedTokens.size() + revokedUsers.size();
+    }
+
+    private void save(Revocation revocation) {
+        if (!unsaved.isEmpty() || !insert(revocation)) {
+            // Keep the order; already in effect on this node, other nodes see it once written
+            unsaved.add(revocation);
+        }
+    }
+
+    private boolean insert(Revocation revocation) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, revocation.tokenId(), revocation.userId(),
+                    revocation.revokedBefore() != null ? Timestamp.from(revocation.revokedBefore()) : null,
+                    Timestamp.from(revocation.expiresAt()), Timestamp.from(revocation.createdAt()));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not store token revocation, will retry", e);
+            return false;
+        }
+    }
+
+    private record Revocation(String tokenId, Long userId, Instant revokedBefore, Instant expiresAt,
+                              Instant createdAt) {
+    }
+}
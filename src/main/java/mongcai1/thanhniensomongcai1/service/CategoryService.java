@@ -1,8 +1,12 @@
 package mongcai1.thanhniensomongcai1.service;
 
+import io.micrometer.core.annotation.Timed;
+import mongcai1.thanhniensomongcai1.maps.LocationMapService;
+import mongcai1.thanhniensomongcai1.metrics.PortalMetrics;
 import mongcai1.thanhniensomongcai1.model.Category;
 import mongcai1.thanhniensomongcai1.model.CategoryType;
 import mongcai1.thanhniensomongcai1.repository.CategoryRepository;
+import mongcai1.thanhniensomongcai1.wire.PrecompressedResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,11 +15,22 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
+@Timed(value = "portal.service", histogram = true)
 public class CategoryService {
     
     @Autowired
     private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PortalMetrics portalMetrics;
+
+    // Map tiles carry category names and ids
+    @Autowired
+    private LocationMapService locationMapService;
+
+    @Autowired
+    private PrecompressedResponses precompressedResponses;
     
     /**
      * Get all categories
@@ -73,7 +88,9 @@ public class CategoryService {
         if (name == null || name.trim().isEmpty()) {
             return getAllCategories();
         }
-        return categoryRepository.searchByName(name.trim());
+        List<Category> results = categoryRepository.searchByName(name.trim());
+        portalMetrics.searched(PortalMetrics.TARGET_CATEGORIES, results.size());
+        return results;
     }
     
     /**
@@ -86,6 +103,7 @@ public class CategoryService {
     /**
      * Create new category
      */
+    @Transactional
     public Category createCategory(Category category) {
         // Check if category with same name and type already exists
         if (categoryRepository.existsByNameAndType(category.getName(), category.getType())) {
@@ -93,12 +111,14 @@ public class CategoryService {
                                              "' và loại '" + category.getType() + "' đã tồn tại");
         }
         
+        precompressedResponses.invalidate();
         return categoryRepository.save(category);
     }
     
     /**
      * Update existing category
      */
+    @Transactional
     public Category updateCategory(Long id, Category categoryDetails) {
         Optional<Category> existingCategory = categoryRepository.findById(id);
         
@@ -120,6 +140,8 @@ public class CategoryService {
             category.setDescription(categoryDetails.getDescription());
             category.setIcon(categoryDetails.getIcon());
             
+            locationMapService.invalidate();
+            precompressedResponses.invalidate();
             return categoryRepository.save(category);
         } else {
             throw new RuntimeException("Không tìm thấy danh mục với ID: " + id);
@@ -129,6 +151,7 @@ public class CategoryService {
     /**
      * Delete category
      */
+    @Transactional
     public void deleteCategory(Long id) {
         Optional<Category> category = categoryRepository.findById(id);
         if (category.isPresent()) {
@@ -141,6 +164,8 @@ public class CategoryService {
             }
             
             categoryRepository.deleteById(id);
+            locationMapService.invalidate();
+            precompressedResponses.invalidate();
         } else {
             throw new RuntimeException("Không tìm thấy danh mục với ID: " + id);
         }
@@ -149,9 +174,12 @@ public class CategoryService {
     /**
      * Force delete category (cascade delete all associated data)
      */
+    @Transactional
     public void forceDeleteCategory(Long id) {
         if (categoryRepository.existsById(id)) {
             categoryRepository.deleteById(id);
+            locationMapService.invalidate();
+            precompressedResponses.invalidate();
         } else {
             throw new RuntimeException("Không tìm thấy danh mục với ID: " + id);
         }
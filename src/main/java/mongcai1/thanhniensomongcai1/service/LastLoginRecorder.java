@@ -0,0 +1,78 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ghi nhận thời gian đăng nhập cuối theo lô.
+ *
+ * Request đăng nhập chỉ đặt giá trị vào bộ nhớ; một tác vụ định kỳ ghi tất cả
+ * thay đổi đang chờ bằng một batch UPDATE. Nhiều lần đăng nhập của cùng một user
+ * trong một chu kỳ chỉ tạo một câu lệnh.
+ */
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private static final String UPDATE_SQL = "UPDATE users SET last_login = ? WHERE id = ?";
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ghi nhận một lần đăng nhập thành công
+     */
+    public void record(Long userId) {
+        pending.merge(userId, LocalDateTime.now(), (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    /**
+     * Ghi các giá trị đang chờ xuống CSDL
+     */
+    @Scheduled(fixedDelayString = "${app.auth.last-login-flush-interval:PT10S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (Long userId : new ArrayList<>(pending.keySet())) {
+            LocalDateTime time = pending.remove(userId);
+            if (time != null) {
+                batch.add(new Object[] { Timestamp.valueOf(time), userId });
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+        } catch (RuntimeException e) {
+            log.warn("Could not flush {} last-login updates, will retry", batch.size(), e);
+            for (Object[] row : batch) {
+                LocalDateTime time = ((Timestamp) row[0]).toLocalDateTime();
+                pending.merge((Long) row[1], time, (a, b) -> a.isAfter(b) ? a : b);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+}
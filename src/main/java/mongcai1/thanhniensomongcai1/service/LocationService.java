@@ -1,10 +1,16 @@
 package mongcai1.thanhniensomongcai1.service;
 
+import io.micrometer.core.annotation.Timed;
+import mongcai1.thanhniensomongcai1.maps.LocationMapService;
+import mongcai1.thanhniensomongcai1.metrics.PortalMetrics;
 import mongcai1.thanhniensomongcai1.model.Location;
 import mongcai1.thanhniensomongcai1.model.Category;
+import mongcai1.thanhniensomongcai1.repository.LocationDistance;
 import mongcai1.thanhniensomongcai1.repository.LocationRepository;
 import mongcai1.thanhniensomongcai1.repository.CategoryRepository;
+import mongcai1.thanhniensomongcai1.wire.PrecompressedResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -14,7 +20,8 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
+@Timed(value = "portal.service", histogram = true)
 public class LocationService {
     
     @Autowired
@@ -22,6 +29,21 @@ public class LocationService {
     
     @Autowired
     private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PortalMetrics portalMetrics;
+
+    @Autowired
+    private LocationMapService locationMapService;
+
+    @Autowired
+    private PrecompressedResponses precompressedResponses;
+
+    @Value("${app.locations.nearby.max-radius-meters:20000}")
+    private double maxNearbyRadiusMeters;
+
+    @Value("${app.locations.nearby.max-results:100}")
+    private int maxNearbyResults;
     
     /**
      * Get all active locations
@@ -65,7 +87,9 @@ public class LocationService {
         if (query == null || query.trim().isEmpty()) {
             return getAllActiveLocations();
         }
-        return locationRepository.searchByNameOrAddress(query.trim());
+        List<Location> results = locationRepository.searchByNameOrAddress(query.trim());
+        portalMetrics.searched(PortalMetrics.TARGET_LOCATIONS, results.size());
+        return results;
     }
     
     /**
@@ -75,7 +99,9 @@ public class LocationService {
         if (query == null || query.trim().isEmpty()) {
             return getAllActiveLocations(pageable);
         }
-        return locationRepository.searchByNameOrAddress(query.trim(), pageable);
+        Page<Location> results = locationRepository.searchByNameOrAddress(query.trim(), pageable);
+        portalMetrics.searched(PortalMetrics.TARGET_LOCATIONS, results.getTotalElements());
+        return results;
     }
     
     /**
@@ -85,7 +111,9 @@ public class LocationService {
         if (query == null || query.trim().isEmpty()) {
             return getLocationsByCategory(categoryId);
         }
-        return locationRepository.findByCategoryAndSearch(categoryId, query.trim());
+        List<Location> results = locationRepository.findByCategoryAndSearch(categoryId, query.trim());
+        portalMetrics.searched(PortalMetrics.TARGET_LOCATIONS, results.size());
+        return results;
     }
     
     /**
@@ -95,6 +123,21 @@ public class LocationService {
         return locationRepository.findWithinBounds(minLat, maxLat, minLng, maxLng);
     }
     
+    /**
+     * Get active locations within a radius (meters) of a point, nearest first
+     */
+    public List<LocationDistance> getNearbyLocations(double latitude, double longitude, double radiusMeters, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Tọa độ không hợp lệ");
+        }
+        if (radiusMeters <= 0 || radiusMeters > maxNearbyRadiusMeters) {
+            throw new IllegalArgumentException("Bán kính phải lớn hơn 0 và không vượt quá "
+                    + (long) maxNearbyRadiusMeters + " mét");
+        }
+        return locationRepository.findNearby(latitude, longitude, radiusMeters,
+                Math.max(1, Math.min(limit, maxNearbyResults)));
+    }
+    
     /**
      * Get locations with coordinates
      */
@@ -112,6 +155,7 @@ public class LocationService {
     /**
      * Create new location
      */
+    @Transactional
     public Location createLocation(Location location) {
         // Validate category exists and is of type LOCATION
         if (location.getCategory() != null) {
@@ -128,12 +172,15 @@ public class LocationService {
             location.setIsActive(true);
         }
         
+        locationMapService.invalidate();
+        precompressedResponses.invalidate();
         return locationRepository.save(location);
     }
     
     /**
      * Update existing location
      */
+    @Transactional
     public Location updateLocation(Long id, Location locationDetails) {
         Optional<Location> existingLocation = locationRepository.findById(id);
         
@@ -162,6 +209,8 @@ public class LocationService {
                 }
             }
             
+            locationMapService.invalidate();
+            precompressedResponses.invalidate();
             return locationRepository.save(location);
         } else {
             throw new RuntimeException("Không tìm thấy địa điểm với ID: " + id);
@@ -171,12 +220,15 @@ public class LocationService {
     /**
      * Delete location (soft delete by setting isActive to false)
      */
+    @Transactional
     public void deleteLocation(Long id) {
         Optional<Location> location = locationRepository.findById(id);
         if (location.isPresent()) {
             Location loc = location.get();
             loc.setIsActive(false);
             locationRepository.save(loc);
+            locationMapService.invalidate();
+            precompressedResponses.invalidate();
         } else {
             throw new RuntimeException("Không tìm thấy địa điểm với ID: " + id);
         }
@@ -185,9 +237,12 @@ public class LocationService {
     /**
      * Permanently delete location
      */
+    @Transactional
     public void permanentlyDeleteLocation(Long id) {
         if (locationRepository.existsById(id)) {
             locationRepository.deleteById(id);
+            locationMapService.invalidate();
+            precompressedResponses.invalidate();
         } else {
             throw new RuntimeException("Không tìm thấy địa điểm với ID: " + id);
         }
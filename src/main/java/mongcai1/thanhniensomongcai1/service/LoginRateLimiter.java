@@ -0,0 +1,129 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Giới hạn số lần đăng nhập sai theo IP và theo username (token bucket trong bộ nhớ).
+ *
+ * Mỗi lần thử giữ trước một token (nên nhiều request song song vẫn bị giới hạn); đăng nhập
+ * thành công thì được hoàn lại, nên chỉ lần sai mới bị tính.
+ * IP là địa chỉ client sau khi Tomcat đọc X-Forwarded-For của proxy tin cậy (server.forward-headers-strategy).
+ *
+ * Mỗi bảng bucket có kích thước tối đa; bucket ít dùng nhất bị loại khi đầy
+ * nên một đợt tấn công từ nhiều IP giả không làm tràn bộ nhớ.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final BucketMap ipBuckets;
+
+    private final BucketMap usernameBuckets;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${app.auth.rate-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${app.auth.rate-limit.ip.refill-per-minute:10}") int ipRefillPerMinute,
+                            @Value("${app.auth.rate-limit.username.capacity:5}") int usernameCapacity,
+                            @Value("${app.auth.rate-limit.username.refill-per-minute:5}") int usernameRefillPerMinute,
+                            @Value("${app.auth.rate-limit.max-entries:10000}") int maxEntries) {
+        this(ipCapacity, ipRefillPerMinute, usernameCapacity, usernameRefillPerMinute, maxEntries, System::nanoTime);
+    }
+
+    LoginRateLimiter(int ipCapacity, int ipRefillPerMinute, int usernameCapacity, int usernameRefillPerMinute,
+                     int maxEntries, LongSupplier nanoTime) {
+        this.ipBuckets = new BucketMap(ipCapacity, ipRefillPerMinute, maxEntries, nanoTime);
+        this.usernameBuckets = new BucketMap(usernameCapacity, usernameRefillPerMinute, maxEntries, nanoTime);
+    }
+
+    /**
+     * Lấy một token cho lần thử đăng nhập.
+     * Trả về 0 nếu được phép, ngược lại là số giây cần chờ.
+     */
+    public long tryAcquire(String clientIp, String username) {
+        long ipWait = ipBuckets.tryAcquire(ipKey(clientIp));
+        if (ipWait > 0) {
+            return ipWait;
+        }
+        return usernameBuckets.tryAcquire(usernameKey(username));
+    }
+
+    /**
+     * Hoàn lại token đã lấy bởi tryAcquire: đăng nhập thành công, hoặc chưa kiểm tra được mật khẩu (quá tải)
+     */
+    public void release(String clientIp, String username) {
+        ipBuckets.release(ipKey(clientIp));
+        usernameBuckets.release(usernameKey(username));
+    }
+
+    private static String ipKey(String clientIp) {
+        return clientIp == null ? "" : clientIp;
+    }
+
+    private static String usernameKey(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class BucketMap {
+        private final int capacity;
+        private final double tokensPerNano;
+        private final Map<String, Bucket> buckets;
+        private final LongSupplier nanoTime;
+
+        BucketMap(int capacity, int refillPerMinute, int maxEntries, LongSupplier nanoTime) {
+            this.capacity = capacity;
+            this.nanoTime = nanoTime;
+            this.tokensPerNano = refillPerMinute / 60_000_000_000d;
+            this.buckets = new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized long tryAcquire(String key) {
+            long now = nanoTime.getAsLong();
+            Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+            refill(bucket, now);
+            if (bucket.tokens >= 1d) {
+                bucket.tokens -= 1d;
+                return 0L;
+            }
+            if (tokensPerNano <= 0d) {
+                return Long.MAX_VALUE;
+            }
+            double nanosUntilToken = (1d - bucket.tokens) / tokensPerNano;
+            return Math.max(1L, (long) Math.ceil(nanosUntilToken / 1_000_000_000d));
+        }
+
+        synchronized void release(String key) {
+            // A bucket evicted in the meantime is full again anyway
+            Bucket bucket = buckets.get(key);
+            if (bucket != null) {
+                refill(bucket, nanoTime.getAsLong());
+                bucket.tokens = Math.min(capacity, bucket.tokens + 1d);
+            }
+        }
+
+        private void refill(Bucket bucket, long now) {
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * tokensPerNano);
+            bucket.updatedAt = now;
+        }
+    }
+
+    private static class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+
+/**
+ * Băm và kiểm tra mật khẩu trên thread pool riêng (passwordHashExecutor).
+ *
+ * Mật khẩu cũ lưu dạng rõ trong CSDL vẫn đăng nhập được; needsUpgrade() cho biết
+ * cần băm lại để UserService thay thế ngay sau lần đăng nhập thành công.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ThreadPoolTaskExecutor passwordHashExecutor;
+
+    // Hash of a random value, so that unknown usernames cost the same time as wrong passwords
+    private volatile String dummyHash;
+
+    /**
+     * Kiểm tra mật khẩu bất đồng bộ.
+     * Ném TaskRejectedException ngay lập tức nếu hàng đợi băm đã đầy.
+     */
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String storedPassword) {
+        return CompletableFuture.supplyAsync(() -> matchesNow(rawPassword, storedPassword), passwordHashExecutor);
+    }
+
+    /**
+     * Chạy một phép so khớp giả để thời gian phản hồi không tiết lộ username có tồn tại hay không
+     */
+    public CompletableFuture<Boolean> dummyMatchAsync(String rawPassword) {
+        return CompletableFuture.supplyAsync(() -> {
+            passwordEncoder.matches(rawPassword == null ? "" : rawPassword, dummyHash());
+            return false;
+        }, passwordHashExecutor);
+    }
+
+    /**
+     * Băm mật khẩu bất đồng bộ
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), passwordHashExecutor);
+    }
+
+    /**
+     * Kiểm tra mật khẩu, chờ kết quả (dùng cho các thao tác quản trị ít xảy ra)
+     */
+    public boolean matches(String rawPassword, String storedPassword) {
+        return join(matchesAsync(rawPassword, storedPassword));
+    }
+
+    /**
+     * Băm mật khẩu, chờ kết quả
+     */
+    public String encode(String rawPassword) {
+        return join(encodeAsync(rawPassword));
+    }
+
+    /**
+     * Mật khẩu lưu trong CSDL cần băm lại (còn dạng rõ hoặc cost factor cũ)
+     */
+    public boolean needsUpgrade(String storedPassword) {
+        return !isHashed(storedPassword) || passwordEncoder.upgradeEncoding(storedPassword);
+    }
+
+    public boolean isHashed(String storedPassword) {
+        return storedPassword != null && BCRYPT_PATTERN.matcher(storedPassword).matches();
+    }
+
+    private boolean matchesNow(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (isHashed(storedPassword)) {
+            return passwordEncoder.matches(rawPassword, storedPassword);
+        }
+        // Legacy plaintext row: constant-time comparison until it is upgraded
+        return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                storedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(UUID.randomUUID().toString());
+            dummyHash = hash;
+        }
+        return hash;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Lỗi khi pool băm quá tải (TaskRejectedException, có thể bị bọc trong CompletionException)
+     */
+    public static boolean isOverloaded(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof TaskRejectedException;
+    }
+}
@@ -0,0 +1,112 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nhật ký bài viết vừa được ghi, dùng chung cho mọi node qua bảng post_changes.
+ *
+ * Node ghi bài thêm một dòng trong cùng transaction; poll() trả về các bài do node khác ghi kể từ
+ * lần trước, để PostScheduler xóa cache danh sách công khai và nạp lại lịch của những bài đó.
+ */
+@Component
+public class PostChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(PostChangeLog.class);
+
+    private static final String INSERT_SQL = "INSERT INTO post_changes (post_id, node_id, created_at) VALUES (?, ?, ?)";
+
+    private static final String SELECT_SQL = "SELECT id, post_id, created_at FROM post_changes"
+            + " WHERE created_at > ? AND node_id <> ?";
+
+    private static final String PURGE_SQL = "DELETE FROM post_changes WHERE created_at < ?";
+
+    // Rows are re-read this far back, so one committed (or stamped by a node whose clock is behind)
+    // just after a poll is not missed; ids already returned are skipped
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(30);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.posts.changes.retention:PT1H}")
+    private Duration retention;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // id -> created_at of the rows already returned, kept for the overlap window
+    private final Map<Long, Instant> seen = new ConcurrentHashMap<>();
+
+    private volatile Instant syncedUntil;
+
+    @PostConstruct
+    void init() {
+        // Changes written before this node started are already in what it reads from the database
+        syncedUntil = Instant.now();
+    }
+
+    /**
+     * Ghi nhận một bài vừa tạo, sửa hoặc xóa; trong transaction thì chỉ hiện với node khác khi commit
+     */
+    public void append(Long postId) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, postId, nodeId, Timestamp.from(Instant.now()));
+        } catch (RuntimeException e) {
+            // Other nodes still catch up at their next resync or when the cache entries expire
+            log.warn("Could not record the change of post {} for other nodes", postId, e);
+        }
+    }
+
+    /**
+     * Các bài do node khác ghi kể từ lần poll trước, mỗi bài một lần
+     */
+    public synchronized List<Long> poll() {
+        Instant since = syncedUntil.minus(POLL_OVERLAP);
+        Set<Long> changed = new LinkedHashSet<>();
+        try {
+            jdbcTemplate.query(SELECT_SQL, rs -> {
+                Instant createdAt = rs.getTimestamp("created_at").toInstant();
+                if (seen.putIfAbsent(rs.getLong("id"), createdAt) == null) {
+                    changed.add(rs.getLong("post_id"));
+                }
+                if (createdAt.isAfter(syncedUntil)) {
+                    syncedUntil = createdAt;
+                }
+            }, Timestamp.from(since), nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Could not read post changes, will retry", e);
+            return List.of();
+        }
+        seen.values().removeIf(createdAt -> createdAt.isBefore(since));
+        return new ArrayList<>(changed);
+    }
+
+    @Scheduled(fixedDelayString = "${app.posts.changes.purge-interval:PT10M}")
+    public void purge() {
+        try {
+            jdbcTemplate.update(PURGE_SQL, Timestamp.from(Instant.now().minus(retention)));
+        } catch (RuntimeException e) {
+            log.warn("Could not purge post changes", e);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,524 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import mongcai1.thanhniensomongcai1.model.Category;
+import mongcai1.thanhniensomongcai1.model.Post;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Kênh Server-Sent Events (/api/posts/events) báo bài khẩn cấp và bài nổi bật mới, vừa sửa hoặc vừa xóa,
+ * để client không phải hỏi lại /api/posts/urgent theo chu kỳ.
+ *
+ * Sự kiện:
+ * - post: một bài đang hoặc vừa thôi là khẩn cấp/nổi bật (change = created, updated, deleted);
+ *   dữ liệu là PostSummary, client cập nhật danh sách của mình mà không tải lại;
+ * - refresh: danh sách có thể đã đổi mà không rõ bài nào (đến giờ đăng/gỡ/hết khẩn cấp theo lịch,
+ *   hoặc client kết nối lại với Last-Event-ID không còn trong vòng đệm), client nên tải lại danh sách.
+ *
+ * Sự kiện post được ghi vào bảng post_events trong transaction của PostService. Mọi node (kể cả node
+ * ghi, ngay sau commit) đọc bảng theo thứ tự id và gửi cho client của mình, nên id sự kiện giống nhau
+ * trên mọi node và client kết nối lại ở node khác vẫn nhận tiếp đúng chỗ. Sự kiện refresh do lịch đăng
+ * bài sinh ra ở từng node, không có id.
+ *
+ * Kết nối đang chờ là request async của Tomcat, không giữ luồng xử lý. Phát sự kiện chỉ đưa vào hàng
+ * đợi riêng của từng client; việc ghi ra socket (có thể bị chặn) chạy trên pool app.posts.events.send-threads,
+ * mỗi client một luồng tại một thời điểm nên thứ tự được giữ. Client không đọc kịp (hàng đợi vượt
+ * max-pending) hoặc một lần ghi kéo dài quá send-timeout bị ngắt; khi kết nối lại với Last-Event-ID
+ * nó nhận lại các sự kiện đã lỡ từ vòng đệm.
+ */
+@Component
+public class PostEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(PostEventStream.class);
+
+    public static final String EVENT_POST = "post";
+    public static final String EVENT_REFRESH = "refresh";
+
+    // Builders append to themselves on every build(), so queues hold factories and each send gets a fresh one
+    private static final Supplier<SseEmitter.SseEventBuilder> KEEPALIVE = () -> SseEmitter.event().comment("keepalive");
+
+    private static final String INSERT_SQL = "INSERT INTO post_events (name, data, created_at) VALUES (?, ?, ?)";
+
+    private static final String SELECT_SQL = "SELECT id, name, data FROM post_events WHERE id > ? ORDER BY id LIMIT 500";
+
+    private static final String MAX_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM post_events";
+
+    private static final String PURGE_SQL = "DELETE FROM post_events WHERE created_at < ?";
+
+    // Ids passed over by the gap timeout are watched this long, in case their row commits after all
+    private static final Duration LATE_WINDOW = Duration.ofMinutes(1);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.posts.events.replay-size:256}")
+    private int replaySize;
+
+    @Value("${app.posts.events.max-subscribers:5000}")
+    private int maxSubscribers;
+
+    @Value("${app.posts.events.timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${app.posts.events.retry:PT5S}")
+    private Duration retry;
+
+    @Value("${app.posts.events.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${app.posts.events.max-pending:64}")
+    private int maxPending;
+
+    @Value("${app.posts.events.send-timeout:PT10S}")
+    private Duration sendTimeout;
+
+    @Value("${app.posts.events.gap-timeout:PT5S}")
+    private Duration gapTimeout;
+
+    @Value("${app.posts.events.retention:PT1H}")
+    private Duration retention;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Guarded by itself: the replay buffer and the fan-out are ordered the same for every subscriber.
+    // Outbox events in id order, with this node's refresh events in between
+    private final ArrayDeque<Event> recent = new ArrayDeque<>();
+
+    // Newest outbox id sent; -1 until the outbox has been read once. Written under recent
+    private volatile long lastId = -1;
+
+    // A Last-Event-ID below this missed events no longer in the buffer. Guarded by recent
+    private long evictedThrough = -1;
+
+    // Guards the outbox reads and the fields below
+    private final Object pollLock = new Object();
+
+    // System.nanoTime() since the next id has been missing while later ones are committed; 0 when none
+    private long gapSince;
+
+    // Ids passed over after gap-timeout -> System.nanoTime() when they were
+    private final Map<Long, Long> skipped = new HashMap<>();
+
+    private ExecutorService senders;
+
+    private Counter dropped;
+
+    @PostConstruct
+    public void registerMetrics() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        senders = new ThreadPoolExecutor(sendThreads, sendThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "post-events-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("portal.posts.events.subscribers", subscribers, Set::size)
+                .description("Open post event streams")
+                .register(meterRegistry);
+        dropped = Counter.builder("portal.posts.events.dropped")
+                .description("Post event streams closed because the client did not keep up")
+                .register(meterRegistry);
+        poll();
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(this::drop);
+        senders.shutdown();
+    }
+
+    /**
+     * Mở một luồng sự kiện; lastEventId (có thể null) là id sự kiện cuối client đã nhận.
+     * Trả null khi đã đủ app.posts.events.max-subscribers kết nối.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        Long lastSeen = parseId(lastEventId);
+        Subscriber subscriber = new Subscriber(newEmitter());
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+
+        long reconnectMillis = retry.toMillis();
+        subscriber.enqueue(() -> SseEmitter.event().reconnectTime(reconnectMillis).comment("connected"));
+        synchronized (recent) {
+            if (lastSeen != null) {
+                if (lastSeen < evictedThrough || lastSeen > lastId) {
+                    // Missed more than the buffer holds, or an id this node has not sent (yet): another node
+                    // ahead of this one, a restart, an old id. Reload instead of replaying
+                    long id = lastId;
+                    subscriber.enqueue(() -> id >= 0
+                            ? SseEmitter.event().id(Long.toString(id)).name(EVENT_REFRESH).data("{}")
+                            : SseEmitter.event().name(EVENT_REFRESH).data("{}"));
+                } else {
+                    for (Event event : recent) {
+                        if (event.isAfter(lastSeen)) {
+                            subscriber.enqueue(toSse(event));
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    /**
+     * Báo một bài vừa tạo/sửa; chỉ gửi nếu bài đang được hiển thị là khẩn cấp hoặc nổi bật,
+     * hoặc trước đó đã như vậy (wasListed). Trong transaction thì chờ commit xong.
+     */
+    public void postChanged(Post post, boolean created, boolean wasListed) {
+        if (isListed(post) || wasListed) {
+            announce(post, created ? "created" : "updated");
+        }
+    }
+
+    /**
+     * Báo một bài vừa xóa, nếu lúc đó bài đang là khẩn cấp hoặc nổi bật
+     */
+    public void postDeleted(Post post) {
+        if (isListed(post)) {
+            announce(post, "deleted");
+        }
+    }
+
+    /**
+     * Báo client tải lại danh sách (thay đổi theo lịch, không gắn với một bài cụ thể)
+     */
+    public void refresh() {
+        dispatch(0, EVENT_REFRESH, "{}");
+    }
+
+    /**
+     * Gửi các sự kiện mới trong post_events theo thứ tự id. Id còn thiếu (transaction chưa commit) được
+     * chờ tối đa app.posts.events.gap-timeout; nếu dòng đó commit muộn hơn thì gửi refresh thay cho nó.
+     */
+    @Scheduled(fixedDelayString = "${app.posts.events.poll-interval:PT1S}")
+    public void poll() {
+        synchronized (pollLock) {
+            try {
+                if (lastId < 0) {
+                    // Events written before this node started are already in what clients load
+                    long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+                    synchronized (recent) {
+                        lastId = maxId;
+                        evictedThrough = maxId;
+                    }
+                    return;
+                }
+                long now = System.nanoTime();
+                skipped.values().removeIf(at -> now - at > LATE_WINDOW.toNanos());
+                long from = skipped.isEmpty() ? lastId : Math.min(lastId, Collections.min(skipped.keySet()) - 1);
+                boolean late = false;
+                for (Event event : jdbcTemplate.query(SELECT_SQL, PostEventStream::mapEvent, from)) {
+                    if (event.id <= lastId) {
+                        late |= skipped.remove(event.id) != null;
+                        continue;
+                    }
+                    if (event.id != lastId + 1) {
+                        if (gapSince == 0) {
+                            gapSince = now;
+                        }
+                        if (now - gapSince < gapTimeout.toNanos()) {
+                            break;
+                        }
+                        // Rolled back, or still not committed: go on, and watch for the row for a while
+                        for (long id = lastId + 1; id < event.id && skipped.size() < replaySize; id++) {
+                            skipped.put(id, now);
+                        }
+                    }
+                    gapSince = 0;
+                    dispatch(event.id, event.name, event.data);
+                }
+                if (late) {
+                    // Committed after later events were sent: its place in the order is lost
+                    refresh();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not read post events, will retry", e);
+            }
+        }
+    }
+
+    /**
+     * Xóa các sự kiện cũ hơn app.posts.events.retention khỏi post_events
+     */
+    @Scheduled(fixedDelayString = "${app.posts.events.purge-interval:PT10M}")
+    public void purge() {
+        try {
+            jdbcTemplate.update(PURGE_SQL, Timestamp.from(Instant.now().minus(retention)));
+        } catch (RuntimeException e) {
+            log.warn("Could not purge post events", e);
+        }
+    }
+
+    public static boolean isListed(Post post) {
+        return Boolean.TRUE.equals(post.getIsPublished())
+                && (Boolean.TRUE.equals(post.getIsUrgent()) || Boolean.TRUE.equals(post.getIsFeatured()));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Proxies drop connections that stay silent; a comment line also reveals clients that went away.
+    // Subscribers stuck in one write for longer than send-timeout are dropped here
+    @Scheduled(fixedDelayString = "${app.posts.events.heartbeat-interval:PT30S}",
+            initialDelayString = "${app.posts.events.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        long stalledSince = System.nanoTime() - sendTimeout.toNanos();
+        for (Subscriber subscriber : subscribers) {
+            long sendingSince = subscriber.sendingSince.get();
+            if (sendingSince != 0 && sendingSince - stalledSince < 0) {
+                drop(subscriber);
+            } else if (subscriber.pending.isEmpty()) {
+                publish(subscriber, KEEPALIVE);
+            }
+        }
+    }
+
+    private void announce(Post post, String change) {
+        // Serialized now, while the category is loaded; the entity may be changed again after the commit
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(PostSummary.of(post, change));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize event of post {}", post.getId(), e);
+            return;
+        }
+        try {
+            // Written with the post, so no node sends it unless the transaction commits
+            jdbcTemplate.update(INSERT_SQL, EVENT_POST, data, Timestamp.from(Instant.now()));
+        } catch (RuntimeException e) {
+            log.warn("Could not store event of post {}", post.getId(), e);
+            return;
+        }
+        // Other nodes read it on their next poll; this one right away, off the request thread
+        afterCommit(() -> {
+            try {
+                senders.execute(this::poll);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        });
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    // Only queues the event for each subscriber; no socket write happens on the caller's thread.
+    // id is 0 for a refresh of this node, which is placed after the newest outbox event sent
+    private void dispatch(long id, String name, String data) {
+        synchronized (recent) {
+            Event event = new Event(id, name, data, id > 0 ? id - 1 : lastId);
+            if (id > 0) {
+                lastId = id;
+            }
+            recent.addLast(event);
+            while (recent.size() > replaySize) {
+                Event evicted = recent.removeFirst();
+                evictedThrough = Math.max(evictedThrough, evicted.after + 1);
+            }
+            Supplier<SseEmitter.SseEventBuilder> sse = toSse(event);
+            for (Subscriber subscriber : subscribers) {
+                publish(subscriber, sse);
+            }
+        }
+    }
+
+    private void publish(Subscriber subscriber, Supplier<SseEmitter.SseEventBuilder> event) {
+        if (subscriber.pendingCount.get() >= maxPending) {
+            // Not reading fast enough; it reconnects with Last-Event-ID and catches up from the buffer
+            drop(subscriber);
+            return;
+        }
+        subscriber.enqueue(event);
+        schedule(subscriber);
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscribers.remove(subscriber);
+            subscriber.pending.clear();
+            dropped.increment();
+            // Completed by a sender: completing here could wait on a write that is still blocked
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+    }
+
+    // At most one sender drains a subscriber at a time, so its events are written in order
+    private void drain(Subscriber subscriber) {
+        do {
+            Supplier<SseEmitter.SseEventBuilder> event;
+            while (!subscriber.closed.get() && (event = subscriber.pending.poll()) != null) {
+                subscriber.pendingCount.decrementAndGet();
+                if (!send(subscriber, event)) {
+                    subscriber.closed.set(true);
+                }
+            }
+            if (subscriber.closed.get()) {
+                subscribers.remove(subscriber);
+                subscriber.pending.clear();
+                subscriber.emitter.complete();
+                return;
+            }
+            subscriber.scheduled.set(false);
+            // Re-check: an event or a drop may have arrived after the last poll but before the release
+        } while ((subscriber.closed.get() || !subscriber.pending.isEmpty())
+                && subscriber.scheduled.compareAndSet(false, true));
+    }
+
+    private static boolean send(Subscriber subscriber, Supplier<SseEmitter.SseEventBuilder> event) {
+        subscriber.sendingSince.set(System.nanoTime());
+        try {
+            subscriber.emitter.send(event.get());
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away (or the emitter already completed)
+            return false;
+        } finally {
+            subscriber.sendingSince.set(0);
+        }
+    }
+
+    private static Supplier<SseEmitter.SseEventBuilder> toSse(Event event) {
+        if (event.id == 0) {
+            // No id: the client's Last-Event-ID stays the last outbox event, valid on every node
+            return () -> SseEmitter.event().name(event.name).data(event.data);
+        }
+        return () -> SseEmitter.event().id(Long.toString(event.id)).name(event.name).data(event.data);
+    }
+
+    private static Event mapEvent(ResultSet rs, int rowNum) throws SQLException {
+        long id = rs.getLong("id");
+        return new Event(id, rs.getString("name"), rs.getString("data"), id - 1);
+    }
+
+    private static Long parseId(String id) {
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(id.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> pending = new ConcurrentLinkedQueue<>();
+        // ConcurrentLinkedQueue.size() walks the queue
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // System.nanoTime() when the write in progress started; 0 when idle
+        private final AtomicLong sendingSince = new AtomicLong();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Supplier<SseEmitter.SseEventBuilder> event) {
+            pending.add(event);
+            pendingCount.incrementAndGet();
+        }
+    }
+
+    // after: newest outbox id sent before this event
+    private record Event(long id, String name, String data, long after) {
+
+        // Whether a client whose Last-Event-ID is lastSeen has not received it
+        boolean isAfter(long lastSeen) {
+            return id > 0 ? id > lastSeen : after >= lastSeen;
+        }
+    }
+
+    /**
+     * Dữ liệu của sự kiện post: các trường trang chủ hiển thị, cùng tên với JSON của Post
+     */
+    record PostSummary(Long id, String title, String summary, String thumbnailUrl, String author,
+                       Boolean isFeatured, Boolean isUrgent, Boolean isPublished, Integer viewCount,
+                       LocalDateTime publishedAt, LocalDateTime urgentUntil, Category category, String change) {
+
+        static PostSummary of(Post post, String change) {
+            return new PostSummary(post.getId(), post.getTitle(), post.getSummary(), post.getThumbnailUrl(),
+                    post.getAuthor(), post.getIsFeatured(), post.getIsUrgent(), post.getIsPublished(),
+                    post.getViewCount(), post.getPublishedAt(), post.getUrgentUntil(), post.getCategory(), change);
+        }
+    }
+}
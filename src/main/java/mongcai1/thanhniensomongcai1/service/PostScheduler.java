@@ -0,0 +1,287 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import jakarta.annotation.PreDestroy;
+import mongcai1.thanhniensomongcai1.config.CacheConfig;
+import mongcai1.thanhniensomongcai1.model.Post;
+import mongcai1.thanhniensomongcai1.repository.PostRepository;
+import mongcai1.thanhniensomongcai1.repository.ScheduledEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lịch đăng bài, gỡ bài và hết hạn khẩn cấp.
+ *
+ * posts.is_published và posts.is_urgent là cờ được lưu sẵn, nên truy vấn danh sách công khai
+ * không so sánh với thời điểm hiện tại và kết quả cache được. Các mốc sắp tới (trong
+ * app.posts.schedule.horizon) nằm trong một DelayQueue; đến hạn thì cập nhật cờ của bài đó và
+ * xóa cache danh sách. PostService báo cho lớp này mỗi khi lưu hoặc xóa bài.
+ *
+ * Mỗi node có hàng đợi và cache riêng. Bài ghi ở node khác được đọc từ PostChangeLog sau tối đa
+ * app.posts.changes.poll-interval: xóa cache danh sách và nạp lại lịch của bài đó.
+ *
+ * Khi khởi động và theo chu kỳ resync, các cờ lệch so với lịch (mốc bị lỡ khi ứng dụng dừng,
+ * thay đổi không đọc được từ PostChangeLog) được sửa bằng vài câu UPDATE có index, rồi hàng đợi được nạp lại.
+ */
+@Component
+public class PostScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(PostScheduler.class);
+
+    // Applies the schedule of one post at the given time; idempotent, so stale or duplicate events are harmless
+    private static final String APPLY_SQL = "UPDATE posts SET"
+            + " is_published = CASE WHEN (published_at IS NULL OR published_at <= ?)"
+            + " AND (unpublish_at IS NULL OR unpublish_at > ?) THEN TRUE ELSE FALSE END,"
+            + " is_urgent = CASE WHEN urgent_until <= ? THEN FALSE ELSE is_urgent END"
+            + " WHERE id = ?";
+
+    private static final String PUBLISH_DUE_SQL = "UPDATE posts SET is_published = TRUE"
+            + " WHERE is_published = FALSE AND published_at <= ? AND (unpublish_at IS NULL OR unpublish_at > ?)";
+    private static final String HIDE_FUTURE_SQL = "UPDATE posts SET is_published = FALSE"
+            + " WHERE is_published = TRUE AND published_at > ?";
+    private static final String UNPUBLISH_DUE_SQL = "UPDATE posts SET is_published = FALSE"
+            + " WHERE is_published = TRUE AND unpublish_at <= ?";
+    private static final String URGENT_EXPIRED_SQL = "UPDATE posts SET is_urgent = FALSE"
+            + " WHERE is_urgent = TRUE AND urgent_until <= ?";
+
+    private static final String SCHEDULE_SQL = "SELECT published_at, unpublish_at,"
+            + " CASE WHEN is_urgent = TRUE THEN urgent_until END AS urgent_until FROM posts WHERE id = ?";
+
+    private final DelayQueue<Event> queue = new DelayQueue<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PostEventStream postEventStream;
+
+    @Autowired
+    private PostChangeLog changeLog;
+
+    @Value("${app.posts.schedule.horizon:P1D}")
+    private Duration horizon;
+
+    private volatile Thread worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        resync();
+        Thread thread = new Thread(this::run, "post-scheduler");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Đăng ký lại các mốc của một bài vừa tạo/sửa và xóa cache danh sách; trong transaction thì chờ commit xong
+     */
+    public void schedule(Post post) {
+        Long postId = post.getId();
+        LocalDateTime publishedAt = post.getPublishedAt();
+        LocalDateTime unpublishAt = post.getUnpublishAt();
+        LocalDateTime urgentUntil = Boolean.TRUE.equals(post.getIsUrgent()) ? post.getUrgentUntil() : null;
+        // Written with the post, so other nodes see the change exactly when it commits
+        changeLog.append(postId);
+        afterCommit(() -> {
+            reschedule(postId, publishedAt, unpublishAt, urgentUntil);
+            evictPublicPosts();
+        });
+    }
+
+    /**
+     * Bỏ các mốc của một bài đã xóa và xóa cache danh sách
+     */
+    public void cancel(Long postId) {
+        changeLog.append(postId);
+        afterCommit(() -> {
+            queue.removeIf(event -> event.postId.equals(postId));
+            evictPublicPosts();
+        });
+    }
+
+    /**
+     * Áp dụng các bài do node khác tạo/sửa/xóa: xóa cache danh sách và nạp lại lịch của các bài đó
+     */
+    @Scheduled(fixedDelayString = "${app.posts.changes.poll-interval:PT2S}")
+    public void pollChanges() {
+        List<Long> changed = changeLog.poll();
+        if (changed.isEmpty()) {
+            return;
+        }
+        evictPublicPosts();
+        for (Long postId : changed) {
+            try {
+                // Outside a transaction, so read from the primary: the replica may not have the write yet
+                List<LocalDateTime[]> rows = jdbcTemplate.query(SCHEDULE_SQL, (rs, i) -> new LocalDateTime[] {
+                        toLocalDateTime(rs.getTimestamp("published_at")),
+                        toLocalDateTime(rs.getTimestamp("unpublish_at")),
+                        toLocalDateTime(rs.getTimestamp("urgent_until")) }, postId);
+                if (rows.isEmpty()) {
+                    queue.removeIf(event -> event.postId.equals(postId));
+                } else {
+                    reschedule(postId, rows.get(0)[0], rows.get(0)[1], rows.get(0)[2]);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not reload schedule of post {}, the next resync will", postId, e);
+            }
+        }
+        log.debug("Applied {} post changes from other nodes", changed.size());
+    }
+
+    /**
+     * Sửa các cờ lệch so với lịch và nạp lại các mốc trong horizon
+     */
+    @Scheduled(fixedDelayString = "${app.posts.schedule.resync-interval:PT5M}",
+            initialDelayString = "${app.posts.schedule.resync-interval:PT5M}")
+    public void resync() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp at = Timestamp.valueOf(now);
+        int changed = jdbcTemplate.update(PUBLISH_DUE_SQL, at, at)
+                + jdbcTemplate.update(HIDE_FUTURE_SQL, at)
+                + jdbcTemplate.update(UNPUBLISH_DUE_SQL, at)
+                + jdbcTemplate.update(URGENT_EXPIRED_SQL, at);
+        if (changed > 0) {
+            log.info("Applied the publication schedule to {} posts", changed);
+            evictPublicPosts();
+            postEventStream.refresh();
+        }
+
+        LocalDateTime until = now.plus(horizon);
+        queue.clear();
+        for (ScheduledEvent event : postRepository.findPublishEvents(now, until)) {
+            offer(event.getPostId(), event.getDueAt(), now);
+        }
+        for (ScheduledEvent event : postRepository.findUnpublishEvents(now, until)) {
+            offer(event.getPostId(), event.getDueAt(), now);
+        }
+        for (ScheduledEvent event : postRepository.findUrgentExpiryEvents(now, until)) {
+            offer(event.getPostId(), event.getDueAt(), now);
+        }
+        log.debug("{} post schedule events due within {}", queue.size(), horizon);
+    }
+
+    public int getScheduledCount() {
+        return queue.size();
+    }
+
+    private void reschedule(Long postId, LocalDateTime publishedAt, LocalDateTime unpublishAt,
+                            LocalDateTime urgentUntil) {
+        queue.removeIf(event -> event.postId.equals(postId));
+        LocalDateTime now = LocalDateTime.now();
+        offer(postId, publishedAt, now);
+        offer(postId, unpublishAt, now);
+        offer(postId, urgentUntil, now);
+    }
+
+    private void offer(Long postId, LocalDateTime dueAt, LocalDateTime now) {
+        // Past times are already reflected in the flags written with the post; later ones wait for a resync
+        if (dueAt != null && dueAt.isAfter(now) && !dueAt.isAfter(now.plus(horizon))) {
+            queue.add(new Event(postId, dueAt, System.nanoTime() + Duration.between(now, dueAt).toNanos()));
+        }
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            Event event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                Timestamp at = Timestamp.valueOf(LocalDateTime.now());
+                if (jdbcTemplate.update(APPLY_SQL, at, at, at, event.postId) > 0) {
+                    log.debug("Applied schedule of post {} due at {}", event.postId, event.dueAt);
+                    evictPublicPosts();
+                    postEventStream.refresh();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not apply schedule of post {}, the next resync will", event.postId, e);
+            }
+        }
+    }
+
+    private void evictPublicPosts() {
+        // Hot responses are serialized from the public post lists
+        for (String name : new String[] { CacheConfig.PUBLIC_POSTS, CacheConfig.HOT_RESPONSES }) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // An event firing before the commit would read the old row
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Event implements Delayed {
+
+        private final Long postId;
+        private final LocalDateTime dueAt;
+        private final long dueNanos;
+
+        private Event(Long postId, LocalDateTime dueAt, long dueNanos) {
+            this.postId = postId;
+            this.dueAt = dueAt;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((Event) other).dueNanos);
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package mongcai1.thanhniensomongcai1.service;
 
+import io.micrometer.core.annotation.Timed;
+import mongcai1.thanhniensomongcai1.config.CacheConfig;
+import mongcai1.thanhniensomongcai1.datasource.ReplicaRoutingDataSource;
+import mongcai1.thanhniensomongcai1.metrics.PortalMetrics;
 import mongcai1.thanhniensomongcai1.model.Post;
 import mongcai1.thanhniensomongcai1.model.Category;
+import mongcai1.thanhniensomongcai1.model.PostBody;
+import mongcai1.thanhniensomongcai1.repository.PostBodyRepository;
 import mongcai1.thanhniensomongcai1.repository.PostRepository;
 import mongcai1.thanhniensomongcai1.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -16,33 +23,59 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
+@Timed(value = "portal.service", histogram = true)
 public class PostService {
     
+    private static final int SUMMARY_LENGTH = 200;
+    
     @Autowired
     private PostRepository postRepository;
     
+    @Autowired
+    private PostBodyRepository postBodyRepository;
+    
     @Autowired
     private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PortalMetrics portalMetrics;
+
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+    
+    @Autowired
+    private PostScheduler postScheduler;
+
+    @Autowired
+    private PostEventStream postEventStream;
     
     /**
-     * Get all posts with pagination
+     * Get all published posts with pagination
      */
     public Page<Post> getAllPosts(Pageable pageable) {
+        return postRepository.findByIsPublishedTrueOrderByPublishedAtDesc(pageable);
+    }
+    
+    /**
+     * Get all posts including scheduled and unpublished ones (for admin purposes)
+     */
+    public Page<Post> getAllPostsIncludingUnpublished(Pageable pageable) {
         return postRepository.findAllByOrderByPublishedAtDesc(pageable);
     }
     
     /**
-     * Get post by ID and increment view count
+     * Get a published post by ID and count the view (written in batches by ViewCountBuffer)
      */
     public Optional<Post> getPostById(Long id) {
-        Optional<Post> post = postRepository.findById(id);
-        if (post.isPresent()) {
-            // Increment view count
-            postRepository.incrementViewCount(id);
-            // Return updated post
-            return postRepository.findById(id);
-        }
+        Optional<Post> post = findWithContent(id).filter(p -> Boolean.TRUE.equals(p.getIsPublished()));
+        post.ifPresent(p -> {
+            viewCountBuffer.record(id);
+            portalMetrics.postViewed();
+            // Loaded read-only: the adjusted count is only returned, never flushed
+            int stored = p.getViewCount() != null ? p.getViewCount() : 0;
+            p.setViewCount(stored + (int) viewCountBuffer.getPending(id));
+        });
         return post;
     }
     
@@ -50,51 +83,65 @@ public class PostService {
      * Get post by ID without incrementing view count (for admin purposes)
      */
     public Optional<Post> getPostByIdNoIncrement(Long id) {
-        return postRepository.findById(id);
+        return findWithContent(id);
+    }
+    
+    /**
+     * Load a post together with its body (list queries never read post_bodies)
+     */
+    private Optional<Post> findWithContent(Long id) {
+        Optional<Post> post = postRepository.findById(id);
+        post.ifPresent(p -> postBodyRepository.findContentByPostId(id).ifPresent(p::setContent));
+        return post;
     }
     
     /**
      * Get featured posts
      */
     public List<Post> getFeaturedPosts() {
-        return postRepository.findByIsFeaturedTrueOrderByPublishedAtDesc();
+        return postRepository.findByIsFeaturedTrueAndIsPublishedTrueOrderByPublishedAtDesc();
     }
     
     /**
      * Get featured posts with pagination
      */
     public Page<Post> getFeaturedPosts(Pageable pageable) {
-        return postRepository.findByIsFeaturedTrueOrderByPublishedAtDesc(pageable);
+        return postRepository.findByIsFeaturedTrueAndIsPublishedTrueOrderByPublishedAtDesc(pageable);
     }
     
     /**
      * Get urgent posts
      */
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_POSTS, key = "'urgent'")
     public List<Post> getUrgentPosts() {
-        return postRepository.findByIsUrgentTrueOrderByPublishedAtDesc();
+        // Cached lists are read from the primary, see ReplicaRoutingDataSource.onPrimary
+        return ReplicaRoutingDataSource.onPrimary(postRepository::findByIsUrgentTrueAndIsPublishedTrueOrderByPublishedAtDesc);
     }
     
     /**
      * Get latest featured posts (limit 3 for homepage)
      */
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_POSTS, key = "'featured:' + #limit")
     public List<Post> getLatestFeaturedPosts(int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        return postRepository.findByIsFeaturedTrueOrderByPublishedAtDesc(pageable).getContent();
+        return ReplicaRoutingDataSource.onPrimary(
+                () -> postRepository.findByIsFeaturedTrueAndIsPublishedTrueOrderByPublishedAtDesc(pageable).getContent());
     }
     
     /**
      * Get posts by category
      */
     public Page<Post> getPostsByCategory(Long categoryId, Pageable pageable) {
-        return postRepository.findByCategoryIdOrderByPublishedAtDesc(categoryId, pageable);
+        return postRepository.findPublishedByCategoryId(categoryId, pageable);
     }
     
     /**
      * Get latest posts by category (for widgets)
      */
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_POSTS, key = "'category:' + #categoryId + ':' + #limit")
     public List<Post> getLatestPostsByCategory(Long categoryId, int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        return postRepository.findLatestPostsByCategory(categoryId, pageable);
+        return ReplicaRoutingDataSource.onPrimary(() -> postRepository.findLatestPostsByCategory(categoryId, pageable));
     }
     
     /**
@@ -104,7 +151,9 @@ public class PostService {
         if (query == null || query.trim().isEmpty()) {
             return getAllPosts(pageable);
         }
-        return postRepository.searchByTitleOrContent(query.trim(), pageable);
+        Page<Post> results = postRepository.searchByTitleOrContent(query.trim(), pageable);
+        portalMetrics.searched(PortalMetrics.TARGET_POSTS, results.getTotalElements());
+        return results;
     }
     
     /**
@@ -126,33 +175,34 @@ public class PostService {
      * Get top viewed posts
      */
     public Page<Post> getTopViewedPosts(Pageable pageable) {
-        return postRepository.findAllByOrderByViewCountDescPublishedAtDesc(pageable);
+        return postRepository.findByIsPublishedTrueOrderByViewCountDescPublishedAtDesc(pageable);
     }
     
     /**
      * Get posts by author
      */
     public Page<Post> getPostsByAuthor(String author, Pageable pageable) {
-        return postRepository.findByAuthorOrderByPublishedAtDesc(author, pageable);
+        return postRepository.findByAuthorAndIsPublishedTrueOrderByPublishedAtDesc(author, pageable);
     }
     
     /**
      * Get posts published after a specific date
      */
     public Page<Post> getPostsAfterDate(LocalDateTime date, Pageable pageable) {
-        return postRepository.findByPublishedAtAfterOrderByPublishedAtDesc(date, pageable);
+        return postRepository.findByIsPublishedTrueAndPublishedAtAfterOrderByPublishedAtDesc(date, pageable);
     }
     
     /**
      * Get posts published between dates
      */
     public Page<Post> getPostsBetweenDates(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
-        return postRepository.findByPublishedAtBetweenOrderByPublishedAtDesc(startDate, endDate, pageable);
+        return postRepository.findByIsPublishedTrueAndPublishedAtBetweenOrderByPublishedAtDesc(startDate, endDate, pageable);
     }
     
     /**
      * Create new post
      */
+    @Transactional
     public Post createPost(Post post) {
         // Validate category exists and is of type POST
         if (post.getCategory() != null) {
@@ -164,38 +214,37 @@ public class PostService {
             }
         }
         
-        // Set default values
-        if (post.getAuthor() == null || post.getAuthor().trim().isEmpty()) {
-            post.setAuthor("UBND Phường Móng Cái 1");
-        }
-        
-        if (post.getIsFeatured() == null) {
-            post.setIsFeatured(false);
-        }
-        
-        if (post.getIsUrgent() == null) {
-            post.setIsUrgent(false);
-        }
-        
-        if (post.getViewCount() == null) {
-            post.setViewCount(0);
-        }
-        
-        if (post.getPublishedAt() == null) {
-            post.setPublishedAt(LocalDateTime.now());
-        }
-        
-        return postRepository.save(post);
+        applyDefaults(post);
+        Post saved = postRepository.save(post);
+        postBodyRepository.save(new PostBody(saved, post.getContent()));
+        saved.setContent(post.getContent());
+        postScheduler.schedule(saved);
+        postEventStream.postChanged(saved, true, false);
+        return saved;
     }
     
     /**
      * Update existing post
      */
+    @Transactional
     public Post updatePost(Long id, Post postDetails) {
+        return updatePost(id, postDetails, null);
+    }
+
+    /**
+     * Update existing post; wasListed là trạng thái khẩn cấp/nổi bật trước khi sửa, khi người gọi
+     * đã sửa chính entity đang quản lý (open-in-view) trước lúc gọi vào đây
+     */
+    @Transactional
+    public Post updatePost(Long id, Post postDetails, Boolean wasListed) {
         Optional<Post> existingPost = postRepository.findById(id);
         
         if (existingPost.isPresent()) {
             Post post = existingPost.get();
+            // A post leaving the urgent/featured lists is announced too
+            if (wasListed == null) {
+                wasListed = PostEventStream.isListed(post);
+            }
             
             // Update fields
             post.setTitle(postDetails.getTitle());
@@ -205,7 +254,9 @@ public class PostService {
             post.setAuthor(postDetails.getAuthor());
             post.setIsFeatured(postDetails.getIsFeatured());
             post.setIsUrgent(postDetails.getIsUrgent());
-            post.setPublishedAt(postDetails.getPublishedAt());
+            post.setPublishedAt(postDetails.getPublishedAt() != null ? postDetails.getPublishedAt() : post.getPublishedAt());
+            post.setUnpublishAt(postDetails.getUnpublishAt());
+            post.setUrgentUntil(postDetails.getUrgentUntil());
             
             // Update category if provided
             if (postDetails.getCategory() != null) {
@@ -217,21 +268,89 @@ public class PostService {
                 }
             }
             
-            return postRepository.save(post);
+            applySchedule(post);
+            fillSummary(post);
+            Post saved = postRepository.save(post);
+            if (postBodyRepository.updateContent(id, post.getContent()) == 0) {
+                postBodyRepository.save(new PostBody(saved, post.getContent()));
+            }
+            postScheduler.schedule(saved);
+            postEventStream.postChanged(saved, false, wasListed);
+            return saved;
         } else {
             throw new RuntimeException("Không tìm thấy bài viết với ID: " + id);
         }
     }
     
+    /**
+     * Default values, publication flags and summary of a new post (shared with the bulk importer)
+     */
+    public static void applyDefaults(Post post) {
+        if (post.getAuthor() == null || post.getAuthor().trim().isEmpty()) {
+            post.setAuthor("UBND Phường Móng Cái 1");
+        }
+        
+        if (post.getIsFeatured() == null) {
+            post.setIsFeatured(false);
+        }
+        
+        if (post.getIsUrgent() == null) {
+            post.setIsUrgent(false);
+        }
+        
+        if (post.getViewCount() == null) {
+            post.setViewCount(0);
+        }
+        
+        if (post.getPublishedAt() == null) {
+            post.setPublishedAt(LocalDateTime.now());
+        }
+        
+        applySchedule(post);
+        fillSummary(post);
+    }
+    
+    /**
+     * Validate the publication window and set the flags for the current time; PostScheduler flips them later
+     */
+    private static void applySchedule(Post post) {
+        if (post.getUnpublishAt() != null && post.getPublishedAt() != null
+                && !post.getUnpublishAt().isAfter(post.getPublishedAt())) {
+            throw new IllegalArgumentException("Thời điểm gỡ bài phải sau thời điểm đăng bài");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        post.setIsPublished(post.isVisibleAt(now));
+        post.setIsUrgent(post.isUrgentAt(now));
+    }
+    
+    /**
+     * Lists no longer carry the body, so cards need a summary: derive one from the content if missing
+     */
+    private static void fillSummary(Post post) {
+        if ((post.getSummary() == null || post.getSummary().isBlank()) && post.getContent() != null) {
+            post.setSummary(summarize(post.getContent()));
+        }
+    }
+    
+    private static String summarize(String html) {
+        String text = html.replaceAll("<[^>]*>", " ").replaceAll("\\s+", " ").trim();
+        if (text.length() <= SUMMARY_LENGTH) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', SUMMARY_LENGTH);
+        return text.substring(0, cut > 0 ? cut : SUMMARY_LENGTH) + "...";
+    }
+    
     /**
      * Delete post
      */
+    @Transactional
     public void deletePost(Long id) {
-        if (postRepository.existsById(id)) {
-            postRepository.deleteById(id);
-        } else {
-            throw new RuntimeException("Không tìm thấy bài viết với ID: " + id);
-        }
+        Post post = postRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy bài viết với ID: " + id));
+        postEventStream.postDeleted(post);
+        postRepository.delete(post);
+        postScheduler.cancel(id);
     }
     
     /**
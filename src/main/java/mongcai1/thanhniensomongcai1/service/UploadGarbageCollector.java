@@ -0,0 +1,349 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import mongcai1.thanhniensomongcai1.repository.LocationRepository;
+import mongcai1.thanhniensomongcai1.repository.PostRepository;
+import mongcai1.thanhniensomongcai1.repository.UploadReference;
+import mongcai1.thanhniensomongcai1.storage.BlobInfo;
+import mongcai1.thanhniensomongcai1.storage.BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * Dọn dẹp các file upload không còn được bài viết hoặc địa điểm nào tham chiếu.
+ * Chạy trên bất kỳ backend BlobStore nào (ổ đĩa cục bộ hoặc S3).
+ *
+ * Mỗi lượt chạy gồm hai bước: file mồ côi cũ hơn thời gian ân hạn được chuyển vào
+ * thư mục cách ly, và file đã nằm trong thư mục cách ly đủ lâu thì bị xóa hẳn.
+ * File trong thư mục cách ly được khôi phục nếu lại có dữ liệu tham chiếu tới nó.
+ */
+@Service
+public class UploadGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadGarbageCollector.class);
+
+    private static final String URL_PREFIX = "/uploads/";
+
+    static final String QUARANTINE_PREFIX = ".quarantine/";
+
+    private final PostRepository postRepository;
+
+    private final LocationRepository locationRepository;
+
+    private final BlobStore blobStore;
+
+    private final Counter reclaimedBytesCounter;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${app.upload.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.upload.gc.grace-period:PT24H}")
+    private Duration gracePeriod;
+
+    @Value("${app.upload.gc.quarantine-period:P7D}")
+    private Duration quarantinePeriod;
+
+    @Value("${app.upload.gc.page-size:1000}")
+    private int pageSize;
+
+    @Value("${app.upload.gc.max-files-per-second:200}")
+    private int maxFilesPerSecond;
+
+    private volatile RunReport lastReport;
+
+    private volatile long totalBytesReclaimed;
+
+    public UploadGarbageCollector(PostRepository postRepository,
+                                  LocationRepository locationRepository,
+                                  BlobStore blobStore,
+                                  MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        this.locationRepository = locationRepository;
+        this.blobStore = blobStore;
+        this.reclaimedBytesCounter = Counter.builder("portal.uploads.gc.reclaimed")
+                .description("Bytes reclaimed by deleting orphaned uploads")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lượt chạy định kỳ
+     */
+    @Scheduled(initialDelayString = "${app.upload.gc.initial-delay:PT10M}",
+               fixedDelayString = "${app.upload.gc.interval:PT6H}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * Chạy một lượt dọn dẹp; trả về null nếu đang có lượt khác chạy
+     */
+    public RunReport run() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            RunReport report = collect();
+            lastReport = report;
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private RunReport collect() {
+        RunReport report = new RunReport(Instant.now());
+
+        // Build the referenced set first; if the database cannot be read we must not touch any file
+        Set<String> referenced;
+        try {
+            referenced = loadReferencedFilenames();
+        } catch (RuntimeException e) {
+            log.warn("Upload GC aborted: cannot load referenced filenames", e);
+            report.error = e.getMessage();
+            return report.finish();
+        }
+        report.referencedFiles = referenced.size();
+
+        Throttle throttle = new Throttle(maxFilesPerSecond);
+        Instant now = Instant.now();
+
+        try {
+            sweepUploads(referenced, now, report, throttle);
+            sweepQuarantine(referenced, now, report, throttle);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Upload GC stopped early", e);
+            report.error = e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.error = "interrupted";
+        }
+
+        totalBytesReclaimed += report.bytesReclaimed;
+        reclaimedBytesCounter.increment(report.bytesReclaimed);
+        log.info("Upload GC finished: scanned={}, quarantined={}, restored={}, deleted={}, reclaimed={} bytes",
+                report.filesScanned, report.filesQuarantined, report.filesRestored,
+                report.filesDeleted, report.bytesReclaimed);
+        return report.finish();
+    }
+
+    /**
+     * Chuyển file mồ côi đủ cũ vào thư mục cách ly
+     */
+    private void sweepUploads(Set<String> referenced, Instant now, RunReport report, Throttle throttle)
+            throws IOException, InterruptedException {
+        Instant cutoff = now.minus(gracePeriod);
+        try (Stream<BlobInfo> blobs = blobStore.list("")) {
+            Iterator<BlobInfo> it = blobs.iterator();
+            while (it.hasNext()) {
+                BlobInfo blob = it.next();
+                throttle.acquire();
+                report.filesScanned++;
+                if (referenced.contains(blob.getName())) {
+                    continue;
+                }
+                if (blob.getLastModified().isAfter(cutoff)) {
+                    // Possibly an upload whose post/location has not been saved yet
+                    continue;
+                }
+                // The quarantine clock starts at the move, not at the original upload time
+                blobStore.move(blob.getKey(), QUARANTINE_PREFIX + blob.getName());
+                report.filesQuarantined++;
+            }
+        }
+    }
+
+    /**
+     * Xóa hẳn file đã cách ly đủ lâu, khôi phục file lại được tham chiếu
+     */
+    private void sweepQuarantine(Set<String> referenced, Instant now, RunReport report, Throttle throttle)
+            throws IOException, InterruptedException {
+        Instant cutoff = now.minus(quarantinePeriod);
+        try (Stream<BlobInfo> blobs = blobStore.list(QUARANTINE_PREFIX)) {
+            Iterator<BlobInfo> it = blobs.iterator();
+            while (it.hasNext()) {
+                BlobInfo blob = it.next();
+                throttle.acquire();
+                if (referenced.contains(blob.getName())) {
+                    blobStore.move(blob.getKey(), blob.getName());
+                    report.filesRestored++;
+                    continue;
+                }
+                if (blob.getLastModified().isBefore(cutoff) && blobStore.delete(blob.getKey())) {
+                    report.filesDeleted++;
+                    report.bytesReclaimed += blob.getSize();
+                }
+            }
+        }
+    }
+
+    /**
+     * Tập tên file đang được tham chiếu, đọc theo từng trang để không tải toàn bộ entity
+     */
+    private Set<String> loadReferencedFilenames() {
+        Set<String> names = new HashSet<>();
+        collectReferences(names, postRepository::findThumbnailReferences);
+        collectReferences(names, locationRepository::findImageReferences);
+        return names;
+    }
+
+    private void collectReferences(Set<String> names,
+                                   BiFunction<Long, PageRequest, List<UploadReference>> pageQuery) {
+        long afterId = 0L;
+        PageRequest page = PageRequest.of(0, pageSize);
+        while (true) {
+            List<UploadReference> refs = pageQuery.apply(afterId, page);
+            for (UploadReference ref : refs) {
+                String name = toFilename(ref.getUrl());
+                if (name != null) {
+                    names.add(name);
+                }
+            }
+            if (refs.size() < pageSize) {
+                return;
+            }
+            afterId = refs.get(refs.size() - 1).getId();
+        }
+    }
+
+    /**
+     * Lấy tên file từ URL dạng /uploads/{filename} (tuyệt đối, tương đối hoặc có query); URL bên ngoài trả về null
+     */
+    static String toFilename(String url) {
+        if (url == null) {
+            return null;
+        }
+        String name;
+        int idx = url.indexOf(URL_PREFIX);
+        if (idx >= 0) {
+            name = url.substring(idx + URL_PREFIX.length());
+        } else if (url.startsWith(URL_PREFIX.substring(1))) {
+            // "uploads/x.jpg", relative to the site root
+            name = url.substring(URL_PREFIX.length() - 1);
+        } else {
+            return null;
+        }
+        int query = name.indexOf('?');
+        if (query >= 0) {
+            name = name.substring(0, query);
+        }
+        return name.isEmpty() || name.contains("/") ? null : name;
+    }
+
+    public RunReport getLastReport() {
+        return lastReport;
+    }
+
+    public long getTotalBytesReclaimed() {
+        return totalBytesReclaimed;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Trạng thái hiện tại: đang chạy, tổng dung lượng đã thu hồi, cấu hình và lượt chạy gần nhất
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", isRunning());
+        status.put("totalBytesReclaimed", totalBytesReclaimed);
+        status.put("settings", getSettings());
+        if (lastReport != null) {
+            status.put("lastRun", lastReport);
+        }
+        return status;
+    }
+
+    /**
+     * Summary of the current settings, part of the status
+     */
+    public Map<String, Object> getSettings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("enabled", enabled);
+        settings.put("gracePeriod", gracePeriod.toString());
+        settings.put("quarantinePeriod", quarantinePeriod.toString());
+        settings.put("maxFilesPerSecond", maxFilesPerSecond);
+        return settings;
+    }
+
+    /**
+     * Giới hạn số file xử lý mỗi giây để không chiếm hết I/O của ổ đĩa
+     */
+    private static class Throttle {
+        private final long nanosPerFile;
+        private long next = System.nanoTime();
+
+        Throttle(int filesPerSecond) {
+            this.nanosPerFile = filesPerSecond > 0 ? 1_000_000_000L / filesPerSecond : 0L;
+        }
+
+        void acquire() throws InterruptedException {
+            if (nanosPerFile == 0L) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (next > now) {
+                long wait = next - now;
+                Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+            }
+            next = Math.max(next, now) + nanosPerFile;
+        }
+    }
+
+    // Kết quả của một lượt chạy
+    public static class RunReport {
+        private final Instant startedAt;
+        private Instant finishedAt;
+        private long referencedFiles;
+        private long filesScanned;
+        private long filesQuarantined;
+        private long filesRestored;
+        private long filesDeleted;
+        private long bytesReclaimed;
+        private String error;
+
+        RunReport(Instant startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        RunReport finish() {
+            this.finishedAt = Instant.now();
+            return this;
+        }
+
+        // Getters
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+        public long getReferencedFiles() { return referencedFiles; }
+        public long getFilesScanned() { return filesScanned; }
+        public long getFilesQuarantined() { return filesQuarantined; }
+        public long getFilesRestored() { return filesRestored; }
+        public long getFilesDeleted() { return filesDeleted; }
+        public long getBytesReclaimed() { return bytesReclaimed; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,54 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import mongcai1.thanhniensomongcai1.model.UserRole;
+import mongcai1.thanhniensomongcai1.repository.RoleCount;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thống kê user theo role cho dashboard quản trị
+ */
+public class UserRoleSummary {
+    
+    private final long total;
+    private final long active;
+    private final Map<UserRole, RoleStats> byRole;
+    
+    UserRoleSummary(List<RoleCount> counts) {
+        Map<UserRole, RoleStats> roles = new EnumMap<>(UserRole.class);
+        for (UserRole role : UserRole.values()) {
+            roles.put(role, new RoleStats(0, 0));
+        }
+        long totalCount = 0;
+        long activeCount = 0;
+        for (RoleCount count : counts) {
+            roles.put(count.getRole(), new RoleStats(count.getTotal(), count.getActive()));
+            totalCount += count.getTotal();
+            activeCount += count.getActive();
+        }
+        this.total = totalCount;
+        this.active = activeCount;
+        this.byRole = Collections.unmodifiableMap(roles);
+    }
+    
+    // Getters
+    public long getTotal() { return total; }
+    public long getActive() { return active; }
+    public Map<UserRole, RoleStats> getByRole() { return byRole; }
+    
+    public static class RoleStats {
+        private final long total;
+        private final long active;
+        
+        RoleStats(long total, long active) {
+            this.total = total;
+            this.active = active;
+        }
+        
+        public long getTotal() { return total; }
+        public long getActive() { return active; }
+    }
+}
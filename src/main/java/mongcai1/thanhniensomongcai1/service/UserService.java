@@ -1,23 +1,51 @@
 package mongcai1.thanhniensomongcai1.service;
 
+import io.micrometer.core.annotation.Timed;
+import mongcai1.thanhniensomongcai1.config.CacheConfig;
 import mongcai1.thanhniensomongcai1.model.User;
 import mongcai1.thanhniensomongcai1.model.UserRole;
 import mongcai1.thanhniensomongcai1.repository.UserRepository;
+import mongcai1.thanhniensomongcai1.repository.UserSummary;
+import mongcai1.thanhniensomongcai1.security.TokenRevocationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class UserService {
     
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+    
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private PasswordHasher passwordHasher;
+    
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+    
+    @Autowired
+    @Qualifier("passwordUpgradeExecutor")
+    private ThreadPoolTaskExecutor passwordUpgradeExecutor;
+    
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+    
     /**
      * Tìm user theo username
      */
@@ -26,21 +54,55 @@ public class UserService {
     }
     
     /**
-     * Xác thực đăng nhập
+     * Xác thực đăng nhập.
+     * Việc so khớp mật khẩu chạy trên pool băm riêng; mật khẩu dạng rõ cũ được băm lại sau khi khớp.
      */
-    public Optional<User> authenticate(String username, String password) {
+    @Timed(value = "portal.auth.authenticate", histogram = true)
+    public CompletableFuture<Optional<User>> authenticate(String username, String password) {
         Optional<User> userOpt = userRepository.findByUsernameAndIsActiveTrue(username);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            // So sánh mật khẩu trực tiếp (trong thực tế nên dùng password encoder)
-            if (user.getPassword().equals(password)) {
-                // Cập nhật thời gian đăng nhập cuối
-                user.setLastLogin(LocalDateTime.now());
-                userRepository.save(user);
-                return Optional.of(user);
+        if (userOpt.isEmpty()) {
+            return passwordHasher.dummyMatchAsync(password).thenApply(ignored -> Optional.empty());
+        }
+        User user = userOpt.get();
+        String storedPassword = user.getPassword();
+        return passwordHasher.matchesAsync(password, storedPassword).thenCompose(matched -> {
+            if (!matched) {
+                return CompletableFuture.completedFuture(Optional.<User>empty());
             }
+            lastLoginRecorder.record(user.getId());
+            if (!passwordHasher.needsUpgrade(storedPassword)) {
+                return CompletableFuture.completedFuture(Optional.of(user));
+            }
+            return upgradePassword(user.getId(), storedPassword, password).thenApply(ignored -> Optional.of(user));
+        });
+    }
+    
+    // Called on a hash thread: the new hash is a separate task on the pool (never joined from it) and
+    // the database write goes to passwordUpgradeExecutor, so legacy logins cannot exhaust the pool.
+    // Login succeeds whatever happens here; a failed upgrade is retried on the next login
+    private CompletableFuture<Void> upgradePassword(Long userId, String storedPassword, String rawPassword) {
+        CompletableFuture<String> hashed;
+        try {
+            hashed = passwordHasher.encodeAsync(rawPassword);
+        } catch (RuntimeException e) {
+            log.warn("Could not upgrade password hash for user {}", userId, e);
+            return CompletableFuture.completedFuture(null);
+        }
+        return hashed
+                .thenAccept(newHash -> passwordUpgradeExecutor.execute(() -> replacePassword(userId, storedPassword, newHash)))
+                .exceptionally(e -> {
+                    log.warn("Could not upgrade password hash for user {}", userId, e);
+                    return null;
+                });
+    }
+    
+    private void replacePassword(Long userId, String storedPassword, String newHash) {
+        try {
+            // Compare-and-swap: a password changed in the meantime is left alone
+            userRepository.replacePassword(userId, storedPassword, newHash);
+        } catch (RuntimeException e) {
+            log.warn("Could not upgrade password hash for user {}", userId, e);
         }
-        return Optional.empty();
     }
     
     /**
@@ -50,6 +112,30 @@ public class UserService {
         return userRepository.findAllByOrderByCreatedAtDesc();
     }
     
+    /**
+     * Danh sách user cho trang quản trị (projection, không có password)
+     */
+    public List<UserSummary> findAllSummaries() {
+        return userRepository.findSummariesBy(Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+    
+    /**
+     * Danh sách user phân trang, lọc theo role nếu có
+     */
+    public Page<UserSummary> findSummaries(UserRole role, Pageable pageable) {
+        return role != null
+            ? userRepository.findSummariesByRole(role, pageable)
+            : userRepository.findSummariesBy(pageable);
+    }
+    
+    /**
+     * Thống kê số user theo role (được cache, xóa cache khi user thay đổi)
+     */
+    @Cacheable(CacheConfig.USER_ROLE_SUMMARY)
+    public UserRoleSummary getRoleSummary() {
+        return new UserRoleSummary(userRepository.countByRoleGrouped());
+    }
+    
     /**
      * Tìm user theo id
      */
@@ -67,16 +153,21 @@ public class UserService {
     /**
      * Tạo user mới
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USER_ROLE_SUMMARY, allEntries = true)
     public User createUser(User user) {
         if (existsByUsername(user.getUsername())) {
             throw new RuntimeException("Tên đăng nhập đã tồn tại");
         }
+        user.setPassword(passwordHasher.encode(user.getPassword()));
         return userRepository.save(user);
     }
     
     /**
      * Cập nhật user
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USER_ROLE_SUMMARY, allEntries = true)
     public User updateUser(Long id, User updatedUser) {
         return userRepository.findById(id)
             .map(user -> {
@@ -86,12 +177,19 @@ public class UserService {
                 if (updatedUser.getEmail() != null) {
                     user.setEmail(updatedUser.getEmail());
                 }
+                boolean revokeTokens = false;
                 if (updatedUser.getRole() != null) {
+                    revokeTokens |= updatedUser.getRole() != user.getRole();
                     user.setRole(updatedUser.getRole());
                 }
                 if (updatedUser.getIsActive() != null) {
+                    revokeTokens |= !updatedUser.getIsActive().equals(user.getIsActive());
                     user.setIsActive(updatedUser.getIsActive());
                 }
+                if (revokeTokens) {
+                    // Tokens carry the role, so they must not outlive a role or status change
+                    tokenRevocationList.revokeUser(id);
+                }
                 return userRepository.save(user);
             })
             .orElseThrow(() -> new RuntimeException("Không tìm thấy user với id: " + id));
@@ -100,13 +198,29 @@ public class UserService {
     /**
      * Đổi mật khẩu
      */
+    @Transactional
     public User changePassword(Long id, String oldPassword, String newPassword) {
         return userRepository.findById(id)
             .map(user -> {
-                if (!user.getPassword().equals(oldPassword)) {
+                if (!passwordHasher.matches(oldPassword, user.getPassword())) {
                     throw new RuntimeException("Mật khẩu cũ không chính xác");
                 }
-                user.setPassword(newPassword);
+                user.setPassword(passwordHasher.encode(newPassword));
+                tokenRevocationList.revokeUser(id);
+                return userRepository.save(user);
+            })
+            .orElseThrow(() -> new RuntimeException("Không tìm thấy user với id: " + id));
+    }
+    
+    /**
+     * Đặt lại mật khẩu (SUPER_ADMIN, không cần mật khẩu cũ)
+     */
+    @Transactional
+    public User resetPassword(Long id, String newPassword) {
+        return userRepository.findById(id)
+            .map(user -> {
+                user.setPassword(passwordHasher.encode(newPassword));
+                tokenRevocationList.revokeUser(id);
                 return userRepository.save(user);
             })
             .orElseThrow(() -> new RuntimeException("Không tìm thấy user với id: " + id));
@@ -115,10 +229,13 @@ public class UserService {
     /**
      * Vô hiệu hóa tài khoản
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USER_ROLE_SUMMARY, allEntries = true)
     public User deactivateUser(Long id) {
         return userRepository.findById(id)
             .map(user -> {
                 user.setIsActive(false);
+                tokenRevocationList.revokeUser(id);
                 return userRepository.save(user);
             })
             .orElseThrow(() -> new RuntimeException("Không tìm thấy user với id: " + id));
@@ -127,6 +244,8 @@ public class UserService {
     /**
      * Kích hoạt tài khoản
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USER_ROLE_SUMMARY, allEntries = true)
     public User activateUser(Long id) {
         return userRepository.findById(id)
             .map(user -> {
@@ -139,8 +258,11 @@ public class UserService {
     /**
      * Xóa user (soft delete thông qua deactivate)
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USER_ROLE_SUMMARY, allEntries = true)
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        tokenRevocationList.revokeUser(id);
     }
     
     /**
@@ -154,17 +276,19 @@ public class UserService {
      * Đếm số lượng users active
      */
     public long countActiveUsers() {
-        return userRepository.findByIsActiveTrue().size();
+        return userRepository.countByIsActiveTrue();
     }
     
     /**
      * Khởi tạo admin mặc định nếu chưa có
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USER_ROLE_SUMMARY, allEntries = true)
     public void initDefaultAdmin() {
         if (!existsByUsername("admin")) {
             User admin = new User();
             admin.setUsername("admin");
-            admin.setPassword("admin123"); // Trong thực tế nên hash password
+            admin.setPassword(passwordHasher.encode("admin123"));
             admin.setFullName("Quản trị viên");
             admin.setEmail("admin@mongcai.gov.vn");
             admin.setRole(UserRole.SUPER_ADMIN);
@@ -0,0 +1,82 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cộng dồn lượt xem bài viết trong bộ nhớ và ghi theo lô.
+ *
+ * Xem bài viết vì vậy chỉ là một transaction chỉ đọc; mỗi chu kỳ chỉ tạo một
+ * câu UPDATE cho mỗi bài có lượt xem mới, dù bài đó được xem bao nhiêu lần.
+ */
+@Component
+public class ViewCountBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewCountBuffer.class);
+
+    private static final String UPDATE_SQL = "UPDATE posts SET view_count = view_count + ? WHERE id = ?";
+
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ghi nhận một lượt xem
+     */
+    public void record(Long postId) {
+        pending.merge(postId, 1L, Long::sum);
+    }
+
+    /**
+     * Số lượt xem chưa được ghi xuống CSDL của một bài
+     */
+    public long getPending(Long postId) {
+        return pending.getOrDefault(postId, 0L);
+    }
+
+    /**
+     * Ghi các lượt xem đang chờ xuống CSDL
+     */
+    @Scheduled(fixedDelayString = "${app.posts.view-count-flush-interval:PT10S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (Long postId : new ArrayList<>(pending.keySet())) {
+            // merge() and remove() are atomic per key: a view recorded meanwhile starts a new entry
+            Long count = pending.remove(postId);
+            if (count != null) {
+                batch.add(new Object[] { count, postId });
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+        } catch (RuntimeException e) {
+            log.warn("Could not flush view counts for {} posts, will retry", batch.size(), e);
+            for (Object[] row : batch) {
+                pending.merge((Long) row[1], (Long) row[0], Long::sum);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+}
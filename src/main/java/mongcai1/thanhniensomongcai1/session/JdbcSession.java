@@ -0,0 +1,201 @@
+package mongcai1.thanhniensomongcai1.session;
+
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Session do JdbcSessionStore quản lý, ghi nhận những gì đã thay đổi trong request.
+ * Thuộc tính được đọc từ CSDL ở lần truy cập đầu tiên, mỗi giá trị chỉ giải tuần tự khi được lấy ra.
+ */
+public class JdbcSession implements Session {
+
+    // Placeholder for attributes written by this instance; their value is held by the delegate
+    private static final byte[] WRITTEN = new byte[0];
+
+    private final JdbcSessionStore store;
+
+    private final MapSession delegate;
+
+    private boolean isNew;
+
+    private String originalId;
+
+    // Raw attribute values from the database, null until first access
+    private Map<String, byte[]> storedAttributes;
+
+    private final Map<String, Object> changedAttributes = new HashMap<>();
+
+    private boolean accessTimeChanged;
+
+    private boolean maxInactiveChanged;
+
+    private JdbcSession(JdbcSessionStore store, MapSession delegate, boolean isNew) {
+        this.store = store;
+        this.delegate = delegate;
+        this.isNew = isNew;
+        this.originalId = delegate.getId();
+        if (isNew) {
+            this.storedAttributes = new HashMap<>();
+        }
+    }
+
+    static JdbcSession newSession(JdbcSessionStore store, MapSession delegate) {
+        return new JdbcSession(store, delegate, true);
+    }
+
+    static JdbcSession existingSession(JdbcSessionStore store, MapSession delegate) {
+        return new JdbcSession(store, delegate, false);
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String changeSessionId() {
+        return delegate.changeSessionId();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getAttribute(String attributeName) {
+        if (changedAttributes.containsKey(attributeName)) {
+            return (T) changedAttributes.get(attributeName);
+        }
+        Object cached = delegate.getAttribute(attributeName);
+        if (cached != null) {
+            return (T) cached;
+        }
+        byte[] raw = storedAttributes().get(attributeName);
+        if (raw == null || raw == WRITTEN) {
+            return null;
+        }
+        Object value = store.deserialize(raw);
+        delegate.setAttribute(attributeName, value);
+        return (T) value;
+    }
+
+    @Override
+    public Set<String> getAttributeNames() {
+        Set<String> names = new HashSet<>(storedAttributes().keySet());
+        changedAttributes.forEach((name, value) -> {
+            if (value == null) {
+                names.remove(name);
+            } else {
+                names.add(name);
+            }
+        });
+        return names;
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object attributeValue) {
+        delegate.setAttribute(attributeName, attributeValue);
+        changedAttributes.put(attributeName, attributeValue);
+    }
+
+    @Override
+    public void removeAttribute(String attributeName) {
+        delegate.removeAttribute(attributeName);
+        changedAttributes.put(attributeName, null);
+    }
+
+    @Override
+    public Instant getCreationTime() {
+        return delegate.getCreationTime();
+    }
+
+    @Override
+    public void setLastAccessedTime(Instant lastAccessedTime) {
+        delegate.setLastAccessedTime(lastAccessedTime);
+        accessTimeChanged = true;
+    }
+
+    @Override
+    public Instant getLastAccessedTime() {
+        return delegate.getLastAccessedTime();
+    }
+
+    @Override
+    public void setMaxInactiveInterval(Duration interval) {
+        delegate.setMaxInactiveInterval(interval);
+        maxInactiveChanged = true;
+    }
+
+    @Override
+    public Duration getMaxInactiveInterval() {
+        return delegate.getMaxInactiveInterval();
+    }
+
+    @Override
+    public boolean isExpired() {
+        return delegate.isExpired();
+    }
+
+    Instant expiresAt() {
+        return getLastAccessedTime().plus(getMaxInactiveInterval());
+    }
+
+    boolean isNew() {
+        return isNew;
+    }
+
+    boolean isIdChanged() {
+        return !isNew && !originalId.equals(getId());
+    }
+
+    String getOriginalId() {
+        return originalId;
+    }
+
+    boolean isAccessTimeChanged() {
+        return accessTimeChanged;
+    }
+
+    boolean isMaxInactiveChanged() {
+        return maxInactiveChanged;
+    }
+
+    // Used when this node holds a newer, not yet flushed access time
+    void restoreLastAccessedTime(Instant lastAccessedTime) {
+        delegate.setLastAccessedTime(lastAccessedTime);
+    }
+
+    Map<String, Object> drainChangedAttributes() {
+        Map<String, Object> changed = new HashMap<>(changedAttributes);
+        changedAttributes.clear();
+        if (storedAttributes != null) {
+            changed.forEach((name, value) -> {
+                if (value == null) {
+                    storedAttributes.remove(name);
+                } else {
+                    storedAttributes.put(name, WRITTEN);
+                }
+            });
+        }
+        return changed;
+    }
+
+    void markSaved() {
+        isNew = false;
+        originalId = getId();
+        accessTimeChanged = false;
+        maxInactiveChanged = false;
+    }
+
+    private Map<String, byte[]> storedAttributes() {
+        if (storedAttributes == null) {
+            // Until saved, the row is still keyed by the original id even after changeSessionId()
+            storedAttributes = store.loadAttributes(originalId);
+        }
+        return storedAttributes;
+    }
+}
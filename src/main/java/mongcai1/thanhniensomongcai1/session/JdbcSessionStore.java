@@ -0,0 +1,288 @@
+package mongcai1.thanhniensomongcai1.session;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lưu HttpSession trong CSDL để session không mất khi khởi động lại và mọi node đều phục vụ được.
+ *
+ * - Thuộc tính chỉ được đọc khi request thực sự truy cập (lazy) và giải tuần tự từng giá trị khi cần.
+ * - Request chỉ cập nhật thời gian truy cập thì không ghi ngay; flushAccessTimes() ghi theo lô.
+ * - sweepExpired() xóa session hết hạn (thuộc tính bị xóa theo khóa ngoại ON DELETE CASCADE).
+ */
+public class JdbcSessionStore implements SessionRepository<JdbcSession> {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcSessionStore.class);
+
+    static final String SESSION_TABLE = "http_sessions";
+
+    static final String ATTRIBUTE_TABLE = "http_session_attributes";
+
+    private static final String CREATE_SESSION_TABLE = "CREATE TABLE IF NOT EXISTS " + SESSION_TABLE + " ("
+            + "id VARCHAR(64) NOT NULL PRIMARY KEY, "
+            + "created_at TIMESTAMP(3) NOT NULL, "
+            + "last_accessed_at TIMESTAMP(3) NOT NULL, "
+            + "max_inactive_seconds INT NOT NULL, "
+            + "expires_at TIMESTAMP(3) NOT NULL)";
+
+    private static final String CREATE_EXPIRY_INDEX =
+            "CREATE INDEX idx_http_sessions_expires ON " + SESSION_TABLE + " (expires_at)";
+
+    private static final String CREATE_ATTRIBUTE_TABLE = "CREATE TABLE IF NOT EXISTS " + ATTRIBUTE_TABLE + " ("
+            + "session_id VARCHAR(64) NOT NULL, "
+            + "attribute_name VARCHAR(200) NOT NULL, "
+            + "attribute_value BLOB NOT NULL, "
+            + "PRIMARY KEY (session_id, attribute_name), "
+            + "FOREIGN KEY (session_id) REFERENCES " + SESSION_TABLE + " (id) ON DELETE CASCADE)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration defaultMaxInactiveInterval;
+
+    private final SerializingConverter serializer = new SerializingConverter();
+
+    private final DeserializingConverter deserializer = new DeserializingConverter();
+
+    // Session id -> access time not yet written (write-behind)
+    private final Map<String, PendingAccess> pendingAccess = new ConcurrentHashMap<>();
+
+    public JdbcSessionStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            Duration defaultMaxInactiveInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+    }
+
+    /**
+     * Tạo bảng nếu chưa có
+     */
+    public void initializeSchema() {
+        jdbcTemplate.execute(CREATE_SESSION_TABLE);
+        jdbcTemplate.execute(CREATE_ATTRIBUTE_TABLE);
+        try {
+            jdbcTemplate.execute(CREATE_EXPIRY_INDEX);
+        } catch (RuntimeException e) {
+            // Index already exists (no portable CREATE INDEX IF NOT EXISTS across MySQL and H2)
+            log.debug("Session expiry index not created: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public JdbcSession createSession() {
+        MapSession delegate = new MapSession();
+        delegate.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return JdbcSession.newSession(this, delegate);
+    }
+
+    @Override
+    public void save(JdbcSession session) {
+        if (session.isNew()) {
+            insert(session);
+        } else {
+            update(session);
+        }
+        session.markSaved();
+    }
+
+    @Override
+    public JdbcSession findById(String id) {
+        List<JdbcSession> found = jdbcTemplate.query(
+                "SELECT id, created_at, last_accessed_at, max_inactive_seconds FROM " + SESSION_TABLE
+                        + " WHERE id = ?",
+                (rs, rowNum) -> {
+                    MapSession delegate = new MapSession(rs.getString("id"));
+                    delegate.setCreationTime(rs.getTimestamp("created_at").toInstant());
+                    delegate.setLastAccessedTime(rs.getTimestamp("last_accessed_at").toInstant());
+                    delegate.setMaxInactiveInterval(Duration.ofSeconds(rs.getInt("max_inactive_seconds")));
+                    return JdbcSession.existingSession(this, delegate);
+                },
+                id);
+        if (found.isEmpty()) {
+            return null;
+        }
+        JdbcSession session = found.get(0);
+        // This node may know a newer access time that has not been flushed yet
+        PendingAccess pending = pendingAccess.get(id);
+        if (pending != null && pending.lastAccessedAt.isAfter(session.getLastAccessedTime())) {
+            session.restoreLastAccessedTime(pending.lastAccessedAt);
+        }
+        if (session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        pendingAccess.remove(id);
+        jdbcTemplate.update("DELETE FROM " + SESSION_TABLE + " WHERE id = ?", id);
+    }
+
+    /**
+     * Đọc toàn bộ thuộc tính (dạng byte) của một session; gọi lần đầu khi request truy cập thuộc tính
+     */
+    Map<String, byte[]> loadAttributes(String sessionId) {
+        Map<String, byte[]> attributes = new HashMap<>();
+        jdbcTemplate.query("SELECT attribute_name, attribute_value FROM " + ATTRIBUTE_TABLE
+                        + " WHERE session_id = ?",
+                rs -> {
+                    attributes.put(rs.getString("attribute_name"), rs.getBytes("attribute_value"));
+                },
+                sessionId);
+        return attributes;
+    }
+
+    Object deserialize(byte[] value) {
+        return deserializer.convert(value);
+    }
+
+    /**
+     * Ghi các thời gian truy cập đang chờ bằng một batch UPDATE
+     */
+    @Scheduled(fixedDelayString = "${app.session.jdbc.flush-interval:PT5S}")
+    public int flushAccessTimes() {
+        if (pendingAccess.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (String id : new ArrayList<>(pendingAccess.keySet())) {
+            PendingAccess pending = pendingAccess.remove(id);
+            if (pending != null) {
+                batch.add(new Object[] {
+                        Timestamp.from(pending.lastAccessedAt), Timestamp.from(pending.expiresAt),
+                        id, Timestamp.from(pending.lastAccessedAt) });
+            }
+        }
+        // Never move the access time backwards if another node wrote a newer one
+        jdbcTemplate.batchUpdate("UPDATE " + SESSION_TABLE + " SET last_accessed_at = ?, expires_at = ?"
+                + " WHERE id = ? AND last_accessed_at < ?", batch);
+        return batch.size();
+    }
+
+    /**
+     * Xóa session hết hạn; trả về số session đã xóa
+     */
+    @Scheduled(fixedDelayString = "${app.session.jdbc.cleanup-interval:PT1M}")
+    public int sweepExpired() {
+        // Flush first so sessions kept alive on this node are not swept by their stale row
+        flushAccessTimes();
+        return jdbcTemplate.update("DELETE FROM " + SESSION_TABLE + " WHERE expires_at < ?",
+                Timestamp.from(Instant.now()));
+    }
+
+    /**
+     * Ghi nốt các thay đổi đang chờ khi ứng dụng dừng (rolling restart)
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flushAccessTimes();
+        } catch (RuntimeException e) {
+            log.warn("Could not flush session access times on shutdown", e);
+        }
+    }
+
+    public int getPendingAccessCount() {
+        return pendingAccess.size();
+    }
+
+    private void insert(JdbcSession session) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO " + SESSION_TABLE
+                            + " (id, created_at, last_accessed_at, max_inactive_seconds, expires_at)"
+                            + " VALUES (?, ?, ?, ?, ?)",
+                    session.getId(),
+                    Timestamp.from(session.getCreationTime()),
+                    Timestamp.from(session.getLastAccessedTime()),
+                    (int) session.getMaxInactiveInterval().getSeconds(),
+                    Timestamp.from(session.expiresAt()));
+            writeAttributes(session.getId(), session.drainChangedAttributes());
+        });
+    }
+
+    private void update(JdbcSession session) {
+        boolean metadataChanged = session.isIdChanged() || session.isMaxInactiveChanged();
+        Map<String, Object> changedAttributes = session.drainChangedAttributes();
+        if (!metadataChanged && changedAttributes.isEmpty()) {
+            if (session.isAccessTimeChanged()) {
+                pendingAccess.put(session.getId(),
+                        new PendingAccess(session.getLastAccessedTime(), session.expiresAt()));
+            }
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (session.isIdChanged()) {
+                pendingAccess.remove(session.getOriginalId());
+                // Re-key the row and its attributes (the foreign key has no ON UPDATE CASCADE)
+                jdbcTemplate.update("INSERT INTO " + SESSION_TABLE
+                                + " (id, created_at, last_accessed_at, max_inactive_seconds, expires_at)"
+                                + " SELECT ?, created_at, last_accessed_at, max_inactive_seconds, expires_at FROM "
+                                + SESSION_TABLE + " WHERE id = ?",
+                        session.getId(), session.getOriginalId());
+                jdbcTemplate.update("UPDATE " + ATTRIBUTE_TABLE + " SET session_id = ? WHERE session_id = ?",
+                        session.getId(), session.getOriginalId());
+                jdbcTemplate.update("DELETE FROM " + SESSION_TABLE + " WHERE id = ?", session.getOriginalId());
+            }
+            pendingAccess.remove(session.getId());
+            jdbcTemplate.update("UPDATE " + SESSION_TABLE
+                            + " SET last_accessed_at = ?, max_inactive_seconds = ?, expires_at = ? WHERE id = ?",
+                    Timestamp.from(session.getLastAccessedTime()),
+                    (int) session.getMaxInactiveInterval().getSeconds(),
+                    Timestamp.from(session.expiresAt()),
+                    session.getId());
+            writeAttributes(session.getId(), changedAttributes);
+        });
+    }
+
+    private void writeAttributes(String sessionId, Map<String, Object> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        // Delete + insert inside the caller's transaction: portable across MySQL and H2,
+        // and does not rely on per-row counts from batched updates
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        changed.forEach((name, value) -> {
+            deletes.add(new Object[] { sessionId, name });
+            if (value != null) {
+                inserts.add(new Object[] { sessionId, name, serializer.convert(value) });
+            }
+        });
+        jdbcTemplate.batchUpdate("DELETE FROM " + ATTRIBUTE_TABLE
+                + " WHERE session_id = ? AND attribute_name = ?", deletes);
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO " + ATTRIBUTE_TABLE
+                    + " (session_id, attribute_name, attribute_value) VALUES (?, ?, ?)", inserts);
+        }
+    }
+
+    private static class PendingAccess {
+        private final Instant lastAccessedAt;
+        private final Instant expiresAt;
+
+        PendingAccess(Instant lastAccessedAt, Instant expiresAt) {
+            this.lastAccessedAt = lastAccessedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package mongcai1.thanhniensomongcai1.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Một blob đang được mở để đọc
+ */
+public class Blob implements Closeable {
+
+    private final BlobInfo info;
+    private final String contentType;
+    private final InputStream stream;
+
+    public Blob(BlobInfo info, String contentType, InputStream stream) {
+        this.info = info;
+        this.contentType = contentType;
+        this.stream = stream;
+    }
+
+    public BlobInfo getInfo() {
+        return info;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public InputStream getStream() {
+        return stream;
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+}
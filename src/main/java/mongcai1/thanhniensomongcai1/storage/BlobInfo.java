@@ -0,0 +1,39 @@
+package mongcai1.thanhniensomongcai1.storage;
+
+import java.time.Instant;
+
+/**
+ * Thông tin mô tả một blob (không kèm nội dung)
+ */
+public class BlobInfo {
+
+    private final String key;
+    private final long size;
+    private final Instant lastModified;
+
+    public BlobInfo(String key, long size, Instant lastModified) {
+        this.key = key;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Tên file, tức phần cuối của key
+     */
+    public String getName() {
+        int slash = key.lastIndexOf('/');
+        return slash >= 0 ? key.substring(slash + 1) : key;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,67 @@
+package mongcai1.thanhniensomongcai1.storage;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Kho lưu trữ file upload (ảnh bài viết, ảnh địa điểm).
+ *
+ * Key là đường dẫn tương đối dạng "ten-file.jpg" hoặc ".quarantine/ten-file.jpg".
+ * Các implementation phải cho phép đọc/ghi theo luồng, không nạp toàn bộ file vào bộ nhớ.
+ */
+public interface BlobStore {
+
+    /**
+     * Ghi một blob từ luồng dữ liệu; ghi đè nếu key đã tồn tại
+     */
+    void put(String key, InputStream data, long size, String contentType) throws IOException;
+
+    /**
+     * Mở blob để đọc; rỗng nếu không tồn tại. Người gọi phải đóng luồng trong Blob.
+     */
+    Optional<Blob> get(String key) throws IOException;
+
+    /**
+     * Kiểm tra blob có tồn tại không
+     */
+    boolean exists(String key) throws IOException;
+
+    /**
+     * Xóa blob; trả về false nếu blob không tồn tại
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Đổi key của blob. Thời điểm sửa đổi của blob đích được đặt lại thành hiện tại.
+     */
+    void move(String fromKey, String toKey) throws IOException;
+
+    /**
+     * Liệt kê các blob nằm trực tiếp dưới prefix (không đệ quy vào "thư mục" con).
+     * Stream trả về phải được đóng sau khi dùng.
+     */
+    Stream<BlobInfo> list(String prefix) throws IOException;
+
+    /**
+     * URL cho phép client tải trực tiếp từ backend (ví dụ presigned URL của S3).
+     * Rỗng nếu backend không hỗ trợ, khi đó ứng dụng tự phục vụ nội dung.
+     */
+    default Optional<String> directUrl(String key, Duration ttl) {
+        return Optional.empty();
+    }
+
+    /**
+     * Content type suy ra từ phần mở rộng của key
+     */
+    static String contentTypeFor(String key) {
+        return MediaTypeFactory.getMediaType(key)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+    }
+}
@@ -0,0 +1,210 @@
+package mongcai1.thanhniensomongcai1.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Bộ đệm đọc xuyên (read-through) trong bộ nhớ cho các ảnh được truy cập nhiều.
+ *
+ * Chỉ blob nhỏ hơn maxObjectBytes được đệm; tổng dung lượng đệm không vượt quá
+ * maxTotalBytes, blob ít dùng nhất bị loại trước (LRU).
+ *
+ * Khi backend có URL trực tiếp (presigned S3), directUrl() chỉ trả URL cho blob chưa "nóng":
+ * blob đã có trong bộ đệm, hoặc đã được hỏi từ promoteAfter lần trở lên, được phục vụ qua get()
+ * (và được đệm nếu đủ nhỏ). Blob quá lớn để đệm luôn được chuyển hướng.
+ */
+public class CachingBlobStore implements BlobStore {
+
+    private final BlobStore delegate;
+    private final long maxObjectBytes;
+    private final long maxTotalBytes;
+    private final int promoteAfter;
+
+    private final LinkedHashMap<String, CachedBlob> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    // Direct URL requests per key not cached yet; TOO_LARGE once a read showed it will never fit
+    private final LinkedHashMap<String, Integer> requests = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > MAX_TRACKED_KEYS;
+        }
+    };
+
+    private static final int MAX_TRACKED_KEYS = 10_000;
+    private static final int TOO_LARGE = -1;
+
+    private long hits;
+    private long misses;
+    private long redirects;
+
+    public CachingBlobStore(BlobStore delegate, long maxObjectBytes, long maxTotalBytes) {
+        this(delegate, maxObjectBytes, maxTotalBytes, 2);
+    }
+
+    public CachingBlobStore(BlobStore delegate, long maxObjectBytes, long maxTotalBytes, int promoteAfter) {
+        this.delegate = delegate;
+        this.maxObjectBytes = maxObjectBytes;
+        this.maxTotalBytes = maxTotalBytes;
+        this.promoteAfter = promoteAfter;
+    }
+
+    @Override
+    public void put(String key, InputStream data, long size, String contentType) throws IOException {
+        invalidate(key);
+        delegate.put(key, data, size, contentType);
+    }
+
+    @Override
+    public Optional<Blob> get(String key) throws IOException {
+        CachedBlob cached;
+        synchronized (this) {
+            cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        if (cached != null) {
+            return Optional.of(cached.open());
+        }
+
+        Optional<Blob> loaded = delegate.get(key);
+        if (loaded.isEmpty()) {
+            return loaded;
+        }
+        if (loaded.get().getInfo().getSize() > maxObjectBytes) {
+            markTooLarge(key);
+            return loaded;
+        }
+        try (Blob blob = loaded.get()) {
+            byte[] bytes = blob.getStream().readAllBytes();
+            CachedBlob entry = new CachedBlob(
+                    new BlobInfo(key, bytes.length, blob.getInfo().getLastModified()),
+                    blob.getContentType(), bytes);
+            store(key, entry);
+            return Optional.of(entry.open());
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                return true;
+            }
+        }
+        return delegate.exists(key);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        invalidate(key);
+        return delegate.delete(key);
+    }
+
+    @Override
+    public void move(String fromKey, String toKey) throws IOException {
+        invalidate(fromKey);
+        invalidate(toKey);
+        delegate.move(fromKey, toKey);
+    }
+
+    @Override
+    public Stream<BlobInfo> list(String prefix) throws IOException {
+        return delegate.list(prefix);
+    }
+
+    @Override
+    public Optional<String> directUrl(String key, Duration ttl) {
+        Optional<String> url = delegate.directUrl(key, ttl);
+        if (url.isPresent() && servesFromMemory(key)) {
+            return Optional.empty();
+        }
+        if (url.isPresent()) {
+            synchronized (this) {
+                redirects++;
+            }
+        }
+        return url;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getRedirects() {
+        return redirects;
+    }
+
+    public synchronized long getCachedBytes() {
+        return totalBytes;
+    }
+
+    private synchronized boolean servesFromMemory(String key) {
+        if (entries.containsKey(key)) {
+            return true;
+        }
+        int count = requests.getOrDefault(key, 0);
+        if (count == TOO_LARGE) {
+            return false;
+        }
+        requests.put(key, ++count);
+        return count >= promoteAfter;
+    }
+
+    private synchronized void markTooLarge(String key) {
+        requests.put(key, TOO_LARGE);
+    }
+
+    private synchronized void store(String key, CachedBlob entry) {
+        requests.remove(key);
+        CachedBlob previous = entries.put(key, entry);
+        if (previous != null) {
+            totalBytes -= previous.bytes.length;
+        }
+        totalBytes += entry.bytes.length;
+        Iterator<Map.Entry<String, CachedBlob>> it = entries.entrySet().iterator();
+        while (totalBytes > maxTotalBytes && it.hasNext()) {
+            CachedBlob evicted = it.next().getValue();
+            it.remove();
+            totalBytes -= evicted.bytes.length;
+        }
+    }
+
+    private synchronized void invalidate(String key) {
+        requests.remove(key);
+        CachedBlob removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.bytes.length;
+        }
+    }
+
+    private static class CachedBlob {
+        private final BlobInfo info;
+        private final String contentType;
+        private final byte[] bytes;
+
+        CachedBlob(BlobInfo info, String contentType, byte[] bytes) {
+            this.info = info;
+            this.contentType = contentType;
+            this.bytes = bytes;
+        }
+
+        Blob open() {
+            return new Blob(info, contentType, new ByteArrayInputStream(bytes));
+        }
+    }
+}
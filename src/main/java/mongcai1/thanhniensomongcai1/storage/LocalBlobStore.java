@@ -0,0 +1,126 @@
+package mongcai1.thanhniensomongcai1.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lưu blob trên ổ đĩa cục bộ, mỗi key là một file dưới thư mục gốc
+ */
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public void put(String key, InputStream data, long size, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        // Write to a temp file first so readers never see a half-written image
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.copy(data, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<Blob> get(String key) throws IOException {
+        Path file = resolve(key);
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) {
+                return Optional.empty();
+            }
+            InputStream stream = Files.newInputStream(file);
+            BlobInfo info = new BlobInfo(key, attrs.size(), attrs.lastModifiedTime().toInstant());
+            return Optional.of(new Blob(info, BlobStore.contentTypeFor(key), stream));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public void move(String fromKey, String toKey) throws IOException {
+        Path target = resolve(toKey);
+        Files.createDirectories(target.getParent());
+        Files.move(resolve(fromKey), target, StandardCopyOption.REPLACE_EXISTING);
+        Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+    }
+
+    @Override
+    public Stream<BlobInfo> list(String prefix) throws IOException {
+        Path dir = prefix == null || prefix.isEmpty() ? root : resolve(prefix);
+        if (!Files.isDirectory(dir)) {
+            return Stream.empty();
+        }
+        String keyPrefix = root.relativize(dir).toString().replace('\\', '/');
+        String base = keyPrefix.isEmpty() ? "" : keyPrefix + "/";
+        DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isRegularFile);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(stream.iterator(), Spliterator.NONNULL), false)
+                .filter(path -> !path.getFileName().toString().endsWith(".tmp"))
+                .map(path -> toInfo(base + path.getFileName(), path))
+                .onClose(() -> {
+                    try {
+                        stream.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private BlobInfo toInfo(String key, Path path) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return new BlobInfo(key, attrs.size(), attrs.lastModifiedTime().toInstant());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Chuyển key thành đường dẫn, chặn các key thoát ra ngoài thư mục gốc
+     */
+    private Path resolve(String key) {
+        if (key == null || key.isEmpty() || key.contains("\\") || key.startsWith("/")) {
+            throw new IllegalArgumentException("Key không hợp lệ: " + key);
+        }
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Key không hợp lệ: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,149 @@
+package mongcai1.thanhniensomongcai1.storage;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Lưu blob trên dịch vụ tương thích S3 (AWS S3, MinIO, ...).
+ * Mọi node đọc/ghi cùng một bucket nên node nào cũng phục vụ được mọi ảnh.
+ */
+public class S3BlobStore implements BlobStore {
+
+    private final S3Client client;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final boolean presignEnabled;
+
+    public S3BlobStore(S3Client client, S3Presigner presigner, String bucket, boolean presignEnabled) {
+        this.client = client;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.presignEnabled = presignEnabled;
+    }
+
+    @Override
+    public void put(String key, InputStream data, long size, String contentType) throws IOException {
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(size)
+                .build();
+        try {
+            client.putObject(request, RequestBody.fromInputStream(data, size));
+        } catch (SdkException e) {
+            throw new IOException("Không thể ghi blob " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<Blob> get(String key) throws IOException {
+        try {
+            ResponseInputStream<GetObjectResponse> stream = client.getObject(
+                    GetObjectRequest.builder().bucket(bucket).key(key).build());
+            GetObjectResponse response = stream.response();
+            BlobInfo info = new BlobInfo(key, response.contentLength(), response.lastModified());
+            String contentType = response.contentType() != null
+                    ? response.contentType() : BlobStore.contentTypeFor(key);
+            return Optional.of(new Blob(info, contentType, stream));
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("Không thể đọc blob " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("Không thể đọc blob " + key, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        try {
+            client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw new IOException("Không thể kiểm tra blob " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("Không thể kiểm tra blob " + key, e);
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        // S3 DELETE is idempotent and does not report whether the key existed
+        boolean existed = exists(key);
+        try {
+            client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+            return existed;
+        } catch (SdkException e) {
+            throw new IOException("Không thể xóa blob " + key, e);
+        }
+    }
+
+    @Override
+    public void move(String fromKey, String toKey) throws IOException {
+        try {
+            // A server-side copy gives the new object a fresh LastModified
+            client.copyObject(CopyObjectRequest.builder()
+                    .sourceBucket(bucket)
+                    .sourceKey(fromKey)
+                    .destinationBucket(bucket)
+                    .destinationKey(toKey)
+                    .metadataDirective(MetadataDirective.COPY)
+                    .build());
+            client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(fromKey).build());
+        } catch (SdkException e) {
+            throw new IOException("Không thể chuyển blob " + fromKey + " sang " + toKey, e);
+        }
+    }
+
+    @Override
+    public Stream<BlobInfo> list(String prefix) throws IOException {
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix == null ? "" : prefix)
+                .delimiter("/")
+                .build();
+        try {
+            // Pages are fetched lazily while the stream is consumed
+            return client.listObjectsV2Paginator(request).contents().stream()
+                    .map(object -> new BlobInfo(object.key(), object.size(), object.lastModified()));
+        } catch (SdkException e) {
+            throw new IOException("Không thể liệt kê blob với prefix " + prefix, e);
+        }
+    }
+
+    @Override
+    public Optional<String> directUrl(String key, Duration ttl) {
+        if (!presignEnabled) {
+            return Optional.empty();
+        }
+        GetObjectPresignRequest request = GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucket).key(key).build())
+                .build();
+        return Optional.of(presigner.presignGetObject(request).url().toString());
+    }
+}
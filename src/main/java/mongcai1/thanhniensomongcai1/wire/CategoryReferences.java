@@ -0,0 +1,121 @@
+package mongcai1.thanhniensomongcai1.wire;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import mongcai1.thanhniensomongcai1.model.Categorized;
+import mongcai1.thanhniensomongcai1.model.Category;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+/**
+ * Dạng phản hồi chuẩn hóa danh mục: {"categories": [...], "data": ...}.
+ *
+ * Mỗi danh mục xuất hiện một lần trong bảng categories; trong data, bài viết/địa điểm chỉ mang
+ * categoryId thay cho cả object category. Ngoài Envelope, entity vẫn được serialize như cũ.
+ */
+public final class CategoryReferences {
+
+    // Per-call serializer attribute, set only while Envelope.data is written
+    private static final String BY_ID = CategoryReferences.class.getName() + ".byId";
+
+    private CategoryReferences() {
+    }
+
+    /**
+     * Module Jackson thay thuộc tính category của các entity Categorized; đăng ký cho mọi ObjectMapper
+     */
+    public static Module module() {
+        SimpleModule module = new SimpleModule("CategoryReferences");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                if (Categorized.class.isAssignableFrom(beanDesc.getBeanClass())) {
+                    ListIterator<BeanPropertyWriter> writers = beanProperties.listIterator();
+                    while (writers.hasNext()) {
+                        BeanPropertyWriter writer = writers.next();
+                        if ("category".equals(writer.getName())) {
+                            writers.set(new CategoryIdWriter(writer));
+                        }
+                    }
+                }
+                return beanProperties;
+            }
+        });
+        module.addSerializer(Envelope.class, new EnvelopeSerializer());
+        return module;
+    }
+
+    /**
+     * Bọc một danh sách hoặc trang (Page) các entity Categorized; null nếu body không phải dạng đó
+     */
+    public static Envelope normalize(Object body) {
+        if (!(body instanceof Iterable<?> items)) {
+            return null;
+        }
+        Map<Long, Category> categories = new LinkedHashMap<>();
+        for (Object item : items) {
+            if (!(item instanceof Categorized categorized)) {
+                return null;
+            }
+            Category category = categorized.getCategory();
+            if (category != null) {
+                categories.putIfAbsent(category.getId(), category);
+            }
+        }
+        return new Envelope(categories.values(), body);
+    }
+
+    /**
+     * Phản hồi đã chuẩn hóa: bảng danh mục và body gốc
+     */
+    public record Envelope(Collection<Category> categories, Object data) {
+    }
+
+    private static final class EnvelopeSerializer extends JsonSerializer<Envelope> {
+
+        @Override
+        public void serialize(Envelope envelope, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            provider.defaultSerializeField("categories", envelope.categories(), gen);
+            provider.setAttribute(BY_ID, Boolean.TRUE);
+            try {
+                provider.defaultSerializeField("data", envelope.data(), gen);
+            } finally {
+                provider.setAttribute(BY_ID, null);
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class CategoryIdWriter extends BeanPropertyWriter {
+
+        CategoryIdWriter(BeanPropertyWriter base) {
+            super(base);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            if (prov.getAttribute(BY_ID) == null) {
+                super.serializeAsField(bean, gen, prov);
+                return;
+            }
+            Category category = ((Categorized) bean).getCategory();
+            if (category != null) {
+                gen.writeNumberField("categoryId", category.getId());
+            }
+        }
+    }
+}
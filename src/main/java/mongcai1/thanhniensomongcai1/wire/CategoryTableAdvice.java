@@ -0,0 +1,39 @@
+package mongcai1.thanhniensomongcai1.wire;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Danh sách bài viết/địa điểm với ?categories=id trả về dạng CategoryReferences.Envelope,
+ * với mọi định dạng Jackson (JSON, CBOR, Smile). Không có tham số thì giữ nguyên dạng cũ.
+ */
+@ControllerAdvice
+public class CategoryTableAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String PARAMETER = "categories";
+    static final String BY_ID = "id";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)
+                || !BY_ID.equals(servletRequest.getServletRequest().getParameter(PARAMETER))) {
+            return body;
+        }
+        CategoryReferences.Envelope envelope = CategoryReferences.normalize(body);
+        return envelope != null ? envelope : body;
+    }
+}
@@ -0,0 +1,184 @@
+package mongcai1.thanhniensomongcai1.wire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import mongcai1.thanhniensomongcai1.config.CacheConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Phản hồi JSON được đọc nhiều (bài nổi bật, khẩn cấp, danh mục, địa điểm trang chủ) lưu sẵn
+ * dạng byte kèm bản gzip, nên mỗi lần dữ liệu đổi chỉ serialize và nén một lần.
+ *
+ * Bản gzip chỉ được tạo khi nội dung đạt server.compression.min-response-size; Tomcat không nén
+ * lại phản hồi đã có Content-Encoding. Yêu cầu CBOR/Smile hoặc ?categories=id đi đường thường.
+ */
+@Component
+public class PrecompressedResponses {
+
+    private static final String GZIP = "gzip";
+    private static final String IDENTITY = "identity";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minCompressSize;
+
+    /**
+     * Trả payload đã lưu của key (tạo từ body nếu chưa có), gzip nếu client chấp nhận
+     */
+    public ResponseEntity<?> respond(String key, HttpServletRequest request, Supplier<?> body) {
+        if (!servesJson(request)) {
+            return ResponseEntity.ok(body.get());
+        }
+        Payload payload = cache().get(key, () -> build(name(key), body.get()));
+        boolean gzip = payload.gzip() != null && acceptsGzip(request);
+        counter(name(key), gzip ? GZIP : IDENTITY).increment();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(payload.gzip());
+        }
+        return response.body(payload.raw());
+    }
+
+    /**
+     * Xóa mọi payload đã lưu; trong transaction thì chờ commit xong
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache().clear();
+                }
+            });
+        } else {
+            cache().clear();
+        }
+    }
+
+    private Payload build(String name, Object body) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        byte[] raw;
+        byte[] gzip = null;
+        try {
+            raw = objectMapper.writeValueAsBytes(body);
+            if (raw.length >= minCompressSize.toBytes()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4);
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+                    gzipOut.write(raw);
+                }
+                gzip = out.toByteArray();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        sample.stop(Timer.builder("portal.response.precompressed.build")
+                .description("Serializing and compressing a cached hot response")
+                .tag("response", name)
+                .register(meterRegistry));
+        size(name, IDENTITY).record(raw.length);
+        if (gzip != null) {
+            size(name, GZIP).record(gzip.length);
+        }
+        return new Payload(raw, gzip);
+    }
+
+    private static boolean servesJson(HttpServletRequest request) {
+        if (request.getParameter(CategoryTableAdvice.PARAMETER) != null) {
+            return false;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(mediaTypes);
+            // The most preferred type decides, as with content negotiation
+            return !mediaTypes.isEmpty() && mediaTypes.get(0).isCompatibleWith(MediaType.APPLICATION_JSON);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // Metric tag: the key without its parameters (featured:3 -> featured)
+    private static String name(String key) {
+        int colon = key.indexOf(':');
+        return colon < 0 ? key : key.substring(0, colon);
+    }
+
+    private DistributionSummary size(String name, String encoding) {
+        return DistributionSummary.builder("portal.response.precompressed.size")
+                .description("Size of a cached hot response")
+                .baseUnit("bytes")
+                .tag("response", name)
+                .tag("encoding", encoding)
+                .register(meterRegistry);
+    }
+
+    private Counter counter(String name, String encoding) {
+        return Counter.builder("portal.response.precompressed.served")
+                .description("Responses served from the precompressed cache")
+                .tag("response", name)
+                .tag("encoding", encoding)
+                .register(meterRegistry);
+    }
+
+    private Cache cache() {
+        Cache cache = cacheManager.getCache(CacheConfig.HOT_RESPONSES);
+        if (cache == null) {
+            throw new IllegalStateException("Cache " + CacheConfig.HOT_RESPONSES + " is not configured");
+        }
+        return cache;
+    }
+
+    private record Payload(byte[] raw, byte[] gzip) {
+    }
+}
@@ -0,0 +1,76 @@
+-- Baseline: the current schema, so a fresh database is complete after V1 (post bodies in post_bodies,
+-- coordinates as DOUBLE). Databases created earlier by ddl-auto or schema.sql, which Flyway baselines at
+-- version 0, still have the old shape (posts.content, DECIMAL coordinates): IF NOT EXISTS leaves their
+-- existing tables alone and only adds the missing ones, and the Java migrations V3 and V4 move them to
+-- the current shape.
+
+CREATE TABLE IF NOT EXISTS categories (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    type ENUM('LOCATION', 'POST') NOT NULL,
+    description TEXT,
+    icon VARCHAR(50),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_categories_name_type UNIQUE (name, type)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(50) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    full_name VARCHAR(100),
+    email VARCHAR(100),
+    role ENUM('SUPER_ADMIN', 'ADMIN', 'EDITOR') NOT NULL,
+    is_active BIT,
+    last_login DATETIME(6),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS locations (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(200) NOT NULL,
+    address TEXT NOT NULL,
+    description TEXT,
+    image_url VARCHAR(500),
+    category_id BIGINT NOT NULL,
+    latitude DOUBLE,
+    longitude DOUBLE,
+    phone VARCHAR(20),
+    email VARCHAR(100),
+    website VARCHAR(200),
+    opening_hours TEXT,
+    is_active BIT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_locations_category FOREIGN KEY (category_id) REFERENCES categories (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS posts (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(300) NOT NULL,
+    summary TEXT,
+    thumbnail_url VARCHAR(500),
+    author VARCHAR(100),
+    is_featured BIT,
+    is_urgent BIT,
+    view_count INTEGER,
+    published_at DATETIME(6),
+    category_id BIGINT NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_posts_category FOREIGN KEY (category_id) REFERENCES categories (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS post_bodies (
+    post_id BIGINT NOT NULL,
+    content LONGTEXT NOT NULL,
+    PRIMARY KEY (post_id),
+    CONSTRAINT fk_post_bodies_post FOREIGN KEY (post_id) REFERENCES posts (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
@@ -0,0 +1,30 @@
+-- Composite indexes matching the WHERE + ORDER BY of the repository methods; QueryPlanTest checks
+-- each method against its index. Equality columns come first and the sort column last, so rows are
+-- read already in order and a LIMIT stops early instead of sorting every match (filesort).
+-- InnoDB appends the primary key to each entry, so the COUNT queries never touch the rows.
+
+-- PostRepository: findAllByOrderByPublishedAtDesc, findByPublishedAtAfter/Between..., findRecentPosts
+CREATE INDEX idx_posts_published ON posts (published_at DESC);
+-- findByCategoryIdOrderByPublishedAtDesc, findByCategoryOrderByPublishedAtDesc, findLatestPostsByCategory,
+-- countByCategoryId (also serves the category foreign key)
+CREATE INDEX idx_posts_category_published ON posts (category_id, published_at DESC);
+-- findByIsFeaturedTrueOrderByPublishedAtDesc, countByIsFeaturedTrue
+CREATE INDEX idx_posts_featured_published ON posts (is_featured, published_at DESC);
+-- findByIsUrgentTrueOrderByPublishedAtDesc, countByIsUrgentTrue
+CREATE INDEX idx_posts_urgent_published ON posts (is_urgent, published_at DESC);
+-- findByAuthorOrderByPublishedAtDesc
+CREATE INDEX idx_posts_author_published ON posts (author, published_at DESC);
+-- findAllByOrderByViewCountDescPublishedAtDesc, findPopularPosts (view counts are written in batches)
+CREATE INDEX idx_posts_views_published ON posts (view_count DESC, published_at DESC);
+
+-- LocationRepository: findByIsActiveTrue sorted by name, findLocationsWithPhone, findLocationsWithCoordinates
+CREATE INDEX idx_locations_active_name ON locations (is_active, name);
+-- findByCategoryIdAndIsActiveTrue sorted by name, countByCategoryIdAndIsActiveTrue
+-- (also serves the category foreign key)
+CREATE INDEX idx_locations_category_active_name ON locations (category_id, is_active, name);
+
+-- CategoryRepository: findByTypeOrderByNameAsc (findByNameAndType uses uk_categories_name_type)
+CREATE INDEX idx_categories_type_name ON categories (type, name);
+
+-- UserRepository: findAllByOrderByCreatedAtDesc
+CREATE INDEX idx_users_created ON users (created_at DESC);
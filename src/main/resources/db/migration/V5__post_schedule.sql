@@ -0,0 +1,29 @@
+-- Publication schedule: posts.is_published is kept in step with published_at/unpublish_at by
+-- PostScheduler, so the public list queries filter on a flag instead of comparing with now()
+-- and their results can be cached. urgent_until clears is_urgent the same way.
+ALTER TABLE posts ADD COLUMN is_published BIT NOT NULL DEFAULT TRUE;
+ALTER TABLE posts ADD COLUMN unpublish_at DATETIME(6);
+ALTER TABLE posts ADD COLUMN urgent_until DATETIME(6);
+
+UPDATE posts SET is_published = FALSE WHERE published_at > CURRENT_TIMESTAMP;
+
+-- Public queries now carry is_published = TRUE: it joins the equality prefix of each composite
+-- index, before the sort column. The new indexes are created before the old ones are dropped,
+-- so fk_posts_category always has an index on category_id.
+-- findByIsPublishedTrue..., findRecentPosts, searchByTitleOrContent; PostScheduler bulk updates
+CREATE INDEX idx_posts_visible_published ON posts (is_published, published_at DESC);
+CREATE INDEX idx_posts_category_visible ON posts (category_id, is_published, published_at DESC);
+CREATE INDEX idx_posts_featured_visible ON posts (is_featured, is_published, published_at DESC);
+CREATE INDEX idx_posts_urgent_visible ON posts (is_urgent, is_published, published_at DESC);
+CREATE INDEX idx_posts_author_visible ON posts (author, is_published, published_at DESC);
+CREATE INDEX idx_posts_visible_views ON posts (is_published, view_count DESC, published_at DESC);
+-- PostScheduler: upcoming unpublish events. Urgent expiry goes through idx_posts_urgent_visible,
+-- since only a handful of posts are urgent at any time
+CREATE INDEX idx_posts_unpublish ON posts (unpublish_at);
+
+-- idx_posts_published stays for the admin list (all posts) and the upcoming publish events
+DROP INDEX idx_posts_category_published ON posts;
+DROP INDEX idx_posts_featured_published ON posts;
+DROP INDEX idx_posts_urgent_published ON posts;
+DROP INDEX idx_posts_author_published ON posts;
+DROP INDEX idx_posts_views_published ON posts;
@@ -0,0 +1,13 @@
+-- Ids of categories, users, posts and locations come from this table instead of AUTO_INCREMENT:
+-- an IDENTITY id is only known after its INSERT, which stops Hibernate from batching inserts.
+-- Hibernate (@TableGenerator, pooled-lo) and IdBlockAllocator (JDBC batch writers) both reserve
+-- a block [next_val, next_val + n) by advancing next_val, so they never hand out the same id.
+CREATE TABLE id_sequences (
+    sequence_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO id_sequences (sequence_name, next_val) SELECT 'categories', COALESCE(MAX(id), 0) + 1 FROM categories;
+INSERT INTO id_sequences (sequence_name, next_val) SELECT 'users', COALESCE(MAX(id), 0) + 1 FROM users;
+INSERT INTO id_sequences (sequence_name, next_val) SELECT 'posts', COALESCE(MAX(id), 0) + 1 FROM posts;
+INSERT INTO id_sequences (sequence_name, next_val) SELECT 'locations', COALESCE(MAX(id), 0) + 1 FROM locations;
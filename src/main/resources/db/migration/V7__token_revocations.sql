@@ -0,0 +1,14 @@
+-- Token revocations shared by every node (logout: token_id; password/role change or lock: user_id
+-- with revoked_before). Rows are only inserted, then purged after expires_at; each node keeps them
+-- in memory and polls for rows newer than the last created_at it has seen.
+CREATE TABLE token_revocations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    token_id VARCHAR(64),
+    user_id BIGINT,
+    revoked_before DATETIME(3),
+    expires_at DATETIME(3) NOT NULL,
+    created_at DATETIME(3) NOT NULL
+);
+
+CREATE INDEX idx_token_revocations_created ON token_revocations (created_at);
+CREATE INDEX idx_token_revocations_expires ON token_revocations (expires_at);
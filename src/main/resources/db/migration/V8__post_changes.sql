@@ -0,0 +1,11 @@
+-- Posts written on one node, so every other node clears its public post caches and reloads the
+-- schedule of those posts. Rows are inserted in the transaction that writes the post, polled by
+-- created_at like token_revocations, and purged after app.posts.changes.retention.
+CREATE TABLE post_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    node_id VARCHAR(36) NOT NULL,
+    created_at DATETIME(3) NOT NULL
+);
+
+CREATE INDEX idx_post_changes_created ON post_changes (created_at);
@@ -0,0 +1,12 @@
+-- Outbox of the post events pushed to /api/posts/events. A row is inserted in the transaction that
+-- writes the post; every node reads the rows in id order and sends them to its own subscribers, so the
+-- id is the SSE event id on every node and Last-Event-ID stays valid after reconnecting elsewhere.
+-- Rows are purged after app.posts.events.retention.
+CREATE TABLE post_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(16) NOT NULL,
+    data TEXT NOT NULL,
+    created_at DATETIME(3) NOT NULL
+);
+
+CREATE INDEX idx_post_events_created ON post_events (created_at);
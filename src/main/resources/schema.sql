@@ -25,8 +25,8 @@ CREATE TABLE locations (
     description TEXT,
     image_url VARCHAR(500),
     category_id BIGINT NOT NULL,
-    latitude DECIMAL(10, 8), -- For GPS coordinates
-    longitude DECIMAL(11, 8), -- For GPS coordinates
+    latitude DOUBLE, -- For GPS coordinates
+    longitude DOUBLE, -- For GPS coordinates
     phone VARCHAR(20),
     email VARCHAR(100),
     website VARCHAR(200),
@@ -34,16 +34,19 @@ CREATE TABLE locations (
     is_active BOOLEAN DEFAULT TRUE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- x = longitude, y = latitude; (0, 0) when coordinates are missing because SPATIAL needs NOT NULL
+    geo_point POINT GENERATED ALWAYS AS (POINT(COALESCE(longitude, 0), COALESCE(latitude, 0))) STORED NOT NULL SRID 0,
     FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE CASCADE,
     INDEX idx_category (category_id),
-    INDEX idx_active (is_active)
+    INDEX idx_active (is_active),
+    INDEX idx_locations_active_lat_lng (is_active, latitude, longitude),
+    SPATIAL INDEX idx_locations_geo_point (geo_point)
 );
 
 -- Posts table for news and announcements
 CREATE TABLE posts (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     title VARCHAR(300) NOT NULL,
-    content LONGTEXT NOT NULL, -- HTML/Rich text content
     summary TEXT, -- Short description for cards
     thumbnail_url VARCHAR(500),
     category_id BIGINT NOT NULL,
@@ -59,7 +62,15 @@ CREATE TABLE posts (
     INDEX idx_featured (is_featured),
     INDEX idx_urgent (is_urgent),
     INDEX idx_published (published_at),
-    FULLTEXT(title, content, summary)
+    FULLTEXT(title, summary)
+);
+
+-- Post bodies: kept out of the posts row so list scans and view-count updates touch narrow rows
+CREATE TABLE post_bodies (
+    post_id BIGINT PRIMARY KEY,
+    content LONGTEXT NOT NULL, -- HTML/Rich text content
+    FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    FULLTEXT(content)
 );
 
 -- Insert initial categories for locations
@@ -86,27 +97,29 @@ INSERT INTO locations (name, address, description, category_id, latitude, longit
 ('Bưu điện Móng Cái 1', '12 Đường Hai Bà Trưng, Phường Móng Cái 1, TP Móng Cái, Quảng Ninh', 'Bưu điện phường cung cấp dịch vụ bưu chính viễn thông', 5, 21.5265, 106.7355, '033-123-4571', 'buudien@mongcai1.gov.vn', 'Thứ 2 - Thứ 6: 7:30-17:30');
 
 -- Insert sample posts
-INSERT INTO posts (title, content, summary, category_id, is_featured, is_urgent, author) VALUES
+INSERT INTO posts (title, summary, category_id, is_featured, is_urgent, author) VALUES
 ('Thông báo về kế hoạch sáp nhập khu vực năm 2026', 
- '<h2>Thông báo chính thức</h2><p>UBND phường Móng Cái 1 thông báo về kế hoạch sáp nhập và tái cơ cấu hành chính theo Nghị quyết của UBND tỉnh Quảng Ninh...</p><h3>Nội dung chính:</h3><ul><li>Thời gian thực hiện: Quý I/2026</li><li>Phạm vi ảnh hưởng: Toàn bộ khu vực phường</li><li>Các thủ tục cần thiết cho người dân</li></ul>',
  'Chi tiết về kế hoạch sáp nhập và tái cơ cấu hành chính của khu vực Móng Cái 1 trong năm 2026', 
  1, TRUE, TRUE, 'UBND Phường Móng Cái 1'),
 
 ('Lịch tiêm chủng mở rộng tháng 1/2026',
- '<h2>Chương trình tiêm chủng miễn phí</h2><p>Trạm Y tế phường Móng Cái 1 thông báo lịch tiêm chủng mở rộng cho trẻ em và người cao tuổi...</p><h3>Đối tượng:</h3><ul><li>Trẻ em từ 6 tháng đến 5 tuổi</li><li>Người cao tuổi trên 65 tuổi</li><li>Phụ nữ mang thai</li></ul><h3>Thời gian:</h3><p>Từ ngày 15/01 đến 30/01/2026, các ngày thứ 2, 4, 6 hàng tuần.</p>',
  'Chương trình tiêm chủng miễn phí cho trẻ em và người cao tuổi tại các trạm y tế trong khu vực',
  3, TRUE, FALSE, 'Trạm Y tế Phường Móng Cái 1'),
 
 ('Hoạt động tình nguyện của Đoàn Thanh niên tháng 1/2026',
- '<h2>Các hoạt động trong tháng</h2><p>Đoàn Thanh niên phường Móng Cái 1 tổ chức nhiều hoạt động ý nghĩa...</p><h3>Chương trình:</h3><ul><li>Ngày 12/01: Tặng quà cho gia đình khó khăn</li><li>Ngày 19/01: Dọn dẹp vệ sinh môi trường</li><li>Ngày 26/01: Tư vấn pháp luật miễn phí</li></ul>',
  'Các hoạt động tình nguyện và phát triển cộng đồng của Đoàn thanh niên phường Móng Cái 1',
  2, FALSE, FALSE, 'Đoàn Thanh niên Phường'),
 
 ('Khai giảng năm học mới 2026 tại các trường trong khu vực',
- '<h2>Lễ khai giảng năm học 2025-2026</h2><p>Các trường học trong phường Móng Cái 1 chuẩn bị tổ chức lễ khai giảng năm học mới...</p><h3>Thời gian:</h3><p>Ngày 05/02/2026 (thứ 5) tại tất cả các trường</p><h3>Chuẩn bị:</h3><ul><li>Phụ huynh cần chuẩn bị đồng phục mới</li><li>Hoàn thành thủ tục nhập học</li><li>Tham gia họp phụ huynh đầu năm</li></ul>',
  'Thông tin về lễ khai giảng và các hoạt động giáo dục năm học mới tại khu vực',
  4, TRUE, FALSE, 'Phòng Giáo dục & Đào tạo');
 
+INSERT INTO post_bodies (post_id, content) VALUES
+(1, '<h2>Thông báo chính thức</h2><p>UBND phường Móng Cái 1 thông báo về kế hoạch sáp nhập và tái cơ cấu hành chính theo Nghị quyết của UBND tỉnh Quảng Ninh...</p><h3>Nội dung chính:</h3><ul><li>Thời gian thực hiện: Quý I/2026</li><li>Phạm vi ảnh hưởng: Toàn bộ khu vực phường</li><li>Các thủ tục cần thiết cho người dân</li></ul>'),
+(2, '<h2>Chương trình tiêm chủng miễn phí</h2><p>Trạm Y tế phường Móng Cái 1 thông báo lịch tiêm chủng mở rộng cho trẻ em và người cao tuổi...</p><h3>Đối tượng:</h3><ul><li>Trẻ em từ 6 tháng đến 5 tuổi</li><li>Người cao tuổi trên 65 tuổi</li><li>Phụ nữ mang thai</li></ul><h3>Thời gian:</h3><p>Từ ngày 15/01 đến 30/01/2026, các ngày thứ 2, 4, 6 hàng tuần.</p>'),
+(3, '<h2>Các hoạt động trong tháng</h2><p>Đoàn Thanh niên phường Móng Cái 1 tổ chức nhiều hoạt động ý nghĩa...</p><h3>Chương trình:</h3><ul><li>Ngày 12/01: Tặng quà cho gia đình khó khăn</li><li>Ngày 19/01: Dọn dẹp vệ sinh môi trường</li><li>Ngày 26/01: Tư vấn pháp luật miễn phí</li></ul>'),
+(4, '<h2>Lễ khai giảng năm học 2025-2026</h2><p>Các trường học trong phường Móng Cái 1 chuẩn bị tổ chức lễ khai giảng năm học mới...</p><h3>Thời gian:</h3><p>Ngày 05/02/2026 (thứ 5) tại tất cả các trường</p><h3>Chuẩn bị:</h3><ul><li>Phụ huynh cần chuẩn bị đồng phục mới</li><li>Hoàn thành thủ tục nhập học</li><li>Tham gia họp phụ huynh đầu năm</li></ul>');
+
 -- Users table for admin authentication
 CREATE TABLE users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -125,6 +138,7 @@ CREATE TABLE users (
 );
 
 -- Insert default admin user (password: admin123)
+-- Mật khẩu mẫu dạng rõ sẽ được băm BCrypt ở lần đăng nhập thành công đầu tiên
 INSERT INTO users (username, password, full_name, email, role, is_active) VALUES
 ('admin', 'admin123', 'Quản trị viên hệ thống', 'admin@mongcai1.gov.vn', 'SUPER_ADMIN', TRUE),
 ('editor', 'editor123', 'Biên tập viên', 'editor@mongcai1.gov.vn', 'EDITOR', TRUE);
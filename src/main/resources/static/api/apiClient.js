@@ -136,6 +136,14 @@ export const postAPI = {
     // Get urgent posts
     getUrgent: () => apiClient.get('/posts/urgent'),
     
+    // Subscribe to urgent/featured post changes (server-sent events); call close() on the result to stop
+    subscribeEvents: (onChange) => {
+        const source = new EventSource(`${apiClient.baseURL}/posts/events`);
+        source.addEventListener('post', (e) => onChange('post', JSON.parse(e.data)));
+        source.addEventListener('refresh', () => onChange('refresh', null));
+        return source;
+    },
+    
     // Get recent posts (last 30 days)
     getRecent: () => apiClient.get('/posts/recent'),
     
@@ -17,10 +17,30 @@ import {
 } from 'lucide-react';
 import { postAPI, locationAPI, categoryAPI, apiUtils } from '../api/apiClient.js';
 
+const FEATURED_SHOWN = 3;
+// Spare featured posts take the place of removed ones without a request
+const FEATURED_FETCHED = 6;
+
+// Newest first, as the server sorts them
+const byPublishedAtDesc = (a, b) => new Date(b.publishedAt) - new Date(a.publishedAt);
+
+// Applies a `post` event (a post with `change`) to a list: the post leaves it, then comes back if it still belongs
+const applyPostEvent = (list, post, belongs) => {
+    const existing = list.find((p) => p.id === post.id);
+    const rest = list.filter((p) => p.id !== post.id);
+    if (post.change === 'deleted' || !post.isPublished || !belongs(post)) {
+        return rest;
+    }
+    // Fields the event does not carry keep their loaded values
+    return [...rest, { ...existing, ...post }].sort(byPublishedAtDesc);
+};
+
 const HomePage = () => {
     const [searchTerm, setSearchTerm] = useState('');
     const [featuredPosts, setFeaturedPosts] = useState([]);
     const [urgentPosts, setUrgentPosts] = useState([]);
+    // Whether the server has more featured posts than the ones held
+    const [moreFeatured, setMoreFeatured] = useState(false);
     const [locationCategories, setLocationCategories] = useState([]);
     const [recentLocations, setRecentLocations] = useState([]);
     const [loading, setLoading] = useState(true);
@@ -63,6 +83,38 @@ const HomePage = () => {
         loadHomePageData();
     }, []);
 
+    const showFeatured = (featuredPostsData) => {
+        setFeaturedPosts(featuredPostsData);
+        setMoreFeatured(featuredPostsData.length >= FEATURED_FETCHED);
+    };
+
+    // Apply post events to the lists held; reload them only when the server asks to
+    useEffect(() => {
+        const events = postAPI.subscribeEvents((type, post) => {
+            if (type === 'refresh') {
+                Promise.all([postAPI.getFeatured(FEATURED_FETCHED), postAPI.getUrgent()])
+                    .then(([featuredPostsData, urgentPostsData]) => {
+                        showFeatured(featuredPostsData);
+                        setUrgentPosts(urgentPostsData);
+                    })
+                    .catch((err) => console.error('Error reloading posts:', err));
+                return;
+            }
+            setUrgentPosts((list) => applyPostEvent(list, post, (p) => p.isUrgent));
+            setFeaturedPosts((list) => applyPostEvent(list, post, (p) => p.isFeatured));
+        });
+        return () => events.close();
+    }, []);
+
+    // Removals used up the spare featured posts: fetch that list again
+    useEffect(() => {
+        if (moreFeatured && featuredPosts.length < FEATURED_SHOWN) {
+            postAPI.getFeatured(FEATURED_FETCHED)
+                .then(showFeatured)
+                .catch((err) => console.error('Error reloading featured posts:', err));
+        }
+    }, [moreFeatured, featuredPosts.length]);
+
     const loadHomePageData = async () => {
         try {
             setLoading(true);
@@ -75,14 +127,14 @@ const HomePage = () => {
                 locationCategoriesData,
                 recentLocationsData
             ] = await Promise.all([
-                postAPI.getFeatured(3),
+                postAPI.getFeatured(FEATURED_FETCHED),
                 postAPI.getUrgent(),
                 categoryAPI.getLocationCategories(true),
                 locationAPI.getAllSimple({ size: 4 })
             ]);
 
-            setFeaturedPosts(featuredPostsData);
-            setUrgentPosts(urgentPostsData.slice(0, 2)); // Limit urgent posts
+            showFeatured(featuredPostsData);
+            setUrgentPosts(urgentPostsData);
             setLocationCategories(locationCategoriesData);
             setRecentLocations(Array.isArray(recentLocationsData) ? recentLocationsData.slice(0, 4) : []);
 
@@ -276,7 +328,7 @@ const HomePage = () => {
                     </div>
 
                     <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-3 gap-8">
-                        {featuredPosts.map((post) => (
+                        {featuredPosts.slice(0, FEATURED_SHOWN).map((post) => (
                             <article
                                 key={post.id}
                                 className="bg-white rounded-lg shadow-md overflow-hidden hover:shadow-lg transition duration-200 cursor-pointer"
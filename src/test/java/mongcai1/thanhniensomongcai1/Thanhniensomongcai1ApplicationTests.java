@@ -3,7 +3,7 @@ package mongcai1.thanhniensomongcai1;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.auth.token.allow-random-secret=true")
 class Thanhniensomongcai1ApplicationTests {
 
     @Test
@@ -0,0 +1,147 @@
+package mongcai1.thanhniensomongcai1.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import mongcai1.thanhniensomongcai1.security.AuthPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hai CSDL H2 độc lập đóng vai primary và replica; mỗi CSDL trả về tên của chính nó
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final String COOKIE = "DB_PRIMARY_UNTIL";
+
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        useReplica(replica, false);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals("replica", readOnly.execute(status -> node()));
+        assertEquals("primary", readWrite.execute(status -> node()));
+        // Outside a transaction (open-in-view lazy loading, JdbcTemplate utilities)
+        assertEquals("primary", node());
+    }
+
+    @Test
+    void cacheFillsReadFromThePrimary() {
+        assertEquals("primary", readOnly.execute(status -> ReplicaRoutingDataSource.onPrimary(this::node)));
+        // Only inside the scope
+        assertEquals("replica", readOnly.execute(status -> node()));
+        assertEquals(List.of("primary", "primary"), readOnly.execute(status -> ReplicaRoutingDataSource.onPrimary(
+                () -> List.of(ReplicaRoutingDataSource.onPrimary(this::node), node()))));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() {
+        useReplica(new DriverManagerDataSource("jdbc:h2:mem:missing-" + UUID.randomUUID() + ";IFEXISTS=TRUE",
+                "sa", ""), false);
+        assertEquals("primary", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void replicaWithoutReplicationStatusIsNotUsed() {
+        // H2 has no SHOW REPLICA STATUS, like a MySQL server that is not configured as a replica
+        useReplica(replica, true);
+        assertEquals("primary", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimary() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(COOKIE, Duration.ofSeconds(10));
+        List<String> nodes = new ArrayList<>();
+
+        MockHttpServletRequest save = signedIn(new MockHttpServletRequest("PUT", "/api/posts/1"));
+        MockHttpServletResponse saveResponse = new MockHttpServletResponse();
+        filter.doFilter(save, saveResponse, (request, response) -> {
+            readWrite.executeWithoutResult(status -> node());
+            nodes.add(readOnly.execute(status -> node()));
+        });
+        Cookie sticky = saveResponse.getCookie(COOKIE);
+        assertNotNull(sticky);
+
+        // Next request of the same user carries the cookie
+        MockHttpServletRequest list = signedIn(new MockHttpServletRequest("GET", "/api/posts"));
+        list.setCookies(sticky);
+        filter.doFilter(list, new MockHttpServletResponse(),
+                (request, response) -> nodes.add(readOnly.execute(status -> node())));
+
+        // A forged cookie without a signed-in user is ignored
+        MockHttpServletRequest anonymous = new MockHttpServletRequest("GET", "/api/posts");
+        anonymous.setCookies(sticky);
+        filter.doFilter(anonymous, new MockHttpServletResponse(),
+                (request, response) -> nodes.add(readOnly.execute(status -> node())));
+
+        assertEquals(List.of("primary", "primary", "replica"), nodes);
+    }
+
+    @Test
+    void anonymousWritesDoNotPinToPrimary() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(COOKIE, Duration.ofSeconds(10));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<String> nodes = new ArrayList<>();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/posts/1"), response, (req, res) -> {
+            readWrite.executeWithoutResult(status -> node());
+            nodes.add(readOnly.execute(status -> node()));
+        });
+        assertEquals(List.of("replica"), nodes);
+        assertNull(response.getCookie(COOKIE));
+    }
+
+    private void useReplica(DataSource replicaDataSource, boolean checkReplication) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource, Duration.ofSeconds(5), checkReplication);
+        monitor.check();
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary, replicaDataSource, monitor, new SimpleMeterRegistry()));
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE node (name VARCHAR(16))");
+        template.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static MockHttpServletRequest signedIn(MockHttpServletRequest request) {
+        request.setAttribute(AuthPrincipal.REQUEST_ATTRIBUTE, new AuthPrincipal(1L, "admin", "Admin", "ADMIN"));
+        return request;
+    }
+}
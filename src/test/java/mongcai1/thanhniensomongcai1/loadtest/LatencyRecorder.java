@@ -0,0 +1,85 @@
+package mongcai1.thanhniensomongcai1.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ghi nhận độ trễ (micro giây) và số lỗi theo từng endpoint
+ */
+class LatencyRecorder {
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long latencyMicros, boolean success) {
+        series.computeIfAbsent(endpoint, k -> new Series()).add(latencyMicros, success);
+    }
+
+    Map<String, Summary> summarize(double durationSeconds) {
+        Map<String, Summary> result = new TreeMap<>();
+        series.forEach((endpoint, s) -> result.put(endpoint, s.summarize(durationSeconds)));
+        return result;
+    }
+
+    long totalRequests() {
+        return series.values().stream().mapToLong(s -> s.count).sum();
+    }
+
+    long totalErrors() {
+        return series.values().stream().mapToLong(s -> s.errors).sum();
+    }
+
+    private static class Series {
+        private long[] samples = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void add(long latencyMicros, boolean success) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = latencyMicros;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized Summary summarize(double durationSeconds) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return new Summary(count, errors, count / durationSeconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    count == 0 ? 0 : sorted[count - 1]);
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+
+    static class Summary {
+        final long requests;
+        final long errors;
+        final double throughput;
+        final long p50Micros;
+        final long p99Micros;
+        final long p999Micros;
+        final long maxMicros;
+
+        Summary(long requests, long errors, double throughput, long p50Micros, long p99Micros,
+                long p999Micros, long maxMicros) {
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.p999Micros = p999Micros;
+            this.maxMicros = maxMicros;
+        }
+    }
+}
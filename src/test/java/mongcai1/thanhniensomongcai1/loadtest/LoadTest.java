@@ -0,0 +1,336 @@
+package mongcai1.thanhniensomongcai1.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import mongcai1.thanhniensomongcai1.datagen.DatasetGenerator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test đầu-cuối: khởi động ứng dụng trên H2 (chế độ MySQL), nạp dữ liệu sinh tự động
+ * rồi chạy mô hình lưu lượng TrafficModel bằng nhiều người dùng ảo.
+ *
+ * Chỉ chạy khi bật rõ ràng, ví dụ:
+ *   mvn test -Dtest=LoadTest -Dloadtest=true -Dloadtest.posts=100000 -Dloadtest.users=64 -Dloadtest.duration=PT2M
+ *
+ * Với bộ dữ liệu lớn (1M bài) nên dùng H2 dạng file:
+ *   -Dloadtest.jdbc-url=jdbc:h2:file:./target/loadtest-db;MODE=MySQL;DATABASE_TO_LOWER=TRUE
+ *
+ * Đo với MySQL thật và profile prod (pool/driver đã tinh chỉnh), so với cấu hình mặc định:
+ *   -Dloadtest.jdbc-url=jdbc:mysql://localhost:3306/loadtest -Dloadtest.jdbc-user=root -Dloadtest.jdbc-password=...
+ *   -Dspring.profiles.active=prod
+ *
+ * So sánh luồng ảo với luồng thường (build Java 21, xem profile Maven java21):
+ *   mvn -Pjava21 test -Dtest=LoadTest -Dloadtest=true -Dspring.profiles.active=virtual
+ *
+ * Kết quả (kèm số câu SQL, số lần mượn kết nối và thời gian chờ pool mỗi request)
+ * in ra console và ghi vào target/loadtest-report-{platform|virtual}.json.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.maximum-pool-size=20",
+        // Every run starts from an empty schema built by the migrations, see cleanSchema()
+        "spring.flyway.clean-disabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "spring.sql.init.mode=never",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "logging.level.mongcai1.thanhniensomongcai1=INFO",
+        "app.upload.gc.enabled=false",
+        "app.auth.token.allow-random-secret=true"
+})
+class LoadTest {
+
+    private static final int POSTS = Integer.getInteger("loadtest.posts", 1000);
+    private static final int LOCATIONS = Integer.getInteger("loadtest.locations", Math.max(200, POSTS / 10));
+    private static final int CONTENT_PARAGRAPHS = Integer.getInteger("loadtest.content-paragraphs", 5);
+    private static final int WRITERS = Integer.getInteger("loadtest.writers",
+            Runtime.getRuntime().availableProcessors());
+    private static final int USERS = Integer.getInteger("loadtest.users", 32);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+    private static final Duration THINK_TIME = Duration.parse(System.getProperty("loadtest.think-time", "PT0S"));
+    private static final long SEED = Long.getLong("loadtest.seed", 20240101L);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void dataSource(DynamicPropertyRegistry registry) {
+        String url = System.getProperty("loadtest.jdbc-url",
+                "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        boolean mysql = url.startsWith("jdbc:mysql:");
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.driver-class-name",
+                () -> mysql ? "com.mysql.cj.jdbc.Driver" : "org.h2.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect",
+                () -> mysql ? "org.hibernate.dialect.MySQLDialect" : "org.hibernate.dialect.H2Dialect");
+        // The migrations write MySQL types (ENUM), which H2Dialect would reject on validation
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> mysql ? "validate" : "none");
+        registry.add("spring.datasource.username", () -> System.getProperty("loadtest.jdbc-user", mysql ? "root" : "sa"));
+        registry.add("spring.datasource.password", () -> System.getProperty("loadtest.jdbc-password", ""));
+    }
+
+    @TestConfiguration
+    static class CleanSchema {
+
+        @Bean
+        FlywayMigrationStrategy cleanSchema() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Test
+    void trafficMix() throws Exception {
+        long seedStart = System.nanoTime();
+        new DatasetGenerator(dataSource, new DatasetGenerator.Options()
+                .seed(SEED)
+                .threads(WRITERS)
+                .posts(POSTS)
+                .locations(LOCATIONS)
+                .users(0)
+                .categoriesPerType(6)
+                .contentParagraphs(CONTENT_PARAGRAPHS))
+                .generate();
+        System.out.printf(Locale.ROOT, "Seeded %d posts and %d locations in %.1f s%n", POSTS, LOCATIONS,
+                (System.nanoTime() - seedStart) / 1e9);
+
+        long minPostId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM posts", Long.class);
+        long maxPostId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM posts", Long.class);
+        List<Long> postCategoryIds = jdbcTemplate.queryForList(
+                "SELECT id FROM categories WHERE type = 'POST'", Long.class);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, USERS / 4)))
+                .build();
+        String baseUrl = "http://localhost:" + port;
+
+        Map<String, Double> queriesPerRequest = calibrateQueryCounts(
+                new TrafficModel(client, baseUrl, new LatencyRecorder(), minPostId, maxPostId, postCategoryIds));
+
+        // Warm-up (JIT, connection pool, caches); results are discarded
+        runPhase(new TrafficModel(client, baseUrl, new LatencyRecorder(), minPostId, maxPostId, postCategoryIds),
+                WARMUP);
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        TrafficModel model = new TrafficModel(client, baseUrl, recorder, minPostId, maxPostId, postCategoryIds);
+        PoolSnapshot poolBefore = poolSnapshot();
+        Instant start = Instant.now();
+        runPhase(model, DURATION);
+        double seconds = Duration.between(start, Instant.now()).toMillis() / 1000.0;
+        Map<String, Object> pool = poolReport(poolBefore, poolSnapshot(), recorder.totalRequests());
+
+        Map<String, LatencyRecorder.Summary> summaries = recorder.summarize(seconds);
+        printReport(summaries, queriesPerRequest, pool, seconds, recorder);
+        writeReport(summaries, queriesPerRequest, pool, seconds, recorder);
+
+        double errorRate = recorder.totalRequests() == 0 ? 1.0
+                : (double) recorder.totalErrors() / recorder.totalRequests();
+        assertTrue(errorRate <= MAX_ERROR_RATE, "Error rate " + errorRate + " exceeds " + MAX_ERROR_RATE);
+    }
+
+    /**
+     * Đo số câu SQL của từng endpoint bằng cách gửi lần lượt từng request khi hệ thống đang rảnh
+     * và lấy chênh lệch thống kê của Hibernate
+     */
+    private Map<String, Double> calibrateQueryCounts(TrafficModel model) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (TrafficModel.Request request : model.calibrationRequests()) {
+            // First call warms caches the same way the steady state would
+            model.send(request);
+            long before = statistics.getPrepareStatementCount();
+            for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+                model.send(request);
+            }
+            result.put(request.label,
+                    (statistics.getPrepareStatementCount() - before) / (double) CALIBRATION_ROUNDS);
+        }
+        return result;
+    }
+
+    /**
+     * Số liệu tích lũy của pool kết nối và Hibernate tại một thời điểm
+     */
+    private record PoolSnapshot(long acquires, double acquireMillis, double timeouts, long statements,
+                                long flushes, long entityLoads, long transactions) {
+    }
+
+    private PoolSnapshot poolSnapshot() {
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        Counter timeouts = meterRegistry.find("hikaricp.connections.timeout").counter();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return new PoolSnapshot(
+                acquire != null ? acquire.count() : 0,
+                acquire != null ? acquire.totalTime(TimeUnit.MILLISECONDS) : 0,
+                timeouts != null ? timeouts.count() : 0,
+                statistics.getPrepareStatementCount(),
+                statistics.getFlushCount(),
+                statistics.getEntityLoadCount(),
+                statistics.getTransactionCount());
+    }
+
+    /**
+     * Chênh lệch giữa hai snapshot trong pha đo: số lần mượn kết nối, thời gian chờ pool,
+     * số câu SQL và công việc của Hibernate (transaction, flush, entity nạp) trên mỗi request
+     */
+    private Map<String, Object> poolReport(PoolSnapshot before, PoolSnapshot after, long requests) {
+        long acquires = after.acquires() - before.acquires();
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        HikariConfigMXBean config = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class,
+                HikariDataSource.class);
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("maximumPoolSize", config != null ? config.getMaximumPoolSize() : null);
+        pool.put("acquires", acquires);
+        pool.put("acquiresPerRequest", perRequest(acquires, requests));
+        pool.put("statementsPerRequest", perRequest(after.statements() - before.statements(), requests));
+        pool.put("transactionsPerRequest", perRequest(after.transactions() - before.transactions(), requests));
+        pool.put("flushesPerRequest", perRequest(after.flushes() - before.flushes(), requests));
+        pool.put("entityLoadsPerRequest", perRequest(after.entityLoads() - before.entityLoads(), requests));
+        pool.put("meanAcquireMs",
+                acquires == 0 ? 0.0 : (after.acquireMillis() - before.acquireMillis()) / acquires);
+        pool.put("maxAcquireMs", acquire != null ? acquire.max(TimeUnit.MILLISECONDS) : 0.0);
+        pool.put("acquireTimeouts", (long) (after.timeouts() - before.timeouts()));
+        return pool;
+    }
+
+    private static double perRequest(long count, long requests) {
+        return requests == 0 ? 0.0 : (double) count / requests;
+    }
+
+    private void runPhase(TrafficModel model, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService users = Executors.newFixedThreadPool(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.submit(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    model.run(TrafficModel.pick());
+                    if (!THINK_TIME.isZero()) {
+                        try {
+                            Thread.sleep(THINK_TIME.toMillis());
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+            });
+        }
+        users.shutdown();
+        if (!users.awaitTermination(duration.toMillis() + 60_000, TimeUnit.MILLISECONDS)) {
+            users.shutdownNow();
+        }
+    }
+
+    private void printReport(Map<String, LatencyRecorder.Summary> summaries, Map<String, Double> queries,
+                             Map<String, Object> pool, double seconds, LatencyRecorder recorder) {
+        System.out.printf(Locale.ROOT, "%nLoad test: %d posts, %d locations, %d users, %.0f s, %s threads, Java %s%n",
+                POSTS, LOCATIONS, USERS, seconds, threadMode(), Runtime.version().feature());
+        System.out.printf(Locale.ROOT, "%-32s %9s %7s %9s %9s %9s %9s %9s %8s%n", "endpoint", "requests",
+                "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "queries");
+        summaries.forEach((endpoint, s) -> System.out.printf(Locale.ROOT,
+                "%-32s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %8.1f%n", endpoint, s.requests, s.errors,
+                s.throughput, s.p50Micros / 1000.0, s.p99Micros / 1000.0, s.p999Micros / 1000.0,
+                s.maxMicros / 1000.0, queries.getOrDefault(endpoint, Double.NaN)));
+        System.out.printf(Locale.ROOT, "Total: %d requests, %d errors, %.1f req/s%n", recorder.totalRequests(),
+                recorder.totalErrors(), recorder.totalRequests() / seconds);
+        System.out.printf(Locale.ROOT, "Pool: size %s, %.2f statements/request, %.2f acquires/request, "
+                        + "acquire mean %.3f ms, max %.1f ms, %d timeouts%n",
+                pool.get("maximumPoolSize"), pool.get("statementsPerRequest"), pool.get("acquiresPerRequest"),
+                pool.get("meanAcquireMs"), pool.get("maxAcquireMs"), pool.get("acquireTimeouts"));
+        System.out.printf(Locale.ROOT, "Hibernate: %.2f transactions/request, %.2f flushes/request, "
+                        + "%.2f entity loads/request%n%n",
+                pool.get("transactionsPerRequest"), pool.get("flushesPerRequest"), pool.get("entityLoadsPerRequest"));
+    }
+
+    private void writeReport(Map<String, LatencyRecorder.Summary> summaries, Map<String, Double> queries,
+                             Map<String, Object> pool, double seconds, LatencyRecorder recorder) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("threads", threadMode());
+        report.put("javaVersion", Runtime.version().feature());
+        report.put("posts", POSTS);
+        report.put("locations", LOCATIONS);
+        report.put("users", USERS);
+        report.put("durationSeconds", seconds);
+        report.put("totalRequests", recorder.totalRequests());
+        report.put("totalErrors", recorder.totalErrors());
+        report.put("throughput", recorder.totalRequests() / seconds);
+        report.put("pool", pool);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        summaries.forEach((endpoint, s) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("requests", s.requests);
+            entry.put("errors", s.errors);
+            entry.put("throughput", s.throughput);
+            entry.put("p50Ms", s.p50Micros / 1000.0);
+            entry.put("p99Ms", s.p99Micros / 1000.0);
+            entry.put("p999Ms", s.p999Micros / 1000.0);
+            entry.put("maxMs", s.maxMicros / 1000.0);
+            entry.put("queriesPerRequest", queries.get(endpoint));
+            endpoints.put(endpoint, entry);
+        });
+        report.put("endpoints", endpoints);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(new File("target/loadtest-report-" + threadMode() + ".json"), report);
+    }
+
+    private String threadMode() {
+        return virtualThreads ? "virtual" : "platform";
+    }
+}
@@ -0,0 +1,227 @@
+package mongcai1.thanhniensomongcai1.loadtest;
+
+import mongcai1.thanhniensomongcai1.datagen.DatasetGenerator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mô hình lưu lượng của cổng thông tin Móng Cái 1.
+ * Mỗi lượt người dùng ảo chọn một kịch bản theo trọng số; mỗi kịch bản có thể gửi nhiều request.
+ */
+class TrafficModel {
+
+    // Từ khóa người dân hay tìm, đều xuất hiện trong dữ liệu sinh bởi DatasetGenerator
+    private static final String[] SEARCH_TERMS = {
+        "tiêm chủng", "thủ tục", "Móng Cái", "thanh niên", "khai giảng", "giao thông", "chợ", "căn cước"
+    };
+
+    enum Scenario {
+        // Trang chủ: index.html tải song song 3 API
+        HOMEPAGE_BURST(35),
+        // Xem chi tiết bài viết (tăng lượt xem), lệch về các bài mới
+        POST_DETAIL(30),
+        // Kéo bản đồ: vài lần gọi /bounds liên tiếp với khung nhìn dịch dần
+        MAP_PANNING(15),
+        // Gõ từ khóa tìm kiếm: một request cho mỗi tiền tố
+        SEARCH_TYPING(15),
+        // Quản trị viên sửa hoặc đăng bài
+        ADMIN_WRITE(5);
+
+        final int weight;
+
+        Scenario(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final int TOTAL_WEIGHT = List.of(Scenario.values()).stream().mapToInt(s -> s.weight).sum();
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+    private final long minPostId;
+    private final long maxPostId;
+    private final List<Long> postCategoryIds;
+
+    TrafficModel(HttpClient client, String baseUrl, LatencyRecorder recorder,
+                 long minPostId, long maxPostId, List<Long> postCategoryIds) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+        this.minPostId = minPostId;
+        this.maxPostId = maxPostId;
+        this.postCategoryIds = postCategoryIds;
+    }
+
+    static Scenario pick() {
+        int roll = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        for (Scenario scenario : Scenario.values()) {
+            roll -= scenario.weight;
+            if (roll < 0) {
+                return scenario;
+            }
+        }
+        return Scenario.HOMEPAGE_BURST;
+    }
+
+    void run(Scenario scenario) {
+        switch (scenario) {
+            case HOMEPAGE_BURST -> homepageBurst();
+            case POST_DETAIL -> postDetail();
+            case MAP_PANNING -> mapPanning();
+            case SEARCH_TYPING -> searchTyping();
+            case ADMIN_WRITE -> adminWrite();
+        }
+    }
+
+    /**
+     * Danh sách request đại diện của từng endpoint, dùng cho bước hiệu chỉnh số câu truy vấn
+     */
+    List<Request> calibrationRequests() {
+        long id = hotPostId();
+        return List.of(
+                get("GET /api/locations/simple", "/api/locations/simple"),
+                get("GET /api/posts (home)", "/api/posts?size=6&sortBy=publishedAt&sortDir=desc"),
+                get("GET /api/categories/locations", "/api/categories/locations"),
+                get("GET /api/posts/{id}", "/api/posts/" + id),
+                get("GET /api/locations/bounds",
+                        boundsPath(DatasetGenerator.CENTER_LAT, DatasetGenerator.CENTER_LNG)),
+                get("GET /api/posts?search", "/api/posts?size=10&search=thanh"),
+                new Request("PUT /api/posts/{id}", "PUT", "/api/posts/" + id, updateBody()),
+                new Request("POST /api/posts", "POST", "/api/posts", createBody()));
+    }
+
+    private void homepageBurst() {
+        CompletableFuture.allOf(
+                sendAsync(get("GET /api/locations/simple", "/api/locations/simple")),
+                sendAsync(get("GET /api/posts (home)", "/api/posts?size=6&sortBy=publishedAt&sortDir=desc")),
+                sendAsync(get("GET /api/categories/locations", "/api/categories/locations"))
+        ).join();
+    }
+
+    private void postDetail() {
+        send(get("GET /api/posts/{id}", "/api/posts/" + hotPostId()));
+    }
+
+    private void mapPanning() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double lat = DatasetGenerator.CENTER_LAT + (random.nextDouble() - 0.5) * 0.05;
+        double lng = DatasetGenerator.CENTER_LNG + (random.nextDouble() - 0.5) * 0.05;
+        double dLat = (random.nextDouble() - 0.5) * 0.01;
+        double dLng = (random.nextDouble() - 0.5) * 0.01;
+        int moves = 3 + random.nextInt(4);
+        for (int i = 0; i < moves; i++) {
+            send(get("GET /api/locations/bounds", boundsPath(lat + dLat * i, lng + dLng * i)));
+        }
+    }
+
+    private void searchTyping() {
+        String word = SEARCH_TERMS[ThreadLocalRandom.current().nextInt(SEARCH_TERMS.length)];
+        for (int length = Math.min(2, word.length()); length <= word.length(); length++) {
+            String prefix = word.substring(0, length);
+            send(get("GET /api/posts?search", "/api/posts?size=10&search="
+                    + URLEncoder.encode(prefix, StandardCharsets.UTF_8)));
+        }
+    }
+
+    private void adminWrite() {
+        if (ThreadLocalRandom.current().nextInt(10) < 6) {
+            send(new Request("PUT /api/posts/{id}", "PUT", "/api/posts/" + hotPostId(), updateBody()));
+        } else {
+            send(new Request("POST /api/posts", "POST", "/api/posts", createBody()));
+        }
+    }
+
+    // 80% of detail views go to the newest 1% of posts
+    private long hotPostId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long span = maxPostId - minPostId + 1;
+        if (random.nextInt(100) < 80) {
+            long hot = Math.max(1, span / 100);
+            return maxPostId - random.nextLong(hot);
+        }
+        return minPostId + random.nextLong(span);
+    }
+
+    private static String boundsPath(double lat, double lng) {
+        // A viewport of about 4 km x 4 km
+        return String.format(Locale.ROOT, "/api/locations/bounds?minLat=%.6f&maxLat=%.6f&minLng=%.6f&maxLng=%.6f",
+                lat - 0.018, lat + 0.018, lng - 0.019, lng + 0.019);
+    }
+
+    private String updateBody() {
+        return "{\"title\":\"Cập nhật " + System.nanoTime() + "\"}";
+    }
+
+    private String createBody() {
+        long categoryId = postCategoryIds.get(ThreadLocalRandom.current().nextInt(postCategoryIds.size()));
+        return "{\"title\":\"Bài mới " + System.nanoTime() + "\",\"content\":\"Nội dung bài viết mới từ load test\","
+                + "\"summary\":\"Tóm tắt\",\"categoryId\":" + categoryId + "}";
+    }
+
+    private static Request get(String label, String path) {
+        return new Request(label, "GET", path, null);
+    }
+
+    void send(Request request) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            HttpResponse<Void> response = client.send(request.toHttpRequest(baseUrl),
+                    HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() < 400;
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        recorder.record(request.label, (System.nanoTime() - start) / 1000, success);
+    }
+
+    private CompletableFuture<Void> sendAsync(Request request) {
+        long start = System.nanoTime();
+        return client.sendAsync(request.toHttpRequest(baseUrl), HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    boolean success = error == null && response.statusCode() < 400;
+                    recorder.record(request.label, (System.nanoTime() - start) / 1000, success);
+                    return null;
+                });
+    }
+
+    static class Request {
+        final String label;
+        final String method;
+        final String path;
+        final String body;
+
+        Request(String label, String method, String path, String body) {
+            this.label = label;
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+
+        HttpRequest toHttpRequest(String baseUrl) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30));
+            if (body == null) {
+                return builder.GET().build();
+            }
+            return builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package mongcai1.thanhniensomongcai1.maps;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mongcai1.thanhniensomongcai1.config.CacheConfig;
+import mongcai1.thanhniensomongcai1.repository.LocationMarker;
+import mongcai1.thanhniensomongcai1.repository.LocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LocationMapServiceTest {
+
+    private static final int CLUSTER_MAX_ZOOM = 15;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LocationMapService service;
+
+    @BeforeEach
+    void setUp() {
+        LocationRepository repository = mock(LocationRepository.class);
+        when(repository.findActiveMarkers()).thenReturn(List.of(
+                // Three markets a few metres apart in Móng Cái, one place in Hà Nội
+                new Marker(1L, "Chợ Móng Cái", 1L, "Chợ", 21.52480, 107.96390),
+                new Marker(2L, "Chợ Trung tâm", 1L, "Chợ", 21.52485, 107.96395),
+                new Marker(3L, "Chợ đêm", 1L, "Chợ", 21.52490, 107.96400),
+                new Marker(4L, "Hồ Gươm", 2L, "Du lịch", 21.02880, 105.85220)));
+        service = new LocationMapService();
+        ReflectionTestUtils.setField(service, "locationRepository", repository);
+        ReflectionTestUtils.setField(service, "cacheManager", new ConcurrentMapCacheManager(CacheConfig.LOCATION_MAP));
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "clusterMaxZoom", CLUSTER_MAX_ZOOM);
+        ReflectionTestUtils.setField(service, "clusterCellPixels", 32);
+    }
+
+    @Test
+    void nearbyPointsAreClusteredBelowClusterMaxZoom() throws IOException {
+        List<JsonNode> features = features(10);
+
+        assertEquals(2, features.size());
+        JsonNode cluster = find(features, "count");
+        assertEquals(3, cluster.path("properties").path("count").asInt());
+        assertTrue(cluster.path("id").isMissingNode());
+        // All clustered points share a category, so the cluster keeps it
+        assertEquals(1, cluster.path("properties").path("categoryId").asLong());
+        assertEquals(107.96395, cluster.path("geometry").path("coordinates").get(0).asDouble(), 1e-6);
+        assertEquals(21.52485, cluster.path("geometry").path("coordinates").get(1).asDouble(), 1e-6);
+
+        JsonNode single = find(features, "name");
+        assertEquals(4, single.path("id").asLong());
+        assertEquals("Hồ Gươm", single.path("properties").path("name").asText());
+    }
+
+    @Test
+    void pointsAreNotClusteredAtOrAboveClusterMaxZoom() throws IOException {
+        for (int zoom : new int[] { CLUSTER_MAX_ZOOM, CLUSTER_MAX_ZOOM + 3 }) {
+            List<JsonNode> features = features(zoom);
+            assertEquals(4, features.size(), "zoom " + zoom);
+            for (JsonNode feature : features) {
+                assertTrue(feature.path("properties").path("count").isMissingNode(), "zoom " + zoom);
+                assertTrue(feature.path("id").isNumber(), "zoom " + zoom);
+            }
+        }
+    }
+
+    private List<JsonNode> features(int zoom) throws IOException {
+        JsonNode collection = objectMapper.readTree(service.getGeoJson(zoom).body());
+        List<JsonNode> features = new ArrayList<>();
+        collection.path("features").forEach(features::add);
+        return features;
+    }
+
+    private static JsonNode find(List<JsonNode> features, String property) {
+        return features.stream()
+                .filter(feature -> feature.path("properties").has(property))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private record Marker(Long id, String name, Long categoryId, String categoryName,
+                          Double latitude, Double longitude) implements LocationMarker {
+
+        @Override
+        public Long getId() { return id; }
+
+        @Override
+        public String getName() { return name; }
+
+        @Override
+        public Long getCategoryId() { return categoryId; }
+
+        @Override
+        public String getCategoryName() { return categoryName; }
+
+        @Override
+        public Double getLatitude() { return latitude; }
+
+        @Override
+        public Double getLongitude() { return longitude; }
+    }
+}
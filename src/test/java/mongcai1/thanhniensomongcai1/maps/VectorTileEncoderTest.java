@@ -0,0 +1,160 @@
+package mongcai1.thanhniensomongcai1.maps;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Giải mã tile do VectorTileEncoder ghi bằng một bộ đọc protobuf tối giản theo vector_tile.proto
+ */
+class VectorTileEncoderTest {
+
+    @Test
+    void encodedTileDecodesToLayerWithPointFeatures() {
+        VectorTileEncoder encoder = new VectorTileEncoder("locations", 4096);
+        Map<String, Object> market = new LinkedHashMap<>();
+        market.put("name", "Chợ Móng Cái");
+        market.put("categoryId", 3L);
+        market.put("category", null);
+        encoder.addPoint(7L, 100, 4000, market);
+        Map<String, Object> cluster = new LinkedHashMap<>();
+        cluster.put("count", 12L);
+        cluster.put("categoryId", 3L);
+        // In the buffer left of the tile: negative coordinates are zigzag-encoded
+        encoder.addPoint(null, -5, 6, cluster);
+
+        Reader tile = new Reader(encoder.encode());
+        assertEquals(3, tile.field());
+        Reader layer = new Reader(tile.bytes());
+        assertTrue(tile.done());
+
+        String name = null;
+        long version = 0;
+        long extent = 0;
+        List<byte[]> features = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        while (!layer.done()) {
+            switch (layer.field()) {
+                case 15 -> version = layer.varint();
+                case 1 -> name = layer.string();
+                case 2 -> features.add(layer.bytes());
+                case 3 -> keys.add(layer.string());
+                case 4 -> values.add(value(new Reader(layer.bytes())));
+                case 5 -> extent = layer.varint();
+                default -> fail("unexpected layer field");
+            }
+        }
+        assertEquals(2, version);
+        assertEquals("locations", name);
+        assertEquals(4096, extent);
+        // Null properties are skipped, repeated keys and values are shared
+        assertEquals(List.of("name", "categoryId", "count"), keys);
+        assertEquals(List.of("Chợ Móng Cái", 3L, 12L), values);
+        assertEquals(2, features.size());
+
+        Feature first = feature(features.get(0), keys, values);
+        assertEquals(7L, first.id);
+        assertEquals(1, first.type);
+        assertEquals(List.of(9L, 200L, 8000L), first.geometry);
+        assertEquals(Map.of("name", "Chợ Móng Cái", "categoryId", 3L), first.tags);
+
+        Feature second = feature(features.get(1), keys, values);
+        assertNull(second.id);
+        assertEquals(List.of(9L, 9L, 12L), second.geometry);
+        assertEquals(Map.of("count", 12L, "categoryId", 3L), second.tags);
+    }
+
+    private static Object value(Reader value) {
+        Object result = null;
+        while (!value.done()) {
+            switch (value.field()) {
+                case 1 -> result = value.string();
+                case 5 -> result = value.varint();
+                default -> fail("unexpected value field");
+            }
+        }
+        return result;
+    }
+
+    private static Feature feature(byte[] bytes, List<String> keys, List<Object> values) {
+        Reader reader = new Reader(bytes);
+        Feature feature = new Feature();
+        while (!reader.done()) {
+            switch (reader.field()) {
+                case 1 -> feature.id = reader.varint();
+                case 2 -> {
+                    Reader tags = new Reader(reader.bytes());
+                    while (!tags.done()) {
+                        feature.tags.put(keys.get((int) tags.varint()), values.get((int) tags.varint()));
+                    }
+                }
+                case 3 -> feature.type = reader.varint();
+                case 4 -> {
+                    Reader geometry = new Reader(reader.bytes());
+                    while (!geometry.done()) {
+                        feature.geometry.add(geometry.varint());
+                    }
+                }
+                default -> fail("unexpected feature field");
+            }
+        }
+        return feature;
+    }
+
+    private static final class Feature {
+        Long id;
+        long type;
+        final List<Long> geometry = new ArrayList<>();
+        final Map<String, Object> tags = new LinkedHashMap<>();
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        boolean done() {
+            return position >= data.length;
+        }
+
+        // Field number of the next key; the wire type follows from the field
+        int field() {
+            return (int) (varint() >>> 3);
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        byte[] bytes() {
+            int length = (int) varint();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(data, position, length);
+            position += length;
+            return out.toByteArray();
+        }
+
+        String string() {
+            return new String(bytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package mongcai1.thanhniensomongcai1.repository;
+
+import mongcai1.thanhniensomongcai1.config.LocationSpatialIndex;
+import mongcai1.thanhniensomongcai1.migration.V3__Move_post_content_to_post_bodies;
+import mongcai1.thanhniensomongcai1.migration.V4__Location_coordinate_indexes;
+import mongcai1.thanhniensomongcai1.model.Category;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kiểm tra EXPLAIN của các truy vấn repository: mỗi phương thức phải dùng index đã tạo trong
+ * migration V2/V4/V5 thay vì quét toàn bảng. Câu SQL (kèm tham số) được lấy từ chính Hibernate khi gọi
+ * phương thức, nên đổi tên cột hay đổi cách sắp xếp trong repository cũng bị phát hiện.
+ *
+ * Mặc định chạy trên H2 (chế độ MySQL) với schema do Flyway tạo; H2 chỉ cho biết index được chọn.
+ * Trên MySQL còn kiểm tra không có "Using filesort". Nên chạy với dữ liệu thật cỡ lớn (datagen),
+ * vì với bảng gần rỗng MySQL có thể chọn quét toàn bảng:
+ *
+ *   mvn test -Dtest=QueryPlanTest -Dqueryplan.jdbc-url=jdbc:mysql://localhost:3306/mongcai1_portal
+ *       -Dqueryplan.jdbc-password=...
+ */
+@DataJpaTest(properties = {
+        // schema.sql is the old MySQL script; Flyway creates the schema
+        "spring.sql.init.mode=never",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ QueryPlanTest.Capture.class, LocationSpatialIndex.class,
+        V3__Move_post_content_to_post_bodies.class, V4__Location_coordinate_indexes.class })
+class QueryPlanTest {
+
+    private static final String URL = System.getProperty("queryplan.jdbc-url",
+            "jdbc:h2:mem:queryplan;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+    private static final boolean MYSQL = URL.startsWith("jdbc:mysql:");
+
+    private static final List<QueryInfo> captured = new ArrayList<>();
+    private static volatile boolean capturing;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @DynamicPropertySource
+    static void dataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> URL);
+        registry.add("spring.datasource.driver-class-name",
+                () -> MYSQL ? "com.mysql.cj.jdbc.Driver" : "org.h2.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect",
+                () -> MYSQL ? "org.hibernate.dialect.MySQLDialect" : "org.hibernate.dialect.H2Dialect");
+        registry.add("spring.datasource.username", () -> System.getProperty("queryplan.jdbc-user", MYSQL ? "root" : "sa"));
+        registry.add("spring.datasource.password", () -> System.getProperty("queryplan.jdbc-password", ""));
+        // The migrations write MySQL types (ENUM), which H2Dialect would reject on validation
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> MYSQL ? "validate" : "none");
+    }
+
+    /**
+     * Ghi lại câu SQL và tham số do Hibernate gửi xuống JDBC trong lúc capturing = true
+     */
+    @TestConfiguration
+    static class Capture {
+
+        @Bean
+        static BeanPostProcessor statementCapture() {
+            QueryExecutionListener listener = new QueryExecutionListener() {
+                @Override
+                public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                }
+
+                @Override
+                public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                    if (capturing) {
+                        captured.addAll(queryInfoList);
+                    }
+                }
+            };
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(beanName, dataSource).listener(listener).build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    private record Case(String method, String index, Runnable call) {
+    }
+
+    @Test
+    void repositoryQueriesUseTheirIndexes() throws SQLException {
+        Category category = new Category();
+        category.setId(1L);
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest page = PageRequest.of(0, 10);
+        PageRequest byName = PageRequest.of(0, 10, Sort.by("name"));
+
+        List<Case> cases = List.of(
+                new Case("PostRepository.findAllByOrderByPublishedAtDesc", "idx_posts_published",
+                        () -> postRepository.findAllByOrderByPublishedAtDesc(page)),
+                new Case("PostRepository.findByIsPublishedTrueOrderByPublishedAtDesc", "idx_posts_visible_published",
+                        () -> postRepository.findByIsPublishedTrueOrderByPublishedAtDesc(page)),
+                new Case("PostRepository.findByIsFeaturedTrueAndIsPublishedTrueOrderByPublishedAtDesc",
+                        "idx_posts_featured_visible",
+                        () -> postRepository.findByIsFeaturedTrueAndIsPublishedTrueOrderByPublishedAtDesc(page)),
+                new Case("PostRepository.findByIsUrgentTrueAndIsPublishedTrueOrderByPublishedAtDesc",
+                        "idx_posts_urgent_visible",
+                        () -> postRepository.findByIsUrgentTrueAndIsPublishedTrueOrderByPublishedAtDesc()),
+                new Case("PostRepository.findByCategoryAndIsPublishedTrueOrderByPublishedAtDesc",
+                        "idx_posts_category_visible",
+                        () -> postRepository.findByCategoryAndIsPublishedTrueOrderByPublishedAtDesc(category, page)),
+                new Case("PostRepository.findPublishedByCategoryId", "idx_posts_category_visible",
+                        () -> postRepository.findPublishedByCategoryId(1L, page)),
+                new Case("PostRepository.findLatestPostsByCategory", "idx_posts_category_visible",
+                        () -> postRepository.findLatestPostsByCategory(1L, PageRequest.of(0, 5))),
+                new Case("PostRepository.findByIsPublishedTrueAndPublishedAtAfterOrderByPublishedAtDesc",
+                        "idx_posts_visible_published",
+                        () -> postRepository.findByIsPublishedTrueAndPublishedAtAfterOrderByPublishedAtDesc(
+                                now.minusDays(7), page)),
+                new Case("PostRepository.findByIsPublishedTrueAndPublishedAtBetweenOrderByPublishedAtDesc",
+                        "idx_posts_visible_published",
+                        () -> postRepository.findByIsPublishedTrueAndPublishedAtBetweenOrderByPublishedAtDesc(
+                                now.minusDays(7), now, page)),
+                new Case("PostRepository.findRecentPosts", "idx_posts_visible_published",
+                        () -> postRepository.findRecentPosts(now.minusDays(30))),
+                new Case("PostRepository.findByIsPublishedTrueOrderByViewCountDescPublishedAtDesc",
+                        "idx_posts_visible_views",
+                        () -> postRepository.findByIsPublishedTrueOrderByViewCountDescPublishedAtDesc(page)),
+                new Case("PostRepository.findPopularPosts", "idx_posts_visible_views",
+                        () -> postRepository.findPopularPosts(1000)),
+                new Case("PostRepository.findByAuthorAndIsPublishedTrueOrderByPublishedAtDesc", "idx_posts_author_visible",
+                        () -> postRepository.findByAuthorAndIsPublishedTrueOrderByPublishedAtDesc(
+                                "UBND Phường Móng Cái 1", page)),
+                new Case("PostRepository.countByCategoryId", "idx_posts_category_visible",
+                        () -> postRepository.countByCategoryId(1L)),
+                new Case("PostRepository.countByIsFeaturedTrue", "idx_posts_featured_visible",
+                        () -> postRepository.countByIsFeaturedTrue()),
+                new Case("PostRepository.findPublishEvents", "idx_posts_published",
+                        () -> postRepository.findPublishEvents(now, now.plusDays(1))),
+                new Case("PostRepository.findUnpublishEvents", "idx_posts_unpublish",
+                        () -> postRepository.findUnpublishEvents(now, now.plusDays(1))),
+                new Case("PostRepository.findUrgentExpiryEvents", "idx_posts_urgent_visible",
+                        () -> postRepository.findUrgentExpiryEvents(now, now.plusDays(1))),
+                new Case("LocationRepository.findByIsActiveTrue", "idx_locations_active_name",
+                        () -> locationRepository.findByIsActiveTrue(byName)),
+                new Case("LocationRepository.findByCategoryIdAndIsActiveTrue", "idx_locations_category_active_name",
+                        () -> locationRepository.findByCategoryIdAndIsActiveTrue(1L, byName)),
+                new Case("LocationRepository.countByCategoryIdAndIsActiveTrue", "idx_locations_category_active_name",
+                        () -> locationRepository.countByCategoryIdAndIsActiveTrue(1L)),
+                new Case("LocationRepository.findLocationsWithCoordinates", "idx_locations_active_name",
+                        () -> locationRepository.findLocationsWithCoordinates()),
+                new Case("LocationRepository.findWithinBounds",
+                        MYSQL ? "idx_locations_geo_point" : "idx_locations_active_lat_lng",
+                        () -> locationRepository.findWithinBounds(21.52, 21.54, 106.72, 106.74)));
+
+        List<String> regressions = new ArrayList<>();
+        for (Case c : cases) {
+            QueryInfo query = capture(c.call());
+            String problem = MYSQL ? checkMySql(query, c.index()) : checkH2(query, c.index());
+            if (problem != null) {
+                regressions.add(c.method() + ": " + problem + "\n    " + query.getQuery());
+            }
+        }
+        assertTrue(regressions.isEmpty(), "Query plan regressions:\n" + String.join("\n", regressions));
+    }
+
+    /**
+     * Câu lệnh đầu tiên phương thức gửi đi (các câu sau là count của Page hoặc nạp category)
+     */
+    private static QueryInfo capture(Runnable call) {
+        captured.clear();
+        capturing = true;
+        try {
+            call.run();
+        } finally {
+            capturing = false;
+        }
+        assertTrue(!captured.isEmpty(), "no statement executed");
+        return captured.get(0);
+    }
+
+    private String checkH2(QueryInfo query, String index) throws SQLException {
+        String plan;
+        try (PreparedStatement ps = explain(query); ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            plan = rs.getString(1).toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        }
+        if (plan.contains(".tablescan")) {
+            return "full table scan";
+        }
+        String expectedColumn = leadingColumn(index);
+        if (expectedColumn == null) {
+            return "index " + index + " does not exist";
+        }
+        // H2 names the index chosen for the driving table in a comment: /* public.idx_posts_published: ... */
+        Matcher chosen = Pattern.compile("/\\* public\\.([a-z0-9_]+)").matcher(plan);
+        if (!chosen.find()) {
+            return "no index in plan " + plan;
+        }
+        // H2 does not rank an index higher for also covering the ORDER BY, so it may pick another
+        // index with the same leading column (the foreign key index); MySQL is checked exactly
+        if (!chosen.group(1).equals(index) && !expectedColumn.equals(leadingColumn(chosen.group(1)))) {
+            return "expected index " + index + " but H2 chose " + chosen.group(1);
+        }
+        return null;
+    }
+
+    private String leadingColumn(String index) throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = connection.prepareStatement("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS"
+                + " WHERE LOWER(INDEX_NAME) = ? AND ORDINAL_POSITION = 1")) {
+            ps.setString(1, index.toLowerCase(Locale.ROOT));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1).toLowerCase(Locale.ROOT) : null;
+            }
+        }
+    }
+
+    private String checkMySql(QueryInfo query, String index) throws SQLException {
+        try (PreparedStatement ps = explain(query); ResultSet rs = ps.executeQuery()) {
+            // First row is the driving table
+            rs.next();
+            String key = rs.getString("key");
+            String type = rs.getString("type");
+            String extra = String.valueOf(rs.getString("Extra"));
+            if ("ALL".equals(type)) {
+                return "full table scan";
+            }
+            if (!index.equalsIgnoreCase(key)) {
+                return "expected index " + index + " but MySQL chose " + key;
+            }
+            if (extra.contains("Using filesort")) {
+                return "filesort on " + index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * EXPLAIN với đúng tham số Hibernate đã gán, trên kết nối của transaction test
+     */
+    private PreparedStatement explain(QueryInfo query) throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        PreparedStatement ps = connection.prepareStatement("EXPLAIN " + query.getQuery());
+        if (!query.getParametersList().isEmpty()) {
+            for (ParameterSetOperation operation : query.getParametersList().get(0)) {
+                Object[] args = operation.getArgs();
+                int position = (Integer) args[0];
+                if ("setNull".equals(operation.getMethod().getName())) {
+                    ps.setNull(position, (Integer) args[1]);
+                } else {
+                    ps.setObject(position, args[1]);
+                }
+            }
+        }
+        return ps;
+    }
+}
@@ -0,0 +1,158 @@
+package mongcai1.thanhniensomongcai1.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthTokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef-test";
+
+    private static final AuthPrincipal EDITOR = new AuthPrincipal(7L, "editor", "Biên tập viên", "EDITOR");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TokenRevocationList revocationList;
+    private AuthTokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:tokens-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V7__token_revocations.sql"))
+                .execute(dataSource);
+        revocationList = new TokenRevocationList();
+        ReflectionTestUtils.setField(revocationList, "jdbcTemplate", new JdbcTemplate(dataSource));
+        ReflectionTestUtils.setField(revocationList, "mode", "token");
+        revocationList.load();
+        tokenService = service(SECRET, Duration.ofHours(8));
+    }
+
+    @Test
+    void issuedTokenVerifies() {
+        Instant before = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        AuthTokenService.VerifiedToken token = tokenService.verify(tokenService.issue(EDITOR));
+        Instant after = Instant.now();
+
+        assertNotNull(token);
+        assertEquals(7L, token.getPrincipal().getUserId());
+        assertEquals("editor", token.getPrincipal().getUsername());
+        assertEquals("Biên tập viên", token.getPrincipal().getFullName());
+        assertEquals("EDITOR", token.getPrincipal().getRole());
+        assertNotNull(token.getTokenId());
+        assertNotNull(token.getSessionId());
+        // iat keeps milliseconds
+        assertFalse(token.getIssuedAt().isBefore(before));
+        assertFalse(token.getIssuedAt().isAfter(after));
+        assertEquals(token.getIssuedAt().plus(Duration.ofHours(8)).getEpochSecond(), token.getExpiresAt().getEpochSecond());
+    }
+
+    @Test
+    void tamperedTokensAreRejected() throws Exception {
+        String token = tokenService.issue(EDITOR);
+        int dot = token.indexOf('.');
+        ObjectNode payload = (ObjectNode) objectMapper.readTree(Base64.getUrlDecoder().decode(token.substring(0, dot)));
+        payload.put("role", "SUPER_ADMIN");
+        String forgedBody = Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(payload));
+
+        assertNull(tokenService.verify(forgedBody + token.substring(dot)));
+        assertNull(tokenService.verify(token.substring(0, dot + 1) + flipFirstChar(token.substring(dot + 1))));
+        assertNull(tokenService.verify(service("another-secret-another-secret-0123", Duration.ofHours(8)).issue(EDITOR)));
+        assertNull(tokenService.verify(token.substring(0, dot)));
+        assertNull(tokenService.verify("not-base64!." + token.substring(dot + 1)));
+        assertNull(tokenService.verify(null));
+    }
+
+    @Test
+    void expiredTokensAreRejected() {
+        String expired = service(SECRET, Duration.ofSeconds(-1)).issue(EDITOR);
+
+        assertNull(tokenService.verify(expired));
+    }
+
+    @Test
+    void logoutRevokesEveryTokenOfTheLogin() {
+        String first = tokenService.issue(EDITOR);
+        AuthTokenService.VerifiedToken verified = tokenService.verify(first);
+        String refreshed = tokenService.refresh(verified);
+        AuthTokenService.VerifiedToken current = tokenService.verify(refreshed);
+        String otherLogin = tokenService.issue(EDITOR);
+
+        assertEquals(verified.getSessionId(), current.getSessionId());
+        assertNotEquals(verified.getTokenId(), current.getTokenId());
+
+        tokenService.revoke(current);
+
+        assertNull(tokenService.verify(refreshed));
+        // The older cookie of the same login is revoked with it
+        assertNull(tokenService.verify(first));
+        // Other devices stay logged in
+        assertNotNull(tokenService.verify(otherLogin));
+    }
+
+    @Test
+    void revokeUserRejectsOnlyTokensIssuedBefore() throws InterruptedException {
+        String before = tokenService.issue(EDITOR);
+        String otherUser = tokenService.issue(new AuthPrincipal(8L, "admin", null, "ADMIN"));
+        Thread.sleep(2);
+
+        revocationList.revokeUser(7L);
+        Thread.sleep(2);
+        String after = tokenService.issue(EDITOR);
+
+        assertNull(tokenService.verify(before));
+        assertNotNull(tokenService.verify(after));
+        assertNotNull(tokenService.verify(otherUser));
+    }
+
+    @Test
+    void tokenModeRequiresAConfiguredSecret() {
+        assertThrows(IllegalStateException.class, () -> service("", Duration.ofHours(8)));
+        assertThrows(IllegalStateException.class, () -> service("too-short", Duration.ofHours(8)));
+
+        AuthTokenService development = unstarted("", Duration.ofHours(8));
+        ReflectionTestUtils.setField(development, "allowRandomSecret", true);
+        development.init();
+        assertNotNull(development.verify(development.issue(EDITOR)));
+
+        AuthTokenService sessionMode = unstarted("", Duration.ofHours(8));
+        ReflectionTestUtils.setField(sessionMode, "mode", "session");
+        assertDoesNotThrow(sessionMode::init);
+    }
+
+    private AuthTokenService service(String secret, Duration ttl) {
+        AuthTokenService service = unstarted(secret, ttl);
+        service.init();
+        return service;
+    }
+
+    private AuthTokenService unstarted(String secret, Duration ttl) {
+        AuthTokenService service = new AuthTokenService();
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "revocationList", revocationList);
+        ReflectionTestUtils.setField(service, "mode", "token");
+        ReflectionTestUtils.setField(service, "secret", secret);
+        ReflectionTestUtils.setField(service, "ttl", ttl);
+        ReflectionTestUtils.setField(service, "cookieName", "AUTH_TOKEN");
+        return service;
+    }
+
+    private static String flipFirstChar(String value) {
+        char first = value.charAt(0);
+        return (first == 'A' ? 'B' : 'A') + value.substring(1);
+    }
+}
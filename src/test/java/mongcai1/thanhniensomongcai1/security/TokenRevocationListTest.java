@@ -0,0 +1,113 @@
+package mongcai1.thanhniensomongcai1.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationListTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    // Two application nodes sharing one database
+    private TokenRevocationList nodeA;
+    private TokenRevocationList nodeB;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:revocations-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V7__token_revocations.sql"))
+                .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        nodeA = node();
+        nodeB = node();
+    }
+
+    @Test
+    void loggedOutTokenIsRejectedByOtherNodesAfterSync() {
+        nodeA.revokeToken("jti-1", Instant.now().plus(Duration.ofHours(1)));
+
+        assertTrue(nodeA.isRevoked("jti-1", null, 7L, Instant.now()));
+        assertFalse(nodeB.isRevoked("jti-1", null, 7L, Instant.now()));
+
+        nodeB.sync();
+        assertTrue(nodeB.isRevoked("jti-1", null, 7L, Instant.now()));
+        // Same key whether it is a token id or a session id
+        assertTrue(nodeB.isRevoked("jti-2", "jti-1", 7L, Instant.now()));
+        assertFalse(nodeB.isRevoked("jti-2", "sid-2", 7L, Instant.now()));
+    }
+
+    @Test
+    void userRevocationCutsOffAtTheMillisecond() {
+        nodeA.revokeUser(7L);
+        Instant cutoff = jdbcTemplate.queryForObject(
+                "SELECT revoked_before FROM token_revocations WHERE user_id = 7", Timestamp.class).toInstant();
+        nodeB.sync();
+
+        for (TokenRevocationList node : new TokenRevocationList[] {nodeA, nodeB}) {
+            assertTrue(node.isRevoked("jti-1", null, 7L, cutoff.minusMillis(1)));
+            // Issued in the same second but after the change: still valid
+            assertFalse(node.isRevoked("jti-2", null, 7L, cutoff));
+            assertFalse(node.isRevoked("jti-3", null, 7L, cutoff.plusMillis(1)));
+            assertFalse(node.isRevoked("jti-4", null, 8L, cutoff.minusMillis(1)));
+        }
+    }
+
+    @Test
+    void nodeStartedLaterLoadsLiveRevocations() {
+        nodeA.revokeToken("jti-1", Instant.now().plus(Duration.ofHours(1)));
+        nodeA.revokeUser(7L);
+
+        TokenRevocationList started = node();
+
+        assertTrue(started.isRevoked("jti-1", null, 1L, Instant.now()));
+        assertTrue(started.isRevoked("jti-2", null, 7L, Instant.now().minusSeconds(60)));
+    }
+
+    @Test
+    void revocationsAreRetriedWhenTheDatabaseWasUnavailable() {
+        jdbcTemplate.execute("ALTER TABLE token_revocations RENAME TO token_revocations_offline");
+        nodeA.revokeToken("jti-1", Instant.now().plus(Duration.ofHours(1)));
+        // Already in effect on the node that revoked it
+        assertTrue(nodeA.isRevoked("jti-1", null, 7L, Instant.now()));
+
+        jdbcTemplate.execute("ALTER TABLE token_revocations_offline RENAME TO token_revocations");
+        nodeA.sync();
+        nodeB.sync();
+
+        assertTrue(nodeB.isRevoked("jti-1", null, 7L, Instant.now()));
+    }
+
+    @Test
+    void expiredRevocationsArePurged() {
+        nodeA.revokeToken("jti-old", Instant.now().minusSeconds(1));
+        nodeA.revokeToken("jti-live", Instant.now().plus(Duration.ofHours(1)));
+
+        nodeA.purgeExpired();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM token_revocations", Integer.class));
+        assertFalse(nodeA.isRevoked("jti-old", null, 7L, Instant.now()));
+        assertTrue(nodeA.isRevoked("jti-live", null, 7L, Instant.now()));
+    }
+
+    private TokenRevocationList node() {
+        TokenRevocationList node = new TokenRevocationList();
+        ReflectionTestUtils.setField(node, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(node, "mode", "token");
+        node.setMaxTokenAge(Duration.ofHours(8));
+        node.load();
+        return node;
+    }
+}
@@ -0,0 +1,84 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    // 4 attempts per IP refilled at 2/min, 2 per username refilled at 1/min
+    private final LoginRateLimiter limiter = new LoginRateLimiter(4, 2, 2, 1, 100, now::get);
+
+    @Test
+    void usernameBucketIsSharedAcrossCaseAndSpaces() {
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "admin"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.2", " Admin "));
+
+        // Empty bucket, one token per minute
+        assertEquals(60, limiter.tryAcquire("10.0.0.3", "ADMIN"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.3", "editor"));
+    }
+
+    @Test
+    void ipBucketCoversEveryUsername() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1", "user" + i));
+        }
+
+        // Two tokens per minute: the next one is 30 s away
+        assertEquals(30, limiter.tryAcquire("10.0.0.1", "someone-else"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.2", "someone-else"));
+    }
+
+    @Test
+    void retryAfterShrinksAndBucketsRefillOverTime() {
+        limiter.tryAcquire("10.0.0.1", "admin");
+        limiter.tryAcquire("10.0.0.1", "admin");
+        assertEquals(60, limiter.tryAcquire("10.0.0.1", "admin"));
+
+        advance(Duration.ofSeconds(45));
+        assertEquals(15, limiter.tryAcquire("10.0.0.1", "admin"));
+
+        advance(Duration.ofSeconds(15));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "admin"));
+        assertTrue(limiter.tryAcquire("10.0.0.1", "admin") > 0);
+
+        // Never refills above capacity
+        advance(Duration.ofHours(1));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "admin"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "admin"));
+        assertEquals(60, limiter.tryAcquire("10.0.0.1", "admin"));
+    }
+
+    @Test
+    void successfulLoginsAreNotCounted() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1", "admin"));
+            limiter.release("10.0.0.1", "admin");
+        }
+
+        // Failures still are
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "admin"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "admin"));
+        assertEquals(60, limiter.tryAcquire("10.0.0.1", "admin"));
+    }
+
+    @Test
+    void releaseNeverExceedsCapacity() {
+        limiter.release("10.0.0.1", "admin");
+        limiter.release("10.0.0.1", "admin");
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "admin"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "admin"));
+        assertEquals(60, limiter.tryAcquire("10.0.0.1", "admin"));
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,129 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import mongcai1.thanhniensomongcai1.model.User;
+import mongcai1.thanhniensomongcai1.model.UserRole;
+import mongcai1.thanhniensomongcai1.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PasswordHasherTest {
+
+    private static final int STRENGTH = 5;
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(STRENGTH);
+    private ThreadPoolTaskExecutor hashExecutor;
+    private ThreadPoolTaskExecutor upgradeExecutor;
+    private PasswordHasher hasher;
+
+    @BeforeEach
+    void setUp() {
+        // A single hash thread: an upgrade that waited on the pool from inside it would never finish
+        hashExecutor = executor("test-hash-", 1);
+        upgradeExecutor = executor("test-upgrade-", 1);
+        hasher = new PasswordHasher();
+        ReflectionTestUtils.setField(hasher, "passwordEncoder", encoder);
+        ReflectionTestUtils.setField(hasher, "passwordHashExecutor", hashExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashExecutor.shutdown();
+        upgradeExecutor.shutdown();
+    }
+
+    @Test
+    void legacyPlaintextMatchesAndNeedsUpgrade() {
+        assertTrue(hasher.matches("matkhau123", "matkhau123"));
+        assertFalse(hasher.matches("matkhau12", "matkhau123"));
+        assertFalse(hasher.matches(null, "matkhau123"));
+        assertFalse(hasher.isHashed("matkhau123"));
+        assertTrue(hasher.needsUpgrade("matkhau123"));
+    }
+
+    @Test
+    void hashesBelowTheConfiguredCostNeedUpgrade() {
+        String weak = new BCryptPasswordEncoder(4).encode("matkhau123");
+        String current = hasher.encode("matkhau123");
+
+        assertTrue(hasher.isHashed(weak));
+        assertTrue(hasher.matches("matkhau123", weak));
+        assertTrue(hasher.needsUpgrade(weak));
+
+        assertTrue(hasher.matches("matkhau123", current));
+        assertFalse(hasher.needsUpgrade(current));
+    }
+
+    @Test
+    void legacyLoginsAreUpgradedWithoutBlockingHashThreads() throws Exception {
+        UserRepository repository = mock(UserRepository.class);
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            User user = new User("user" + id, "matkhau" + id, "Người dùng " + id, UserRole.EDITOR);
+            user.setId(id);
+            users.add(user);
+            when(repository.findByUsernameAndIsActiveTrue("user" + id)).thenReturn(Optional.of(user));
+        }
+        UserService userService = userService(repository);
+
+        List<CompletableFuture<Optional<User>>> logins = new ArrayList<>();
+        for (User user : users) {
+            logins.add(userService.authenticate(user.getUsername(), user.getPassword()));
+        }
+        for (CompletableFuture<Optional<User>> login : logins) {
+            assertTrue(login.get(10, TimeUnit.SECONDS).isPresent());
+        }
+
+        for (User user : users) {
+            ArgumentCaptor<String> newHash = ArgumentCaptor.forClass(String.class);
+            verify(repository, timeout(5000)).replacePassword(eq(user.getId()), eq(user.getPassword()), newHash.capture());
+            assertTrue(hasher.isHashed(newHash.getValue()));
+            assertTrue(encoder.matches(user.getPassword(), newHash.getValue()));
+        }
+    }
+
+    @Test
+    void wrongPasswordIsNotUpgraded() throws Exception {
+        UserRepository repository = mock(UserRepository.class);
+        User user = new User("user1", "matkhau1", "Người dùng", UserRole.EDITOR);
+        user.setId(1L);
+        when(repository.findByUsernameAndIsActiveTrue("user1")).thenReturn(Optional.of(user));
+        UserService userService = userService(repository);
+
+        assertTrue(userService.authenticate("user1", "sai").get(10, TimeUnit.SECONDS).isEmpty());
+
+        verify(repository, after(200).never()).replacePassword(anyLong(), anyString(), anyString());
+    }
+
+    private UserService userService(UserRepository repository) {
+        UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", repository);
+        ReflectionTestUtils.setField(userService, "passwordHasher", hasher);
+        ReflectionTestUtils.setField(userService, "lastLoginRecorder", mock(LastLoginRecorder.class));
+        ReflectionTestUtils.setField(userService, "passwordUpgradeExecutor", upgradeExecutor);
+        return userService;
+    }
+
+    private static ThreadPoolTaskExecutor executor(String prefix, int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(64);
+        executor.setThreadNamePrefix(prefix);
+        executor.initialize();
+        return executor;
+    }
+}
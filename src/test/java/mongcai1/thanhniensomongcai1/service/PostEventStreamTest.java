@@ -0,0 +1,356 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mongcai1.thanhniensomongcai1.model.Post;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostEventStreamTest {
+
+    private static final Duration GAP_TIMEOUT = Duration.ofMillis(200);
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<PostEventStream> nodes = new ArrayList<>();
+
+    // The next stream opened blocks in its first write until this is released
+    private volatile CountDownLatch blockNext;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:post-events-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V9__post_events.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(PostEventStream::stop);
+    }
+
+    @Test
+    void eventsAreSentInIdOrderToEverySubscriber() {
+        PostEventStream stream = node();
+        RecordingEmitter first = subscribe(stream, null);
+        RecordingEmitter second = subscribe(stream, null);
+
+        write(3);
+        stream.poll();
+
+        for (RecordingEmitter emitter : List.of(first, second)) {
+            await(() -> received(emitter).size() == 3);
+            assertEquals(List.of("post#1", "post#2", "post#3"), received(emitter));
+        }
+    }
+
+    @Test
+    void postEventsAreSentOnlyAfterTheCommit() {
+        PostEventStream stream = node();
+        RecordingEmitter emitter = subscribe(stream, null);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transaction.executeWithoutResult(status -> {
+            stream.postChanged(urgentPost(7L), true, false);
+            // A poll on another connection does not see the row yet
+            Thread poller = new Thread(stream::poll);
+            poller.start();
+            try {
+                poller.join();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            assertEquals(List.of(), received(emitter));
+        });
+        await(() -> received(emitter).size() == 1);
+        assertEquals(List.of("post#1"), received(emitter));
+        assertTrue(emitter.events.get(emitter.events.size() - 1).contains("\"change\":\"created\""));
+
+        transaction.executeWithoutResult(status -> {
+            stream.postChanged(urgentPost(8L), false, false);
+            status.setRollbackOnly();
+        });
+        stream.poll();
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM post_events WHERE data LIKE '%\"id\":8%'",
+                Integer.class));
+        assertEquals(List.of("post#1"), received(emitter));
+
+        // Not urgent or featured before or after: nothing to announce
+        Post plain = urgentPost(9L);
+        plain.setIsUrgent(false);
+        stream.postChanged(plain, false, false);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM post_events", Integer.class));
+    }
+
+    @Test
+    void reconnectingClientsReplayWhatTheyMissed() {
+        PostEventStream stream = node();
+        write(3);
+        stream.poll();
+
+        RecordingEmitter afterFirst = subscribe(stream, "1");
+        await(() -> received(afterFirst).size() == 2);
+        assertEquals(List.of("post#2", "post#3"), received(afterFirst));
+
+        // Up to date: nothing replayed
+        RecordingEmitter upToDate = subscribe(stream, "3");
+        stream.refresh();
+        await(() -> received(upToDate).size() == 1);
+        // The refresh of this node has no id, so Last-Event-ID stays valid on every node
+        assertEquals(List.of("refresh"), received(upToDate));
+
+        RecordingEmitter afterSecond = subscribe(stream, "2");
+        await(() -> received(afterSecond).size() == 2);
+        assertEquals(List.of("post#3", "refresh"), received(afterSecond));
+    }
+
+    @Test
+    void idsOutsideTheBufferGetRefresh() {
+        PostEventStream stream = node();
+        write(6);
+        stream.poll();
+
+        // The buffer holds the last 4: 3 to 6
+        RecordingEmitter tooOld = subscribe(stream, "1");
+        RecordingEmitter oldestReplayable = subscribe(stream, "2");
+        // Ahead of this node, or an id from before this version
+        RecordingEmitter unknown = subscribe(stream, "9");
+        RecordingEmitter clockBased = subscribe(stream, "1760000000000000");
+        RecordingEmitter invalid = subscribe(stream, "abc");
+
+        await(() -> received(oldestReplayable).size() == 4);
+        assertEquals(List.of("post#3", "post#4", "post#5", "post#6"), received(oldestReplayable));
+        for (RecordingEmitter emitter : List.of(tooOld, unknown, clockBased)) {
+            await(() -> received(emitter).size() == 1);
+            // Carries the newest id, so the next reconnect replays from there
+            assertEquals(List.of("refresh#6"), received(emitter));
+        }
+        assertEquals(List.of(), received(invalid));
+
+        // A node started later continues from the events already written
+        PostEventStream started = node();
+        RecordingEmitter current = subscribe(started, "6");
+        RecordingEmitter behind = subscribe(started, "5");
+        await(() -> received(behind).size() == 1);
+        assertEquals(List.of("refresh#6"), received(behind));
+        write(1);
+        started.poll();
+        await(() -> received(current).size() == 1);
+        assertEquals(List.of("post#7"), received(current));
+    }
+
+    @Test
+    void missingIdsAreWaitedForAndLateRowsBecomeRefresh() throws InterruptedException {
+        PostEventStream stream = node();
+        RecordingEmitter emitter = subscribe(stream, null);
+
+        // 2 is not committed yet
+        write(1L);
+        write(3L);
+        stream.poll();
+        await(() -> received(emitter).size() == 1);
+        stream.poll();
+        assertEquals(List.of("post#1"), received(emitter));
+
+        // Committed in time: sent in order
+        write(2L);
+        stream.poll();
+        await(() -> received(emitter).size() == 3);
+        assertEquals(List.of("post#1", "post#2", "post#3"), received(emitter));
+
+        // 4 never comes in time
+        write(5L);
+        stream.poll();
+        Thread.sleep(GAP_TIMEOUT.toMillis() + 50);
+        stream.poll();
+        await(() -> received(emitter).size() == 4);
+        assertEquals("post#5", received(emitter).get(3));
+
+        // Too late for its place in the order
+        write(4L);
+        stream.poll();
+        await(() -> received(emitter).size() == 5);
+        assertEquals("refresh", received(emitter).get(4));
+        stream.poll();
+        assertEquals(5, received(emitter).size());
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWithoutHoldingBackTheOthers() {
+        PostEventStream stream = node();
+        CountDownLatch release = new CountDownLatch(1);
+        blockNext = release;
+        RecordingEmitter slow = subscribe(stream, null);
+        RecordingEmitter fast = subscribe(stream, null);
+
+        // The fast one reads each event before the next; the fourth finds three waiting for the slow one
+        for (int i = 1; i <= 4; i++) {
+            write(1);
+            stream.poll();
+            int sent = i;
+            await(() -> received(fast).size() == sent);
+        }
+        assertEquals(1.0, meterRegistry.counter("portal.posts.events.dropped").count());
+        assertEquals(1, stream.getSubscriberCount());
+
+        release.countDown();
+        await(() -> slow.completed);
+        // Only the write it was stuck in; it catches up from the buffer on reconnect
+        assertEquals(List.of(), received(slow));
+        RecordingEmitter reconnected = subscribe(stream, "0");
+        await(() -> received(reconnected).size() == 4);
+        assertEquals(List.of("post#1", "post#2", "post#3", "post#4"), received(reconnected));
+    }
+
+    private PostEventStream node() {
+        PostEventStream stream = new PostEventStream() {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter(blockNext);
+                blockNext = null;
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(stream, "objectMapper", JsonMapper.builder().findAndAddModules().build());
+        ReflectionTestUtils.setField(stream, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(stream, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(stream, "replaySize", 4);
+        ReflectionTestUtils.setField(stream, "maxSubscribers", 100);
+        ReflectionTestUtils.setField(stream, "timeout", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(stream, "retry", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(stream, "sendThreads", 2);
+        ReflectionTestUtils.setField(stream, "maxPending", 3);
+        ReflectionTestUtils.setField(stream, "sendTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(stream, "gapTimeout", GAP_TIMEOUT);
+        ReflectionTestUtils.setField(stream, "retention", Duration.ofHours(1));
+        stream.registerMetrics();
+        nodes.add(stream);
+        return stream;
+    }
+
+    private static RecordingEmitter subscribe(PostEventStream stream, String lastEventId) {
+        RecordingEmitter emitter = (RecordingEmitter) stream.subscribe(lastEventId);
+        // The "connected" comment is written first
+        await(() -> emitter.writes > 0);
+        return emitter;
+    }
+
+    // Events written by any node
+    private void write(int count) {
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("INSERT INTO post_events (name, data, created_at) VALUES ('post', '{}', ?)",
+                    Timestamp.valueOf(LocalDateTime.now()));
+        }
+    }
+
+    private void write(long id) {
+        jdbcTemplate.update("INSERT INTO post_events (id, name, data, created_at) VALUES (?, 'post', '{}', ?)",
+                id, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private static Post urgentPost(Long id) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle("Thông báo khẩn");
+        post.setIsPublished(true);
+        post.setIsUrgent(true);
+        post.setIsFeatured(false);
+        post.setPublishedAt(LocalDateTime.now());
+        return post;
+    }
+
+    // Named events as name#id, without the comments
+    private static List<String> received(RecordingEmitter emitter) {
+        List<String> received = new ArrayList<>();
+        for (String text : emitter.events) {
+            String name = null;
+            String id = null;
+            for (String line : text.split("\n")) {
+                if (line.startsWith("event:")) {
+                    name = line.substring("event:".length());
+                } else if (line.startsWith("id:")) {
+                    id = line.substring("id:".length());
+                }
+            }
+            if (name != null) {
+                received.add(id != null ? name + "#" + id : name);
+            }
+        }
+        return received;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the event stream");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blocked;
+        private volatile int writes;
+        private volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch blocked) {
+            this.blocked = blocked;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writes++;
+            if (blocked != null) {
+                try {
+                    blocked.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return;
+            }
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                text.append(part.getData());
+            }
+            events.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import mongcai1.thanhniensomongcai1.config.CacheConfig;
+import mongcai1.thanhniensomongcai1.model.Post;
+import mongcai1.thanhniensomongcai1.repository.PostRepository;
+import mongcai1.thanhniensomongcai1.repository.ScheduledEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PostSchedulerTest {
+
+    private static final Duration SOON = Duration.ofMillis(300);
+
+    private JdbcTemplate jdbcTemplate;
+    private PostRepository postRepository;
+    private PostEventStream postEventStream;
+    private CacheManager cacheManager;
+    private PostScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:scheduler-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        new ResourceDatabasePopulator(
+                new ClassPathResource("db/migration/V1__baseline_schema.sql"),
+                new ClassPathResource("db/migration/V2__composite_indexes.sql"),
+                new ClassPathResource("db/migration/V5__post_schedule.sql"),
+                new ClassPathResource("db/migration/V8__post_changes.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO categories (id, name, type) VALUES (1, 'Tin tức', 'POST')");
+
+        postRepository = mock(PostRepository.class);
+        postEventStream = mock(PostEventStream.class);
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.PUBLIC_POSTS, CacheConfig.HOT_RESPONSES);
+        scheduler = new PostScheduler();
+        ReflectionTestUtils.setField(scheduler, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(scheduler, "postRepository", postRepository);
+        ReflectionTestUtils.setField(scheduler, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(scheduler, "postEventStream", postEventStream);
+        ReflectionTestUtils.setField(scheduler, "changeLog", changeLog());
+        ReflectionTestUtils.setField(scheduler, "horizon", Duration.ofDays(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void applyDefaultsSetsFlagsForTheCurrentTime() {
+        LocalDateTime now = LocalDateTime.now();
+
+        Post scheduled = post(now.plusHours(1), null, false, null);
+        PostService.applyDefaults(scheduled);
+        assertFalse(scheduled.getIsPublished());
+
+        Post withdrawn = post(now.minusDays(2), now.minusDays(1), false, null);
+        PostService.applyDefaults(withdrawn);
+        assertFalse(withdrawn.getIsPublished());
+
+        Post expiredUrgent = post(now.minusDays(1), now.plusDays(1), true, now.minusMinutes(1));
+        PostService.applyDefaults(expiredUrgent);
+        assertTrue(expiredUrgent.getIsPublished());
+        assertFalse(expiredUrgent.getIsUrgent());
+
+        Post urgent = post(null, null, true, now.plusHours(1));
+        PostService.applyDefaults(urgent);
+        assertTrue(urgent.getIsPublished());
+        assertTrue(urgent.getIsUrgent());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PostService.applyDefaults(post(now, now, false, null)));
+    }
+
+    @Test
+    void dueEventsFlipTheFlagsAndClearTheCaches() {
+        LocalDateTime now = LocalDateTime.now();
+        insert(1L, now.plus(SOON), null, false, null, false);
+        insert(2L, now.minusDays(1), now.plus(SOON), false, null, true);
+        insert(3L, now.minusDays(1), null, true, now.plus(SOON), true);
+        scheduler.start();
+
+        scheduler.schedule(post(1L, now.plus(SOON), null, false, null));
+        scheduler.schedule(post(2L, now.minusDays(1), now.plus(SOON), false, null));
+        scheduler.schedule(post(3L, now.minusDays(1), null, true, now.plus(SOON)));
+        assertEquals(3, scheduler.getScheduledCount());
+        publicPosts().put("urgent", List.of());
+
+        await(() -> flag(1L, "is_published") && !flag(2L, "is_published") && !flag(3L, "is_urgent"));
+        assertTrue(flag(3L, "is_published"));
+        await(() -> scheduler.getScheduledCount() == 0 && publicPosts().get("urgent") == null);
+        verify(postEventStream, atLeastOnce()).refresh();
+    }
+
+    @Test
+    void savingAPostReplacesItsQueuedEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        scheduler.schedule(post(1L, now.minusDays(1), now.plusHours(1), true, now.plusMinutes(30)));
+        assertEquals(2, scheduler.getScheduledCount());
+
+        // Urgency removed, unpublish moved beyond the horizon
+        scheduler.schedule(post(1L, now.minusDays(1), now.plusDays(2), false, now.plusMinutes(30)));
+        assertEquals(0, scheduler.getScheduledCount());
+
+        scheduler.schedule(post(1L, now.plusHours(2), null, false, null));
+        publicPosts().put("urgent", List.of());
+        scheduler.cancel(1L);
+        assertEquals(0, scheduler.getScheduledCount());
+        assertNull(publicPosts().get("urgent"));
+    }
+
+    @Test
+    void resyncRepairsFlagsAndReloadsTheQueue() {
+        LocalDateTime now = LocalDateTime.now();
+        // Missed while the application was down
+        insert(1L, now.minusHours(1), null, false, null, false);
+        insert(2L, now.plusHours(1), null, false, null, true);
+        insert(3L, now.minusDays(1), now.minusHours(1), false, null, true);
+        insert(4L, now.minusDays(1), null, true, now.minusHours(1), true);
+        // Consistent
+        insert(5L, now.minusDays(1), now.plusHours(3), true, now.plusHours(2), true);
+        when(postRepository.findPublishEvents(any(), any())).thenReturn(List.of(event(2L, now.plusHours(1))));
+        when(postRepository.findUnpublishEvents(any(), any())).thenReturn(List.of(event(5L, now.plusHours(3))));
+        when(postRepository.findUrgentExpiryEvents(any(), any())).thenReturn(List.of(event(5L, now.plusHours(2))));
+        publicPosts().put("urgent", List.of());
+
+        scheduler.resync();
+
+        assertTrue(flag(1L, "is_published"));
+        assertFalse(flag(2L, "is_published"));
+        assertFalse(flag(3L, "is_published"));
+        assertFalse(flag(4L, "is_urgent"));
+        assertTrue(flag(4L, "is_published"));
+        assertTrue(flag(5L, "is_published") && flag(5L, "is_urgent"));
+        assertNull(publicPosts().get("urgent"));
+        verify(postEventStream).refresh();
+        assertEquals(3, scheduler.getScheduledCount());
+
+        // Nothing to repair: the caches and the clients are left alone
+        publicPosts().put("urgent", List.of());
+        scheduler.resync();
+        assertNotNull(publicPosts().get("urgent"));
+        verify(postEventStream, times(1)).refresh();
+        assertEquals(3, scheduler.getScheduledCount());
+    }
+
+    @Test
+    void changesFromOtherNodesClearTheCachesAndReloadTheSchedule() {
+        LocalDateTime now = LocalDateTime.now();
+        PostChangeLog otherNode = changeLog();
+        insert(1L, now.minusDays(1), now.plusHours(1), true, now.plusMinutes(30), true);
+
+        // Own writes were applied when they committed
+        scheduler.schedule(post(1L, now.minusDays(1), null, false, null));
+        publicPosts().put("urgent", List.of());
+        scheduler.pollChanges();
+        assertNotNull(publicPosts().get("urgent"));
+        assertEquals(0, scheduler.getScheduledCount());
+
+        otherNode.append(1L);
+        scheduler.pollChanges();
+        assertNull(publicPosts().get("urgent"));
+        // Read back from the database: unpublish and urgent expiry
+        assertEquals(2, scheduler.getScheduledCount());
+
+        // Each change is applied once
+        publicPosts().put("urgent", List.of());
+        scheduler.pollChanges();
+        assertNotNull(publicPosts().get("urgent"));
+
+        jdbcTemplate.update("DELETE FROM posts WHERE id = 1");
+        otherNode.append(1L);
+        scheduler.pollChanges();
+        assertNull(publicPosts().get("urgent"));
+        assertEquals(0, scheduler.getScheduledCount());
+    }
+
+    @Test
+    void oldChangesArePurged() {
+        PostChangeLog changeLog = changeLog();
+        changeLog.append(1L);
+        jdbcTemplate.update("INSERT INTO post_changes (post_id, node_id, created_at) VALUES (2, 'gone', ?)",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(2)));
+
+        changeLog.purge();
+
+        assertEquals(List.of(1L), jdbcTemplate.queryForList("SELECT post_id FROM post_changes", Long.class));
+    }
+
+    private PostChangeLog changeLog() {
+        PostChangeLog changeLog = new PostChangeLog();
+        ReflectionTestUtils.setField(changeLog, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(changeLog, "retention", Duration.ofHours(1));
+        changeLog.init();
+        return changeLog;
+    }
+
+    private Cache publicPosts() {
+        return cacheManager.getCache(CacheConfig.PUBLIC_POSTS);
+    }
+
+    private void insert(Long id, LocalDateTime publishedAt, LocalDateTime unpublishAt, boolean urgent,
+                        LocalDateTime urgentUntil, boolean published) {
+        jdbcTemplate.update("INSERT INTO posts (id, title, category_id, published_at, unpublish_at, is_urgent,"
+                        + " urgent_until, is_published, is_featured) VALUES (?, ?, 1, ?, ?, ?, ?, ?, FALSE)",
+                id, "Bài " + id, timestamp(publishedAt), timestamp(unpublishAt), urgent, timestamp(urgentUntil),
+                published);
+    }
+
+    private boolean flag(Long id, String column) {
+        return jdbcTemplate.queryForObject("SELECT " + column + " FROM posts WHERE id = ?", Boolean.class, id);
+    }
+
+    private static Post post(LocalDateTime publishedAt, LocalDateTime unpublishAt, boolean urgent,
+                             LocalDateTime urgentUntil) {
+        return post(null, publishedAt, unpublishAt, urgent, urgentUntil);
+    }
+
+    private static Post post(Long id, LocalDateTime publishedAt, LocalDateTime unpublishAt, boolean urgent,
+                             LocalDateTime urgentUntil) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle("Bài viết");
+        post.setPublishedAt(publishedAt);
+        post.setUnpublishAt(unpublishAt);
+        post.setIsUrgent(urgent);
+        post.setUrgentUntil(urgentUntil);
+        return post;
+    }
+
+    private static ScheduledEvent event(Long postId, LocalDateTime dueAt) {
+        return new ScheduledEvent() {
+            @Override
+            public Long getPostId() {
+                return postId;
+            }
+
+            @Override
+            public LocalDateTime getDueAt() {
+                return dueAt;
+            }
+        };
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the scheduler");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package mongcai1.thanhniensomongcai1.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mongcai1.thanhniensomongcai1.repository.LocationRepository;
+import mongcai1.thanhniensomongcai1.repository.PostRepository;
+import mongcai1.thanhniensomongcai1.repository.UploadReference;
+import mongcai1.thanhniensomongcai1.storage.LocalBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UploadGarbageCollectorTest {
+
+    private static final String QUARANTINE = UploadGarbageCollector.QUARANTINE_PREFIX;
+
+    @TempDir
+    Path root;
+
+    // Thumbnail URLs the posts currently point at
+    private final List<String> referenced = new ArrayList<>();
+
+    private UploadGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        PostRepository postRepository = mock(PostRepository.class);
+        when(postRepository.findThumbnailReferences(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            List<UploadReference> refs = new ArrayList<>();
+            for (int i = 0; i < referenced.size(); i++) {
+                if (i + 1 > afterId) {
+                    refs.add(reference(i + 1, referenced.get(i)));
+                }
+            }
+            return refs;
+        });
+        LocationRepository locationRepository = mock(LocationRepository.class);
+        when(locationRepository.findImageReferences(anyLong(), any())).thenReturn(List.of());
+
+        collector = new UploadGarbageCollector(postRepository, locationRepository,
+                new LocalBlobStore(root), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(collector, "enabled", true);
+        ReflectionTestUtils.setField(collector, "gracePeriod", Duration.ofHours(24));
+        ReflectionTestUtils.setField(collector, "quarantinePeriod", Duration.ofDays(7));
+        ReflectionTestUtils.setField(collector, "pageSize", 1000);
+        ReflectionTestUtils.setField(collector, "maxFilesPerSecond", 0);
+    }
+
+    @Test
+    void unreferencedFileOlderThanGracePeriodIsQuarantined() throws IOException {
+        file("orphan.jpg", Duration.ofDays(2));
+        file("used.jpg", Duration.ofDays(2));
+        referenced.add("/uploads/used.jpg");
+
+        UploadGarbageCollector.RunReport report = collector.run();
+
+        assertNull(report.getError());
+        assertEquals(2, report.getFilesScanned());
+        assertEquals(1, report.getFilesQuarantined());
+        assertFalse(Files.exists(root.resolve("orphan.jpg")));
+        assertTrue(Files.exists(root.resolve(QUARANTINE + "orphan.jpg")));
+        assertTrue(Files.exists(root.resolve("used.jpg")));
+        // Nothing is deleted in the run that quarantines
+        assertEquals(0, report.getFilesDeleted());
+    }
+
+    @Test
+    void filesInsideGracePeriodAreNotTouched() throws IOException {
+        // Uploaded, but the post that will reference it is not saved yet
+        file("fresh.jpg", Duration.ofHours(1));
+
+        UploadGarbageCollector.RunReport report = collector.run();
+
+        assertEquals(0, report.getFilesQuarantined());
+        assertTrue(Files.exists(root.resolve("fresh.jpg")));
+    }
+
+    @Test
+    void quarantinedFileReferencedAgainIsRestored() throws IOException {
+        file(QUARANTINE + "back.jpg", Duration.ofDays(30));
+        referenced.add("https://portal.example.vn/uploads/back.jpg");
+
+        UploadGarbageCollector.RunReport report = collector.run();
+
+        assertEquals(1, report.getFilesRestored());
+        assertEquals(0, report.getFilesDeleted());
+        assertTrue(Files.exists(root.resolve("back.jpg")));
+        assertFalse(Files.exists(root.resolve(QUARANTINE + "back.jpg")));
+    }
+
+    @Test
+    void quarantinedFileIsDeletedOnlyAfterQuarantinePeriod() throws IOException {
+        file(QUARANTINE + "recent.jpg", Duration.ofDays(6));
+        file(QUARANTINE + "expired.jpg", Duration.ofDays(8));
+        long expiredSize = Files.size(root.resolve(QUARANTINE + "expired.jpg"));
+
+        UploadGarbageCollector.RunReport report = collector.run();
+
+        assertEquals(1, report.getFilesDeleted());
+        assertEquals(expiredSize, report.getBytesReclaimed());
+        assertTrue(Files.exists(root.resolve(QUARANTINE + "recent.jpg")));
+        assertFalse(Files.exists(root.resolve(QUARANTINE + "expired.jpg")));
+        assertEquals(report.getBytesReclaimed(), collector.getTotalBytesReclaimed());
+    }
+
+    @Test
+    void quarantineKeysAreNotSweptAsUploads() throws IOException {
+        file(QUARANTINE + "waiting.jpg", Duration.ofDays(2));
+
+        UploadGarbageCollector.RunReport report = collector.run();
+
+        // Only the top level is scanned: the quarantine is never quarantined again
+        assertEquals(0, report.getFilesScanned());
+        assertEquals(0, report.getFilesQuarantined());
+        assertTrue(Files.exists(root.resolve(QUARANTINE + "waiting.jpg")));
+        assertFalse(Files.exists(root.resolve(QUARANTINE + QUARANTINE + "waiting.jpg")));
+    }
+
+    @Test
+    void nothingIsTouchedWhenReferencesCannotBeLoaded() throws IOException {
+        file("orphan.jpg", Duration.ofDays(2));
+        file(QUARANTINE + "expired.jpg", Duration.ofDays(30));
+        PostRepository failing = mock(PostRepository.class);
+        when(failing.findThumbnailReferences(anyLong(), any())).thenThrow(new IllegalStateException("db down"));
+        ReflectionTestUtils.setField(collector, "postRepository", failing);
+
+        UploadGarbageCollector.RunReport report = collector.run();
+
+        assertEquals("db down", report.getError());
+        assertTrue(Files.exists(root.resolve("orphan.jpg")));
+        assertTrue(Files.exists(root.resolve(QUARANTINE + "expired.jpg")));
+    }
+
+    @Test
+    void toFilenameAcceptsUploadUrlsOnly() {
+        assertEquals("a.jpg", UploadGarbageCollector.toFilename("/uploads/a.jpg"));
+        assertEquals("a.jpg", UploadGarbageCollector.toFilename("uploads/a.jpg"));
+        assertEquals("a.jpg", UploadGarbageCollector.toFilename("https://portal.example.vn/uploads/a.jpg"));
+        assertEquals("a.jpg", UploadGarbageCollector.toFilename("/uploads/a.jpg?v=3"));
+        assertEquals("a.jpg", UploadGarbageCollector.toFilename("https://cdn.example.vn/uploads/a.jpg?w=200&h=100"));
+
+        assertNull(UploadGarbageCollector.toFilename(null));
+        assertNull(UploadGarbageCollector.toFilename("https://images.example.com/a.jpg"));
+        assertNull(UploadGarbageCollector.toFilename("/uploads/"));
+        assertNull(UploadGarbageCollector.toFilename("/uploads/?v=1"));
+        assertNull(UploadGarbageCollector.toFilename("/uploads/sub/a.jpg"));
+    }
+
+    private void file(String key, Duration age) throws IOException {
+        Path path = root.resolve(key);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, "image " + key);
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(age)));
+    }
+
+    private static UploadReference reference(long id, String url) {
+        return new UploadReference() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUrl() {
+                return url;
+            }
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package mongcai1.thanhniensomongcai1.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcSessionStoreTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcSessionStore store;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:sessions-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        store = new JdbcSessionStore(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), Duration.ofMinutes(30));
+        store.initializeSchema();
+    }
+
+    @Test
+    void attributesAreLoadedOnFirstAccess() {
+        JdbcSession session = store.createSession();
+        session.setAttribute("userId", 7L);
+        session.setAttribute("userRole", "EDITOR");
+        store.save(session);
+
+        JdbcSession found = store.findById(session.getId());
+        assertNotNull(found);
+
+        // Changed after findById: the new value is visible only if attributes are read lazily
+        jdbcTemplate.update("UPDATE http_session_attributes SET attribute_value = ? WHERE session_id = ? AND attribute_name = ?",
+                new SerializingConverter().convert("ADMIN"), session.getId(), "userRole");
+
+        assertEquals("ADMIN", found.getAttribute("userRole"));
+        assertEquals(7L, (Long) found.getAttribute("userId"));
+        assertEquals(Set.of("userId", "userRole"), found.getAttributeNames());
+    }
+
+    @Test
+    void accessTimeIsWrittenBehindInBatches() {
+        JdbcSession session = store.createSession();
+        session.setAttribute("username", "editor");
+        store.save(session);
+        Instant saved = lastAccessed(session.getId());
+
+        JdbcSession found = store.findById(session.getId());
+        Instant accessed = saved.plusSeconds(60);
+        found.setLastAccessedTime(accessed);
+        store.save(found);
+
+        assertEquals(saved, lastAccessed(session.getId()));
+        assertEquals(1, store.getPendingAccessCount());
+        // A later read on this node already sees the pending access time
+        assertEquals(accessed, store.findById(session.getId()).getLastAccessedTime());
+
+        assertEquals(1, store.flushAccessTimes());
+        assertEquals(accessed, lastAccessed(session.getId()));
+        assertEquals(0, store.getPendingAccessCount());
+    }
+
+    @Test
+    void sweeperDeletesExpiredSessionsWithAttributes() {
+        JdbcSession expired = store.createSession();
+        expired.setMaxInactiveInterval(Duration.ofSeconds(1));
+        expired.setLastAccessedTime(Instant.now().minusSeconds(120));
+        expired.setAttribute("userId", 1L);
+        store.save(expired);
+
+        JdbcSession live = store.createSession();
+        live.setAttribute("userId", 2L);
+        store.save(live);
+
+        assertEquals(1, store.sweepExpired());
+        assertNull(store.findById(expired.getId()));
+        assertNotNull(store.findById(live.getId()));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM http_session_attributes", Integer.class));
+    }
+
+    @Test
+    void changeSessionIdKeepsAttributes() {
+        JdbcSession session = store.createSession();
+        session.setAttribute("userId", 3L);
+        store.save(session);
+        String oldId = session.getId();
+
+        JdbcSession found = store.findById(oldId);
+        String newId = found.changeSessionId();
+        found.setAttribute("userRole", "SUPER_ADMIN");
+        store.save(found);
+
+        assertNull(store.findById(oldId));
+        JdbcSession renamed = store.findById(newId);
+        assertEquals(3L, (Long) renamed.getAttribute("userId"));
+        assertEquals("SUPER_ADMIN", renamed.getAttribute("userRole"));
+    }
+
+    private Instant lastAccessed(String id) {
+        Timestamp timestamp = jdbcTemplate.queryForObject(
+                "SELECT last_accessed_at FROM http_sessions WHERE id = ?", Timestamp.class, id);
+        return timestamp.toInstant().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
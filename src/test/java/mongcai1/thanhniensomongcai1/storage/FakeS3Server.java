@@ -0,0 +1,248 @@
+package mongcai1.thanhniensomongcai1.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Máy chủ giả lập S3 (kiểu MinIO) chạy trong tiến trình test.
+ * Chỉ hỗ trợ các thao tác mà S3BlobStore dùng: PUT/GET/HEAD/DELETE object, copy và ListObjectsV2.
+ */
+class FakeS3Server implements AutoCloseable {
+
+    private final HttpServer server;
+    private final String bucket;
+    private final ConcurrentSkipListMap<String, StoredObject> objects = new ConcurrentSkipListMap<>();
+
+    FakeS3Server(String bucket) throws IOException {
+        this.bucket = bucket;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getRawPath();
+            String bucketPrefix = "/" + bucket;
+            if (!path.startsWith(bucketPrefix)) {
+                sendError(exchange, 404, "NoSuchBucket");
+                return;
+            }
+            String key = URLDecoder.decode(path.substring(bucketPrefix.length()).replaceFirst("^/", ""),
+                    StandardCharsets.UTF_8);
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if (key.isEmpty() && "GET".equals(method)) {
+                listObjects(exchange, query);
+            } else if ("PUT".equals(method)) {
+                String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+                if (copySource != null) {
+                    copyObject(exchange, copySource, key);
+                } else {
+                    putObject(exchange, key);
+                }
+            } else if ("GET".equals(method) || "HEAD".equals(method)) {
+                getObject(exchange, key, "HEAD".equals(method));
+            } else if ("DELETE".equals(method)) {
+                objects.remove(key);
+                exchange.sendResponseHeaders(204, -1);
+            } else {
+                sendError(exchange, 405, "MethodNotAllowed");
+            }
+        }
+    }
+
+    private void putObject(HttpExchange exchange, String key) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (sha != null && sha.startsWith("STREAMING-")) {
+            body = decodeAwsChunked(body);
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        StoredObject object = new StoredObject(body, contentType, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        objects.put(key, object);
+        exchange.getResponseHeaders().add("ETag", object.etag());
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void copyObject(HttpExchange exchange, String copySource, String key) throws IOException {
+        String source = URLDecoder.decode(copySource, StandardCharsets.UTF_8).replaceFirst("^/", "");
+        StoredObject original = objects.get(source.substring(source.indexOf('/') + 1));
+        if (original == null) {
+            sendError(exchange, 404, "NoSuchKey");
+            return;
+        }
+        StoredObject copy = new StoredObject(original.data, original.contentType,
+                Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        objects.put(key, copy);
+        sendXml(exchange, 200, "<CopyObjectResult><ETag>" + copy.etag() + "</ETag><LastModified>"
+                + DateTimeFormatter.ISO_INSTANT.format(copy.lastModified) + "</LastModified></CopyObjectResult>");
+    }
+
+    private void getObject(HttpExchange exchange, String key, boolean headOnly) throws IOException {
+        StoredObject object = objects.get(key);
+        if (object == null) {
+            if (headOnly) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                sendError(exchange, 404, "NoSuchKey");
+            }
+            return;
+        }
+        exchange.getResponseHeaders().add("ETag", object.etag());
+        exchange.getResponseHeaders().add("Last-Modified",
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(object.lastModified.atOffset(ZoneOffset.UTC)));
+        if (object.contentType != null) {
+            exchange.getResponseHeaders().add("Content-Type", object.contentType);
+        }
+        if (headOnly) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.data.length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(200, object.data.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(object.data);
+        }
+    }
+
+    private void listObjects(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String prefix = query.getOrDefault("prefix", "");
+        String delimiter = query.get("delimiter");
+        StringBuilder contents = new StringBuilder();
+        TreeSet<String> commonPrefixes = new TreeSet<>();
+        int count = 0;
+        for (Map.Entry<String, StoredObject> entry : objects.tailMap(prefix).entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+            String rest = key.substring(prefix.length());
+            if (delimiter != null && rest.contains(delimiter)) {
+                commonPrefixes.add(prefix + rest.substring(0, rest.indexOf(delimiter) + delimiter.length()));
+                continue;
+            }
+            StoredObject object = entry.getValue();
+            contents.append("<Contents><Key>").append(key).append("</Key><LastModified>")
+                    .append(DateTimeFormatter.ISO_INSTANT.format(object.lastModified))
+                    .append("</LastModified><ETag>").append(object.etag())
+                    .append("</ETag><Size>").append(object.data.length)
+                    .append("</Size><StorageClass>STANDARD</StorageClass></Contents>");
+            count++;
+        }
+        StringBuilder xml = new StringBuilder("<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">")
+                .append("<Name>").append(bucket).append("</Name><Prefix>").append(prefix).append("</Prefix>")
+                .append("<KeyCount>").append(count).append("</KeyCount><MaxKeys>1000</MaxKeys>")
+                .append("<IsTruncated>false</IsTruncated>").append(contents);
+        for (String commonPrefix : commonPrefixes) {
+            xml.append("<CommonPrefixes><Prefix>").append(commonPrefix).append("</Prefix></CommonPrefixes>");
+        }
+        xml.append("</ListBucketResult>");
+        sendXml(exchange, 200, xml.toString());
+    }
+
+    private void sendError(HttpExchange exchange, int status, String code) throws IOException {
+        sendXml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + code + "</Message></Error>");
+    }
+
+    private void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+        byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Giải mã thân request dạng aws-chunked: "{hex-size};chunk-signature=...\r\n{data}\r\n"
+     */
+    private static byte[] decodeAwsChunked(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int pos = 0;
+        while (pos < body.length) {
+            int lineEnd = indexOfCrlf(body, pos);
+            String header = new String(body, pos, lineEnd - pos, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            pos = lineEnd + 2;
+            if (size == 0) {
+                break;
+            }
+            out.write(body, pos, size);
+            pos += size + 2;
+        }
+        return out.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return data.length;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            query.put(name, value);
+        }
+        return new TreeMap<>(query);
+    }
+
+    private static class StoredObject {
+        private final byte[] data;
+        private final String contentType;
+        private final Instant lastModified;
+
+        StoredObject(byte[] data, String contentType, Instant lastModified) {
+            this.data = data;
+            this.contentType = contentType;
+            this.lastModified = lastModified;
+        }
+
+        String etag() {
+            try {
+                byte[] md5 = MessageDigest.getInstance("MD5").digest(data);
+                return "\"" + HexFormat.of().formatHex(md5) + "\"";
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package mongcai1.thanhniensomongcai1.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class S3BlobStoreTest {
+
+    private static final String BUCKET = "mongcai1-uploads";
+
+    private FakeS3Server server;
+    private S3Client client;
+    private S3Presigner presigner;
+    private S3BlobStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeS3Server(BUCKET);
+        StaticCredentialsProvider credentials =
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("minio", "minio123"));
+        S3Configuration pathStyle = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+        client = S3Client.builder()
+                .endpointOverride(URI.create(server.endpoint()))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        presigner = S3Presigner.builder()
+                .endpointOverride(URI.create(server.endpoint()))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        store = new S3BlobStore(client, presigner, BUCKET, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        presigner.close();
+        server.close();
+    }
+
+    @Test
+    void putGetMoveDeleteRoundTrip() throws IOException {
+        put(store, "anh-cho.jpg", "jpeg-bytes");
+
+        assertTrue(store.exists("anh-cho.jpg"));
+        assertEquals("jpeg-bytes", read(store, "anh-cho.jpg"));
+
+        store.move("anh-cho.jpg", ".quarantine/anh-cho.jpg");
+        assertFalse(store.exists("anh-cho.jpg"));
+        assertEquals("jpeg-bytes", read(store, ".quarantine/anh-cho.jpg"));
+
+        assertTrue(store.delete(".quarantine/anh-cho.jpg"));
+        assertFalse(store.delete(".quarantine/anh-cho.jpg"));
+        assertTrue(store.get(".quarantine/anh-cho.jpg").isEmpty());
+    }
+
+    @Test
+    void listOnlyReturnsDirectChildrenOfPrefix() throws IOException {
+        put(store, "a.png", "a");
+        put(store, "b.png", "bb");
+        put(store, ".quarantine/c.png", "ccc");
+
+        try (Stream<BlobInfo> root = store.list("")) {
+            List<String> keys = root.map(BlobInfo::getKey).collect(Collectors.toList());
+            assertEquals(List.of("a.png", "b.png"), keys);
+        }
+        try (Stream<BlobInfo> quarantine = store.list(".quarantine/")) {
+            List<BlobInfo> blobs = quarantine.collect(Collectors.toList());
+            assertEquals(1, blobs.size());
+            assertEquals("c.png", blobs.get(0).getName());
+            assertEquals(3, blobs.get(0).getSize());
+        }
+    }
+
+    @Test
+    void directUrlIsPresignedAgainstTheConfiguredEndpoint() {
+        Optional<String> url = store.directUrl("a.png", Duration.ofMinutes(15));
+
+        assertTrue(url.isPresent());
+        assertTrue(url.get().startsWith(server.endpoint() + "/" + BUCKET + "/a.png?"));
+        assertTrue(url.get().contains("X-Amz-Signature="));
+        assertTrue(new S3BlobStore(client, presigner, BUCKET, false).directUrl("a.png", Duration.ofMinutes(1)).isEmpty());
+    }
+
+    @Test
+    void cachingStoreServesHotObjectsWithoutRemoteReads() throws IOException {
+        CachingBlobStore cached = new CachingBlobStore(store, 1024, 4096);
+        put(cached, "hot.webp", "hot-image");
+
+        assertEquals("hot-image", read(cached, "hot.webp"));
+        server.close();
+        // The remote store is gone, the second read must come from memory
+        assertEquals("hot-image", read(cached, "hot.webp"));
+        assertEquals(1, cached.getHits());
+        assertEquals(1, cached.getMisses());
+    }
+
+    @Test
+    void cachingStoreStopsRedirectingOnceAnObjectIsHot() throws IOException {
+        CachingBlobStore cached = new CachingBlobStore(store, 16, 4096, 2);
+        put(cached, "small.png", "small");
+        put(cached, "large.png", "larger-than-sixteen-bytes");
+        Duration ttl = Duration.ofMinutes(15);
+
+        // First request is redirected, the second one is served (and cached) by the application
+        assertTrue(cached.directUrl("small.png", ttl).isPresent());
+        assertTrue(cached.directUrl("small.png", ttl).isEmpty());
+        assertEquals("small", read(cached, "small.png"));
+        assertTrue(cached.directUrl("small.png", ttl).isEmpty());
+        assertEquals("small", read(cached, "small.png"));
+        assertEquals(1, cached.getHits());
+
+        // Too large to cache: after one read through the application it goes back to redirects
+        assertTrue(cached.directUrl("large.png", ttl).isPresent());
+        assertTrue(cached.directUrl("large.png", ttl).isEmpty());
+        assertEquals("larger-than-sixteen-bytes", read(cached, "large.png"));
+        assertTrue(cached.directUrl("large.png", ttl).isPresent());
+        assertTrue(cached.directUrl("large.png", ttl).isPresent());
+        assertEquals(4, cached.getRedirects());
+    }
+
+    private static void put(BlobStore target, String key, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        target.put(key, new ByteArrayInputStream(bytes), bytes.length, BlobStore.contentTypeFor(key));
+    }
+
+    private static String read(BlobStore source, String key) throws IOException {
+        try (Blob blob = source.get(key).orElseThrow()) {
+            return new String(blob.getStream().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}